@@ -0,0 +1,77 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network;
+
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class that stores the partial statistics computed by a slave on the trajectories of a {@link NetworkTask}.
+ * Its size depends only on the number of measures and of sampling points, and not on the number of replicas.
+ */
+public class AggregatedComputationResult implements Serializable {
+    private static final long serialVersionUID = 4209378452384817592L;
+
+    /**
+     * Number of tasks whose trajectories have been aggregated
+     */
+    private final int numberOfTasks;
+
+    /**
+     * Partial results, indexed by measure name
+     */
+    private final HashMap<String, Serializable> partialResults;
+
+    /**
+     * Creates a new AggregatedComputationResult
+     *
+     * @param numberOfTasks  number of tasks whose trajectories have been aggregated
+     * @param partialResults partial results returned by {@link MergeableSamplingFunction#getPartialResults()}
+     */
+    public AggregatedComputationResult(int numberOfTasks, Map<String, Serializable> partialResults) {
+        this.numberOfTasks = numberOfTasks;
+        this.partialResults = new HashMap<>(partialResults);
+    }
+
+    /**
+     * Returns the number of tasks whose trajectories have been aggregated
+     *
+     * @return number of tasks whose trajectories have been aggregated
+     */
+    public int getNumberOfTasks() {
+        return numberOfTasks;
+    }
+
+    /**
+     * Returns the partial results, indexed by measure name
+     *
+     * @return partial results, indexed by measure name
+     */
+    public Map<String, Serializable> getPartialResults() {
+        return partialResults;
+    }
+
+}
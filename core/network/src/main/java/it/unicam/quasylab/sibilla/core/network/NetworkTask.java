@@ -25,6 +25,7 @@ package it.unicam.quasylab.sibilla.core.network;
 
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
 
 import java.io.Serializable;
 import java.util.List;
@@ -45,13 +46,31 @@ public class NetworkTask<S extends State> implements Serializable {
      */
     private final List<SimulationTask<S>> tasks;
 
+    /**
+     * Sampling function used by the slave server to aggregate the sampled trajectories,
+     * null if trajectories are not aggregated by the slave server
+     */
+    private final MergeableSamplingFunction<S> samplingFunction;
+
     /**
      * Creates a NetworkTask object from a list of tasks
      *
      * @param tasks list of tasks to be executed by a slave server
      */
     public NetworkTask(List<SimulationTask<S>> tasks) {
+        this(tasks, null);
+    }
+
+    /**
+     * Creates a NetworkTask object from a list of tasks whose trajectories are aggregated by the slave server
+     * with the given sampling function
+     *
+     * @param tasks            list of tasks to be executed by a slave server
+     * @param samplingFunction sampling function, without collected data, used to aggregate the trajectories
+     */
+    public NetworkTask(List<SimulationTask<S>> tasks, MergeableSamplingFunction<S> samplingFunction) {
         this.tasks = tasks;
+        this.samplingFunction = samplingFunction;
     }
 
     /**
@@ -63,4 +82,22 @@ public class NetworkTask<S extends State> implements Serializable {
         return tasks;
     }
 
+    /**
+     * Returns the sampling function used by the slave server to aggregate the sampled trajectories
+     *
+     * @return sampling function used to aggregate the sampled trajectories, null if trajectories are not aggregated
+     */
+    public MergeableSamplingFunction<S> getSamplingFunction() {
+        return samplingFunction;
+    }
+
+    /**
+     * Returns true if the slave server has to send back only the aggregated results
+     *
+     * @return true if the slave server has to send back only the aggregated results
+     */
+    public boolean isAggregated() {
+        return samplingFunction != null;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.benchmark.master;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Extension of {@link MasterBenchmarkEnvironment} that deserializes {@link ComputationResult} objects directly from the
+ * buffers filled by the network manager.
+ * Compared with {@link CustomMasterBenchmarkEnvironment} over the {@link it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType#DEFAULT}
+ * network manager, it measures the throughput of the NIO based network managers.
+ *
+ * @param <S> {@link State} related to the {@link ComputationResult} objects received from the Slave.
+ */
+public class BufferMasterBenchmarkEnvironment<S extends State> extends MasterBenchmarkEnvironment {
+    private final Model<S> model;
+
+    public BufferMasterBenchmarkEnvironment(String benchmarkName, NetworkInfo slaveInfo, ComputationResultSerializerType type, Model model, int step, int threshold, int repetitions, int resultsSize) throws IOException {
+        super(benchmarkName, slaveInfo, type, step, threshold, repetitions, resultsSize);
+        this.model = model;
+    }
+
+    public BufferMasterBenchmarkEnvironment(TCPNetworkManager networkManager, String benchmarkName, ComputationResultSerializerType type, Model model, int step, int threshold, int repetitions, int resultsSize) throws IOException {
+        super(networkManager, benchmarkName, type, step, threshold, repetitions, resultsSize);
+        this.model = model;
+    }
+
+    @Override
+    protected ComputationResult receive(int currentRepetition) throws IOException {
+        ByteBuffer received = netManager.readBuffer();
+        LOGGER.info(String.format("[%d] %s received - Bytes: %d", currentRepetition, this.benchmarkType.toString(), received.remaining()));
+        return deserialize(received, currentRepetition);
+    }
+
+    @Override
+    protected ComputationResult deserializeAndDecompress(byte[] bytes, int currentRepetition) {
+        return deserialize(ByteBuffer.wrap(bytes), currentRepetition);
+    }
+
+    private ComputationResult<S> deserialize(ByteBuffer received, int currentRepetition) {
+        final var wrapper = new Object() {
+            private ComputationResult<S> results;
+        };
+        int bytes = received.remaining();
+
+        this.mainBenchmarkUnit.run(() -> {
+                    // Frames are inflated by the network manager while they are read.
+                    return List.of();
+                }, () -> {
+                    wrapper.results = ComputationResultSerializer.deserialize(received, this.model);
+                    LOGGER.info(String.format("[%d] Buffer %s deserialized - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, wrapper.results.getResults().size(), bytes));
+                    return List.of((double) wrapper.results.getResults().size());
+                }
+        );
+
+        return wrapper.results;
+    }
+
+}
@@ -55,7 +55,7 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
     protected BenchmarkUnit sendBenchmarkUnit;
     private final Serializer serializer;
     protected Logger LOGGER;
-    private final TCPNetworkManager netManager;
+    protected final TCPNetworkManager netManager;
     protected final String benchmarkName;
     private final int step;
     private final int threshold;
@@ -107,6 +107,8 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
                 return new ApacheMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, step, threshold, repetitions, resultsSize);
             case CUSTOM:
                 return new CustomMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, model, step, threshold, repetitions, resultsSize);
+            case BUFFER:
+                return new BufferMasterBenchmarkEnvironment<>(benchmarkName, slaveInfo, type, model, step, threshold, repetitions, resultsSize);
         }
         return null;
     }
@@ -134,6 +136,8 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
                 return new ApacheMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, step, threshold, repetitions, resultsSize);
             case CUSTOM:
                 return new CustomMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, model, step, threshold, repetitions, resultsSize);
+            case BUFFER:
+                return new BufferMasterBenchmarkEnvironment<>(networkManager, benchmarkName, type, model, step, threshold, repetitions, resultsSize);
         }
         return null;
     }
@@ -152,7 +156,7 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
     private BenchmarkUnit getSendBenchmarkUnit() {
         return new BenchmarkUnit(
                 this.getDirectory(),
-                String.format("%s_sendAndReceive", this.getSerializerName()),
+                String.format("%s_%s_sendAndReceive", this.getSerializerName(), this.netManager.getType()),
                 this.getBenchmarkExtension(),
                 this.getMainLabel(),
                 this.getSendBenchmarkLabels()
@@ -186,8 +190,7 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
                     ComputationResult<S> results = new ComputationResult<S>(new LinkedList<>());
 
                     while (receivedTrajectoriesCount < this.sentTasksCount) {
-                        byte[] receivedBytes = read(currentRepetition.get());
-                        ComputationResult<S> receivedResults = this.deserializeAndDecompress(receivedBytes, currentRepetition.get());
+                        ComputationResult<S> receivedResults = this.receive(currentRepetition.get());
                         results.add(receivedResults);
                         receivedTrajectoriesCount = results.getResults().size();
                         LOGGER.info(String.format("[%d] Trajectories received [%d] Total trajectories received [%d/%d]", currentRepetition.get(), receivedResults.getResults().size(), receivedTrajectoriesCount, this.sentTasksCount));
@@ -206,6 +209,18 @@ public abstract class MasterBenchmarkEnvironment<S extends State> {
         netManager.closeConnection();
     }
 
+    /**
+     * Receives a {@link ComputationResult} object from the Slave Server benchmark environment.
+     * By default the received bytes are passed to {@link #deserializeAndDecompress(byte[], int)}.
+     *
+     * @param currentRepetition
+     * @return the received {@link ComputationResult} object
+     * @throws IOException
+     */
+    protected ComputationResult<S> receive(int currentRepetition) throws IOException {
+        return this.deserializeAndDecompress(read(currentRepetition), currentRepetition);
+    }
+
     private byte[] read(int currentRepetition) throws IOException {
         byte[] toReturn = netManager.readObject();
         LOGGER.info(String.format("[%d] %s compressed received - Bytes: %d", currentRepetition, this.benchmarkType.toString(), toReturn.length));
@@ -0,0 +1,85 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.benchmark.slave;
+
+import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.ComputationResult;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.communication.BufferPool;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Extension of {@link SlaveBenchmarkEnvironment} that serializes {@link ComputationResult} objects directly into pooled
+ * buffers that are handed to the network manager.
+ * Compared with {@link CustomSlaveBenchmarkEnvironment} over the {@link it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType#DEFAULT}
+ * network manager, it measures the throughput of the NIO based network managers.
+ *
+ * @param <S> {@link State} related to the {@link ComputationResult} objects to send to the Master.
+ */
+public class BufferSlaveBenchmarkEnvironment<S extends State> extends SlaveBenchmarkEnvironment {
+
+
+    public BufferSlaveBenchmarkEnvironment(String benchmarkName, String trajectoryFileDir, String trajectoryFileName, NetworkInfo localInfo, Model<S> model, ComputationResultSerializerType type) throws IOException {
+        super(benchmarkName, trajectoryFileDir, trajectoryFileName, localInfo, type, model);
+    }
+
+    public BufferSlaveBenchmarkEnvironment(TCPNetworkManager networkManager, String benchmarkName, String trajectoryFileDir, String trajectoryFileName, Model<S> model, ComputationResultSerializerType type) throws IOException {
+        super(networkManager, benchmarkName, trajectoryFileDir, trajectoryFileName, type, model);
+    }
+
+
+    @Override
+    protected void serializeCompressAndSend(ComputationResult computationResult, int currentRepetition) {
+        final var wrapper = new Object() {
+            private ByteBuffer toSend;
+        };
+
+        this.mainBenchmarkUnit.run(() -> {
+                    int size = ComputationResultSerializer.serializedSize(computationResult, this.model);
+                    wrapper.toSend = BufferPool.getInstance().acquire(size);
+                    ComputationResultSerializer.serialize(wrapper.toSend, computationResult, this.model);
+                    wrapper.toSend.flip();
+                    LOGGER.info(String.format("[%d] Buffer Serialization %s - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, computationResult.getResults().size(), size));
+                    return List.of((double) computationResult.getResults().size(), (double) size);
+                },
+                () -> {
+                    // Frames are compressed by the network manager while they are sent.
+                    return List.of((double) wrapper.toSend.remaining());
+                },
+                () -> {
+                    int size = wrapper.toSend.remaining();
+                    netManager.writeBuffers(wrapper.toSend);
+                    BufferPool.getInstance().release(wrapper.toSend);
+                    LOGGER.info(String.format("[%d] Buffer %s Sent - Size: %d - Bytes: %d", currentRepetition, this.benchmarkName, computationResult.getResults().size(), size));
+                    return List.of();
+                });
+    }
+
+}
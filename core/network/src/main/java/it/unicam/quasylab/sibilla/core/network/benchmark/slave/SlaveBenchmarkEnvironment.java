@@ -87,12 +87,11 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
         this.trajectoryFileName = trajectoryFileName;
         this.computationResultSerializerType = computationResultSerializerType;
         this.mainBenchmarkUnit = getMainBenchmarkUnit();
+        netManager = networkManager;
         this.sendBenchmarkUnit = getSendBenchmarkUnit();
         serializer = Serializer.getSerializer(SerializerType.FST);
         this.LOGGER = HostLoggerSupplier.getInstance("Slave Benchmark").getLogger();
         this.currentTasksCount = 0;
-
-        netManager = networkManager;
     }
 
     /**
@@ -121,6 +120,9 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
             case CUSTOM:
                 return new CustomSlaveBenchmarkEnvironment<>(benchmarkName, trajectoryFileDir, trajectoryFileName,
                         localInfo, model, type);
+            case BUFFER:
+                return new BufferSlaveBenchmarkEnvironment<>(benchmarkName, trajectoryFileDir, trajectoryFileName,
+                        localInfo, model, type);
         }
         return null;
     }
@@ -151,6 +153,9 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
             case CUSTOM:
                 return new CustomSlaveBenchmarkEnvironment<>(networkManager, benchmarkName, trajectoryFileDir,
                         trajectoryFileName, model, type);
+            case BUFFER:
+                return new BufferSlaveBenchmarkEnvironment<>(networkManager, benchmarkName, trajectoryFileDir,
+                        trajectoryFileName, model, type);
         }
         return null;
     }
@@ -210,7 +215,7 @@ public abstract class SlaveBenchmarkEnvironment<S extends State> {
     private BenchmarkUnit getSendBenchmarkUnit() {
         return new BenchmarkUnit(
                 this.getDirectory(),
-                String.format("%s_receiveAndSend", this.getSerializerName()),
+                String.format("%s_%s_receiveAndSend", this.getSerializerName(), this.netManager.getType()),
                 this.getBenchmarkExtension(),
                 this.getMainLabel(),
                 this.getSendBenchmarkLabels()
@@ -0,0 +1,134 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Pool of direct {@link ByteBuffer} used to read and write network frames without allocating
+ * a new buffer for each message. Buffers are grouped in power of two size classes; buffers larger
+ * than the biggest class are allocated on demand and never retained.
+ */
+public final class BufferPool {
+
+    /**
+     * Logarithm of the capacity of the smallest pooled buffer.
+     */
+    private static final int MIN_SHIFT = 12;
+
+    /**
+     * Logarithm of the capacity of the largest pooled buffer.
+     */
+    private static final int MAX_SHIFT = 26;
+
+    /**
+     * Maximum number of idle buffers retained for each size class.
+     */
+    private static final int MAX_IDLE_BUFFERS = 8;
+
+    private static final BufferPool INSTANCE = new BufferPool();
+
+    private final ConcurrentLinkedQueue<ByteBuffer>[] idleBuffers;
+    private final AtomicIntegerArray idleCounters;
+
+    @SuppressWarnings("unchecked")
+    private BufferPool() {
+        this.idleBuffers = new ConcurrentLinkedQueue[MAX_SHIFT - MIN_SHIFT + 1];
+        for (int i = 0; i < idleBuffers.length; i++) {
+            idleBuffers[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.idleCounters = new AtomicIntegerArray(idleBuffers.length);
+    }
+
+    /**
+     * @return the pool shared by all the network managers.
+     */
+    public static BufferPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a cleared direct buffer whose capacity is at least the given one.
+     *
+     * @param capacity minimal capacity of the buffer
+     * @return a cleared direct buffer whose capacity is at least <code>capacity</code>
+     */
+    public ByteBuffer acquire(int capacity) {
+        int sizeClass = sizeClassOf(capacity);
+        if (sizeClass >= idleBuffers.length) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        ByteBuffer buffer = idleBuffers[sizeClass].poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SHIFT));
+        }
+        idleCounters.decrementAndGet(sizeClass);
+        return buffer.clear();
+    }
+
+    /**
+     * Gives back to the pool a buffer obtained via {@link #acquire(int)}. The buffer must not be used after
+     * this method is invoked.
+     *
+     * @param buffer the buffer to give back
+     */
+    public void release(ByteBuffer buffer) {
+        if ((buffer == null) || !buffer.isDirect() || (Integer.bitCount(buffer.capacity()) != 1)) {
+            return;
+        }
+        int sizeClass = sizeClassOf(buffer.capacity());
+        if ((sizeClass < idleBuffers.length) && (idleCounters.incrementAndGet(sizeClass) <= MAX_IDLE_BUFFERS)) {
+            idleBuffers[sizeClass].add(buffer);
+        } else if (sizeClass < idleBuffers.length) {
+            idleCounters.decrementAndGet(sizeClass);
+        }
+    }
+
+    /**
+     * Returns a buffer containing the data of the given one and with at least the given capacity. When a new buffer
+     * is needed, the given one is released.
+     *
+     * @param buffer   a buffer obtained via {@link #acquire(int)} in write mode
+     * @param capacity the required capacity
+     * @return a buffer in write mode with the same content of the given one and at least the given capacity
+     */
+    public ByteBuffer ensureCapacity(ByteBuffer buffer, int capacity) {
+        if ((buffer != null) && (buffer.capacity() >= capacity)) {
+            return buffer;
+        }
+        ByteBuffer result = acquire(capacity);
+        if (buffer != null) {
+            result.put(buffer.flip());
+            release(buffer);
+        }
+        return result;
+    }
+
+    private static int sizeClassOf(int capacity) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 1) - 1);
+        return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+    }
+
+}
@@ -28,6 +28,7 @@ import java.net.Socket;
 
 /**
  * Simple TCP based communication class.
+ * Reads and writes are guarded by two distinct locks, so that the manager is full duplex.
  *
  * @author Belenchia Matteo
  * @author Stelluti Francesco Pio
@@ -38,6 +39,8 @@ public class TCPDefaultNetworkManager implements TCPNetworkManager {
     private final Socket socket;
     private final DataInputStream dataInputStream;
     private final DataOutputStream dataOutputStream;
+    private final Object readLock = new Object();
+    private final Object writeLock = new Object();
 
     /**
      * Initiates the manager.
@@ -55,20 +58,24 @@ public class TCPDefaultNetworkManager implements TCPNetworkManager {
 
     @Override
     public byte[] readObject() throws IOException {
-        int length = dataInputStream.readInt();
-        byte[] message = null;
-        if (length > 0) {
-            message = new byte[length];
-            dataInputStream.readFully(message, 0, length);
+        synchronized (readLock) {
+            int length = dataInputStream.readInt();
+            byte[] message = null;
+            if (length > 0) {
+                message = new byte[length];
+                dataInputStream.readFully(message, 0, length);
+            }
+            return message;
         }
-        return message;
     }
 
     @Override
     public void writeObject(byte[] toWrite) throws IOException {
-        dataOutputStream.writeInt(toWrite.length);
-        dataOutputStream.write(toWrite);
-        dataOutputStream.flush();
+        synchronized (writeLock) {
+            dataOutputStream.writeInt(toWrite.length);
+            dataOutputStream.write(toWrite);
+            dataOutputStream.flush();
+        }
     }
 
     @Override
@@ -31,11 +31,18 @@ import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLServerSocket;
 import javax.net.ssl.SSLServerSocketFactory;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
 
 /**
  * Interface that needs to be extended from all of the communication related classes that are based upon the TCP transport protocol.
+ * <br>
+ * Implementations are full duplex: one thread may read from the connection while another one writes to it.
+ * Concurrent reads, as well as concurrent writes, are serialized by the manager, so that messages are never
+ * interleaved. {@link #closeConnection()} may be invoked while a read or a write is in progress and wakes it up.
  *
  * @author Belenchia Matteo
  * @author Stelluti Francesco Pio
@@ -55,6 +62,9 @@ public interface TCPNetworkManager {
         if (info.getType() == TCPNetworkManagerType.SECURE) {
             return new TCPSecureNetworkManager(info);
         }
+        if ((info.getType() == TCPNetworkManagerType.NIO) || (info.getType() == TCPNetworkManagerType.NIO_DEFLATE)) {
+            return new TCPNioNetworkManager(info);
+        }
         Socket socket = new Socket(info.getAddress(), info.getPort());
         return createNetworkManager((TCPNetworkManagerType) info.getType(), socket);
     }
@@ -72,6 +82,9 @@ public interface TCPNetworkManager {
         switch (networkType) {
             case SECURE:
                 return new TCPSecureNetworkManager(socket);
+            case NIO:
+            case NIO_DEFLATE:
+                return new TCPNioNetworkManager(socket, networkType);
             case DEFAULT:
             default:
                 return new TCPDefaultNetworkManager(socket);
@@ -95,6 +108,9 @@ public interface TCPNetworkManager {
                 SSLServerSocket sslServerSocket = (SSLServerSocket) sslServerSocketFactory.createServerSocket(port);
                 sslServerSocket.setNeedClientAuth(true);
                 return sslServerSocket;
+            case NIO:
+            case NIO_DEFLATE:
+                return ServerSocketChannel.open().bind(new InetSocketAddress(port)).socket();
             case DEFAULT:
             default:
                 return new ServerSocket(port);
@@ -103,7 +119,7 @@ public interface TCPNetworkManager {
     }
 
     /**
-     * Reads incoming data from the network.
+     * Reads incoming data from the network. It may run concurrently with a write.
      *
      * @return byte array of the data read from the network
      * @throws IOException
@@ -111,13 +127,47 @@ public interface TCPNetworkManager {
     byte[] readObject() throws IOException;
 
     /**
-     * Sends data through the network.
+     * Sends data through the network. It may run concurrently with a read.
      *
      * @param toWrite byte array of data that will be sent over
      * @throws IOException
      */
     void writeObject(byte[] toWrite) throws IOException;
 
+    /**
+     * Reads incoming data from the network into a buffer. The returned buffer may be reused by the manager,
+     * hence its content is only valid until the next read operation.
+     *
+     * @return buffer containing the data read from the network
+     * @throws IOException
+     */
+    default ByteBuffer readBuffer() throws IOException {
+        byte[] message = readObject();
+        return (message == null) ? ByteBuffer.allocate(0) : ByteBuffer.wrap(message);
+    }
+
+    /**
+     * Sends the remaining content of the given buffers through the network as a single message.
+     * The content of the buffers is consumed.
+     *
+     * @param buffers buffers containing the data that will be sent over
+     * @throws IOException
+     */
+    default void writeBuffers(ByteBuffer... buffers) throws IOException {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+        byte[] toWrite = new byte[length];
+        int offset = 0;
+        for (ByteBuffer buffer : buffers) {
+            int remaining = buffer.remaining();
+            buffer.get(toWrite, offset, remaining);
+            offset += remaining;
+        }
+        writeObject(toWrite);
+    }
+
     /**
      * @return the Socket upon which is based the network communication.
      */
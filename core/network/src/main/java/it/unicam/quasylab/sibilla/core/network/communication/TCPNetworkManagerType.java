@@ -38,5 +38,13 @@ public enum TCPNetworkManagerType implements NetworkManagerType {
     /**
      * The implementation that relies upon SSL.
      */
-    SECURE
+    SECURE,
+    /**
+     * The implementation based upon NIO socket channels, pooled direct buffers and gathering writes.
+     */
+    NIO,
+    /**
+     * The NIO based implementation whose frames are compressed with a streaming deflater.
+     */
+    NIO_DEFLATE
 }
\ No newline at end of file
@@ -0,0 +1,332 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * TCP based communication class built upon NIO {@link SocketChannel}.
+ * Each message is sent as a frame made of an 8 bytes header, containing the length of the payload on the wire and
+ * the length of the uncompressed payload (or -1 when the payload is not compressed), followed by the payload itself.
+ * Header and payload are sent with a single gathering write, while received frames are stored in pooled direct buffers.
+ * When the type of the manager is {@link TCPNetworkManagerType#NIO_DEFLATE} frames are compressed with a deflater
+ * whose dictionary is shared by all the frames sent over the connection.
+ * The read timeout set on the socket returned by {@link #getSocket()} is honoured.
+ * <br>
+ * The manager is full duplex: reads and writes are guarded by two distinct locks and wait for the readiness of the
+ * channel on two distinct selectors, so that a thread blocked while reading never prevents another thread from
+ * writing, and vice versa.
+ */
+public class TCPNioNetworkManager implements TCPNetworkManager {
+
+    /**
+     * Size in bytes of the header of each frame.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * Frames whose payload is smaller than this size are never compressed.
+     */
+    private static final int MIN_COMPRESSED_SIZE = 256;
+
+    private final SocketChannel channel;
+    private final TCPNetworkManagerType type;
+    private final Object readLock = new Object();
+    private final Object writeLock = new Object();
+    private final Selector readSelector;
+    private final SelectionKey readKey;
+    private final Selector writeSelector;
+    private final SelectionKey writeKey;
+    private final BufferPool bufferPool;
+    private final ByteBuffer writeHeader;
+    private final ByteBuffer readHeader;
+    private final Deflater deflater;
+    private final Inflater inflater;
+    private ByteBuffer frameBuffer;
+    private ByteBuffer messageBuffer;
+
+    /**
+     * Opens a new connection toward the given host.
+     *
+     * @param info The network related infos about the connection that the manager will manage
+     * @throws IOException
+     */
+    public TCPNioNetworkManager(NetworkInfo info) throws IOException {
+        this(SocketChannel.open(new InetSocketAddress(info.getAddress(), info.getPort())), (TCPNetworkManagerType) info.getType());
+    }
+
+    /**
+     * Initiates the manager.
+     * The socket upon which the communication is based has already been built and it must be associated with a
+     * {@link SocketChannel}, as the ones accepted by the server sockets returned by
+     * {@link TCPNetworkManager#createServerSocket(TCPNetworkManagerType, int)}.
+     *
+     * @param socket upon which the network communication will be based
+     * @param type   either {@link TCPNetworkManagerType#NIO} or {@link TCPNetworkManagerType#NIO_DEFLATE}
+     * @throws IOException
+     */
+    public TCPNioNetworkManager(Socket socket, TCPNetworkManagerType type) throws IOException {
+        this(channelOf(socket), type);
+    }
+
+    private TCPNioNetworkManager(SocketChannel channel, TCPNetworkManagerType type) throws IOException {
+        this.channel = channel;
+        this.type = type;
+        this.channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        this.channel.configureBlocking(false);
+        this.readSelector = Selector.open();
+        this.readKey = channel.register(readSelector, 0);
+        this.writeSelector = Selector.open();
+        this.writeKey = channel.register(writeSelector, 0);
+        this.bufferPool = BufferPool.getInstance();
+        this.writeHeader = ByteBuffer.allocateDirect(HEADER_SIZE);
+        this.readHeader = ByteBuffer.allocateDirect(HEADER_SIZE);
+        if (type == TCPNetworkManagerType.NIO_DEFLATE) {
+            this.deflater = new Deflater(Deflater.BEST_SPEED, true);
+            this.inflater = new Inflater(true);
+        } else {
+            this.deflater = null;
+            this.inflater = null;
+        }
+    }
+
+    private static SocketChannel channelOf(Socket socket) throws IOException {
+        SocketChannel channel = socket.getChannel();
+        if (channel == null) {
+            throw new IOException("The socket is not associated with a channel");
+        }
+        return channel;
+    }
+
+    @Override
+    public byte[] readObject() throws IOException {
+        ByteBuffer message = readBuffer();
+        if (!message.hasRemaining()) {
+            return null;
+        }
+        byte[] toReturn = new byte[message.remaining()];
+        message.get(toReturn);
+        return toReturn;
+    }
+
+    @Override
+    public void writeObject(byte[] toWrite) throws IOException {
+        writeBuffers(ByteBuffer.wrap(toWrite));
+    }
+
+    @Override
+    public ByteBuffer readBuffer() throws IOException {
+        synchronized (readLock) {
+            return readFrame();
+        }
+    }
+
+    private ByteBuffer readFrame() throws IOException {
+        readHeader.clear();
+        readFully(readHeader);
+        int length = readHeader.getInt(0);
+        int originalLength = readHeader.getInt(4);
+        frameBuffer = reserve(frameBuffer, length);
+        readFully(frameBuffer);
+        frameBuffer.flip();
+        if (originalLength < 0) {
+            return frameBuffer;
+        }
+        if (inflater == null) {
+            throw new IOException("Received a compressed frame on a connection that does not support compression");
+        }
+        messageBuffer = reserve(messageBuffer, originalLength);
+        inflater.setInput(frameBuffer);
+        try {
+            while (messageBuffer.hasRemaining()) {
+                if (inflater.inflate(messageBuffer) == 0 && (inflater.needsInput() || inflater.finished())) {
+                    throw new IOException("Truncated compressed frame");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+        return messageBuffer.flip();
+    }
+
+    @Override
+    public void writeBuffers(ByteBuffer... buffers) throws IOException {
+        synchronized (writeLock) {
+            writeFrame(buffers);
+        }
+    }
+
+    private void writeFrame(ByteBuffer[] buffers) throws IOException {
+        int length = 0;
+        for (ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+        if ((deflater != null) && (length >= MIN_COMPRESSED_SIZE)) {
+            writeCompressed(buffers, length);
+        } else {
+            ByteBuffer[] frame = new ByteBuffer[buffers.length + 1];
+            frame[0] = header(length, -1);
+            System.arraycopy(buffers, 0, frame, 1, buffers.length);
+            writeFully(frame);
+        }
+    }
+
+    private void writeCompressed(ByteBuffer[] buffers, int length) throws IOException {
+        ByteBuffer compressed = bufferPool.acquire(length / 2 + 64);
+        try {
+            for (ByteBuffer buffer : buffers) {
+                deflater.setInput(buffer);
+                while (!deflater.needsInput()) {
+                    compressed = deflateInto(compressed, Deflater.NO_FLUSH);
+                }
+            }
+            do {
+                compressed = deflateInto(compressed, Deflater.SYNC_FLUSH);
+            } while (!compressed.hasRemaining());
+            compressed.flip();
+            writeFully(new ByteBuffer[]{header(compressed.remaining(), length), compressed});
+        } finally {
+            bufferPool.release(compressed);
+        }
+    }
+
+    private ByteBuffer reserve(ByteBuffer buffer, int length) {
+        if ((buffer == null) || (buffer.capacity() < length)) {
+            bufferPool.release(buffer);
+            buffer = bufferPool.acquire(length);
+        }
+        buffer.clear().limit(length);
+        return buffer;
+    }
+
+    private ByteBuffer deflateInto(ByteBuffer compressed, int flush) {
+        if (!compressed.hasRemaining()) {
+            compressed = bufferPool.ensureCapacity(compressed, compressed.capacity() * 2);
+        }
+        deflater.deflate(compressed, flush);
+        return compressed;
+    }
+
+    private ByteBuffer header(int length, int originalLength) {
+        writeHeader.clear();
+        writeHeader.putInt(length).putInt(originalLength);
+        return writeHeader.flip();
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            if (read == 0) {
+                await(readSelector, readKey, SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer[] frame) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : frame) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            long written = channel.write(frame);
+            if (written == 0) {
+                await(writeSelector, writeKey, SelectionKey.OP_WRITE);
+            }
+            remaining -= written;
+        }
+    }
+
+    private void await(Selector selector, SelectionKey key, int operation) throws IOException {
+        int selected;
+        int timeout = channel.socket().getSoTimeout();
+        try {
+            key.interestOps(operation);
+            selected = selector.select(timeout);
+            selector.selectedKeys().clear();
+            key.interestOps(0);
+        } catch (ClosedSelectorException | CancelledKeyException e) {
+            throw new AsynchronousCloseException();
+        }
+        if ((selected == 0) && (timeout > 0)) {
+            throw new SocketTimeoutException();
+        }
+    }
+
+    @Override
+    public Socket getSocket() {
+        return channel.socket();
+    }
+
+    /**
+     * Closes the connection. Threads blocked while reading or writing are woken up and fail with an exception; buffers
+     * and compression resources are released once they have left the manager.
+     *
+     * @throws IOException
+     */
+    @Override
+    public void closeConnection() throws IOException {
+        this.readSelector.close();
+        this.writeSelector.close();
+        this.channel.close();
+        synchronized (readLock) {
+            this.bufferPool.release(frameBuffer);
+            this.bufferPool.release(messageBuffer);
+            this.frameBuffer = null;
+            this.messageBuffer = null;
+            if (inflater != null) {
+                this.inflater.end();
+            }
+        }
+        synchronized (writeLock) {
+            if (deflater != null) {
+                this.deflater.end();
+            }
+        }
+    }
+
+    @Override
+    public TCPNetworkManagerType getType() {
+        return type;
+    }
+
+}
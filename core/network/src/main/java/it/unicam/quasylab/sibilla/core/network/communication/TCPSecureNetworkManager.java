@@ -37,6 +37,7 @@ import java.util.logging.Logger;
 
 /**
  * TCP based communication class that relies on TLS protocol.
+ * Reads and writes are guarded by two distinct locks, so that the manager is full duplex.
  *
  * @author Stelluti Francesco Pio
  * @author Zamponi Marco
@@ -48,6 +49,8 @@ public class TCPSecureNetworkManager implements TCPNetworkManager {
     private Socket socket;
     private DataInputStream dataInputStream;
     private DataOutputStream dataOutputStream;
+    private final Object readLock = new Object();
+    private final Object writeLock = new Object();
 
 
     /**
@@ -108,20 +111,24 @@ public class TCPSecureNetworkManager implements TCPNetworkManager {
 
     @Override
     public byte[] readObject() throws IOException {
-        int length = dataInputStream.readInt();
-        byte[] message = null;
-        if (length > 0) {
-            message = new byte[length];
-            dataInputStream.readFully(message, 0, length);
+        synchronized (readLock) {
+            int length = dataInputStream.readInt();
+            byte[] message = null;
+            if (length > 0) {
+                message = new byte[length];
+                dataInputStream.readFully(message, 0, length);
+            }
+            return message;
         }
-        return message;
     }
 
     @Override
     public void writeObject(byte[] toWrite) throws IOException {
-        dataOutputStream.writeInt(toWrite.length);
-        dataOutputStream.write(toWrite);
-        dataOutputStream.flush();
+        synchronized (writeLock) {
+            dataOutputStream.writeInt(toWrite.length);
+            dataOutputStream.write(toWrite);
+            dataOutputStream.flush();
+        }
     }
 
     @Override
@@ -24,8 +24,9 @@
 package it.unicam.quasylab.sibilla.core.network.loaders;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
 
 /**
  * Utility class used to load the data associated to a .class file into the memory.
@@ -37,11 +38,13 @@ import java.util.Map;
 
 public class CustomClassLoader extends ClassLoader {
 
+    private static final Logger LOGGER = Logger.getLogger(CustomClassLoader.class.getName());
+
     /**
      * Map that contains the names of all the classes loaded into memory through this loader.
      * All the names are associated with the byte array containing the datas of the .class file of the class related to the given name.
      */
-    private static final Map<String, byte[]> classes = new HashMap<>();
+    private static final Map<String, byte[]> classes = new ConcurrentHashMap<>();
 
     /**
      * Retrieves the byte array associated to a class name that was previously loaded through this loader.
@@ -53,6 +56,16 @@ public class CustomClassLoader extends ClassLoader {
         return classes.get(className);
     }
 
+    /**
+     * Associates a byte array to a class name that was previously loaded through this loader, without loading it again.
+     *
+     * @param className the name of the class.
+     * @param b         byte array containing the data of the class.
+     */
+    public static void putClassBytes(String className, byte[] b) {
+        classes.put(className, b);
+    }
+
     /**
      * Deletes the byte array associated to a class name that was previously loaded through this loader.
      *
@@ -64,20 +77,25 @@ public class CustomClassLoader extends ClassLoader {
     }
 
     /**
-     * Loads into memory the data associated to a .class file
+     * Loads into memory the data associated to a .class file. The data is associated to the class name only if the
+     * class is successfully defined.
      *
      * @param name of the class to be loaded in memory.
      * @param b    byte array containing the data of the class to be loaded in memory.
+     * @return true if the class has been defined, false otherwise (for instance, when a class with the same name is
+     * already defined).
      */
-    public static void defClass(String name, byte[] b) {
+    public static boolean defClass(String name, byte[] b) {
         try {
             Method m = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class, int.class,
                     int.class);
             m.setAccessible(true);
-            classes.put(name, b);
             m.invoke(ClassLoader.getSystemClassLoader(), name, b, 0, b.length);
-        } catch (Exception e) {
-            e.printStackTrace();
+            classes.put(name, b);
+            return true;
+        } catch (Exception | LinkageError e) {
+            LOGGER.warning(String.format("[%s] Class %s has not been defined", e, name));
+            return false;
         }
     }
-}
\ No newline at end of file
+}
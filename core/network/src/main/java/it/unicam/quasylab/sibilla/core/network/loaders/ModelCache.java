@@ -0,0 +1,259 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Cache of the simulation models loaded through the {@link CustomClassLoader}, indexed by the hash of the content of
+ * their .class file. Loaded models are kept across simulation sessions, so that a master server that sends again the
+ * same model only needs to send its hash. Models are evicted in least recently used order when the cache holds more
+ * than {@link #MAX_ENTRIES} models or more than {@link #MAX_BYTES} bytes of class data; the class data of evicted
+ * models is removed from the {@link CustomClassLoader}.
+ */
+public class ModelCache {
+
+    /**
+     * Maximum number of models kept in the cache.
+     */
+    public static final int MAX_ENTRIES = 64;
+
+    /**
+     * Maximum number of bytes of class data kept in the cache.
+     */
+    public static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    private static ModelCache instance;
+
+    /**
+     * Cached models, in least recently used order.
+     */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Hash of the content of the last .class file loaded for each class name.
+     */
+    private final Map<String, String> loadedHashes = new HashMap<>();
+
+    /**
+     * Number of bytes of class data kept in the cache.
+     */
+    private long size;
+
+    private ModelCache() {
+    }
+
+    /**
+     * Returns the instance of the cache.
+     *
+     * @return the instance of the cache.
+     */
+    public static synchronized ModelCache getInstance() {
+        if (instance == null) {
+            instance = new ModelCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Computes the hash that identifies the content of a .class file.
+     *
+     * @param classBytes byte array containing the data of the .class file.
+     * @return the hexadecimal representation of the SHA-256 digest of the given data.
+     */
+    public static String hashOf(byte[] classBytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(classBytes);
+            StringBuilder builder = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the name of the cached model with the given hash, marking it as recently used.
+     *
+     * @param hash the hash of the content of the .class file of the model.
+     * @return the name of the cached model or null if no model with the given hash is cached.
+     */
+    public synchronized String lookup(String hash) {
+        Entry entry = entries.get(hash);
+        if (entry == null) {
+            return null;
+        }
+        entry.hits++;
+        return entry.className;
+    }
+
+    /**
+     * Loads into memory the data associated to a .class file, unless a .class file with the same content has already
+     * been loaded, and caches the resulting model. Since a class cannot be defined twice, a .class file whose content
+     * differs from the one of the class already defined with the same name is rejected. The model is cached only
+     * when the class is defined with the given content.
+     *
+     * @param className  the name of the class to be loaded in memory.
+     * @param classBytes byte array containing the data of the class to be loaded in memory.
+     * @return the hash of the content of the loaded .class file.
+     * @throws IllegalArgumentException if a class with the same name but a different content is already defined, or
+     *                                  if the class cannot be defined.
+     */
+    public synchronized String load(String className, byte[] classBytes) {
+        String hash = hashOf(classBytes);
+        String loadedHash = loadedHashes.get(className);
+        if (loadedHash == null) {
+            if (!CustomClassLoader.defClass(className, classBytes) && !hash.equals(definedHashOf(className))) {
+                throw new IllegalArgumentException(String.format("Class %s cannot be defined with content %s",
+                        className, hash));
+            }
+            loadedHashes.put(className, hash);
+        } else if (!loadedHash.equals(hash)) {
+            throw new IllegalArgumentException(String.format(
+                    "Class %s is already defined with content %s and cannot be replaced with content %s",
+                    className, loadedHash, hash));
+        }
+        if (CustomClassLoader.loadClassBytes(className) == null) {
+            CustomClassLoader.putClassBytes(className, classBytes);
+        }
+        if (!entries.containsKey(hash)) {
+            entries.put(hash, new Entry(hash, className, classBytes.length));
+            size += classBytes.length;
+            evict();
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the hash of the content of the class with the given name that is already defined, either through the
+     * {@link CustomClassLoader} or in the class path.
+     *
+     * @param className the name of a class.
+     * @return the hash of the content of the class with the given name, or null if the class is not found.
+     */
+    private static String definedHashOf(String className) {
+        byte[] classBytes = CustomClassLoader.loadClassBytes(className);
+        if (classBytes != null) {
+            return hashOf(classBytes);
+        }
+        try (InputStream is = ClassLoader.getSystemResourceAsStream(className.replace('.', '/') + ".class")) {
+            return (is == null ? null : hashOf(is.readAllBytes()));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Evicts the least recently used models until the cache respects its bounds. The most recently loaded model is
+     * never evicted.
+     */
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (((entries.size() > MAX_ENTRIES) || (size > MAX_BYTES)) && (entries.size() > 1)) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.size;
+            if (eldest.hash.equals(loadedHashes.get(eldest.className))) {
+                CustomClassLoader.removeClassBytes(eldest.className);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cached models, from the least to the most recently used.
+     *
+     * @return a snapshot of the cached models.
+     */
+    public synchronized List<Entry> getEntries() {
+        List<Entry> snapshot = new ArrayList<>(entries.size());
+        entries.values().forEach(entry -> snapshot.add(new Entry(entry)));
+        return snapshot;
+    }
+
+    /**
+     * A model kept in the cache.
+     */
+    public static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Hash of the content of the .class file of the model.
+         */
+        private final String hash;
+
+        /**
+         * Name of the class of the model.
+         */
+        private final String className;
+
+        /**
+         * Size in bytes of the .class file of the model.
+         */
+        private final int size;
+
+        /**
+         * Number of times the model has been reused since it has been loaded.
+         */
+        private int hits;
+
+        private Entry(String hash, String className, int size) {
+            this.hash = hash;
+            this.className = className;
+            this.size = size;
+        }
+
+        private Entry(Entry entry) {
+            this(entry.hash, entry.className, entry.size);
+            this.hits = entry.hits;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[%s - %s - %d bytes - %d hits]", className, hash, size, hits);
+        }
+    }
+}
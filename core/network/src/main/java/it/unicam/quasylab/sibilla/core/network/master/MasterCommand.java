@@ -61,5 +61,33 @@ public enum MasterCommand {
     /**
      * The command sent by a master server to inform that the connection with an host will be closed.
      */
-    CLOSE_CONNECTION
+    CLOSE_CONNECTION,
+    /**
+     * The command sent by a master server to ask a slave server the number of cores it uses to execute simulations.
+     */
+    INFO,
+    /**
+     * The command sent by a master server to send a frame of tasks without waiting for the results of the previous
+     * ones. It is followed by the id of the frame and by the tasks.
+     */
+    TASK_FRAME,
+    /**
+     * The command sent by a master server to cancel the execution of a frame of tasks. It is followed by the id of
+     * the frame.
+     */
+    CANCEL_FRAME,
+    /**
+     * The command sent by a master server to inform that no more frames of tasks will be sent.
+     */
+    END_FRAMES,
+    /**
+     * The command sent by a master server to initiate a new connection over the network when the slave server may
+     * have already loaded the model. It is followed by the model name and by the hash of its class data, that is
+     * only sent if the slave server asks for it.
+     */
+    INIT_CACHED,
+    /**
+     * The command sent by a master server to ask a slave server the models it keeps loaded.
+     */
+    CACHE_INFO
 }
@@ -38,6 +38,9 @@ import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
 import it.unicam.quasylab.sibilla.core.network.util.NetworkUtils;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingCollection;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
@@ -117,6 +120,11 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
 
     private ComputationResultSerializerType crSerializerType;
 
+    /**
+     * Policy used to distribute the simulation tasks among the slave servers.
+     */
+    private volatile SchedulingPolicy schedulingPolicy = SchedulingPolicy.WINDOW;
+
     /**
      * Creates and starts up a master server with the given parameters.
      *
@@ -339,6 +347,15 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
         }
     }
 
+    /**
+     * Sets the policy used to distribute the tasks of the next submitted simulations among the slave servers.
+     *
+     * @param schedulingPolicy the policy to use
+     */
+    public void setSchedulingPolicy(SchedulingPolicy schedulingPolicy) {
+        this.schedulingPolicy = schedulingPolicy;
+    }
+
     /**
      * Submits the slave servers a new set of simulations.
      *
@@ -346,8 +363,15 @@ public class MasterServerSimulationEnvironment implements PropertyChangeListener
      */
     private void submitSimulations(TCPNetworkManager client, SimulationDataSet<State> dataSet, SimulationState simulationState) {
         try {
-            SimulationEnvironment sim = new SimulationEnvironment(
-                    NetworkSimulationManager.getNetworkSimulationManagerFactory(simulationState, serializer.getType(), this.crSerializerType, client.getNetworkInfo()));
+            MergeableSamplingFunction<?> aggregatingFunction = null;
+            if ((dataSet.getModelSamplingFunction() instanceof MergeableSamplingFunction<?> samplingFunction)
+                    && (!(samplingFunction instanceof SamplingCollection<?> collection) || collection.isMergeable())) {
+                aggregatingFunction = samplingFunction;
+            }
+            SimulationManagerFactory factory = NetworkSimulationManager.getNetworkSimulationManagerFactory(simulationState,
+                    serializer.getType(), this.crSerializerType, client.getNetworkInfo(), aggregatingFunction,
+                    this.schedulingPolicy);
+            SimulationEnvironment sim = new SimulationEnvironment(factory);
 
             sim.simulate(dataSet.getRandomGenerator(), dataSet.getModel(), rg -> dataSet.getModelInitialState(),
                     dataSet.getModelSamplingFunction()::getSamplingHandler, dataSet.getReplica(), dataSet.getDeadline());
@@ -26,6 +26,7 @@ package it.unicam.quasylab.sibilla.core.network.master;
 import it.unicam.quasylab.sibilla.core.models.Model;
 import it.unicam.quasylab.sibilla.core.models.ModelDefinition;
 import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.AggregatedComputationResult;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.HostLoggerSupplier;
 import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
@@ -34,6 +35,7 @@ import it.unicam.quasylab.sibilla.core.network.benchmark.BenchmarkUnit;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
 import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
 import it.unicam.quasylab.sibilla.core.network.loaders.ClassBytesLoader;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
@@ -41,6 +43,7 @@ import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
 import it.unicam.quasylab.sibilla.core.network.slave.SlaveCommand;
 import it.unicam.quasylab.sibilla.core.network.slave.SlaveState;
 import it.unicam.quasylab.sibilla.core.simulator.*;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -62,6 +65,26 @@ import java.util.stream.Collectors;
  */
 public class NetworkSimulationManager<S extends State> extends QueuedSimulationManager<S> {
 
+    /**
+     * Maximum number of tasks per core pulled by a slave server at once.
+     */
+    private static final int MAX_TASKS_PER_CORE = 16;
+
+    /**
+     * Maximum number of slave servers that concurrently execute the same chunk of tasks.
+     */
+    private static final int MAX_CHUNK_COPIES = 2;
+
+    /**
+     * Maximum number of frames of tasks in flight on the connection with a slave server.
+     */
+    private static final int PIPELINE_DEPTH = 3;
+
+    /**
+     * Minimum time, in milliseconds, a slave server is given to send back the results of the tasks it pulled.
+     */
+    private static final int MIN_CHUNK_TIMEOUT = 5000;
+
     /**
      * Class logger.
      */
@@ -73,6 +96,11 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
      */
     private final String modelDefinitionClassName;
 
+    /**
+     * Hash of the class data of the model, used by the slave servers to reuse the model if already loaded.
+     */
+    private String modelHash;
+
     /**
      * Queue of servers used to fetch the slave servers the tasks are sent to.
      */
@@ -100,19 +128,96 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
     private final Map<NetworkInfo, BenchmarkUnit> slaveBenchmarks;
     private final NetworkInfo clientInfo;
 
+    /**
+     * Sampling function where the partial results computed by the slave servers are merged,
+     * null if slave servers send back trajectories
+     */
+    private final MergeableSamplingFunction<S> samplingFunction;
+
+    /**
+     * Sampling function, without collected data, sent to the slave servers together with the tasks
+     */
+    private final MergeableSamplingFunction<S> aggregationTemplate;
+
+    /**
+     * Policy used to distribute the tasks among the slave servers
+     */
+    private final SchedulingPolicy schedulingPolicy;
+
+    /**
+     * Chunks of tasks that are being executed by the slave servers, ordered by submission time. Only used with the
+     * {@link SchedulingPolicy#PULL} and {@link SchedulingPolicy#PIPELINED} policies.
+     */
+    private final LinkedList<TaskChunk<S>> chunksInFlight;
+
+    /**
+     * Number of slave servers that are pulling tasks. Only used with the {@link SchedulingPolicy#PULL} and
+     * {@link SchedulingPolicy#PIPELINED} policies.
+     */
+    private int pullingServers;
+
     /**
      * Creates a NetworkSimulationManager with the parameters given in input
      *
      * @param random          RandomGenerator used in the simulation
-     * @param monitor         TODO
+     * @param monitor         monitor used to control the simulation, or null. When the monitor is cancelled the
+     *                        manager is shut down and no more tasks are sent to the slave servers
      * @param simulationState state of the simulation that is being executed
      */
     public NetworkSimulationManager(RandomGenerator random, SimulationMonitor monitor,
                                     SimulationState simulationState, SerializerType serializerType,
                                     ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo) {
-        super(random, monitor);// TODO: Gestire parametro Monitor
+        this(random, monitor, simulationState, serializerType, crSerializerType, clientInfo, null);
+    }
+
+    /**
+     * Creates a NetworkSimulationManager with the parameters given in input. When a sampling function is
+     * given, each slave server collects data from its trajectories and only sends back the partial results, that
+     * are merged in the given sampling function.
+     *
+     * @param random           RandomGenerator used in the simulation
+     * @param monitor          monitor used to control the simulation, or null. When the monitor is cancelled the
+     *                         manager is shut down and no more tasks are sent to the slave servers
+     * @param simulationState  state of the simulation that is being executed
+     * @param samplingFunction sampling function where partial results are merged, null if slave servers send
+     *                         back trajectories
+     */
+    public NetworkSimulationManager(RandomGenerator random, SimulationMonitor monitor,
+                                    SimulationState simulationState, SerializerType serializerType,
+                                    ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                    MergeableSamplingFunction<S> samplingFunction) {
+        this(random, monitor, simulationState, serializerType, crSerializerType, clientInfo, samplingFunction,
+                SchedulingPolicy.WINDOW);
+    }
+
+    /**
+     * Creates a NetworkSimulationManager with the parameters given in input, distributing the tasks among the slave
+     * servers with the given policy.
+     *
+     * @param random           RandomGenerator used in the simulation
+     * @param monitor          monitor used to control the simulation, or null. When the monitor is cancelled the
+     *                         manager is shut down and no more tasks are sent to the slave servers
+     * @param simulationState  state of the simulation that is being executed
+     * @param samplingFunction sampling function where partial results are merged, null if slave servers send
+     *                         back trajectories
+     * @param schedulingPolicy policy used to distribute the tasks among the slave servers
+     */
+    public NetworkSimulationManager(RandomGenerator random, SimulationMonitor monitor,
+                                    SimulationState simulationState, SerializerType serializerType,
+                                    ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                    MergeableSamplingFunction<S> samplingFunction, SchedulingPolicy schedulingPolicy) {
+        super(random, monitor);
         this.clientInfo = clientInfo;
+        this.chunksInFlight = new LinkedList<>();
+        this.samplingFunction = samplingFunction;
+        this.aggregationTemplate = (samplingFunction == null ? null : samplingFunction.newInstance());
         this.LOGGER = HostLoggerSupplier.getInstance().getLogger();
+        if ((schedulingPolicy == SchedulingPolicy.PIPELINED) && (samplingFunction == null)) {
+            LOGGER.warning(String.format("[%s] scheduling requires aggregated results, [%s] is used instead",
+                    SchedulingPolicy.PIPELINED, SchedulingPolicy.PULL));
+            schedulingPolicy = SchedulingPolicy.PULL;
+        }
+        this.schedulingPolicy = schedulingPolicy;
         this.serializer = Serializer.getSerializer(serializerType);
         this.slaveBenchmarks = new ConcurrentHashMap<NetworkInfo, BenchmarkUnit>();
         this.crSerializerType = crSerializerType;
@@ -165,6 +270,53 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
 
     }
 
+    /**
+     * Returns a factory of managers where slave servers aggregate their trajectories with the given sampling
+     * function and only send back partial results, that are merged in the given sampling function.
+     *
+     * @param samplingFunction sampling function where partial results are merged
+     * @return a factory of managers where slave servers aggregate their trajectories
+     */
+    public static SimulationManagerFactory getNetworkSimulationManagerFactory(SimulationState simulationState,
+                                                                              SerializerType serializerType, ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                                                              MergeableSamplingFunction<?> samplingFunction) {
+        return new SimulationManagerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random,
+                                                                               SimulationMonitor monitor) {
+                return new NetworkSimulationManager<>(random, monitor, simulationState,
+                        serializerType, crSerializerType, clientInfo, (MergeableSamplingFunction<S>) samplingFunction);
+            }
+        };
+
+    }
+
+    /**
+     * Returns a factory of managers that distribute the tasks among the slave servers with the given policy. When a
+     * sampling function is given, slave servers aggregate their trajectories and only send back partial results.
+     *
+     * @param samplingFunction sampling function where partial results are merged, null if slave servers send
+     *                         back trajectories
+     * @param schedulingPolicy policy used to distribute the tasks among the slave servers
+     * @return a factory of managers that use the given scheduling policy
+     */
+    public static SimulationManagerFactory getNetworkSimulationManagerFactory(SimulationState simulationState,
+                                                                              SerializerType serializerType, ComputationResultSerializerType crSerializerType, NetworkInfo clientInfo,
+                                                                              MergeableSamplingFunction<?> samplingFunction, SchedulingPolicy schedulingPolicy) {
+        return new SimulationManagerFactory() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random,
+                                                                               SimulationMonitor monitor) {
+                return new NetworkSimulationManager<>(random, monitor, simulationState,
+                        serializerType, crSerializerType, clientInfo, (MergeableSamplingFunction<S>) samplingFunction,
+                        schedulingPolicy);
+            }
+        };
+
+    }
+
     /**
      * Initializes a connection to the target server sending the model class
      *
@@ -172,17 +324,31 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
      */
     private void initConnection(TCPNetworkManager slave) throws IOException {
         try {
-            slave.writeObject(serializer.serialize(MasterCommand.INIT));
-            LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.INIT,
+            byte[] classBytes = ClassBytesLoader.loadClassBytes(modelDefinitionClassName);
+            if (modelHash == null) {
+                modelHash = ModelCache.hashOf(classBytes);
+            }
+            slave.writeObject(serializer.serialize(MasterCommand.INIT_CACHED));
+            LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.INIT_CACHED,
                     slave.getNetworkInfo().toString()));
             slave.writeObject(serializer.serialize(modelDefinitionClassName));
-            LOGGER.info(String.format("[%s] Model name has been sent to the slave: %s",
+            slave.writeObject(serializer.serialize(modelHash));
+            LOGGER.info(String.format("[%s] Model name and hash have been sent to the slave: %s",
                     modelDefinitionClassName, slave.getNetworkInfo().toString()));
-            slave.writeObject(ClassBytesLoader.loadClassBytes(modelDefinitionClassName));
-            LOGGER.info(
-                    String.format("Class bytes have been sent to the slave: %s", slave.getNetworkInfo().toString()));
 
             SlaveCommand answer = (SlaveCommand) serializer.deserialize(slave.readObject());
+            if (answer.equals(SlaveCommand.CLASS_REQUIRED)) {
+                slave.writeObject(classBytes);
+                LOGGER.info(String.format("Class bytes have been sent to the slave: %s",
+                        slave.getNetworkInfo().toString()));
+                answer = (SlaveCommand) serializer.deserialize(slave.readObject());
+            }
+            if (answer.equals(SlaveCommand.INIT_FAILURE)) {
+                String message = (String) serializer.deserialize(slave.readObject());
+                LOGGER.severe(String.format("[%s] The slave has not loaded the model - Slave: %s", message,
+                        slave.getNetworkInfo().toString()));
+                throw new IOException(message);
+            }
             if (answer.equals(SlaveCommand.INIT_RESPONSE)) {
                 LOGGER.info(
                         String.format("Answer received: [%s] - Slave: %s", answer, slave.getNetworkInfo().toString()));
@@ -202,9 +368,52 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
         }
     }
 
+    /**
+     * Returns the models kept loaded by a slave server
+     *
+     * @param slaveInfo      network info of the slave server
+     * @param serializerType type of the serializer used by the slave server
+     * @return the models kept loaded by the slave server, from the least to the most recently used
+     * @throws IOException if communication error between servers occur
+     */
+    @SuppressWarnings("unchecked")
+    public static List<ModelCache.Entry> getSlaveModelCache(NetworkInfo slaveInfo, SerializerType serializerType)
+            throws IOException {
+        Serializer serializer = Serializer.getSerializer(serializerType);
+        TCPNetworkManager slave = TCPNetworkManager.createNetworkManager(slaveInfo);
+        try {
+            slave.writeObject(serializer.serialize(MasterCommand.CACHE_INFO));
+            SlaveCommand answer = (SlaveCommand) serializer.deserialize(slave.readObject());
+            if (!answer.equals(SlaveCommand.CACHE_INFO_RESPONSE)) {
+                throw new IOException(String.format(
+                        "Wrong answer after CACHE_INFO command. Expected CACHE_INFO_RESPONSE from slave: %s",
+                        slaveInfo.toString()));
+            }
+            List<ModelCache.Entry> entries = (List<ModelCache.Entry>) serializer.deserialize(slave.readObject());
+            slave.writeObject(serializer.serialize(MasterCommand.CLOSE_CONNECTION));
+            slave.writeObject(serializer.serialize(""));
+            serializer.deserialize(slave.readObject());
+            return entries;
+        } finally {
+            slave.closeConnection();
+        }
+    }
+
     @Override
     protected void startTasksHandling() {
-        new Thread(this::handleTasks).start();
+        if (schedulingPolicy == SchedulingPolicy.PULL) {
+            synchronized (this) {
+                pullingServers = networkManagers.size();
+            }
+            networkManagers.forEach(server -> executor.execute(() -> pullTasks(server)));
+        } else if (schedulingPolicy == SchedulingPolicy.PIPELINED) {
+            synchronized (this) {
+                pullingServers = networkManagers.size();
+            }
+            networkManagers.forEach(server -> executor.execute(() -> pipelineTasks(server)));
+        } else {
+            new Thread(this::handleTasks).start();
+        }
     }
 
     private void handleTasks() {
@@ -239,9 +448,17 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
             this.simulationState.setPendingTasks(this.pendingTasks());
             if (toRun.size() > 0) {
                 simulationState.increaseRunningServers();
-                NetworkTask<S> networkTask = new NetworkTask<>(toRun);
-                CompletableFuture.supplyAsync(() -> send(networkTask, server), executor)
-                        .whenComplete((value, error) -> manageResult(value, error, toRun, server));
+                if (samplingFunction != null) {
+                    NetworkTask<S> networkTask = new NetworkTask<>(toRun.stream()
+                            .map(t -> t.withSamplingHandler(null))
+                            .collect(Collectors.toList()), aggregationTemplate);
+                    CompletableFuture.supplyAsync(() -> sendAggregated(networkTask, server), executor)
+                            .whenComplete((value, error) -> manageAggregatedResult(value, error, toRun, server));
+                } else {
+                    NetworkTask<S> networkTask = new NetworkTask<>(toRun);
+                    CompletableFuture.supplyAsync(() -> send(networkTask, server), executor)
+                            .whenComplete((value, error) -> manageResult(value, error, toRun, server));
+                }
             }
         } catch (InterruptedException e) {
             LOGGER.severe(String.format("[%s] Interrupted exception", e.getMessage()));
@@ -278,20 +495,7 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
                               TCPNetworkManager server) {
         LOGGER.info(String.format("Managing results by the slave: %s", server.getNetworkInfo().toString()));
         if (error != null) {
-            error.printStackTrace();
-            LOGGER.severe(String.format("Timeout occurred for slave: %s", server.getNetworkInfo().toString()));
-            TCPNetworkManager newServer;
-            if ((newServer = manageTimeout(server)) != null) {
-                LOGGER.info(String.format("The slave has responded. New server: %s",
-                        newServer.getNetworkInfo().toString()));
-                enqueueServer(newServer);// add new server to queue, old server won't return
-            } else if (this.simulationState.getSlaveServersStates().isEmpty()) {
-                synchronized (this) {
-                    notifyAll();
-                }
-            }
-            rescheduleAll(tasks);
-            simulationState.decreaseRunningServers();
+            manageFailure(error, tasks, server);
         } else {
             LOGGER.info(String.format("Timeout did not occurred for slave: %s", server.getNetworkInfo().toString()));
             enqueueServer(server);
@@ -301,6 +505,52 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
         }
     }
 
+    /**
+     * Manages the partial results of a NetworkTask aggregated by a simulation server, merging them in the
+     * sampling function of this manager
+     *
+     * @param value  partial results of the computation
+     * @param error  eventually thrown error
+     * @param tasks  list of tasks executed
+     * @param server server which has been used for the simulation
+     */
+    private void manageAggregatedResult(AggregatedComputationResult value, Throwable error, List<SimulationTask<S>> tasks,
+                                        TCPNetworkManager server) {
+        LOGGER.info(String.format("Managing aggregated results by the slave: %s", server.getNetworkInfo().toString()));
+        if (error != null) {
+            manageFailure(error, tasks, server);
+        } else {
+            samplingFunction.mergePartialResults(value.getPartialResults());
+            enqueueServer(server);
+            simulationState.decreaseRunningServers();
+            completed(tasks);
+        }
+    }
+
+    /**
+     * Manages the failure of a slave server while executing the given tasks, that are rescheduled
+     *
+     * @param error  thrown error
+     * @param tasks  list of tasks sent to the server
+     * @param server server which has been used for the simulation
+     */
+    private void manageFailure(Throwable error, List<SimulationTask<S>> tasks, TCPNetworkManager server) {
+        error.printStackTrace();
+        LOGGER.severe(String.format("Timeout occurred for slave: %s", server.getNetworkInfo().toString()));
+        TCPNetworkManager newServer;
+        if ((newServer = manageTimeout(server)) != null) {
+            LOGGER.info(String.format("The slave has responded. New server: %s",
+                    newServer.getNetworkInfo().toString()));
+            enqueueServer(newServer);// add new server to queue, old server won't return
+        } else if (this.simulationState.getSlaveServersStates().isEmpty()) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        rescheduleAll(tasks);
+        simulationState.decreaseRunningServers();
+    }
+
     /**
      * Manages a timeout
      *
@@ -344,10 +594,9 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
             server.getSocket().close();
             this.networkManagers.remove(server);
         } catch (Exception e) {
-            assert pingServer != null;
             LOGGER.severe(
                     String.format("The response has been received after the time limit. The slave will be removed: %s",
-                            pingServer.getNetworkInfo().toString()));
+                            server.getNetworkInfo().toString()));
             oldState.setRemoved(); // mark server as removed
             this.networkManagers.remove(server);
             return null;
@@ -357,6 +606,14 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
 
     @Override
     public synchronized void join() throws InterruptedException {
+        if (schedulingPolicy != SchedulingPolicy.WINDOW) {
+            // Speculative copies still running on slave servers are not waited for, connections are closed by
+            // the pulling threads when the manager is shut down.
+            while ((getRunningTasks() > 0 || hasTasks()) && pullingServers > 0) {
+                wait();
+            }
+            return;
+        }
         while ((getRunningTasks() > 0 || hasTasks() || this.simulationState.getRunningSlaveServers() > 0)
                 && !this.simulationState.getSlaveServersStates().isEmpty()) {
             wait();
@@ -371,28 +628,383 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
     private void closeStreams() {
         try {
             for (TCPNetworkManager server : this.networkManagers) {
-                server.writeObject(serializer.serialize(MasterCommand.CLOSE_CONNECTION));
-                LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.CLOSE_CONNECTION,
-                        server.getNetworkInfo().toString()));
-                server.writeObject(serializer.serialize(modelDefinitionClassName));
+                closeConnection(server);
+            }
+        } catch (IOException e) {
+            LOGGER.severe(
+                    String.format("[%s] Network communication failure during the connection closure", e.getMessage()));
+        }
+    }
 
-                SlaveCommand answer = (SlaveCommand) serializer.deserialize(server.readObject());
-                if (answer.equals(SlaveCommand.CLOSE_CONNECTION)) {
-                    LOGGER.info(String.format("Answer received: [%s] - Slave: %s", answer,
+    /**
+     * Closes the connection with a slave server
+     *
+     * @param server the NetworkManager of the slave server
+     * @throws IOException if communication error between servers occur
+     */
+    private void closeConnection(TCPNetworkManager server) throws IOException {
+        server.writeObject(serializer.serialize(MasterCommand.CLOSE_CONNECTION));
+        LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.CLOSE_CONNECTION,
+                server.getNetworkInfo().toString()));
+        server.writeObject(serializer.serialize(modelDefinitionClassName));
+
+        SlaveCommand answer = (SlaveCommand) serializer.deserialize(server.readObject());
+        if (answer.equals(SlaveCommand.CLOSE_CONNECTION)) {
+            LOGGER.info(String.format("Answer received: [%s] - Slave: %s", answer,
+                    server.getNetworkInfo().toString()));
+        } else {
+            throw new ClassCastException(String.format(
+                    "Wrong answer after CLOSE_CONNECTION command. Expected CLOSE_CONNECTION from slave: %s ",
+                    server.getNetworkInfo().toString()));
+        }
+
+        server.closeConnection();
+        LOGGER.info(
+                String.format("Closed the connection with the slave: %s", server.getNetworkInfo().toString()));
+    }
+
+    /**
+     * Pulls chunks of tasks on behalf of a slave server and executes them on the server until the manager is shut
+     * down or the server is lost
+     *
+     * @param server the NetworkManager of the slave server
+     */
+    private void pullTasks(TCPNetworkManager server) {
+        SlaveState serverState = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
+        try {
+            serverState.setCores(requestCores(server));
+            LOGGER.info(String.format("Slave %s pulls tasks for %d cores", server.getNetworkInfo().toString(),
+                    serverState.getCores()));
+            TaskChunk<S> chunk;
+            while ((chunk = nextChunk(server, serverState)) != null) {
+                if ((server = executeChunk(chunk, server)) == null) {
+                    return;
+                }
+            }
+            closeConnection(server);
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure - Slave: %s", e.getMessage(),
+                    server.getNetworkInfo().toString()));
+        } catch (InterruptedException e) {
+            LOGGER.severe(String.format("[%s] Interrupted exception", e.getMessage()));
+        } finally {
+            pullingServerTerminated();
+        }
+    }
+
+    /**
+     * Signals that a slave server stopped pulling tasks. The simulation is concluded when no slave server is
+     * pulling tasks anymore.
+     */
+    private synchronized void pullingServerTerminated() {
+        pullingServers--;
+        if (pullingServers == 0) {
+            this.simulationState.setConcluded();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Keeps up to {@link #PIPELINE_DEPTH} chunks of tasks in flight on the connection with a slave server until
+     * the manager is shut down or the server is lost. When the connection fails, the chunks in flight are
+     * rescheduled and the pipeline restarts on the new connection established with the server, if any.
+     *
+     * @param server the NetworkManager of the slave server
+     */
+    private void pipelineTasks(TCPNetworkManager server) {
+        SlaveState serverState = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
+        try {
+            serverState.setCores(requestCores(server));
+            LOGGER.info(String.format("Slave %s pipelines tasks for %d cores", server.getNetworkInfo().toString(),
+                    serverState.getCores()));
+            while (true) {
+                try {
+                    executePipeline(server, serverState);
+                    break;
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.severe(String.format("[%s] Pipeline failed on slave: %s", e.getMessage(),
+                            server.getNetworkInfo().toString()));
+                    if ((server = manageTimeout(server)) == null) {
+                        return;
+                    }
+                    LOGGER.info(String.format("The slave has responded. New server: %s",
                             server.getNetworkInfo().toString()));
+                }
+            }
+            closeConnection(server);
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure - Slave: %s", e.getMessage(),
+                    server.getNetworkInfo().toString()));
+        } catch (InterruptedException e) {
+            LOGGER.severe(String.format("[%s] Interrupted exception", e.getMessage()));
+        } finally {
+            pullingServerTerminated();
+        }
+    }
+
+    /**
+     * Sends frames of tasks to a slave server while receiving the results of the frames previously sent. Frames are
+     * sent by a separate thread, while the calling thread receives the results and merges them as soon as they
+     * arrive.
+     *
+     * @param server      the NetworkManager of the slave server
+     * @param serverState the SlaveState associated to the slave server
+     * @throws IOException          if communication error between servers occur
+     * @throws InterruptedException if the thread is interrupted while waiting for the frames sender
+     */
+    private void executePipeline(TCPNetworkManager server, SlaveState serverState)
+            throws IOException, InterruptedException {
+        Map<Integer, TaskChunk<S>> frames = new ConcurrentHashMap<>();
+        Semaphore window = new Semaphore(PIPELINE_DEPTH);
+        Future<?> sender = executor.submit(() -> sendFrames(server, serverState, frames, window));
+        simulationState.increaseRunningServers();
+        try {
+            long lastReceived = System.nanoTime();
+            while (true) {
+                int inFlight = frames.values().stream().mapToInt(chunk -> chunk.tasks.size()).sum();
+                server.getSocket().setSoTimeout(inFlight == 0 ? 0 : chunkTimeout(serverState, inFlight));
+                SlaveCommand command = (SlaveCommand) serializer.deserialize(server.readObject());
+                if (command == SlaveCommand.END_FRAMES) {
+                    break;
+                }
+                int id = (Integer) serializer.deserialize(server.readObject());
+                TaskChunk<S> chunk = frames.remove(id);
+                if (chunk == null) {
+                    throw new IOException(String.format("Unexpected frame %d received from slave: %s", id,
+                            server.getNetworkInfo().toString()));
+                }
+                if (command == SlaveCommand.RESULT_FRAME) {
+                    AggregatedComputationResult result = readAggregatedResult(server);
+                    long now = System.nanoTime();
+                    serverState.completed(result.getNumberOfTasks(), now - lastReceived);
+                    lastReceived = now;
+                    chunkCompleted(chunk, result);
+                } else if (command == SlaveCommand.FRAME_CANCELLED) {
+                    chunkFailed(chunk);
                 } else {
-                    throw new ClassCastException(String.format(
-                            "Wrong answer after CLOSE_CONNECTION command. Expected CLOSE_CONNECTION from slave: %s ",
+                    throw new IOException(String.format("Unexpected [%s] command received from slave: %s", command,
                             server.getNetworkInfo().toString()));
                 }
+                window.release();
+            }
+            sender.get();
+        } catch (ExecutionException e) {
+            frames.values().forEach(this::chunkFailed);
+            throw new IOException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            sender.cancel(true);
+            frames.values().forEach(this::chunkFailed);
+            throw e;
+        } finally {
+            simulationState.decreaseRunningServers();
+        }
+    }
 
-                server.closeConnection();
-                LOGGER.info(
-                        String.format("Closed the connection with the slave: %s", server.getNetworkInfo().toString()));
+    /**
+     * Sends frames of tasks to a slave server as long as fewer than {@link #PIPELINE_DEPTH} frames are in flight.
+     * When the manager is shut down, the end of the frames is signaled to the slave server; when the simulation is
+     * cancelled, the frames in flight are cancelled too. If a frame cannot be sent, the connection is closed so that
+     * the thread receiving the results does not wait for them.
+     *
+     * @param server      the NetworkManager of the slave server
+     * @param serverState the SlaveState associated to the slave server
+     * @param frames      frames in flight, indexed by id
+     * @param window      permits of the frames that can be sent
+     * @return nothing, the method is a Callable so that communication failures are rethrown
+     * @throws IOException          if communication error between servers occur
+     * @throws InterruptedException if the thread is interrupted while waiting for a permit or a chunk
+     */
+    private Void sendFrames(TCPNetworkManager server, SlaveState serverState, Map<Integer, TaskChunk<S>> frames,
+                            Semaphore window) throws IOException, InterruptedException {
+        try {
+            int id = 0;
+            TaskChunk<S> chunk;
+            while (true) {
+                window.acquire();
+                if ((chunk = nextChunk(server, serverState)) == null) {
+                    break;
+                }
+                NetworkTask<S> networkTask = new NetworkTask<>(chunk.tasks.stream()
+                        .map(t -> t.withSamplingHandler(null))
+                        .collect(Collectors.toList()), aggregationTemplate);
+                frames.put(id, chunk);
+                server.writeObject(serializer.serialize(MasterCommand.TASK_FRAME));
+                server.writeObject(serializer.serialize(id));
+                server.writeObject(Compressor.compress(serializer.serialize(networkTask)));
+                id++;
+            }
+            if (isCancelled()) {
+                for (int frame : frames.keySet()) {
+                    server.writeObject(serializer.serialize(MasterCommand.CANCEL_FRAME));
+                    server.writeObject(serializer.serialize(frame));
+                }
             }
+            server.writeObject(serializer.serialize(MasterCommand.END_FRAMES));
+            LOGGER.info(String.format("[%s] command sent to the slave: %s", MasterCommand.END_FRAMES,
+                    server.getNetworkInfo().toString()));
+            return null;
         } catch (IOException e) {
-            LOGGER.severe(
-                    String.format("[%s] Network communication failure during the connection closure", e.getMessage()));
+            LOGGER.severe(String.format("[%s] Network communication failure while sending frames - Slave: %s",
+                    e.getMessage(), server.getNetworkInfo().toString()));
+            server.getSocket().close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns true if the simulation has been cancelled by its monitor
+     *
+     * @return true if the simulation has been cancelled by its monitor
+     */
+    private boolean isCancelled() {
+        return (getMonitor() != null) && getMonitor().isCancelled();
+    }
+
+    /**
+     * Asks a slave server the number of cores it uses to execute simulations
+     *
+     * @param server the NetworkManager of the slave server
+     * @return the number of cores used by the slave server
+     * @throws IOException if communication error between servers occur
+     */
+    private int requestCores(TCPNetworkManager server) throws IOException {
+        server.writeObject(serializer.serialize(MasterCommand.INFO));
+        SlaveCommand answer = (SlaveCommand) serializer.deserialize(server.readObject());
+        if (!answer.equals(SlaveCommand.INFO_RESPONSE)) {
+            throw new IOException(String.format("Wrong answer after INFO command. Expected INFO_RESPONSE from slave: %s",
+                    server.getNetworkInfo().toString()));
+        }
+        return (Integer) serializer.deserialize(server.readObject());
+    }
+
+    /**
+     * Returns the next chunk of tasks to be executed by a slave server. When no task is pending, a copy of the
+     * oldest chunk still running on other slave servers is returned. The method blocks until a chunk is available
+     * or the manager is shut down.
+     *
+     * @param server      the NetworkManager of the slave server
+     * @param serverState the SlaveState associated to the slave server
+     * @return the next chunk to execute, null if the manager has been shut down
+     * @throws InterruptedException
+     */
+    private synchronized TaskChunk<S> nextChunk(TCPNetworkManager server, SlaveState serverState)
+            throws InterruptedException {
+        NetworkInfo serverInfo = server.getNetworkInfo();
+        while ((isRunning() || hasTasks()) && !isCancelled()) {
+            List<SimulationTask<S>> tasks = getTask(chunkSize(serverState));
+            if (!tasks.isEmpty()) {
+                this.simulationState.setPendingTasks(this.pendingTasks());
+                TaskChunk<S> chunk = new TaskChunk<>(tasks);
+                chunk.assign(serverInfo);
+                chunksInFlight.add(chunk);
+                return chunk;
+            }
+            for (TaskChunk<S> chunk : chunksInFlight) {
+                if ((chunk.copies < MAX_CHUNK_COPIES) && !chunk.servers.contains(serverInfo)) {
+                    LOGGER.info(String.format("Re-issuing a chunk of %d tasks to slave: %s", chunk.tasks.size(),
+                            serverInfo.toString()));
+                    chunk.assign(serverInfo);
+                    return chunk;
+                }
+            }
+            wait();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the read timeout, in milliseconds, used while a slave server executes the given number of pulled
+     * tasks. The timeout is never shorter than {@link #MIN_CHUNK_TIMEOUT}: slow slave servers are handled by
+     * speculatively re-issuing their chunks, hence the timeout only has to detect lost slave servers.
+     *
+     * @param serverState the SlaveState associated to the slave server
+     * @param tasks       the number of tasks executed by the slave server
+     * @return the read timeout in milliseconds
+     */
+    private int chunkTimeout(SlaveState serverState, int tasks) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CHUNK_TIMEOUT, serverState.getTimeout(tasks) / 1000000));
+    }
+
+    /**
+     * Computes the number of tasks pulled by a slave server. Each slave server takes a share of the pending tasks
+     * proportional to its cores, so that chunks get smaller as the simulation approaches its end.
+     *
+     * @param serverState the SlaveState associated to the slave server
+     * @return the number of tasks to pull
+     */
+    private int chunkSize(SlaveState serverState) {
+        int cores = serverState.getCores();
+        int totalCores = this.simulationState.getSlaveServersStates().stream().filter(state -> !state.isRemoved())
+                .mapToInt(SlaveState::getCores).sum();
+        int share = pendingTasks() * cores / Math.max(1, 2 * totalCores);
+        return Math.max(cores, Math.min(cores * MAX_TASKS_PER_CORE, share));
+    }
+
+    /**
+     * Executes a chunk of tasks on a slave server
+     *
+     * @param chunk  the chunk to execute
+     * @param server the NetworkManager of the slave server
+     * @return the NetworkManager to use for the next chunk, null if the slave server has been lost
+     */
+    private TCPNetworkManager executeChunk(TaskChunk<S> chunk, TCPNetworkManager server) {
+        simulationState.increaseRunningServers();
+        try {
+            if (samplingFunction != null) {
+                NetworkTask<S> networkTask = new NetworkTask<>(chunk.tasks.stream()
+                        .map(t -> t.withSamplingHandler(null))
+                        .collect(Collectors.toList()), aggregationTemplate);
+                chunkCompleted(chunk, sendAggregated(networkTask, server));
+            } else {
+                send(new NetworkTask<>(chunk.tasks), server);
+                chunkCompleted(chunk, null);
+            }
+            return server;
+        } catch (RuntimeException e) {
+            LOGGER.severe(String.format("[%s] Chunk execution failed on slave: %s", e.getMessage(),
+                    server.getNetworkInfo().toString()));
+            chunkFailed(chunk);
+            TCPNetworkManager newServer = manageTimeout(server);
+            if (newServer != null) {
+                LOGGER.info(String.format("The slave has responded. New server: %s",
+                        newServer.getNetworkInfo().toString()));
+            }
+            return newServer;
+        } finally {
+            simulationState.decreaseRunningServers();
+        }
+    }
+
+    /**
+     * Marks a chunk as completed, merging its partial results, if this is the first copy of the chunk that completes
+     *
+     * @param chunk  the completed chunk
+     * @param result partial results computed by the slave server, null if slave servers send back trajectories
+     */
+    private synchronized void chunkCompleted(TaskChunk<S> chunk, AggregatedComputationResult result) {
+        chunk.copies--;
+        if (chunk.completed) {
+            return;
+        }
+        chunk.completed = true;
+        chunksInFlight.remove(chunk);
+        if (result != null) {
+            samplingFunction.mergePartialResults(result.getPartialResults());
+        }
+        completed(chunk.tasks);
+    }
+
+    /**
+     * Handles the failure of a copy of a chunk. The tasks are rescheduled when no other copy is running
+     *
+     * @param chunk the failed chunk
+     */
+    private synchronized void chunkFailed(TaskChunk<S> chunk) {
+        chunk.copies--;
+        if (!chunk.completed && (chunk.copies == 0)) {
+            chunksInFlight.remove(chunk);
+            rescheduleAll(chunk.tasks);
+            this.simulationState.setPendingTasks(this.pendingTasks());
         }
     }
 
@@ -428,6 +1040,83 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
         return wrapper.result;
     }
 
+    /**
+     * Sends tasks to execute to a server, that aggregates the sampled trajectories
+     *
+     * @param networkTask tasks to execute, together with the sampling function used to aggregate trajectories
+     * @param server      server to send the tasks to
+     * @return partial results of the computation
+     */
+    private AggregatedComputationResult sendAggregated(NetworkTask<S> networkTask, TCPNetworkManager server) {
+        SlaveState state = this.simulationState.getSlaveStateByServerInfo(server.getNetworkInfo());
+        BenchmarkUnit sendRecBenchmark = this.slaveBenchmarks.get(server.getNetworkInfo());
+
+        final var wrapper = new Object() {
+            private AggregatedComputationResult result;
+        };
+        sendRecBenchmark.run(() -> {
+            server.writeObject(serializer.serialize(MasterCommand.TASK));
+            server.writeObject(Compressor.compress(serializer.serialize(networkTask)));
+            wrapper.result = awaitingAggregatedResult(server, state, networkTask);
+            return List.of((double) networkTask.getTasks().size(), (double) wrapper.result.getNumberOfTasks());
+        });
+        if (wrapper.result == null) {
+            throw new IllegalStateException(String.format("No aggregated result has been received from the slave: %s",
+                    server.getNetworkInfo().toString()));
+        }
+        return wrapper.result;
+    }
+
+    /**
+     * Waits for the partial results computed by a slave server on the given tasks
+     *
+     * @param server the NetworkManager of the slave server that the master listens
+     *               to for results
+     * @param state  the SlaveState associated to the slave server
+     * @param tasks  the NetworkTask that contains the simulations to execute
+     * @return the partial results computed by the slave server
+     * @throws IOException if communication error between servers occur
+     */
+    private AggregatedComputationResult awaitingAggregatedResult(TCPNetworkManager server, SlaveState state,
+                                                                 NetworkTask<?> tasks) throws IOException {
+        state.setSentTasks(tasks.getTasks().size());
+        state.setReceivedTasks(0);
+        long elapsedTime = System.nanoTime();
+        server.getSocket().setSoTimeout(schedulingPolicy != SchedulingPolicy.WINDOW
+                ? chunkTimeout(state, tasks.getTasks().size()) : (int) (state.getTimeout() / 1000000));
+        AggregatedComputationResult result = readAggregatedResult(server);
+        elapsedTime = System.nanoTime() - elapsedTime;
+        state.setReceivedTasks(result.getNumberOfTasks());
+        state.update(elapsedTime);
+        state.completed(result.getNumberOfTasks(), elapsedTime);
+        return result;
+    }
+
+    /**
+     * Reads, decompresses and deserializes the partial results sent by a slave server
+     *
+     * @param server the NetworkManager of the slave server
+     * @return the partial results sent by the slave server
+     * @throws IOException if communication error between servers occur
+     */
+    private AggregatedComputationResult readAggregatedResult(TCPNetworkManager server) throws IOException {
+        final var wrapper = new Object() {
+            private byte[] received = server.readObject();
+            private AggregatedComputationResult result;
+        };
+        this.decDesBenchmark.run(() -> {
+            wrapper.received = Compressor.decompress(wrapper.received);
+            return List.of();
+        }, () -> {
+            wrapper.result = (AggregatedComputationResult) this.crSerializerType.getAggregatedResultSerializer()
+                    .deserialize(wrapper.received);
+            return List.of((double) wrapper.result.getNumberOfTasks());
+        });
+        LOGGER.info(String.format("The aggregated results of %d tasks have been received from the server - %s",
+                wrapper.result.getNumberOfTasks(), server.getNetworkInfo().toString()));
+        return wrapper.result;
+    }
+
     /**
      * Puts the master server in a state where he listens for results until all the
      * tasks sent to the slave server have been executed and their results are sent
@@ -490,4 +1179,42 @@ public class NetworkSimulationManager<S extends State> extends QueuedSimulationM
                 return ComputationResultSerializer.deserialize(toDeserialize, model);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A group of tasks pulled by a slave server. The same chunk can be executed by more slave servers when it is
+     * speculatively re-issued.
+     *
+     * @param <S> The {@link State} of the simulation model.
+     */
+    private static class TaskChunk<S extends State> {
+
+        /**
+         * Tasks of the chunk
+         */
+        private final List<SimulationTask<S>> tasks;
+
+        /**
+         * Slave servers the chunk has been assigned to
+         */
+        private final Set<NetworkInfo> servers = new HashSet<>();
+
+        /**
+         * Number of copies of the chunk that are running
+         */
+        private int copies;
+
+        /**
+         * Whether the results of a copy of the chunk have been received
+         */
+        private boolean completed;
+
+        private TaskChunk(List<SimulationTask<S>> tasks) {
+            this.tasks = tasks;
+        }
+
+        private void assign(NetworkInfo server) {
+            servers.add(server);
+            copies++;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.master;
+
+/**
+ * Policies used by a {@link NetworkSimulationManager} to distribute simulation tasks among the slave servers.
+ */
+public enum SchedulingPolicy {
+    /**
+     * The master pushes to the first available slave server a window of tasks whose size grows and shrinks according
+     * to the round trip time of the previous windows.
+     */
+    WINDOW,
+    /**
+     * Each slave server pulls a new chunk of tasks, sized according to its number of cores, as soon as it has
+     * completed the previous one. When no task is pending, idle slave servers speculatively execute a copy of the
+     * chunks that are still running elsewhere and the first result received is the one that is kept.
+     */
+    PULL,
+    /**
+     * Like {@link #PULL}, but each slave server keeps several chunks of tasks in flight on its connection. Every
+     * chunk is sent as a frame tagged with an id and its partial results are sent back as soon as the chunk is
+     * completed, so that slave servers compute while results and new tasks are transferred. It requires slave
+     * servers to aggregate their trajectories, otherwise {@link #PULL} is used.
+     */
+    PIPELINED
+}
@@ -165,6 +165,9 @@ public class SimulationState implements Serializable, PropertyChangeListener, Co
 
     @Override
     public void propertyChange(PropertyChangeEvent propertyChangeEvent) {
+        if (propertyChangeEvent.getNewValue() instanceof SlaveState slaveState) {
+            updateSupport.firePropertyChange("Slave Update", null, slaveState);
+        }
         this.updateListeners();
     }
 
@@ -180,6 +183,13 @@ public class SimulationState implements Serializable, PropertyChangeListener, Co
     }
 
 
+    /**
+     * Registers a listener for the given property. Listeners of the property <code>"Slave Update"</code> receive
+     * the {@link SlaveState} of a slave server, containing its throughput, each time it is updated.
+     *
+     * @param property name of the property to listen
+     * @param pcl      the listener
+     */
     public synchronized void addPropertyChangeListener(String property, PropertyChangeListener pcl) {
         updateSupport.addPropertyChangeListener(property, pcl);
         this.updateListeners();
@@ -252,6 +262,13 @@ public class SimulationState implements Serializable, PropertyChangeListener, Co
         return runningSlaveServers;
     }
 
+    /**
+     * @return the overall number of tasks completed per second by the registered slave servers.
+     */
+    public synchronized double getThroughput() {
+        return this.slaveServers.stream().filter(slaveState -> !slaveState.isRemoved()).mapToDouble(SlaveState::getThroughput).sum();
+    }
+
     /**
      * @return The date the simulation was initiated.
      */
@@ -31,6 +31,7 @@ import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 
 /**
@@ -54,11 +55,9 @@ public class ComputationResultSerializer {
      */
     public static <S extends State> byte[] serialize(ComputationResult<S> toSerialize, Model<S> model)
             throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        serialize(baos, toSerialize, model);
-        byte[] toReturn = baos.toByteArray();
-        baos.close();
-        return toReturn;
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize(toSerialize, model));
+        serialize(buffer, toSerialize, model);
+        return buffer.array();
     }
 
     /**
@@ -79,6 +78,40 @@ public class ComputationResultSerializer {
         }
     }
 
+    /**
+     * Serialize a ComputationResult at the current position of a ByteBuffer. The
+     * buffer must have at least {@link #serializedSize(ComputationResult, Model)}
+     * remaining bytes.
+     *
+     * @param toSerializeInto the buffer where the serialized data will be put
+     * @param toSerialize     the results to serialize
+     * @param model           the model of the simulation
+     * @param <S>             the state class
+     * @throws IOException
+     */
+    public static <S extends State> void serialize(ByteBuffer toSerializeInto,
+            ComputationResult<S> toSerialize, Model<S> model) throws IOException {
+        for (Trajectory<S> trajectory : toSerialize.getResults()) {
+            TrajectorySerializer.serialize(toSerializeInto, trajectory, model);
+        }
+    }
+
+    /**
+     * Returns the number of bytes needed to serialize the given ComputationResult.
+     *
+     * @param toSerialize the results to serialize
+     * @param model       the model of the simulation
+     * @param <S>         the state class
+     * @return the number of bytes needed to serialize the results
+     */
+    public static <S extends State> int serializedSize(ComputationResult<S> toSerialize, Model<S> model) {
+        int size = 0;
+        for (Trajectory<S> trajectory : toSerialize.getResults()) {
+            size += TrajectorySerializer.serializedSize(trajectory, model);
+        }
+        return size;
+    }
+
     /**
      * Deserialize a byte array into a ComputationResult
      *
@@ -90,10 +123,7 @@ public class ComputationResultSerializer {
      */
     public static <S extends State> ComputationResult<S> deserialize(byte[] toDeserialize, Model<S> model)
             throws IOException {
-        ByteArrayInputStream bais = new ByteArrayInputStream(toDeserialize);
-        ComputationResult<S> result = deserialize(bais, model);
-        bais.close();
-        return result;
+        return deserialize(ByteBuffer.wrap(toDeserialize), model);
     }
 
     /**
@@ -115,4 +145,22 @@ public class ComputationResultSerializer {
         return new ComputationResult<>(trajectories);
     }
 
+    /**
+     * Deserialize the remaining content of a ByteBuffer into a ComputationResult
+     *
+     * @param toDeserializeFrom the buffer that contains serialized data
+     * @param model             the model of the simulation
+     * @param <S>               the state class
+     * @return the deserialized ComputationResult
+     * @throws IOException
+     */
+    public static <S extends State> ComputationResult<S> deserialize(ByteBuffer toDeserializeFrom,
+            Model<S> model) throws IOException {
+        LinkedList<Trajectory<S>> trajectories = new LinkedList<>();
+        while (toDeserializeFrom.hasRemaining()) {
+            trajectories.add(TrajectorySerializer.deserialize(toDeserializeFrom, model));
+        }
+        return new ComputationResult<>(trajectories);
+    }
+
 }
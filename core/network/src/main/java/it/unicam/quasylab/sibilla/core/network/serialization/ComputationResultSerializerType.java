@@ -24,7 +24,12 @@
 package it.unicam.quasylab.sibilla.core.network.serialization;
 
 public enum ComputationResultSerializerType {
-    APACHE("a", "Apache"), FST("f", "Fst"), CUSTOM("c", "Custom");
+    APACHE("a", "Apache"), FST("f", "Fst"), CUSTOM("c", "Custom"),
+    /**
+     * Same binary schema of {@link #CUSTOM}, written directly into pooled buffers and sent without intermediate copies.
+     * Compression, if any, is delegated to the network manager.
+     */
+    BUFFER("b", "Buffer");
     private final String label;
     private final String fullName;
 
@@ -40,4 +45,14 @@ public enum ComputationResultSerializerType {
         this.fullName = fullName;
         this.label = label;
     }
+
+    /**
+     * Returns the serializer used for aggregated results. The custom serializer only handles trajectories,
+     * hence aggregated results are serialized with the Apache serializer in that case.
+     *
+     * @return the serializer used for aggregated results
+     */
+    public Serializer getAggregatedResultSerializer() {
+        return Serializer.getSerializer(this == FST ? SerializerType.FST : SerializerType.APACHE);
+    }
 }
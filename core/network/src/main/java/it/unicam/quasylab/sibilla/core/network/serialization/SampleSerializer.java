@@ -68,9 +68,33 @@ public class SampleSerializer {
      * @throws IOException
      */
     public static <S extends State> void serialize(ByteArrayOutputStream toSerializeInto, Sample<S> sample, Model<S> model) throws IOException {
-        double time = sample.getTime();
-        toSerializeInto.write(ByteBuffer.allocate(8).putDouble(time).array());
-        toSerializeInto.write(model.byteOf(sample.getValue()));
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize(model));
+        serialize(buffer, sample, model);
+        toSerializeInto.write(buffer.array());
+    }
+
+    /**
+     * Serialize a Sample at the current position of a ByteBuffer
+     *
+     * @param toSerializeInto the buffer where the serialized data will be put
+     * @param sample          the sample to serialize
+     * @param model           the model of the simulation
+     * @param <S>             the state class
+     * @throws IOException
+     */
+    public static <S extends State> void serialize(ByteBuffer toSerializeInto, Sample<S> sample, Model<S> model) throws IOException {
+        toSerializeInto.putDouble(sample.getTime());
+        model.writeState(toSerializeInto, sample.getValue());
+    }
+
+    /**
+     * Returns the number of bytes needed to serialize a Sample of the given model
+     *
+     * @param model the model of the simulation
+     * @return the number of bytes needed to serialize a Sample
+     */
+    public static int serializedSize(Model<?> model) {
+        return 8 + model.stateByteArraySize();
     }
 
     /**
@@ -99,8 +123,21 @@ public class SampleSerializer {
      * @throws IOException
      */
     public static <S extends State> Sample<S> deserialize(ByteArrayInputStream toDeserializeFrom, Model<S> model) throws IOException {
-        double time = ByteBuffer.wrap(toDeserializeFrom.readNBytes(8)).getDouble();
-        S state = model.fromByte(toDeserializeFrom.readNBytes(model.stateByteArraySize()));
+        return deserialize(ByteBuffer.wrap(toDeserializeFrom.readNBytes(serializedSize(model))), model);
+    }
+
+    /**
+     * Deserialize a Sample from the current position of a ByteBuffer
+     *
+     * @param toDeserializeFrom the buffer that contains serialized data
+     * @param model the model of the simulation
+     * @param <S> the state class
+     * @return the deserialized Sample
+     * @throws IOException
+     */
+    public static <S extends State> Sample<S> deserialize(ByteBuffer toDeserializeFrom, Model<S> model) throws IOException {
+        double time = toDeserializeFrom.getDouble();
+        S state = model.readState(toDeserializeFrom);
         return new Sample<>(time, state);
     }
 
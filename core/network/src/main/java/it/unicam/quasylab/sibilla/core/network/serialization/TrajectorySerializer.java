@@ -42,6 +42,11 @@ import java.nio.ByteBuffer;
  */
 public class TrajectorySerializer {
 
+    /**
+     * Number of bytes used to serialize the information of a Trajectory that precede its samples.
+     */
+    private static final int HEADER_SIZE = 32;
+
     /**
      * Serialize a Trajectory into an array of bytes.
      *
@@ -71,21 +76,43 @@ public class TrajectorySerializer {
      */
     public static <S extends State> void serialize(ByteArrayOutputStream toSerializeInto, Trajectory<S> t,
             Model<S> model) throws IOException {
-        int numberOfSamples = t.size();
-        double start = t.getStart();
-        double end = t.getEnd();
-        long generationTime = t.getGenerationTime();
-        int isSuccessful = t.isSuccessful() ? 1 : 0;
-        toSerializeInto.write(ByteBuffer.allocate(4).putInt(numberOfSamples).array());
-        toSerializeInto.write(ByteBuffer.allocate(8).putDouble(start).array());
-        toSerializeInto.write(ByteBuffer.allocate(8).putDouble(end).array());
-        toSerializeInto.write(ByteBuffer.allocate(4).putInt(isSuccessful).array());
-        toSerializeInto.write(ByteBuffer.allocate(8).putLong(generationTime).array());
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSize(t, model));
+        serialize(buffer, t, model);
+        toSerializeInto.write(buffer.array());
+    }
+
+    /**
+     * Serialize a Trajectory at the current position of a ByteBuffer.
+     *
+     * @param toSerializeInto the buffer where the serialized data will be put
+     * @param t               the trajectory to serialize
+     * @param model           the model of the simulation
+     * @param <S>             the state class
+     * @throws IOException
+     */
+    public static <S extends State> void serialize(ByteBuffer toSerializeInto, Trajectory<S> t,
+            Model<S> model) throws IOException {
+        toSerializeInto.putInt(t.size());
+        toSerializeInto.putDouble(t.getStart());
+        toSerializeInto.putDouble(t.getEnd());
+        toSerializeInto.putInt(t.isSuccessful() ? 1 : 0);
+        toSerializeInto.putLong(t.getGenerationTime());
         for (Sample<S> sample : t.getData()) {
             SampleSerializer.serialize(toSerializeInto, sample, model);
         }
     }
 
+    /**
+     * Returns the number of bytes needed to serialize the given Trajectory.
+     *
+     * @param t     the trajectory to serialize
+     * @param model the model of the simulation
+     * @return the number of bytes needed to serialize the trajectory
+     */
+    public static int serializedSize(Trajectory<?> t, Model<?> model) {
+        return HEADER_SIZE + t.size() * SampleSerializer.serializedSize(model);
+    }
+
     /**
      * Deserialize a byte array into a Trajectory
      *
@@ -113,21 +140,35 @@ public class TrajectorySerializer {
      */
     public static <S extends State> Trajectory<S> deserialize(ByteArrayInputStream toDeserializeFrom, Model<S> model)
             throws IOException {
+        byte[] header = toDeserializeFrom.readNBytes(HEADER_SIZE);
+        int numberOfSamples = ByteBuffer.wrap(header).getInt();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + numberOfSamples * SampleSerializer.serializedSize(model));
+        buffer.put(header);
+        buffer.put(toDeserializeFrom.readNBytes(buffer.remaining()));
+        return deserialize(buffer.flip(), model);
+    }
+
+    /**
+     * Deserialize a Trajectory from the current position of a ByteBuffer
+     *
+     * @param toDeserializeFrom the buffer that contains serialized data
+     * @param model             the model of the simulation
+     * @param <S>               the state class
+     * @return the deserialized trajectory
+     * @throws IOException
+     */
+    public static <S extends State> Trajectory<S> deserialize(ByteBuffer toDeserializeFrom, Model<S> model)
+            throws IOException {
         Trajectory<S> t = new Trajectory<S>();
 
-        int numberOfSamples = ByteBuffer.wrap(toDeserializeFrom.readNBytes(4)).getInt();
-        double start = ByteBuffer.wrap(toDeserializeFrom.readNBytes(8)).getDouble();
-        double end = ByteBuffer.wrap(toDeserializeFrom.readNBytes(8)).getDouble();
-        boolean isSuccessful = ByteBuffer.wrap(toDeserializeFrom.readNBytes(4)).getInt() != 0;
-        long generationTime = ByteBuffer.wrap(toDeserializeFrom.readNBytes(8)).getLong();
-        t.setStart(start);
-        t.setEnd(end);
-        t.setGenerationTime(generationTime);
-        t.setSuccessful(isSuccessful);
+        int numberOfSamples = toDeserializeFrom.getInt();
+        t.setStart(toDeserializeFrom.getDouble());
+        t.setEnd(toDeserializeFrom.getDouble());
+        t.setSuccessful(toDeserializeFrom.getInt() != 0);
+        t.setGenerationTime(toDeserializeFrom.getLong());
 
         for (int i = 0; i < numberOfSamples; i++) {
-            Sample<S> newSample = SampleSerializer.deserialize(toDeserializeFrom, model);
-            t.addSample(newSample);
+            t.addSample(SampleSerializer.deserialize(toDeserializeFrom, model));
         }
         return t;
     }
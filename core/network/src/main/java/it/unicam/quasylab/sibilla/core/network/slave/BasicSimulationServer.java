@@ -29,7 +29,7 @@ import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
 import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
-import it.unicam.quasylab.sibilla.core.network.loaders.CustomClassLoader;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
 import it.unicam.quasylab.sibilla.core.network.master.MasterCommand;
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
@@ -41,10 +41,12 @@ import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -151,11 +153,17 @@ public class BasicSimulationServer implements SimulationServer {
             TCPNetworkManager master = TCPNetworkManager.createNetworkManager(networkManagerType, socket);
 
             AtomicBoolean masterIsActive = new AtomicBoolean(true);
+            AtomicReference<TaskFrameHandler> frameHandler = new AtomicReference<>();
 
             Map<MasterCommand, Runnable> map = Map.of(MasterCommand.PING, () -> respondPingRequest(master),
                     MasterCommand.INIT, () -> loadModelClass(master), MasterCommand.TASK,
                     () -> handleTaskExecution(master), MasterCommand.CLOSE_CONNECTION,
-                    () -> closeConnectionWithMaster(masterIsActive, master));
+                    () -> closeConnectionWithMaster(masterIsActive, master), MasterCommand.INFO,
+                    () -> respondInfoRequest(master), MasterCommand.TASK_FRAME,
+                    () -> handleTaskFrame(master, frameHandler), MasterCommand.CANCEL_FRAME,
+                    () -> handleFrameCancellation(master, frameHandler), MasterCommand.END_FRAMES,
+                    () -> handleFramesEnd(master, frameHandler), MasterCommand.INIT_CACHED,
+                    () -> loadCachedModelClass(master), MasterCommand.CACHE_INFO, () -> respondCacheInfoRequest(master));
             while (masterIsActive.get()) {
                 MasterCommand request = (MasterCommand) serializer.deserialize(master.readObject());
                 LOGGER.info(String.format("[%s] command received by master: %s", request,
@@ -172,7 +180,8 @@ public class BasicSimulationServer implements SimulationServer {
     }
 
     /**
-     * Closes the connection with the master server
+     * Closes the connection with the master server. The model stays loaded, so that it can be reused by the next
+     * connections that send the same model.
      *
      * @param masterActive boolean that tells if the master is active or not
      * @param master       server of the master
@@ -180,11 +189,9 @@ public class BasicSimulationServer implements SimulationServer {
     private void closeConnectionWithMaster(AtomicBoolean masterActive, TCPNetworkManager master) {
         try {
             String modelName = (String) serializer.deserialize(master.readObject());
-            LOGGER.info(String.format("[%s] Model name read to be deleted by master: %s", modelName,
+            LOGGER.info(String.format("[%s] Model name read at the connection closure by master: %s", modelName,
                     master.getNetworkInfo().toString()));
             masterActive.set(false);
-            CustomClassLoader.removeClassBytes(modelName);
-            LOGGER.info(String.format("[%s] Model deleted off the class loader", modelName));
 
             master.writeObject(serializer.serialize(SlaveCommand.CLOSE_CONNECTION));
             LOGGER.info(String.format("[%s] command sent to the master: %s", SlaveCommand.CLOSE_CONNECTION,
@@ -213,7 +220,9 @@ public class BasicSimulationServer implements SimulationServer {
             LOGGER.info(
                     String.format("[%s] Model name read by master: %s", modelName, master.getNetworkInfo().toString()));
             byte[] myClass = master.readObject();
-            CustomClassLoader.defClass(modelName, myClass);
+            if (!loadModel(master, modelName, myClass)) {
+                return;
+            }
             String classLoadedName = Class.forName(modelName).getName();
             LOGGER.info(String.format("[%s] Class loaded with success", classLoadedName));
             master.writeObject(serializer.serialize(SlaveCommand.INIT_RESPONSE));
@@ -229,6 +238,67 @@ public class BasicSimulationServer implements SimulationServer {
         }
     }
 
+    /**
+     * Loads the model class in the memory with the CustomClassLoader, unless a model with the same hash is already
+     * loaded. The class data is asked to the master only if the model is not loaded.
+     *
+     * @param master server of the master
+     */
+    private void loadCachedModelClass(TCPNetworkManager master) {
+        try {
+            String modelName = (String) serializer.deserialize(master.readObject());
+            String hash = (String) serializer.deserialize(master.readObject());
+            ModelCache cache = ModelCache.getInstance();
+            if (modelName.equals(cache.lookup(hash))) {
+                LOGGER.info(String.format("[%s] Cached model reused for master: %s", modelName,
+                        master.getNetworkInfo().toString()));
+            } else {
+                master.writeObject(serializer.serialize(SlaveCommand.CLASS_REQUIRED));
+                LOGGER.info(String.format("[%s] Model not cached, class requested to master: %s", modelName,
+                        master.getNetworkInfo().toString()));
+                if (!loadModel(master, modelName, master.readObject())) {
+                    return;
+                }
+            }
+            String classLoadedName = Class.forName(modelName).getName();
+            LOGGER.info(String.format("[%s] Class loaded with success", classLoadedName));
+            master.writeObject(serializer.serialize(SlaveCommand.INIT_RESPONSE));
+            LOGGER.info(String.format("[%s] command sent to the master: %s", SlaveCommand.INIT_RESPONSE,
+                    master.getNetworkInfo().toString()));
+        } catch (ClassNotFoundException e) {
+            LOGGER.severe(String.format("[%s] The simulation model was not loaded with success - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(
+                    String.format("[%s] Network communication failure during the simulation model loading - Master: %s",
+                            e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+    /**
+     * Loads the given model class in the model cache. If the class cannot be loaded, the failure is sent to the master.
+     *
+     * @param master     server of the master
+     * @param modelName  the name of the model class
+     * @param classBytes byte array containing the data of the model class
+     * @return true if the model class has been loaded, false otherwise
+     * @throws IOException if the failure cannot be sent to the master
+     */
+    private boolean loadModel(TCPNetworkManager master, String modelName, byte[] classBytes) throws IOException {
+        try {
+            ModelCache.getInstance().load(modelName, classBytes);
+            return true;
+        } catch (IllegalArgumentException e) {
+            LOGGER.severe(String.format("[%s] The simulation model was not loaded with success - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+            master.writeObject(serializer.serialize(SlaveCommand.INIT_FAILURE));
+            master.writeObject(serializer.serialize(e.getMessage()));
+            LOGGER.info(String.format("[%s] command sent to the master: %s", SlaveCommand.INIT_FAILURE,
+                    master.getNetworkInfo().toString()));
+            return false;
+        }
+    }
+
     /**
      * Handles the simulation execution sent by the server and sends its results to
      * the master
@@ -239,7 +309,11 @@ public class BasicSimulationServer implements SimulationServer {
         try {
             NetworkTask<?> networkTask = (NetworkTask<?>) serializer
                     .deserialize(Compressor.decompress(master.readObject()));
-            simulationExecutor.simulate(networkTask, master);
+            if (networkTask.isAggregated()) {
+                simulationExecutor.simulateAndAggregate(networkTask, master);
+            } else {
+                simulationExecutor.simulate(networkTask, master);
+            }
             LOGGER.info(String.format("Computation's results have been sent to the server - %s",
                     master.getNetworkInfo().toString()));
         } catch (IOException e) {
@@ -248,6 +322,70 @@ public class BasicSimulationServer implements SimulationServer {
         }
     }
 
+    /**
+     * Queues the execution of a frame of tasks sent by the master, without waiting for its completion. The results
+     * of the frame are sent to the master as soon as they are available.
+     *
+     * @param master       server of the master
+     * @param frameHandler handler of the frames sent by the master, created when the first frame is received
+     */
+    private void handleTaskFrame(TCPNetworkManager master, AtomicReference<TaskFrameHandler> frameHandler) {
+        try {
+            int id = (Integer) serializer.deserialize(master.readObject());
+            NetworkTask<?> networkTask = (NetworkTask<?>) serializer
+                    .deserialize(Compressor.decompress(master.readObject()));
+            if (frameHandler.get() == null) {
+                frameHandler.set(new TaskFrameHandler(master, serializer, simulationExecutor, LOGGER));
+            }
+            frameHandler.get().submit(id, networkTask);
+            LOGGER.info(String.format("Frame %d of %d tasks has been queued - Master: %s", id,
+                    networkTask.getTasks().size(), master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure during the frame handling - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+    /**
+     * Cancels the execution of a frame of tasks previously sent by the master
+     *
+     * @param master       server of the master
+     * @param frameHandler handler of the frames sent by the master
+     */
+    private void handleFrameCancellation(TCPNetworkManager master, AtomicReference<TaskFrameHandler> frameHandler) {
+        try {
+            int id = (Integer) serializer.deserialize(master.readObject());
+            if (frameHandler.get() != null) {
+                frameHandler.get().cancel(id);
+            }
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure during the frame cancellation - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+    /**
+     * Waits for the results of all the frames sent by the master and then informs the master that no other
+     * result will be sent
+     *
+     * @param master       server of the master
+     * @param frameHandler handler of the frames sent by the master
+     */
+    private void handleFramesEnd(TCPNetworkManager master, AtomicReference<TaskFrameHandler> frameHandler) {
+        try {
+            TaskFrameHandler handler = frameHandler.getAndSet(null);
+            if (handler == null) {
+                handler = new TaskFrameHandler(master, serializer, simulationExecutor, LOGGER);
+            }
+            handler.end();
+            LOGGER.info(String.format("The results of all the frames have been sent to the master: %s",
+                    master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure at the end of the frames - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
     /**
      * Responds to a ping request from the master
      *
@@ -264,4 +402,38 @@ public class BasicSimulationServer implements SimulationServer {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Responds to a cache info request from the master, sending the list of the models kept loaded by the server
+     *
+     * @param master server of the master
+     */
+    private void respondCacheInfoRequest(TCPNetworkManager master) {
+        try {
+            master.writeObject(serializer.serialize(SlaveCommand.CACHE_INFO_RESPONSE));
+            master.writeObject(serializer.serialize(new ArrayList<>(ModelCache.getInstance().getEntries())));
+            LOGGER.info(String.format("Cache info request answered, it was sent by the master: %s",
+                    master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure during the cache info response - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+    /**
+     * Responds to an info request from the master, sending the number of cores available to the server
+     *
+     * @param master server of the master
+     */
+    private void respondInfoRequest(TCPNetworkManager master) {
+        try {
+            master.writeObject(serializer.serialize(SlaveCommand.INFO_RESPONSE));
+            master.writeObject(serializer.serialize(Runtime.getRuntime().availableProcessors()));
+            LOGGER.info(String.format("Info request answered, it was sent by the master: %s",
+                    master.getNetworkInfo().toString()));
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure during the info response - Master: %s",
+                    e.getMessage(), master.getNetworkInfo().toString()));
+        }
+    }
+
+}
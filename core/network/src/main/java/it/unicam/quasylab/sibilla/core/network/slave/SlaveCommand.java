@@ -38,8 +38,44 @@ public enum SlaveCommand {
      * The command sent by a slave server to respond to a master server init command.
      */
     INIT_RESPONSE,
+    /**
+     * The command sent by a slave server to respond to a master server init command when the model cannot be
+     * loaded, for instance because a different class with the same name is already loaded. It is followed by a
+     * message describing the failure.
+     */
+    INIT_FAILURE,
     /**
      * The command sent by a slave server to inform that the connection with an host will be closed.
      */
-    CLOSE_CONNECTION
+    CLOSE_CONNECTION,
+    /**
+     * The command sent by a slave server to respond to a master server info command. It is followed by the number
+     * of cores used by the slave server.
+     */
+    INFO_RESPONSE,
+    /**
+     * The command sent by a slave server when a frame of tasks has been executed. It is followed by the id of the
+     * frame and by its results.
+     */
+    RESULT_FRAME,
+    /**
+     * The command sent by a slave server when the execution of a frame of tasks has been cancelled. It is followed by
+     * the id of the frame.
+     */
+    FRAME_CANCELLED,
+    /**
+     * The command sent by a slave server to respond to a master server end frames command, once the results of all
+     * the frames have been sent.
+     */
+    END_FRAMES,
+    /**
+     * The command sent by a slave server to respond to a master server init cached command when the model with the
+     * given hash is not loaded. The master server replies with the class data of the model.
+     */
+    CLASS_REQUIRED,
+    /**
+     * The command sent by a slave server to respond to a master server cache info command. It is followed by the
+     * list of the models kept loaded by the slave server.
+     */
+    CACHE_INFO_RESPONSE
 }
@@ -84,6 +84,21 @@ public class SlaveState implements Serializable, Cloneable {
      */
     private long runningTime;
 
+    /**
+     * The number of cores used by the slave server to execute simulations.
+     */
+    private int cores;
+
+    /**
+     * The number of tasks completed by the slave server.
+     */
+    private int completedTasks;
+
+    /**
+     * The estimated number of tasks completed by the slave server per second.
+     */
+    private double throughput;
+
     /**
      * The network related info about this slave server.
      */
@@ -105,6 +120,9 @@ public class SlaveState implements Serializable, Cloneable {
         devRTT = 0.0;
         sampleRTT = 0.0;
         estimatedRTT = 0.0;
+        cores = 1;
+        completedTasks = 0;
+        throughput = 0.0;
         updateSupport = new PropertyChangeSupport(this);
         this.addPropertyChangeListener("Simulation Update", simulationState);
     }
@@ -148,6 +166,20 @@ public class SlaveState implements Serializable, Cloneable {
         this.updateListeners();
     }
 
+    /**
+     * Updates the throughput of the slave server given the data about a new group of completed tasks and signals it
+     * to the listeners
+     *
+     * @param tasks       number of completed tasks
+     * @param elapsedTime time used to execute the tasks
+     */
+    public void completed(int tasks, long elapsedTime) {
+        completedTasks += tasks;
+        double sampleThroughput = tasks / Math.max(elapsedTime / 1e9, 1e-9);
+        throughput = throughput == 0.0 ? sampleThroughput : alpha * sampleThroughput + (1 - alpha) * throughput;
+        this.updateListeners();
+    }
+
     /**
      * Lowers the expected tasks following the TCP window size algorithm and signals it to the listeners
      */
@@ -172,7 +204,17 @@ public class SlaveState implements Serializable, Cloneable {
      * @return timeout length of this server
      */
     public double getTimeout() {
-        return expectedTasks == 1 ? Long.MAX_VALUE : expectedTasks * estimatedRTT + expectedTasks * 4 * devRTT;
+        return getTimeout(expectedTasks);
+    }
+
+    /**
+     * Gets timeout time of this server for a certain number of tasks
+     *
+     * @param tasks number of sent tasks
+     * @return timeout length of this server for a certain number of tasks
+     */
+    public double getTimeout(int tasks) {
+        return tasks == 1 ? Long.MAX_VALUE : tasks * estimatedRTT + tasks * 4 * devRTT;
     }
 
     /**
@@ -261,7 +303,38 @@ public class SlaveState implements Serializable, Cloneable {
     }
 
 
-    public int getSentTasks() {
+    /**
+     * @return the number of cores used by the slave server to execute simulations.
+     */
+    public int getCores() {
+        return cores;
+    }
+
+    /**
+     * Sets the number of cores used by the slave server to execute simulations.
+     *
+     * @param cores the number of cores
+     */
+    public void setCores(int cores) {
+        this.cores = Math.max(1, cores);
+        this.updateListeners();
+    }
+
+    /**
+     * @return the number of tasks completed by the slave server.
+     */
+    public int getCompletedTasks() {
+        return completedTasks;
+    }
+
+    /**
+     * @return the estimated number of tasks completed by the slave server per second.
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+        public int getSentTasks() {
         return sentTasks;
     }
 
@@ -291,7 +364,9 @@ public class SlaveState implements Serializable, Cloneable {
                 "\n - estimatedRTT: " + estimatedRTT + "ns " +
                 "\n - devRTT: " + devRTT + "ns "
                 + "\n - Next task window: " + expectedTasks + " " + "\n - Next time limit: " + getTimeLimit() + "ns "
-                + "\n - Next timeout: " + getTimeout() + "ns";
+                + "\n - Next timeout: " + getTimeout() + "ns"
+                + "\n - Cores: " + cores
+                + "\n - Throughput: " + throughput + " tasks/s";
     }
 
     public SlaveState clone() {
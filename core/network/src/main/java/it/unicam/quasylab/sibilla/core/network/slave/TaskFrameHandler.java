@@ -0,0 +1,205 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.slave;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.AggregatedComputationResult;
+import it.unicam.quasylab.sibilla.core.network.NetworkTask;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
+import it.unicam.quasylab.sibilla.core.network.slave.executor.SimulationExecutor;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * Executes the frames of tasks that a master server sends over a connection without waiting for the results of the
+ * previous ones. Frames are queued and executed while the connection keeps reading new frames, and the results of
+ * each frame are sent back, tagged with the frame id, as soon as it is completed.
+ */
+class TaskFrameHandler {
+
+    /**
+     * Number of frames executed at the same time, so that a frame is computed while the results of another one are
+     * serialized and sent.
+     */
+    private static final int FRAME_WORKERS = 2;
+
+    /**
+     * Maximum number of frames waiting to be executed. When the queue is full, the frame is executed by the thread
+     * reading from the connection.
+     */
+    private static final int MAX_QUEUED_FRAMES = 16;
+
+    /**
+     * Class logger.
+     */
+    private final Logger LOGGER;
+
+    /**
+     * NetworkManager of the master server that sends the frames.
+     */
+    private final TCPNetworkManager master;
+
+    /**
+     * Serializer used to send commands to the master server.
+     */
+    private final Serializer serializer;
+
+    /**
+     * The SimulationExecutor used to execute the tasks of the frames.
+     */
+    private final SimulationExecutor simulationExecutor;
+
+    /**
+     * Executor of the frames.
+     */
+    private final ThreadPoolExecutor frameExecutor;
+
+    /**
+     * Tasks of the frames that have been received and whose results have not been sent yet, indexed by frame id.
+     */
+    private final Map<Integer, List<? extends SimulationTask<?>>> runningFrames = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a handler of the frames sent by the given master server.
+     *
+     * @param master             NetworkManager of the master server
+     * @param serializer         serializer used to send commands to the master server
+     * @param simulationExecutor SimulationExecutor used to execute the tasks
+     * @param logger             logger of the slave server
+     */
+    TaskFrameHandler(TCPNetworkManager master, Serializer serializer, SimulationExecutor simulationExecutor,
+                     Logger logger) {
+        this.master = master;
+        this.serializer = serializer;
+        this.simulationExecutor = simulationExecutor;
+        this.LOGGER = logger;
+        this.frameExecutor = new ThreadPoolExecutor(FRAME_WORKERS, FRAME_WORKERS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_FRAMES), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Queues the execution of a frame of tasks.
+     *
+     * @param id          the id of the frame
+     * @param networkTask the tasks of the frame, together with the sampling function used to aggregate trajectories
+     */
+    <S extends State> void submit(int id, NetworkTask<S> networkTask) {
+        MergeableSamplingFunction<S> samplingFunction = networkTask.getSamplingFunction().newInstance();
+        List<SimulationTask<S>> tasks = simulationExecutor.bindTasks(networkTask, samplingFunction);
+        runningFrames.put(id, tasks);
+        frameExecutor.execute(() -> execute(id, tasks, samplingFunction));
+    }
+
+    /**
+     * Executes a frame of tasks and sends its results to the master server, unless the frame has been cancelled.
+     *
+     * @param id               the id of the frame
+     * @param tasks            the tasks of the frame
+     * @param samplingFunction the sampling function used to aggregate trajectories
+     */
+    private <S extends State> void execute(int id, List<SimulationTask<S>> tasks,
+                                           MergeableSamplingFunction<S> samplingFunction) {
+        try {
+            AggregatedComputationResult result = simulationExecutor.aggregate(tasks, samplingFunction);
+            if (runningFrames.remove(id) == null) {
+                sendFrame(SlaveCommand.FRAME_CANCELLED, id, null);
+            } else {
+                sendFrame(SlaveCommand.RESULT_FRAME, id, simulationExecutor.serializeAggregatedResult(result));
+            }
+        } catch (IOException e) {
+            LOGGER.severe(String.format("[%s] Network communication failure while sending frame %d - Master: %s",
+                    e.getMessage(), id, master.getNetworkInfo().toString()));
+        } catch (RuntimeException e) {
+            LOGGER.severe(String.format("[%s] Execution of frame %d failed - Master: %s", e.getMessage(), id,
+                    master.getNetworkInfo().toString()));
+            runningFrames.remove(id);
+            try {
+                sendFrame(SlaveCommand.FRAME_CANCELLED, id, null);
+            } catch (IOException ioException) {
+                LOGGER.severe(String.format("[%s] Network communication failure while sending frame %d - Master: %s",
+                        ioException.getMessage(), id, master.getNetworkInfo().toString()));
+            }
+        }
+    }
+
+    /**
+     * Cancels the execution of a frame of tasks. The tasks of the frame that are running stop at their current step
+     * and those that have not been started yet are skipped.
+     *
+     * @param id the id of the frame
+     */
+    void cancel(int id) {
+        List<? extends SimulationTask<?>> tasks = runningFrames.remove(id);
+        if (tasks != null) {
+            tasks.forEach(SimulationTask::cancel);
+            LOGGER.info(String.format("Frame %d has been cancelled by master: %s", id,
+                    master.getNetworkInfo().toString()));
+        }
+    }
+
+    /**
+     * Waits until the results of all the received frames have been sent, then informs the master server and
+     * releases the threads of this handler.
+     *
+     * @throws IOException if communication error between servers occur
+     */
+    void end() throws IOException {
+        frameExecutor.shutdown();
+        try {
+            if (!frameExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+                throw new IOException("Frames execution has not been completed");
+            }
+        } catch (InterruptedException e) {
+            throw new IOException(e);
+        }
+        sendFrame(SlaveCommand.END_FRAMES, -1, null);
+    }
+
+    /**
+     * Sends a frame to the master server. Frames sent by different threads are never interleaved.
+     *
+     * @param command the command of the frame
+     * @param id      the id of the frame, ignored when the command is {@link SlaveCommand#END_FRAMES}
+     * @param payload the content of the frame, null if the frame has no content
+     * @throws IOException if communication error between servers occur
+     */
+    private void sendFrame(SlaveCommand command, int id, byte[] payload) throws IOException {
+        synchronized (master) {
+            master.writeObject(serializer.serialize(command));
+            if (command != SlaveCommand.END_FRAMES) {
+                master.writeObject(serializer.serialize(id));
+            }
+            if (payload != null) {
+                master.writeObject(payload);
+            }
+        }
+    }
+
+}
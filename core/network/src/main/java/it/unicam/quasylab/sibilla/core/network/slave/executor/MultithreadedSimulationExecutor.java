@@ -45,6 +45,15 @@ public class MultithreadedSimulationExecutor extends SimulationExecutor {
         super(exType, crSerializerType);
     }
 
+    @Override
+    protected void runTasks(List<? extends SimulationTask<?>> tasks) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < tasks.size(); i++) {
+            futures[i] = CompletableFuture.supplyAsync(tasks.get(i), taskExecutor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
     @Override
     public void simulate(NetworkTask networkTask, TCPNetworkManager master) {
 //        List<? extends SimulationTask<?>> tasks = networkTask.getTasks();
@@ -24,6 +24,8 @@
 package it.unicam.quasylab.sibilla.core.network.slave.executor;
 
 import it.unicam.quasylab.sibilla.core.models.Model;
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.AggregatedComputationResult;
 import it.unicam.quasylab.sibilla.core.network.ComputationResult;
 import it.unicam.quasylab.sibilla.core.network.NetworkTask;
 import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
@@ -33,9 +35,12 @@ import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSe
 import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
 import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
 import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationTask;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Represents an executor of simulations that manages the computation and the
@@ -107,6 +112,97 @@ public abstract class SimulationExecutor {
      */
     public abstract void simulate(NetworkTask networkTask, TCPNetworkManager master);
 
+    /**
+     * Executes the simulation of the given NetworkTask collecting data with the sampling function it carries, and
+     * sends to the master server only the resulting partial statistics.
+     *
+     * @param networkTask the network task to simulate
+     * @param master      the NetworkManager of the master server the results will
+     *                    be sent to
+     */
+    public <S extends State> void simulateAndAggregate(NetworkTask<S> networkTask, TCPNetworkManager master) {
+        AggregatedComputationResult result = aggregate(networkTask);
+        final var wrapper = new Object() {
+            private byte[] toSend;
+        };
+        this.sendBenchmark.run(() -> {
+            wrapper.toSend = this.crSerializerType.getAggregatedResultSerializer().serialize(result);
+            return List.of((double) result.getNumberOfTasks(), (double) wrapper.toSend.length);
+        }, () -> {
+            wrapper.toSend = Compressor.compress(wrapper.toSend);
+            return List.of((double) wrapper.toSend.length);
+        }, () -> {
+            master.writeObject(wrapper.toSend);
+            return List.of();
+        });
+    }
+
+    /**
+     * Executes the simulation of the given NetworkTask collecting data with the sampling function it carries, and
+     * returns the resulting partial statistics.
+     *
+     * @param networkTask the network task to simulate
+     * @return the partial statistics collected from the simulated trajectories
+     */
+    public <S extends State> AggregatedComputationResult aggregate(NetworkTask<S> networkTask) {
+        MergeableSamplingFunction<S> samplingFunction = networkTask.getSamplingFunction().newInstance();
+        return aggregate(bindTasks(networkTask, samplingFunction), samplingFunction);
+    }
+
+    /**
+     * Returns the tasks of the given NetworkTask, collecting their data with the given sampling function.
+     *
+     * @param networkTask      the network task to simulate
+     * @param samplingFunction the sampling function that collects data from the tasks
+     * @return the tasks of the given NetworkTask bound to the given sampling function
+     */
+    public <S extends State> List<SimulationTask<S>> bindTasks(NetworkTask<S> networkTask,
+                                                               MergeableSamplingFunction<S> samplingFunction) {
+        return networkTask.getTasks().stream()
+                .map(t -> t.withSamplingHandler(samplingFunction::getSamplingHandler))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Executes the given tasks, that collect data with the given sampling function, and returns the resulting
+     * partial statistics. Tasks cancelled while running stop at their current step.
+     *
+     * @param tasks            the tasks to execute
+     * @param samplingFunction the sampling function that collects data from the tasks
+     * @return the partial statistics collected from the simulated trajectories
+     */
+    public <S extends State> AggregatedComputationResult aggregate(List<SimulationTask<S>> tasks,
+                                                                   MergeableSamplingFunction<S> samplingFunction) {
+        this.computationBenchmark.run(() -> {
+            runTasks(tasks);
+            return List.of((double) tasks.size());
+        });
+        return new AggregatedComputationResult(tasks.size(), samplingFunction.getPartialResults());
+    }
+
+    /**
+     * Serializes and compresses the given partial statistics so that they can be sent to a master server.
+     *
+     * @param result the partial statistics to serialize
+     * @return the compressed serialized partial statistics
+     * @throws IOException if the result cannot be serialized
+     */
+    public byte[] serializeAggregatedResult(AggregatedComputationResult result) throws IOException {
+        return Compressor.compress(this.crSerializerType.getAggregatedResultSerializer().serialize(result));
+    }
+
+    /**
+     * Executes the given tasks, returning when all of them are completed. Tasks are executed sequentially
+     * by default.
+     *
+     * @param tasks the tasks to execute
+     */
+    protected void runTasks(List<? extends SimulationTask<?>> tasks) {
+        for (SimulationTask<?> task : tasks) {
+            task.get();
+        }
+    }
+
     /**
      * Serializes, compresses and sends the simulation results to a master server.
      *
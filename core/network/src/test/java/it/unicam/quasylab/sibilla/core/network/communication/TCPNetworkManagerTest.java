@@ -0,0 +1,172 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.communication;
+
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.util.SSLUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TCPNetworkManagerTest {
+
+    /**
+     * Size of the exchanged messages, large enough to fill the socket buffers.
+     */
+    private static final int MESSAGE_SIZE = 8 * 1024 * 1024;
+
+    private static final int TIMEOUT = 30;
+
+    @BeforeEach
+    void setUp() {
+        useTestKeyStore();
+    }
+
+    @Test
+    void nioManagersShouldReadAndWriteAtTheSameTime() throws Exception {
+        fullDuplexExchange(TCPNetworkManagerType.NIO);
+        fullDuplexExchange(TCPNetworkManagerType.NIO_DEFLATE);
+    }
+
+    @Test
+    void everyManagerShouldReadAndWriteAtTheSameTime() throws Exception {
+        for (TCPNetworkManagerType type : TCPNetworkManagerType.values()) {
+            fullDuplexExchange(type);
+        }
+    }
+
+    @Test
+    void concurrentWritesShouldNotInterleave() throws Exception {
+        for (TCPNetworkManagerType type : TCPNetworkManagerType.values()) {
+            TCPNetworkManager[] pair = connect(type);
+            int writers = 4;
+            int messages = 200;
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            try {
+                List<Future<?>> writes = new ArrayList<>();
+                for (int i = 0; i < writers; i++) {
+                    byte writer = (byte) i;
+                    writes.add(executor.submit(() -> {
+                        for (int j = 1; j <= messages; j++) {
+                            byte[] message = new byte[j * 16];
+                            Arrays.fill(message, writer);
+                            pair[0].writeObject(message);
+                        }
+                        return null;
+                    }));
+                }
+                int[] received = new int[writers];
+                for (int i = 0; i < writers * messages; i++) {
+                    byte[] message = pair[1].readObject();
+                    byte writer = message[0];
+                    received[writer]++;
+                    assertEquals(received[writer] * 16, message.length, type.name());
+                    for (byte b : message) {
+                        assertEquals(writer, b, type.name());
+                    }
+                }
+                for (Future<?> write : writes) {
+                    write.get(TIMEOUT, TimeUnit.SECONDS);
+                }
+            } finally {
+                pair[0].closeConnection();
+                pair[1].closeConnection();
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Each side of the connection starts reading in a thread and, while the read is pending, sends a large message
+     * from another thread. The exchange only terminates if reads and writes can proceed at the same time.
+     */
+    static void fullDuplexExchange(TCPNetworkManagerType type) throws Exception {
+        TCPNetworkManager[] pair = connect(type);
+        byte[][] messages = {randomMessage(1), randomMessage(2)};
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<byte[]> firstRead = executor.submit(pair[0]::readObject);
+            Future<byte[]> secondRead = executor.submit(pair[1]::readObject);
+            Thread.sleep(100);
+            Future<?> firstWrite = executor.submit(() -> write(pair[0], messages[0]));
+            Future<?> secondWrite = executor.submit(() -> write(pair[1], messages[1]));
+            firstWrite.get(TIMEOUT, TimeUnit.SECONDS);
+            secondWrite.get(TIMEOUT, TimeUnit.SECONDS);
+            assertTrue(Arrays.equals(messages[1], firstRead.get(TIMEOUT, TimeUnit.SECONDS)), type.name());
+            assertTrue(Arrays.equals(messages[0], secondRead.get(TIMEOUT, TimeUnit.SECONDS)), type.name());
+        } finally {
+            pair[0].closeConnection();
+            pair[1].closeConnection();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Lets {@link TCPNetworkManagerType#SECURE} managers use the self-signed certificate stored in the test
+     * resources, both as key and as trusted certificate.
+     */
+    static void useTestKeyStore() {
+        SSLUtils ssl = SSLUtils.getInstance();
+        ssl.setKeyStorePath("sibillaTest.p12");
+        ssl.setKeyStorePass("testPass");
+        ssl.setKeyStoreType("PKCS12");
+        ssl.setTrustStorePath("sibillaTest.p12");
+        ssl.setTrustStorePass("testPass");
+        ssl.setTrustStoreType("PKCS12");
+    }
+
+    static TCPNetworkManager[] connect(TCPNetworkManagerType type) throws Exception {
+        try (ServerSocket server = TCPNetworkManager.createServerSocket(type, 0)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<TCPNetworkManager> accepted = executor.submit(() -> TCPNetworkManager.createNetworkManager(type, server.accept()));
+                TCPNetworkManager client = TCPNetworkManager.createNetworkManager(new NetworkInfo(InetAddress.getLoopbackAddress(), server.getLocalPort(), type));
+                return new TCPNetworkManager[]{accepted.get(TIMEOUT, TimeUnit.SECONDS), client};
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static byte[] randomMessage(long seed) {
+        byte[] message = new byte[MESSAGE_SIZE];
+        new Random(seed).nextBytes(message);
+        return message;
+    }
+
+    private static Void write(TCPNetworkManager manager, byte[] message) throws IOException {
+        manager.writeObject(message);
+        return null;
+    }
+
+}
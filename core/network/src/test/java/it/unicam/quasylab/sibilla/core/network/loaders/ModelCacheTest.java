@@ -0,0 +1,75 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.network.loaders;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModelCacheTest {
+
+    /**
+     * A class whose data is available in the class path.
+     */
+    static class CachedModel {
+    }
+
+    private static byte[] classBytesOf(Class<?> c) throws IOException {
+        try (InputStream is = ClassLoader.getSystemResourceAsStream(c.getName().replace('.', '/') + ".class")) {
+            assertNotNull(is);
+            return is.readAllBytes();
+        }
+    }
+
+    @Test
+    void differentContentWithTheSameNameShouldBeRejected() throws IOException {
+        ModelCache cache = ModelCache.getInstance();
+        String className = CachedModel.class.getName();
+        byte[] classBytes = classBytesOf(CachedModel.class);
+        String hash = cache.load(className, classBytes);
+        assertEquals(ModelCache.hashOf(classBytes), hash);
+        assertEquals(className, cache.lookup(hash));
+        byte[] recompiled = Arrays.copyOf(classBytes, classBytes.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> cache.load(className, recompiled));
+        assertNull(cache.lookup(ModelCache.hashOf(recompiled)));
+        assertEquals(className, cache.lookup(hash));
+        assertArrayEquals(classBytes, CustomClassLoader.loadClassBytes(className));
+    }
+
+    @Test
+    void classesThatCannotBeDefinedShouldNotBeCached() {
+        ModelCache cache = ModelCache.getInstance();
+        String className = "it.unicam.quasylab.sibilla.core.network.loaders.NotAModel";
+        byte[] classBytes = new byte[]{1, 2, 3};
+        assertThrows(IllegalArgumentException.class, () -> cache.load(className, classBytes));
+        assertNull(cache.lookup(ModelCache.hashOf(classBytes)));
+        assertNull(CustomClassLoader.loadClassBytes(className));
+        assertThrows(IllegalArgumentException.class, () -> cache.load(className, classBytes));
+    }
+
+}
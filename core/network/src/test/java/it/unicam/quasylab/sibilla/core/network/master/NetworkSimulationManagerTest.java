@@ -0,0 +1,474 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.network.master;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.network.NetworkInfo;
+import it.unicam.quasylab.sibilla.core.network.NetworkTask;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManager;
+import it.unicam.quasylab.sibilla.core.network.communication.TCPNetworkManagerType;
+import it.unicam.quasylab.sibilla.core.network.compression.Compressor;
+import it.unicam.quasylab.sibilla.core.network.loaders.ModelCache;
+import it.unicam.quasylab.sibilla.core.network.serialization.ComputationResultSerializerType;
+import it.unicam.quasylab.sibilla.core.network.serialization.Serializer;
+import it.unicam.quasylab.sibilla.core.network.serialization.SerializerType;
+import it.unicam.quasylab.sibilla.core.network.slave.BasicSimulationServer;
+import it.unicam.quasylab.sibilla.core.network.slave.SlaveCommand;
+import it.unicam.quasylab.sibilla.core.network.slave.executor.SimulationExecutor;
+import it.unicam.quasylab.sibilla.core.network.util.SSLUtils;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationUnit;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.MergeableSamplingFunction;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs simulations against slave servers started in this JVM and listening on the loopback interface.
+ */
+class NetworkSimulationManagerTest {
+
+    private static final int TIMEOUT = 60;
+
+    private static final int REPLICAS = 500;
+
+    private static final double DEADLINE = 10.0;
+
+    private static final NetworkInfo CLIENT_INFO = new NetworkInfo(InetAddress.getLoopbackAddress(), 0,
+            TCPNetworkManagerType.DEFAULT);
+
+    /**
+     * Slave servers started so far, for each type of network manager. Servers cannot be stopped, hence they are
+     * shared by all the tests.
+     */
+    private static final Map<TCPNetworkManagerType, List<NetworkInfo>> SLAVES = new EnumMap<>(TCPNetworkManagerType.class);
+
+    @BeforeEach
+    void setUp() {
+        SSLUtils ssl = SSLUtils.getInstance();
+        ssl.setKeyStorePath("sibillaTest.p12");
+        ssl.setKeyStorePass("testPass");
+        ssl.setKeyStoreType("PKCS12");
+        ssl.setTrustStorePath("sibillaTest.p12");
+        ssl.setTrustStorePass("testPass");
+        ssl.setTrustStoreType("PKCS12");
+    }
+
+    @Test
+    void pipelinedSimulationsShouldRunWithEveryNetworkManagerType() throws Exception {
+        for (TCPNetworkManagerType type : TCPNetworkManagerType.values()) {
+            TrajectoryCounter counter = simulate(SchedulingPolicy.PIPELINED, slaves(type, 2),
+                    NetworkSimulationManagerTest.class.getName());
+            assertEquals(REPLICAS, counter.getTrajectories(), type.name());
+        }
+    }
+
+    @Test
+    void simulationsShouldRunWithEverySchedulingPolicy() throws Exception {
+        for (SchedulingPolicy policy : SchedulingPolicy.values()) {
+            TrajectoryCounter counter = simulate(policy, slaves(TCPNetworkManagerType.DEFAULT, 3),
+                    NetworkSimulationManagerTest.class.getName());
+            assertEquals(REPLICAS, counter.getTrajectories(), policy.name());
+        }
+    }
+
+    @Test
+    void chunksOfStalledSlavesShouldBeReissued() throws Exception {
+        for (SchedulingPolicy policy : List.of(SchedulingPolicy.PULL, SchedulingPolicy.PIPELINED)) {
+            try (StalledSlave stalled = new StalledSlave()) {
+                Set<NetworkInfo> slaves = new HashSet<>(slaves(TCPNetworkManagerType.DEFAULT, 1));
+                slaves.add(stalled.getNetworkInfo());
+                TrajectoryCounter counter = simulate(policy, slaves, NetworkSimulationManagerTest.class.getName());
+                assertTrue(stalled.getReceivedTasks() > 0, policy.name());
+                assertEquals(REPLICAS, counter.getTrajectories(), policy.name());
+            }
+        }
+    }
+
+    @Test
+    void modelsShouldBeSentOnceAndThenReferencedByHash() throws Exception {
+        Set<NetworkInfo> slaves = slaves(TCPNetworkManagerType.DEFAULT, 3);
+        simulate(SchedulingPolicy.PIPELINED, slaves, CachedModel.class.getName());
+        assertEquals(slaves.size() - 1, cachedModelHits(slaves));
+        simulate(SchedulingPolicy.PIPELINED, slaves, CachedModel.class.getName());
+        assertEquals(2 * slaves.size() - 1, cachedModelHits(slaves));
+    }
+
+    /**
+     * Returns the number of times the slave servers reused {@link CachedModel}. Slave servers running in the same
+     * JVM share their cache, hence they all report the same hits.
+     */
+    private static int cachedModelHits(Set<NetworkInfo> slaves) throws IOException {
+        int hits = -1;
+        for (NetworkInfo slave : slaves) {
+            List<ModelCache.Entry> entries = NetworkSimulationManager.getSlaveModelCache(slave, SerializerType.APACHE)
+                    .stream().filter(e -> e.getClassName().equals(CachedModel.class.getName())).toList();
+            assertEquals(1, entries.size());
+            assertTrue((hits < 0) || (hits == entries.get(0).getHits()));
+            hits = entries.get(0).getHits();
+        }
+        return hits;
+    }
+
+    /**
+     * Simulates {@link #REPLICAS} random walks on the given slave servers, counting the sampled trajectories.
+     */
+    static TrajectoryCounter simulate(SchedulingPolicy policy, Set<NetworkInfo> slaves, String modelName)
+            throws Exception {
+        NetworkInfo masterInfo = new NetworkInfo(InetAddress.getLoopbackAddress(), 0, TCPNetworkManagerType.DEFAULT);
+        SimulationState state = new SimulationState(new MasterState(masterInfo), masterInfo, CLIENT_INFO, slaves,
+                null);
+        state.setSimulationModelName(modelName);
+        TrajectoryCounter counter = new TrajectoryCounter();
+        SimulationUnit<Walk> unit = new SimulationUnit<>(new WalkCursorSupplier(), new Origin(),
+                counter::getSamplingHandler, SamplePredicate.timeDeadlinePredicate(DEADLINE));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                NetworkSimulationManager<Walk> manager = new NetworkSimulationManager<>(new DefaultRandomGenerator(),
+                        null, state, SerializerType.APACHE, ComputationResultSerializerType.APACHE, CLIENT_INFO,
+                        counter, policy);
+                for (int i = 0; i < REPLICAS; i++) {
+                    manager.simulate(unit);
+                }
+                manager.join();
+                manager.shutdown();
+                return null;
+            }).get(TIMEOUT, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the network infos of the given number of slave servers of the given type, starting them if needed.
+     */
+    static synchronized Set<NetworkInfo> slaves(TCPNetworkManagerType type, int n) throws Exception {
+        List<NetworkInfo> started = SLAVES.computeIfAbsent(type, t -> new ArrayList<>());
+        while (started.size() < n) {
+            started.add(startSlave(type));
+        }
+        return new HashSet<>(started.subList(0, n));
+    }
+
+    private static NetworkInfo startSlave(TCPNetworkManagerType type) throws Exception {
+        int port = freePort();
+        BasicSimulationServer server = new BasicSimulationServer(type, SerializerType.APACHE,
+                SimulationExecutor.ExecutorType.SEQUENTIAL, ComputationResultSerializerType.APACHE);
+        Thread thread = new Thread(() -> server.start(port));
+        thread.setDaemon(true);
+        thread.start();
+        awaitListening(port);
+        return new NetworkInfo(InetAddress.getLoopbackAddress(), port, type);
+    }
+
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static void awaitListening(int port) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        while (true) {
+            try (Socket ignored = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                return;
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    /**
+     * Model sent to the slave servers only by {@link #modelsShouldBeSentOnceAndThenReferencedByHash()}.
+     */
+    static class CachedModel {
+    }
+
+    /**
+     * Slave server that accepts tasks but never sends back their results.
+     */
+    static class StalledSlave implements AutoCloseable {
+
+        private final Serializer serializer = Serializer.getSerializer(SerializerType.APACHE);
+        private final ServerSocket serverSocket;
+        private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+        private final AtomicInteger receivedTasks = new AtomicInteger();
+
+        StalledSlave() throws IOException {
+            serverSocket = TCPNetworkManager.createServerSocket(TCPNetworkManagerType.DEFAULT, 0);
+            Thread thread = new Thread(this::accept);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        NetworkInfo getNetworkInfo() {
+            return new NetworkInfo(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort(),
+                    TCPNetworkManagerType.DEFAULT);
+        }
+
+        int getReceivedTasks() {
+            return receivedTasks.get();
+        }
+
+        private void accept() {
+            try {
+                while (true) {
+                    Socket socket = serverSocket.accept();
+                    sockets.add(socket);
+                    Thread thread = new Thread(() -> serve(socket));
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+            } catch (IOException e) {
+                // The slave has been closed
+            }
+        }
+
+        private void serve(Socket socket) {
+            try {
+                TCPNetworkManager master = TCPNetworkManager.createNetworkManager(TCPNetworkManagerType.DEFAULT, socket);
+                while (true) {
+                    switch ((MasterCommand) serializer.deserialize(master.readObject())) {
+                        case INIT_CACHED -> {
+                            master.readObject();
+                            master.readObject();
+                            master.writeObject(serializer.serialize(SlaveCommand.INIT_RESPONSE));
+                        }
+                        case INFO -> {
+                            master.writeObject(serializer.serialize(SlaveCommand.INFO_RESPONSE));
+                            master.writeObject(serializer.serialize(Runtime.getRuntime().availableProcessors()));
+                        }
+                        case TASK -> receiveTasks(master);
+                        case TASK_FRAME, CANCEL_FRAME -> {
+                            master.readObject();
+                            receiveTasks(master);
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // The connection has been closed
+            }
+        }
+
+        private void receiveTasks(TCPNetworkManager master) throws IOException {
+            NetworkTask<?> networkTask = (NetworkTask<?>) serializer.deserialize(Compressor.decompress(master.readObject()));
+            receivedTasks.addAndGet(networkTask.getTasks().size());
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+
+    }
+
+    /**
+     * State of a random walk, that is the number of performed steps.
+     */
+    static class Walk implements State {
+
+        private final int steps;
+
+        Walk(int steps) {
+            this.steps = steps;
+        }
+
+    }
+
+    static class Origin implements Function<RandomGenerator, Walk>, Serializable {
+
+        @Override
+        public Walk apply(RandomGenerator randomGenerator) {
+            return new Walk(0);
+        }
+
+    }
+
+    static class WalkCursorSupplier implements BiFunction<RandomGenerator, Function<RandomGenerator, Walk>,
+            SimulatorCursor<Walk>>, Serializable {
+
+        @Override
+        public SimulatorCursor<Walk> apply(RandomGenerator random, Function<RandomGenerator, Walk> initialState) {
+            return new WalkCursor(random, initialState);
+        }
+
+    }
+
+    /**
+     * Cursor of a random walk whose steps take a uniformly distributed time.
+     */
+    static class WalkCursor implements SimulatorCursor<Walk> {
+
+        private final Function<RandomGenerator, Walk> initialState;
+        private RandomGenerator random;
+        private Walk state;
+        private double time = Double.NaN;
+
+        WalkCursor(RandomGenerator random, Function<RandomGenerator, Walk> initialState) {
+            this.random = random;
+            this.initialState = initialState;
+        }
+
+        @Override
+        public void start() {
+            state = initialState.apply(random);
+            time = 0.0;
+        }
+
+        @Override
+        public boolean step() {
+            if (state == null) {
+                throw new IllegalStateException();
+            }
+            time += random.nextDouble();
+            state = new Walk(state.steps + 1);
+            return true;
+        }
+
+        @Override
+        public Walk currentState() {
+            return state;
+        }
+
+        @Override
+        public double time() {
+            return time;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return state != null;
+        }
+
+        @Override
+        public void restart(RandomGenerator rg) {
+            this.random = rg;
+            start();
+        }
+
+        @Override
+        public void restart() {
+            start();
+        }
+
+    }
+
+    /**
+     * Sampling function that counts the sampled trajectories.
+     */
+    static class TrajectoryCounter implements MergeableSamplingFunction<Walk> {
+
+        private static final String NAME = "trajectories";
+
+        private int trajectories;
+
+        synchronized int getTrajectories() {
+            return trajectories;
+        }
+
+        private synchronized void trajectoryEnded() {
+            trajectories++;
+        }
+
+        @Override
+        public SamplingHandler<Walk> getSamplingHandler() {
+            return new SamplingHandler<>() {
+                @Override
+                public void start() {
+                }
+
+                @Override
+                public void sample(double time, Walk state) {
+                }
+
+                @Override
+                public void end(double time) {
+                    trajectoryEnded();
+                }
+
+                @Override
+                public boolean retainsStates() {
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public TrajectoryCounter newInstance() {
+            return new TrajectoryCounter();
+        }
+
+        @Override
+        public synchronized Map<String, Serializable> getPartialResults() {
+            return Map.of(NAME, trajectories);
+        }
+
+        @Override
+        public synchronized void mergePartialResults(Map<String, ? extends Serializable> partialResults) {
+            trajectories += (Integer) partialResults.get(NAME);
+        }
+
+        @Override
+        public void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) {
+        }
+
+        @Override
+        public Map<String, double[][]> getSimulationTimeSeries() {
+            return Map.of();
+        }
+
+    }
+
+}
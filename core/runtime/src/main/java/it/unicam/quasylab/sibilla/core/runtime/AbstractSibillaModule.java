@@ -31,6 +31,8 @@ import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
@@ -153,6 +155,16 @@ public abstract class AbstractSibillaModule implements SibillaModule {
         return checkForLoadedDefinition().estimateReachability(simulator, monitor, rg, transientCondition, targetCondition, time, pError, delta);
     }
 
+    @Override
+    public SequentialTestResult checkReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, SequentialTest test) {
+        return checkForLoadedDefinition().checkReachability(simulator, monitor, rg, transientCondition, targetCondition, time, test);
+    }
+
+    @Override
+    public SequentialTestResult checkFormula(SimulationMonitor monitor, RandomGenerator rg, String formulaName, Map<String, Double> formulaParameters, SequentialTest test) throws StlModelGenerationException {
+        return checkForLoadedDefinition().checkFormula(simulator, monitor, rg, formulaName, formulaParameters, test);
+    }
+
     @Override
     public void setSimulationManagerFactory(SimulationManagerFactory factory) {
         this.simulator.setSimulationManagerFactory(factory);
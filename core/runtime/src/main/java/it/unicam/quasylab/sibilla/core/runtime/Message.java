@@ -7,4 +7,6 @@ public class Message {
     public static final String UNKNOWN_MODULE_MESSAGE = "Module %s is unknown!";
     public static final String NO_MODULE_HAS_BEEN_LOADED =  "No module has been loaded!";
     public static final String UNKNOWN_COMMAND_MESSAGE = "Command %s is unknown!";
+    public static final String UNKNOWN_MODE_MESSAGE = "Mode %s is unknown!";
+    public static final String UNKNOWN_MODE_PARAMETER = "Mode parameter %s is unknown!";
 }
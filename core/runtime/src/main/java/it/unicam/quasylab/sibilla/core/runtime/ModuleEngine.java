@@ -32,10 +32,15 @@ import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTimeHandlerSupplier;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
-import it.unicam.quasylab.sibilla.core.util.Signal;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
+import it.unicam.quasylab.sibilla.tools.stl.OnlineMonitor;
+import it.unicam.quasylab.sibilla.tools.stl.OnlineMonitorSampling;
 import it.unicam.quasylab.sibilla.tools.stl.QualitativeMonitor;
-import it.unicam.quasylab.sibilla.tools.stl.QuantitativeMonitor;
+import it.unicam.quasylab.sibilla.tools.stl.QualitativeMonitorSampling;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import it.unicam.quasylab.sibilla.tools.stl.StlModelGenerationException;
@@ -246,6 +251,25 @@ public class ModuleEngine<S extends State> {
     }
 
 
+    public SequentialTestResult checkReachability(SimulationEnvironment simulationEnvironment,
+                                                  SimulationMonitor monitor,
+                                                  RandomGenerator rg,
+                                                  String transientCondition,
+                                                  String targetCondition,
+                                                  double time,
+                                                  SequentialTest test) {
+        loadModel();
+        setDefaultConfiguration();
+        Predicate<? super S> transientPredicate = (transientCondition == null ? s -> true : currentModel.getPredicate(transientCondition));
+        Predicate<? super S> targetPredicate = currentModel.getPredicate(targetCondition);
+        try {
+            return simulationEnvironment.reachability(monitor, rg, test, time, currentModel, state, transientPredicate::test, targetPredicate::test);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+
     public Map<String, SibillaValue> getEnvironment() {
         return modelDefinition.getEnvironment().getParameterMap();
     }
@@ -274,41 +298,65 @@ public class ModuleEngine<S extends State> {
     }
 
 
-    private Supplier<Trajectory<S>> getTrajectoryProvider(SimulationEnvironment se,
-                                                          RandomGenerator rg,
-                                                          double deadline) {
-        return  () -> {
-            Trajectory<S> trajectory = se.sampleTrajectory(rg, currentModel, state.apply(rg), deadline);
-            trajectory.setEnd(deadline);
-            return trajectory;
-        };
-    }
-
-
     public double meanRobustnessAtTime0(SimulationEnvironment se,
                                     RandomGenerator rg,
                                     String formulaName, Map<String, Double> formulaParameters,
                                     int replica) throws StlModelGenerationException {
-        QuantitativeMonitor<S> formulaMonitor = stlMonitorGenerator.getQuantitativeMonitor(formulaName, formulaParameters);
-//        return QuantitativeMonitor.computeMeanRobustness(formulaMonitor,getTrajectoryProvider(se,rg,formulaMonitor.getTimeHorizon()),replica,new double[]{0.0})[0];
-        double robustness = 0.0;
-        for(int i = 0; i < replica;i++){
-            Trajectory<S> trajectory = se.sampleTrajectory(rg, currentModel, state.apply(rg), formulaMonitor.getTimeHorizon());
-            trajectory.setEnd(formulaMonitor.getTimeHorizon());
-            Signal robustnessSignal = formulaMonitor.monitor(trajectory);
-            double currentRobustness = robustnessSignal.valueAt(0);
-            robustness += currentRobustness;
-        }
-
-        return robustness / replica;
+        OnlineMonitor<S> formulaMonitor = stlMonitorGenerator.getOnlineMonitor(formulaName, formulaParameters);
+        return onlineMonitoring(se, rg, new OnlineMonitorSampling<>(formulaMonitor, new double[]{0.0}), replica).getMeanRobustness()[0];
     }
 
     public double[] meanAndSdRobustnessAtTime0(SimulationEnvironment se,
                                         RandomGenerator rg,
                                         String formulaName, Map<String, Double> formulaParameters,
                                         int replica) throws StlModelGenerationException {
-        QuantitativeMonitor<S> formulaMonitor = stlMonitorGenerator.getQuantitativeMonitor(formulaName, formulaParameters);
-        return QuantitativeMonitor.meanAndStandardDeviationRobustness(formulaMonitor,getTrajectoryProvider(se,rg,formulaMonitor.getTimeHorizon()),replica,new double[]{0.0})[0];
+        OnlineMonitor<S> formulaMonitor = stlMonitorGenerator.getOnlineMonitor(formulaName, formulaParameters);
+        return onlineMonitoring(se, rg, new OnlineMonitorSampling<>(formulaMonitor, new double[]{0.0}), replica).getMeanAndStandardDeviationRobustness()[0];
+    }
+
+    public SequentialTestResult checkFormula(SimulationEnvironment se,
+                                             SimulationMonitor monitor,
+                                             RandomGenerator rg,
+                                             String formulaName, Map<String, Double> formulaParameters,
+                                             SequentialTest test) throws StlModelGenerationException {
+        loadModel();
+        setDefaultConfiguration();
+        OnlineMonitor<S> formulaMonitor = stlMonitorGenerator.getOnlineMonitor(formulaName, formulaParameters);
+        try {
+            return se.sequentialTest(monitor, rg, test, currentModel::createSimulationCursor, state,
+                    outcome -> OnlineMonitorSampling.satisfactionHandler(formulaMonitor, outcome),
+                    SamplePredicate.timeDeadlinePredicate(formulaMonitor.getTimeHorizon()));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Simulates the given number of replicas while the robustness is evaluated online. Each replica is
+     * stopped as soon as the robustness at all the time steps of interest is determined.
+     */
+    private OnlineMonitorSampling<S> onlineMonitoring(SimulationEnvironment se,
+                                                      RandomGenerator rg,
+                                                      OnlineMonitorSampling<S> sampling,
+                                                      int replica) {
+        return monitoring(se, rg, sampling, replica, sampling.getDeadline());
+    }
+
+    /**
+     * Simulates the given number of replicas, via the simulation manager of the given environment, while
+     * the given sampling collects data from each replica.
+     */
+    private <T extends Supplier<SamplingHandler<S>>> T monitoring(SimulationEnvironment se,
+                                                                   RandomGenerator rg,
+                                                                   T sampling,
+                                                                   int replica,
+                                                                   double deadline) {
+        try {
+            se.simulate(rg, currentModel, state, sampling, replica, deadline);
+            return sampling;
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     public double expectedProbabilityAtTime0(SimulationEnvironment se,
@@ -316,7 +364,8 @@ public class ModuleEngine<S extends State> {
                                              String formulaName, Map<String, Double> formulaParameters,
                                              int replica) throws StlModelGenerationException {
         QualitativeMonitor<S> formulaMonitor = stlMonitorGenerator.getQualitativeMonitor(formulaName, formulaParameters);
-        return QualitativeMonitor.computeProbability(formulaMonitor,getTrajectoryProvider(se,rg,formulaMonitor.getTimeHorizon()),replica,new double[]{0.0})[0];
+        QualitativeMonitorSampling<S> sampling = new QualitativeMonitorSampling<>(formulaMonitor, new double[]{0.0}, formulaMonitor.getTimeHorizon());
+        return monitoring(se, rg, sampling, replica, sampling.getDeadline()).getProbability()[0];
     }
 
     public Map<String, double[][]>  qualitativeMonitoring(SimulationEnvironment simulationEnvironment,
@@ -330,21 +379,12 @@ public class ModuleEngine<S extends State> {
         loadModel();
         setDefaultConfiguration();
         Map<String, double[][]> result = new TreeMap<>();
-
-
         for (int i = 0; i < formulaName.length; i++) {
             QualitativeMonitor<S> formulaMonitor = stlMonitorGenerator.getQualitativeMonitor(formulaName[i], formulaArgs[i]);
-            Supplier<Trajectory<S>> trajectoryProvider = () -> {
-                Trajectory<S> trajectory = simulationEnvironment.sampleTrajectory(rg, currentModel, state.apply(rg), deadline);
-                trajectory.setEnd(deadline);
-                return trajectory;
-            };
-            result.put(formulaName[i], QualitativeMonitor.computeTimeSeriesProbabilities(formulaMonitor,trajectoryProvider,replica,dt,deadline));
+            QualitativeMonitorSampling<S> sampling = new QualitativeMonitorSampling<>(formulaMonitor, dt, deadline);
+            result.put(formulaName[i], monitoring(simulationEnvironment, rg, sampling, replica, deadline).getTimeSeriesProbabilities());
         }
-
         return result;
-
-
     }
 
 
@@ -375,14 +415,9 @@ public class ModuleEngine<S extends State> {
         setDefaultConfiguration();
         Map<String, double[][]> result = new TreeMap<>();
         for (int i = 0; i < formulaName.length; i++) {
-            QuantitativeMonitor<S> formulaMonitor = stlMonitorGenerator.getQuantitativeMonitor(formulaName[i], formulaArgs[i]);
-            Supplier<Trajectory<S>> trajectoryProvider = () -> {
-                Trajectory<S> trajectory = simulationEnvironment.sampleTrajectory(rg, currentModel, state.apply(rg), deadline);
-                trajectory.setEnd(deadline);
-                return trajectory;
-            };
-            //simulationEnvironment.sampleTrajectory(rg, currentModel, state.apply(rg), deadline);
-            result.put(formulaName[i], QuantitativeMonitor.meanAndStandardDeviationRobustness(formulaMonitor,trajectoryProvider,replica,dt,deadline));
+            OnlineMonitor<S> formulaMonitor = stlMonitorGenerator.getOnlineMonitor(formulaName[i], formulaArgs[i]);
+            OnlineMonitorSampling<S> sampling = new OnlineMonitorSampling<>(formulaMonitor, dt, deadline - formulaMonitor.getTimeHorizon());
+            result.put(formulaName[i], onlineMonitoring(simulationEnvironment, rg, sampling, replica).getMeanAndStandardDeviationRobustness());
         }
         return  result;
 
@@ -23,13 +23,15 @@
 
 package it.unicam.quasylab.sibilla.core.runtime;
 
-import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationSimulationEngine;
+import it.unicam.quasylab.sibilla.core.models.pm.TauLeapingParameters;
 import it.unicam.quasylab.sibilla.langs.pm.ModelBuildingError;
 import it.unicam.quasylab.sibilla.langs.pm.ModelGenerationException;
 import it.unicam.quasylab.sibilla.langs.pm.PopulationModelGenerator;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.stream.Collectors;
 
 
@@ -37,7 +39,15 @@ public class PopulationModelModule extends AbstractSibillaModule {
 
     public final static String MODULE_NAME = "population";
 
-    private ModuleEngine<PopulationState> moduleEngine;
+    public final static String EPSILON_PARAMETER = "epsilon";
+
+    public final static String CRITICAL_THRESHOLD_PARAMETER = "critical_threshold";
+
+    private PopulationSimulationEngine mode = PopulationSimulationEngine.DIRECT;
+
+    private TauLeapingParameters tauLeapingParameters = TauLeapingParameters.DEFAULT;
+
+    private PopulationModuleEngine moduleEngine;
 
     @Override
     public String getModuleName() {
@@ -65,7 +75,63 @@ public class PopulationModelModule extends AbstractSibillaModule {
     }
 
     private void generateModuleEngine(PopulationModelGenerator pmg) throws ModelGenerationException {
-        this.moduleEngine = new ModuleEngine<>(pmg.getPopulationModelDefinition());
+        this.moduleEngine = new PopulationModuleEngine(this.mode, this.tauLeapingParameters, pmg.getPopulationModelDefinition());
+    }
+
+    @Override
+    public String[] getModes() {
+        return Arrays.stream(PopulationSimulationEngine.values()).map(Enum::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public void setMode(String name) {
+        this.mode = PopulationSimulationEngine.valueOf(name);
+        if (this.moduleEngine != null) {
+            this.moduleEngine.setMode(this.mode);
+        }
+    }
+
+    @Override
+    public String getMode() {
+        return this.mode.name();
+    }
+
+    @Override
+    public String[] getModeParameters() {
+        return new String[] { EPSILON_PARAMETER, CRITICAL_THRESHOLD_PARAMETER };
+    }
+
+    @Override
+    public void setModeParameter(String name, double value) throws CommandExecutionException {
+        try {
+            switch (name) {
+                case EPSILON_PARAMETER:
+                    this.tauLeapingParameters = this.tauLeapingParameters.withEpsilon(value);
+                    break;
+                case CRITICAL_THRESHOLD_PARAMETER:
+                    this.tauLeapingParameters = this.tauLeapingParameters.withCriticalThreshold((int) value);
+                    break;
+                default:
+                    super.setModeParameter(name, value);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new CommandExecutionException(e.getMessage());
+        }
+        if (this.moduleEngine != null) {
+            this.moduleEngine.setTauLeapingParameters(this.tauLeapingParameters);
+        }
+    }
+
+    @Override
+    public double getModeParameter(String name) throws CommandExecutionException {
+        switch (name) {
+            case EPSILON_PARAMETER:
+                return this.tauLeapingParameters.getEpsilon();
+            case CRITICAL_THRESHOLD_PARAMETER:
+                return this.tauLeapingParameters.getCriticalThreshold();
+            default:
+                return super.getModeParameter(name);
+        }
     }
 
     @Override
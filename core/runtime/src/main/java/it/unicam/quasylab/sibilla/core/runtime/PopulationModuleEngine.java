@@ -0,0 +1,66 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.runtime;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationModelDefinition;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationSimulationEngine;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.TauLeapingParameters;
+
+public class PopulationModuleEngine extends ModuleEngine<PopulationState> {
+
+    private final PopulationModelDefinition modelDefinition;
+
+    public PopulationModuleEngine(PopulationSimulationEngine mode, PopulationModelDefinition modelDefinition) {
+        this(mode, TauLeapingParameters.DEFAULT, modelDefinition);
+    }
+
+    public PopulationModuleEngine(PopulationSimulationEngine mode, TauLeapingParameters parameters, PopulationModelDefinition modelDefinition) {
+        super(modelDefinition);
+        this.modelDefinition = modelDefinition;
+        this.modelDefinition.setSimulationEngine(mode);
+        this.modelDefinition.setTauLeapingParameters(parameters);
+    }
+
+    /**
+     * Sets the algorithm used to simulate the population model.
+     *
+     * @param mode the algorithm used to simulate the population model.
+     */
+    public void setMode(PopulationSimulationEngine mode) {
+        this.modelDefinition.setSimulationEngine(mode);
+        this.clear();
+    }
+
+    /**
+     * Sets the parameters used to control the error of tau-leaping engines.
+     *
+     * @param parameters the parameters used to control the error of tau-leaping engines.
+     */
+    public void setTauLeapingParameters(TauLeapingParameters parameters) {
+        this.modelDefinition.setTauLeapingParameters(parameters);
+        this.clear();
+    }
+
+}
@@ -30,6 +30,8 @@ import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import it.unicam.quasylab.sibilla.tools.stl.StlModelGenerationException;
@@ -256,6 +258,37 @@ public interface SibillaModule extends CommandHandler {
         return null;
     }
 
+    /**
+     * Return the names of the parameters used to tune the module modes.
+     *
+     * @return the names of the parameters used to tune the module modes.
+     */
+    default String[] getModeParameters() {
+        return new String[0];
+    }
+
+    /**
+     * Set the value of a parameter used to tune the module modes.
+     *
+     * @param name parameter name.
+     * @param value parameter value.
+     * @throws CommandExecutionException if the parameter is unknown or the value is not valid.
+     */
+    default void setModeParameter(String name, double value) throws CommandExecutionException {
+        throw new CommandExecutionException(String.format(Message.UNKNOWN_MODE_PARAMETER, name));
+    }
+
+    /**
+     * Return the value of a parameter used to tune the module modes.
+     *
+     * @param name parameter name.
+     * @return the value of the parameter.
+     * @throws CommandExecutionException if the parameter is unknown.
+     */
+    default double getModeParameter(String name) throws CommandExecutionException {
+        throw new CommandExecutionException(String.format(Message.UNKNOWN_MODE_PARAMETER, name));
+    }
+
 
     /**
      * Return true if the given measure is enabled.
@@ -316,6 +349,33 @@ public interface SibillaModule extends CommandHandler {
     double estimateReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, double pError, double delta);
 
 
+    /**
+     * Checks, via the given sequential test, the probability to reach a state satisfying the target condition within
+     * time units while only states satisfying the transientCondition are traversed. Differently from
+     * {@link #estimateReachability(SimulationMonitor, RandomGenerator, String, String, double, double, double)}, the
+     * number of simulation runs is not fixed in advance: simulation stops as soon as the test is decided.
+     *
+     * @param transientCondition name of the condition that must hold in the traversed states (<code>null</code> if
+     *                           any state can be traversed).
+     * @param targetCondition name of the condition representing the target state.
+     * @param time reaching time.
+     * @param test sequential test used to decide when to stop.
+     * @return the result of the sequential test.
+     */
+    SequentialTestResult checkReachability(SimulationMonitor monitor, RandomGenerator rg, String transientCondition, String targetCondition, double time, SequentialTest test);
+
+    /**
+     * Checks, via the given sequential test, the probability that the given formula is satisfied at time 0.
+     * Formulas are monitored while trajectories are simulated, and simulation stops as soon as the test is decided.
+     *
+     * @param formulaName The name of the formula.
+     * @param formulaParameters The parameters for the formula.
+     * @param test sequential test used to decide when to stop.
+     * @return the result of the sequential test.
+     * @throws StlModelGenerationException If there is an issue with STL model generation.
+     */
+    SequentialTestResult checkFormula(SimulationMonitor monitor, RandomGenerator rg, String formulaName, Map<String, Double> formulaParameters, SequentialTest test) throws StlModelGenerationException;
+
     /**
      * Load a set of formulas from the given file.
      *
@@ -29,6 +29,8 @@ import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
 import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
 import it.unicam.quasylab.sibilla.core.util.SimulationData;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import it.unicam.quasylab.sibilla.tools.stl.StlModelGenerationException;
@@ -43,6 +45,7 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -61,6 +64,7 @@ public final class SibillaRuntime implements CommandHandler {
     private long replica = 1;
     private double deadline = Double.NaN;
     private double dt = Double.NaN;
+    private SimulationManagerMode simulationManagerMode = SimulationManagerMode.SEQUENTIAL;
     private final CommandAdapter commandAdapter;
 
     public SibillaRuntime() {
@@ -72,6 +76,7 @@ public final class SibillaRuntime implements CommandHandler {
     private void initHandlers() {
         this.commandAdapter.recordHandler(CommandName.SIMULATE, this::executeSimulateCommand);
         this.commandAdapter.recordHandler(CommandName.LOAD_MODULE, this::executeCommandLoadModule);
+        this.commandAdapter.recordHandler(CommandName.MONITOR, this::executeCommandMonitor);
 
 
 
@@ -85,6 +90,22 @@ public final class SibillaRuntime implements CommandHandler {
         return Optional.empty();
     }
 
+    private Optional<CommandResult> executeCommandMonitor(Command command) throws CommandExecutionException {
+        if (command instanceof CommandMonitor monitorCommand) {
+            try {
+                SequentialTestResult result = checkFormula(monitorCommand.monitor(), monitorCommand.formulaName(), monitorCommand.formulaParameters(), monitorCommand.test());
+                Answer answer = new Answer();
+                answer.add("Verdict: "+result.getVerdict());
+                answer.add("Probability", result.getEstimate());
+                answer.add("Runs", result.getRuns());
+                return Optional.of(answer);
+            } catch (StlModelGenerationException e) {
+                throw new CommandExecutionException("STL Model Generation failed : \n" + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
     private void initModules() {
         for (SibillaModule m: SibillaModule.MODULES) {
             moduleIndex.put(m.getModuleName(),m);
@@ -487,7 +508,8 @@ public final class SibillaRuntime implements CommandHandler {
      *
      * @return the module modes.
      */
-    public String[] getModes() {
+    public String[] getModes() throws CommandExecutionException {
+        checkLoadedModule();
         return currentModule.getModes();
     }
 
@@ -496,7 +518,11 @@ public final class SibillaRuntime implements CommandHandler {
      *
      * @param name mode name.
      */
-    public void setMode(String name) {
+    public void setMode(String name) throws CommandExecutionException {
+        checkLoadedModule();
+        if (!Arrays.asList(currentModule.getModes()).contains(name)) {
+            throw new CommandExecutionException(String.format(UNKNOWN_MODE_MESSAGE, name));
+        }
         currentModule.setMode(name);
     }
 
@@ -505,10 +531,43 @@ public final class SibillaRuntime implements CommandHandler {
      *
      * @return the current module mode.
      */
-    public String getMode() {
+    public String getMode() throws CommandExecutionException {
+        checkLoadedModule();
         return currentModule.getMode();
     }
 
+    /**
+     * Return the names of the parameters used to tune the module modes.
+     *
+     * @return the names of the parameters used to tune the module modes.
+     */
+    public String[] getModeParameters() throws CommandExecutionException {
+        checkLoadedModule();
+        return currentModule.getModeParameters();
+    }
+
+    /**
+     * Set the value of a parameter used to tune the module modes.
+     *
+     * @param name parameter name.
+     * @param value parameter value.
+     */
+    public void setModeParameter(String name, double value) throws CommandExecutionException {
+        checkLoadedModule();
+        currentModule.setModeParameter(name, value);
+    }
+
+    /**
+     * Return the value of a parameter used to tune the module modes.
+     *
+     * @param name parameter name.
+     * @return the value of the parameter.
+     */
+    public double getModeParameter(String name) throws CommandExecutionException {
+        checkLoadedModule();
+        return currentModule.getModeParameter(name);
+    }
+
     /**
      * Set a seed for the random generator.
      *
@@ -636,6 +695,39 @@ public final class SibillaRuntime implements CommandHandler {
         return currentModule.estimateReachability(monitor, rg, condition, goal, deadline, alpha, eps);
     }
 
+    /**
+     * Checks, via the given sequential test, the probability to reach a state satisfying the given goal within the
+     * current deadline while only states satisfying the given condition are traversed. Simulation stops as soon as
+     * the test is decided.
+     *
+     * @param monitor monitor used to control simulation.
+     * @param condition name of the condition that must hold in the traversed states (<code>null</code> if any state
+     *                  can be traversed).
+     * @param goal name of the condition representing the target state.
+     * @param test sequential test used to decide when to stop.
+     * @return the result of the sequential test.
+     * @throws CommandExecutionException if the deadline is not set.
+     */
+    public SequentialTestResult checkProbReach(SimulationMonitor monitor, String condition, String goal, SequentialTest test) throws CommandExecutionException {
+        checkDeadline();
+        return currentModule.checkReachability(monitor, rg, condition, goal, deadline, test);
+    }
+
+    /**
+     * Checks, via the given sequential test, the probability that the given formula is satisfied at time 0.
+     * Simulation stops as soon as the test is decided.
+     *
+     * @param monitor monitor used to control simulation.
+     * @param formulaName name of the formula.
+     * @param formulaParameters parameters of the formula.
+     * @param test sequential test used to decide when to stop.
+     * @return the result of the sequential test.
+     * @throws StlModelGenerationException if the formula monitor cannot be generated.
+     */
+    public SequentialTestResult checkFormula(SimulationMonitor monitor, String formulaName, Map<String, Double> formulaParameters, SequentialTest test) throws StlModelGenerationException {
+        return currentModule.checkFormula(monitor, rg, formulaName, formulaParameters, test);
+    }
+
 
     public void load(URL resource) throws CommandExecutionException {
         try {
@@ -668,6 +760,39 @@ public final class SibillaRuntime implements CommandHandler {
         this.currentModule.setSimulationManagerFactory(factory);
     }
 
+    /**
+     * Return the available simulation manager modes.
+     *
+     * @return the available simulation manager modes.
+     */
+    public String[] getSimulationManagerModes() {
+        return Arrays.stream(SimulationManagerMode.values()).map(Enum::name).toArray(String[]::new);
+    }
+
+    /**
+     * Set the mode used to execute simulation replicas in all the modules.
+     *
+     * @param name mode name.
+     */
+    public void setSimulationManagerMode(String name) throws CommandExecutionException {
+        if (Arrays.stream(SimulationManagerMode.values()).noneMatch(m -> m.name().equals(name))) {
+            throw new CommandExecutionException(String.format(UNKNOWN_MODE_MESSAGE, name));
+        }
+        this.simulationManagerMode = SimulationManagerMode.valueOf(name);
+        for (SibillaModule module : moduleIndex.values()) {
+            module.setSimulationManagerFactory(this.simulationManagerMode.getFactory());
+        }
+    }
+
+    /**
+     * Return the mode used to execute simulation replicas.
+     *
+     * @return the mode used to execute simulation replicas.
+     */
+    public String getSimulationManagerMode() {
+        return this.simulationManagerMode.name();
+    }
+
     public void loadStlFormulas() {
 
     }
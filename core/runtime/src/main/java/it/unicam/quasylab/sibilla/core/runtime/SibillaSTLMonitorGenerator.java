@@ -1,6 +1,7 @@
 package it.unicam.quasylab.sibilla.core.runtime;
 
 import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.tools.stl.OnlineMonitor;
 import it.unicam.quasylab.sibilla.tools.stl.QualitativeMonitor;
 import it.unicam.quasylab.sibilla.tools.stl.QuantitativeMonitor;
 import it.unicam.quasylab.sibilla.tools.stl.StlLoader;
@@ -48,5 +49,13 @@ public class SibillaSTLMonitorGenerator<S extends State> {
     public QuantitativeMonitor<S> getQuantitativeMonitor(String name) throws StlModelGenerationException {
         return this.getStlMonitorFactory().getQuantitativeMonitor(name);
     }
+
+    public OnlineMonitor<S> getOnlineMonitor(String name, Map<String, Double> args) throws StlModelGenerationException {
+        return this.getStlMonitorFactory().getOnlineMonitor(name, args);
+    }
+
+    public OnlineMonitor<S> getOnlineMonitor(String name) throws StlModelGenerationException {
+        return this.getStlMonitorFactory().getOnlineMonitor(name);
+    }
 }
 
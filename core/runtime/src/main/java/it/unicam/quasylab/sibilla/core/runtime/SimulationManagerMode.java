@@ -0,0 +1,72 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.runtime;
+
+import it.unicam.quasylab.sibilla.core.simulator.ChunkedSimulationManager;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationManagerFactory;
+import it.unicam.quasylab.sibilla.core.simulator.ThreadSimulationManager;
+
+/**
+ * Identifies how the replicas of a simulation are executed.
+ */
+public enum SimulationManagerMode {
+
+    /**
+     * Replicas are executed one after the other in the calling thread.
+     */
+    SEQUENTIAL(SimulationEnvironment.DEFAULT_FACTORY),
+
+    /**
+     * Each replica is submitted to a cached thread pool.
+     */
+    THREADS(ThreadSimulationManager.getCachedThreadSimulationManagerFactory()),
+
+    /**
+     * Replicas are grouped in adaptively sized chunks executed by a fork-join pool.
+     */
+    FORK_JOIN(ChunkedSimulationManager.getForkJoinSimulationManagerFactory()),
+
+    /**
+     * Replicas are grouped in adaptively sized chunks each executed in a virtual thread. This is convenient when
+     * sampling handlers perform I/O.
+     */
+    VIRTUAL_THREADS(ChunkedSimulationManager.getVirtualThreadSimulationManagerFactory());
+
+    private final SimulationManagerFactory factory;
+
+    SimulationManagerMode(SimulationManagerFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the factory used to create the simulation managers.
+     *
+     * @return the factory used to create the simulation managers.
+     */
+    public SimulationManagerFactory getFactory() {
+        return factory;
+    }
+
+}
@@ -24,7 +24,20 @@
 
 package it.unicam.quasylab.sibilla.core.runtime.command;
 
-public final class CommandMonitor implements Command {
+import it.unicam.quasylab.sibilla.core.simulator.SimulationMonitor;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+
+import java.util.Map;
+
+/**
+ * Command used to check, via a sequential test, the probability that a loaded formula is satisfied at time 0.
+ *
+ * @param monitor monitor used to control simulation.
+ * @param formulaName name of the formula.
+ * @param formulaParameters parameters of the formula.
+ * @param test sequential test used to decide when simulation stops.
+ */
+public record CommandMonitor(SimulationMonitor monitor, String formulaName, Map<String, Double> formulaParameters, SequentialTest test) implements Command {
     @Override
     public CommandName getCommandName() {
         return CommandName.MONITOR;
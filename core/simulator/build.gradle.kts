@@ -4,6 +4,8 @@
 
 plugins {
     id("it.unicam.quasylab.sibilla.java-library-conventions")
+    // Microbenchmarks in src/jmh are run with ./gradlew :core:simulator:jmh
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
@@ -0,0 +1,90 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time needed to simulate a single trajectory of an SIR model with exact and tau-leaping engines
+ * when the population size grows. Accuracy with respect to the exact engine is checked in
+ * <code>TauLeapingStepFunctionTest</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TauLeapingBenchmark {
+
+    private final static int S = 0;
+    private final static int I = 1;
+    private final static int R = 2;
+
+    private final static double DEADLINE = 10.0;
+
+    @Param({"DIRECT", "TAU_LEAPING", "HYBRID"})
+    public PopulationSimulationEngine engine;
+
+    @Param({"1000", "10000", "100000"})
+    public int population;
+
+    private PopulationModel model;
+
+    private DefaultRandomGenerator rg;
+
+    @Setup
+    public void setup() {
+        double infectionRate = 1.0 / population;
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("infection",
+                        new Population[]{new Population(S), new Population(I)},
+                        new Population[]{new Population(I), new Population(I)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(S, I), (now, s) -> SibillaValue.of(infectionRate * s.getOccupancy(S) * s.getOccupancy(I)))),
+                new ReactionRule("recovery",
+                        new Population[]{new Population(I)},
+                        new Population[]{new Population(R)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(I), (now, s) -> SibillaValue.of(0.5 * s.getOccupancy(I))))
+        );
+        model = new PopulationModel(PopulationRegistry.createRegistry("S", "I", "R"), rules, Map.of(), Map.of(), engine);
+        rg = new DefaultRandomGenerator(0);
+    }
+
+    @Benchmark
+    public double simulateTrajectory() {
+        int infected = population / 100;
+        SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[]{population - infected, infected, 0}));
+        cursor.start();
+        while ((cursor.time() < DEADLINE) && cursor.step()) { }
+        return cursor.currentState().getOccupancy(S);
+    }
+
+}
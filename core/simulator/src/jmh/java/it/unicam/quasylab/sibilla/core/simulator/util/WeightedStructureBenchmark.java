@@ -0,0 +1,121 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the weighted structures used to select transitions. Two scenarios are considered: in the
+ * first one the structure is rebuilt from scratch before each selection (as in
+ * {@link it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess#next}); in the second
+ * one the structure is kept and only the weight of the selected element is updated after each selection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WeightedStructureBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int transitions;
+
+    private double[] weights;
+
+    private DefaultRandomGenerator rg;
+
+    private SumTreeWeightedStructure<Integer> sumTree;
+
+    private CompositionRejectionWeightedStructure<Integer> compositionRejection;
+
+    @Setup
+    public void setup() {
+        rg = new DefaultRandomGenerator(0);
+        weights = new double[transitions];
+        for (int i = 0; i < transitions; i++) {
+            weights[i] = Math.pow(10, 6 * rg.nextDouble() - 3);
+        }
+        sumTree = new SumTreeWeightedStructure<>(transitions);
+        compositionRejection = new CompositionRejectionWeightedStructure<>(transitions);
+        for (int i = 0; i < transitions; i++) {
+            sumTree.add(weights[i], i);
+            compositionRejection.add(weights[i], i);
+        }
+    }
+
+    @Benchmark
+    public Integer buildAndSelectWeightedLinkedList() {
+        WeightedLinkedList<Integer> ws = new WeightedLinkedList<>();
+        for (int i = 0; i < transitions; i++) {
+            ws.add(weights[i], i);
+        }
+        return ws.select(rg).getElement();
+    }
+
+    @Benchmark
+    public Integer buildAndSelectComposedWeightedStructure() {
+        WeightedStructure<Integer> ws = new ComposedWeightedStructure<>();
+        for (int i = 0; i < transitions; i++) {
+            ws = ws.add(new WeightedElement<>(weights[i], i));
+        }
+        return ws.select(rg).getElement();
+    }
+
+    @Benchmark
+    public Integer buildAndSelectSumTree() {
+        SumTreeWeightedStructure<Integer> ws = new SumTreeWeightedStructure<>(transitions);
+        for (int i = 0; i < transitions; i++) {
+            ws.add(weights[i], i);
+        }
+        return ws.select(rg).getElement();
+    }
+
+    @Benchmark
+    public Integer buildAndSelectCompositionRejection() {
+        CompositionRejectionWeightedStructure<Integer> ws = new CompositionRejectionWeightedStructure<>(transitions);
+        for (int i = 0; i < transitions; i++) {
+            ws.add(weights[i], i);
+        }
+        return ws.select(rg).getElement();
+    }
+
+    @Benchmark
+    public int selectAndUpdateSumTree() {
+        int idx = sumTree.selectIndex(rg.nextDouble() * sumTree.getTotalWeight());
+        sumTree.setWeight(idx, weights[(idx + 1) % transitions]);
+        return idx;
+    }
+
+    @Benchmark
+    public int selectAndUpdateCompositionRejection() {
+        int idx = compositionRejection.selectIndex(rg);
+        compositionRejection.setWeight(idx, weights[(idx + 1) % transitions]);
+        return idx;
+    }
+
+}
@@ -23,24 +23,90 @@
 
 package it.unicam.quasylab.sibilla.core.des;
 
+import it.unicam.quasylab.sibilla.core.util.datastructures.CalendarQueue;
+
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 
+/**
+ * The queue of events of a discrete event simulation. Events with a scheduled time are stored in a
+ * {@link CalendarQueue}, while events whose time is {@link Double#NaN} are kept as pending, waiting for a
+ * specific condition.
+ *
+ * @param <S> type of simulation states.
+ */
 public class EventQueue<S> {
 
-    private final static int INITIAL_CAPACITY = 100;
-
-    private final PriorityQueue<Event<S>> scheduledEvents;
+    private final CalendarQueue<Event<S>> scheduledEvents;
     private final List<Event<S>> pendingEvents;
     private final double time = 0.0;
 
     public EventQueue() {
-        this.scheduledEvents = new PriorityQueue<>(INITIAL_CAPACITY, new EventComparator<>());
+        this.scheduledEvents = new CalendarQueue<>();
         this.pendingEvents = new LinkedList<>();
     }
 
+    /**
+     * Adds the given event to this queue. The returned handle can be used to cancel the event; null is returned
+     * when the event is pending.
+     *
+     * @param event the event to add.
+     * @return the handle of the scheduled event or null if the event is pending.
+     */
+    public CalendarQueue.Handle<Event<S>> schedule(Event<S> event) {
+        if (Double.isNaN(event.getTime())) {
+            pendingEvents.add(event);
+            return null;
+        }
+        return scheduledEvents.add(event.getTime(), event);
+    }
 
+    /**
+     * Removes the scheduled event identified by the given handle.
+     *
+     * @param handle the handle of a scheduled event.
+     * @return true if the event was in the queue.
+     */
+    public boolean cancel(CalendarQueue.Handle<Event<S>> handle) {
+        return scheduledEvents.cancel(handle);
+    }
 
+    /**
+     * Removes and returns the next scheduled event, or null if no event is scheduled.
+     *
+     * @return the next scheduled event or null if no event is scheduled.
+     */
+    public Event<S> next() {
+        CalendarQueue.Handle<Event<S>> handle = scheduledEvents.poll();
+        return (handle == null ? null : handle.getElement());
+    }
+
+    /**
+     * Returns the time of the next scheduled event, or {@link Double#NaN} if no event is scheduled.
+     *
+     * @return the time of the next scheduled event.
+     */
+    public double getNextTime() {
+        CalendarQueue.Handle<Event<S>> handle = scheduledEvents.peek();
+        return (handle == null ? Double.NaN : handle.getTime());
+    }
+
+    /**
+     * Returns the list of pending events.
+     *
+     * @return the list of pending events.
+     */
+    public List<Event<S>> getPendingEvents() {
+        return pendingEvents;
+    }
+
+    /**
+     * Returns true if no event is scheduled.
+     *
+     * @return true if no event is scheduled.
+     */
+    public boolean isEmpty() {
+        return scheduledEvents.isEmpty();
+    }
 
 }
@@ -0,0 +1,146 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link ContinuousTimeMarkovChain} whose states are indexed once with consecutive integers and whose rate matrix
+ * is stored in a {@link SparseMatrix}.
+ *
+ * @param <S> type of states.
+ */
+public final class IndexedContinuousTimeMarkovChain<S> {
+
+    private final StateIndex<S> states;
+
+    private final SparseMatrix rates;
+
+    private final double[] exitRates;
+
+    private final double maxExitRate;
+
+    IndexedContinuousTimeMarkovChain(StateIndex<S> states, SparseMatrix rates) {
+        this.states = states;
+        this.rates = rates;
+        this.exitRates = new double[states.size()];
+        double max = 0.0;
+        for (int i = 0; i < exitRates.length; i++) {
+            exitRates[i] = rates.rowSum(i) - rates.get(i, i);
+            max = Math.max(max, exitRates[i]);
+        }
+        this.maxExitRate = max;
+    }
+
+    /**
+     * Indexes the states of the given chain.
+     *
+     * @param chain a continuous time Markov chain.
+     * @param <S> type of states.
+     * @return the indexed version of the given chain.
+     */
+    public static <S> IndexedContinuousTimeMarkovChain<S> of(ContinuousTimeMarkovChain<S> chain) {
+        StateIndex<S> index = new StateIndex<>(chain.numberOfStates());
+        chain.getStates().forEach(index::add);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(index.size());
+        for (int i = 0; i < index.size(); i++) {
+            int row = i;
+            chain.rateMatrixRow(index.stateOf(i)).forEach(p -> builder.add(row, index.indexOf(p.getKey()), p.getValue()));
+        }
+        return new IndexedContinuousTimeMarkovChain<>(index, builder.build());
+    }
+
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Returns the index of the given state, or -1 if the state does not belong to the chain.
+     *
+     * @param state a state.
+     * @return the index of the given state.
+     */
+    public int indexOf(S state) {
+        return states.indexOf(state);
+    }
+
+    public S stateOf(int i) {
+        return states.stateOf(i);
+    }
+
+    /**
+     * Returns the rate matrix of this chain. Self loops are stored but are not considered in exit rates.
+     *
+     * @return the rate matrix of this chain.
+     */
+    public SparseMatrix getRates() {
+        return rates;
+    }
+
+    public double getExitRate(int i) {
+        return exitRates[i];
+    }
+
+    public double getMaxExitRate() {
+        return maxExitRate;
+    }
+
+    /**
+     * Returns the transpose of the uniformised probability matrix <code>I + Q/q</code>, where <code>Q</code> is the
+     * generator of the chain and <code>q</code> is the given uniformisation rate.
+     *
+     * @param q uniformisation rate, it must not be smaller than the maximal exit rate.
+     * @return the transpose of the uniformised probability matrix.
+     */
+    public SparseMatrix getTransposedUniformisedMatrix(double q) {
+        if (q < maxExitRate) {
+            throw new IllegalArgumentException();
+        }
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(size(), rates.nonZeros() + size());
+        for (int i = 0; i < size(); i++) {
+            for (int k = rates.rowStart(i); k < rates.rowEnd(i); k++) {
+                if (rates.columnAt(k) != i) {
+                    builder.add(rates.columnAt(k), i, rates.valueAt(k) / q);
+                }
+            }
+            builder.add(i, i, 1.0 - exitRates[i] / q);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Maps a probability vector to a map from states to probabilities.
+     *
+     * @param vector a probability vector.
+     * @return the map associating each state with its probability.
+     */
+    public Map<S, Double> toMap(double[] vector) {
+        Map<S, Double> map = new HashMap<>();
+        for (int i = 0; i < vector.length; i++) {
+            map.put(states.stateOf(i), vector[i]);
+        }
+        return map;
+    }
+
+}
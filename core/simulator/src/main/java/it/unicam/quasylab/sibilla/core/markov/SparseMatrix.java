@@ -0,0 +1,283 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A square sparse matrix of doubles stored in compressed sparse row (CSR) format. Entries of row <code>i</code>
+ * are stored in positions <code>rowStart[i]</code> (inclusive) to <code>rowStart[i+1]</code> (exclusive) of arrays
+ * <code>columns</code> and <code>values</code>. Instances are immutable and are created via a {@link Builder}.
+ */
+public final class SparseMatrix {
+
+    /**
+     * Number of rows above which products are computed in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 4096;
+
+    private final int size;
+
+    private final int[] rowStart;
+
+    private final int[] columns;
+
+    private final double[] values;
+
+    private SparseMatrix(int size, int[] rowStart, int[] columns, double[] values) {
+        this.size = size;
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Creates a matrix from arrays in CSR format. Arrays are not copied.
+     *
+     * @param size number of rows.
+     * @param rowStart positions of the first entry of each row, followed by the number of entries.
+     * @param columns column of each entry.
+     * @param values value of each entry.
+     * @return the matrix stored in the given arrays.
+     */
+    static SparseMatrix of(int size, int[] rowStart, int[] columns, double[] values) {
+        return new SparseMatrix(size, rowStart, columns, values);
+    }
+
+    /**
+     * Returns the number of rows (and columns) of this matrix.
+     *
+     * @return the number of rows of this matrix.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of non-zero entries of this matrix.
+     *
+     * @return the number of non-zero entries of this matrix.
+     */
+    public int nonZeros() {
+        return rowStart[size];
+    }
+
+    /**
+     * Returns the value at the given row and column.
+     *
+     * @param row row index.
+     * @param column column index.
+     * @return the value at the given row and column.
+     */
+    public double get(int row, int column) {
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            if (columns[k] == column) {
+                return values[k];
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Returns the sum of the values in the given row.
+     *
+     * @param row row index.
+     * @return the sum of the values in the given row.
+     */
+    public double rowSum(int row) {
+        double sum = 0.0;
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            sum += values[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the first position in {@link #columnAt(int)} and {@link #valueAt(int)} of the entries of the given row.
+     *
+     * @param row row index.
+     * @return the first position of the entries of the given row.
+     */
+    public int rowStart(int row) {
+        return rowStart[row];
+    }
+
+    /**
+     * Returns the position following the last entry of the given row.
+     *
+     * @param row row index.
+     * @return the position following the last entry of the given row.
+     */
+    public int rowEnd(int row) {
+        return rowStart[row + 1];
+    }
+
+    public int columnAt(int position) {
+        return columns[position];
+    }
+
+    public double valueAt(int position) {
+        return values[position];
+    }
+
+    /**
+     * Computes <code>y = A x</code>. Rows are processed in parallel when the matrix is large.
+     *
+     * @param x input vector.
+     * @param y output vector.
+     */
+    public void multiply(double[] x, double[] y) {
+        if (size >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, size).parallel().forEach(i -> y[i] = rowProduct(i, x));
+        } else {
+            for (int i = 0; i < size; i++) {
+                y[i] = rowProduct(i, x);
+            }
+        }
+    }
+
+    private double rowProduct(int row, double[] x) {
+        double sum = 0.0;
+        for (int k = rowStart[row]; k < rowStart[row + 1]; k++) {
+            sum += values[k] * x[columns[k]];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the transpose of this matrix.
+     *
+     * @return the transpose of this matrix.
+     */
+    public SparseMatrix transpose() {
+        Builder builder = new Builder(size, nonZeros());
+        for (int i = 0; i < size; i++) {
+            for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                builder.add(columns[k], i, values[k]);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Collects the entries of a sparse matrix in any order. Entries with the same coordinates are summed.
+     */
+    public static final class Builder {
+
+        private final int size;
+
+        private int[] rows;
+
+        private int[] columns;
+
+        private double[] values;
+
+        private int count = 0;
+
+        public Builder(int size) {
+            this(size, 4 * size);
+        }
+
+        public Builder(int size, int expectedNonZeros) {
+            this.size = size;
+            int capacity = Math.max(expectedNonZeros, 16);
+            this.rows = new int[capacity];
+            this.columns = new int[capacity];
+            this.values = new double[capacity];
+        }
+
+        /**
+         * Adds the given value to the entry at the given coordinates.
+         *
+         * @param row row index.
+         * @param column column index.
+         * @param value value to add.
+         * @return this builder.
+         */
+        public Builder add(int row, int column, double value) {
+            if ((row < 0) || (row >= size) || (column < 0) || (column >= size)) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, 2 * count);
+                columns = Arrays.copyOf(columns, 2 * count);
+                values = Arrays.copyOf(values, 2 * count);
+            }
+            rows[count] = row;
+            columns[count] = column;
+            values[count] = value;
+            count++;
+            return this;
+        }
+
+        /**
+         * Builds the matrix.
+         *
+         * @return the matrix containing the added entries.
+         */
+        public SparseMatrix build() {
+            int[] rowStart = new int[size + 1];
+            for (int k = 0; k < count; k++) {
+                rowStart[rows[k] + 1]++;
+            }
+            for (int i = 0; i < size; i++) {
+                rowStart[i + 1] += rowStart[i];
+            }
+            int[] next = Arrays.copyOf(rowStart, size);
+            int[] sortedColumns = new int[count];
+            double[] sortedValues = new double[count];
+            for (int k = 0; k < count; k++) {
+                int position = next[rows[k]]++;
+                sortedColumns[position] = columns[k];
+                sortedValues[position] = values[k];
+            }
+            return compact(rowStart, sortedColumns, sortedValues);
+        }
+
+        private SparseMatrix compact(int[] rowStart, int[] sortedColumns, double[] sortedValues) {
+            int[] compactStart = new int[size + 1];
+            int position = 0;
+            int[] last = new int[size];
+            Arrays.fill(last, -1);
+            for (int i = 0; i < size; i++) {
+                compactStart[i] = position;
+                for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+                    int column = sortedColumns[k];
+                    if (last[column] >= compactStart[i]) {
+                        sortedValues[last[column]] += sortedValues[k];
+                    } else {
+                        last[column] = position;
+                        sortedColumns[position] = column;
+                        sortedValues[position] = sortedValues[k];
+                        position++;
+                    }
+                }
+            }
+            compactStart[size] = position;
+            return new SparseMatrix(size, compactStart, Arrays.copyOf(sortedColumns, position), Arrays.copyOf(sortedValues, position));
+        }
+
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Map;
+
+/**
+ * Computes transient probabilities of a {@link ContinuousTimeMarkovChain} via uniformisation. States are indexed once
+ * and the uniformised matrix is stored in a {@link SparseMatrix}. Poisson weighted vectors computed with
+ * {@link FoxGlynn} are accumulated on the fly, so that only the current vector, the next one and the result are kept
+ * in memory.
+ *
+ * @param <S> type of states.
+ */
+public class SparseTransientProbabilitySolver<S> {
+
+    private final IndexedContinuousTimeMarkovChain<S> chain;
+
+    private final double epsilon;
+
+    private final S init;
+
+    private SparseMatrix matrix;
+
+    public SparseTransientProbabilitySolver(ContinuousTimeMarkovChain<S> chain, double epsilon, S init) {
+        this(IndexedContinuousTimeMarkovChain.of(chain), epsilon, init);
+    }
+
+    public SparseTransientProbabilitySolver(IndexedContinuousTimeMarkovChain<S> chain, double epsilon, S init) {
+        if (chain.indexOf(init) < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.chain = chain;
+        this.epsilon = epsilon;
+        this.init = init;
+    }
+
+    /**
+     * Returns the probability of each state at time <code>t</code>.
+     *
+     * @param t time.
+     * @return the probability of each state at time <code>t</code>.
+     */
+    public Map<S, Double> compute(double t) {
+        return chain.toMap(computeVector(t));
+    }
+
+    /**
+     * Returns the vector of the probabilities at time <code>t</code>. The element at position <code>i</code>
+     * is the probability of {@link IndexedContinuousTimeMarkovChain#stateOf(int)}.
+     *
+     * @param t time.
+     * @return the vector of the probabilities at time <code>t</code>.
+     */
+    public double[] computeVector(double t) {
+        double[] current = new double[chain.size()];
+        current[chain.indexOf(init)] = 1.0;
+        double q = chain.getMaxExitRate();
+        if ((t <= 0) || (q == 0.0)) {
+            return current;
+        }
+        FoxGlynn fg = FoxGlynn.compute(q * t, epsilon);
+        SparseMatrix matrix = getMatrix();
+        double[] next = new double[chain.size()];
+        double[] result = new double[chain.size()];
+        for (int k = 0; k <= fg.rightPoint(); k++) {
+            if (k >= fg.leftPoint()) {
+                double weight = fg.weight(k) / fg.totalWeight();
+                for (int i = 0; i < current.length; i++) {
+                    result[i] += weight * current[i];
+                }
+            }
+            if (k < fg.rightPoint()) {
+                matrix.multiply(current, next);
+                double[] tmp = current;
+                current = next;
+                next = tmp;
+            }
+        }
+        return result;
+    }
+
+    private synchronized SparseMatrix getMatrix() {
+        if (matrix == null) {
+            matrix = chain.getTransposedUniformisedMatrix(chain.getMaxExitRate());
+        }
+        return matrix;
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An open-addressing hash table associating states with dense <code>int</code> identifiers assigned in order of
+ * insertion. Lookups and insertions can be performed concurrently, while the table can only be grown via
+ * {@link #ensureCapacity(int)} when no other operation is in progress. This allows explorers to grow the table
+ * between two rounds of parallel insertions.
+ *
+ * @param <S> type of states.
+ */
+public final class StateIndex<S> {
+
+    private static final int MINIMAL_CAPACITY = 16;
+
+    private AtomicReferenceArray<Object> keys;
+
+    /**
+     * Identifier of the state stored in each slot, shifted by one. Value 0 indicates that the identifier has not
+     * been published yet.
+     */
+    private AtomicIntegerArray ids;
+
+    private Object[] states;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public StateIndex() {
+        this(MINIMAL_CAPACITY);
+    }
+
+    public StateIndex(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+        this.states = new Object[Math.max(expectedSize, MINIMAL_CAPACITY)];
+    }
+
+    private static int tableSizeFor(int elements) {
+        int capacity = MINIMAL_CAPACITY;
+        while (capacity < 2L * elements) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new AtomicReferenceArray<>(capacity);
+        this.ids = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Returns the number of indexed states.
+     *
+     * @return the number of indexed states.
+     */
+    public int size() {
+        return counter.get();
+    }
+
+    /**
+     * Grows the table so that the given number of states can be added without further resizing. This method must
+     * not be invoked concurrently with other methods of this class.
+     *
+     * @param additional number of states that could be added.
+     */
+    public void ensureCapacity(int additional) {
+        int required = size() + additional;
+        if (required > states.length) {
+            states = Arrays.copyOf(states, Math.max(required, states.length * 2));
+        }
+        if (2L * required > keys.length()) {
+            AtomicReferenceArray<Object> oldKeys = keys;
+            AtomicIntegerArray oldIds = ids;
+            allocate(tableSizeFor(Math.max(required, 2 * size())));
+            for (int i = 0; i < oldKeys.length(); i++) {
+                Object key = oldKeys.get(i);
+                if (key != null) {
+                    int slot = findFreeSlot(key.hashCode());
+                    keys.set(slot, key);
+                    ids.set(slot, oldIds.get(i));
+                }
+            }
+        }
+    }
+
+    private int findFreeSlot(int hash) {
+        int mask = keys.length() - 1;
+        int slot = spread(hash) & mask;
+        while (keys.get(slot) != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    /**
+     * Returns the identifier of the given state, or -1 if the state has not been indexed.
+     *
+     * @param state a state.
+     * @return the identifier of the given state.
+     */
+    public int indexOf(S state) {
+        int mask = keys.length() - 1;
+        int slot = spread(state.hashCode()) & mask;
+        Object key;
+        while ((key = keys.get(slot)) != null) {
+            if (key.equals(state)) {
+                return awaitId(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the identifier of the given state. If the state has not been indexed yet, it is added with the next
+     * available identifier. The table must have room for the new state, see {@link #ensureCapacity(int)}.
+     *
+     * @param state a state.
+     * @return the identifier of the given state.
+     */
+    public int add(S state) {
+        int mask = keys.length() - 1;
+        int slot = spread(state.hashCode()) & mask;
+        while (true) {
+            Object key = keys.get(slot);
+            if (key == null) {
+                if (keys.compareAndSet(slot, null, state)) {
+                    int id = counter.getAndIncrement();
+                    states[id] = state;
+                    ids.set(slot, id + 1);
+                    return id;
+                }
+                key = keys.get(slot);
+            }
+            if (key.equals(state)) {
+                return awaitId(slot);
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int awaitId(int slot) {
+        int id;
+        while ((id = ids.get(slot)) == 0) {
+            Thread.onSpinWait();
+        }
+        return id - 1;
+    }
+
+    /**
+     * Returns the state with the given identifier.
+     *
+     * @param id a state identifier.
+     * @return the state with the given identifier.
+     */
+    @SuppressWarnings("unchecked")
+    public S stateOf(int id) {
+        return (S) states[id];
+    }
+
+}
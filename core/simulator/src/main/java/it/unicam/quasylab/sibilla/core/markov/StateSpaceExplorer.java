@@ -0,0 +1,389 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Explores the state space of a continuous time Markov chain reachable from an initial state. Exploration proceeds
+ * level by level: the successors of all the states in the frontier are computed in parallel, states are indexed
+ * with dense <code>int</code> identifiers in a concurrent {@link StateIndex}, and transitions are stored in
+ * primitive arrays that are directly turned into the rate matrix of an {@link IndexedContinuousTimeMarkovChain}.
+ * Transitions can optionally be spilled to a memory-mapped file so that only states are kept on the heap during
+ * exploration. Spilling does not reduce the memory needed to analyse the chain: once the exploration is completed,
+ * the transitions are read back into the on-heap arrays of the rate matrix, hence the heap must still be large enough
+ * to contain all the transitions. It only avoids keeping them on the heap, in growing arrays, together with the
+ * successors computed at each level.
+ *
+ * @param <S> type of states.
+ */
+public final class StateSpaceExplorer<S> {
+
+    /**
+     * Minimal size of a frontier that is explored in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 64;
+
+    private final Function<S, Map<S, Double>> stepFunction;
+
+    private boolean parallel = true;
+
+    private Path spillDirectory;
+
+    private Consumer<Progress> progressListener = p -> {};
+
+    /**
+     * Creates a new explorer for the chain whose transitions are induced by the given function. When exploration is
+     * parallel, the function is invoked concurrently on different states.
+     *
+     * @param stepFunction function associating each state with the rates of its outgoing transitions.
+     */
+    public StateSpaceExplorer(Function<S, Map<S, Double>> stepFunction) {
+        this.stepFunction = stepFunction;
+    }
+
+    /**
+     * Enables or disables parallel exploration of frontiers.
+     *
+     * @param parallel true if frontiers can be explored in parallel.
+     * @return this explorer.
+     */
+    public StateSpaceExplorer<S> setParallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * Sets the directory where transitions are spilled during exploration. When the directory is <code>null</code>
+     * transitions are kept on the heap. In both cases the rate matrix of the resulting chain is stored on the heap.
+     *
+     * @param spillDirectory directory where temporary files are created.
+     * @return this explorer.
+     */
+    public StateSpaceExplorer<S> setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    /**
+     * Sets the listener notified after each exploration level.
+     *
+     * @param progressListener listener notified after each exploration level.
+     * @return this explorer.
+     */
+    public StateSpaceExplorer<S> setProgressListener(Consumer<Progress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * Returns the chain reachable from the given state. State with identifier 0 is the initial state, while
+     * identifiers of other states depend on the order in which they are discovered.
+     *
+     * @param init initial state.
+     * @return the chain reachable from the given state.
+     */
+    public IndexedContinuousTimeMarkovChain<S> explore(S init) {
+        long startTime = System.nanoTime();
+        StateIndex<S> index = new StateIndex<>();
+        index.add(init);
+        try (TransitionStore store = createStore()) {
+            int level = 0;
+            int from = 0;
+            while (from < index.size()) {
+                int to = index.size();
+                @SuppressWarnings("unchecked")
+                Map<S, Double>[] rows = new Map[to - from];
+                int first = from;
+                forEach(first, to, i -> rows[i - first] = stepFunction.apply(index.stateOf(i)));
+                index.ensureCapacity(Arrays.stream(rows).mapToInt(Map::size).sum());
+                int[][] targets = new int[rows.length][];
+                double[][] rates = new double[rows.length][];
+                forEach(first, to, i -> {
+                    Map<S, Double> row = rows[i - first];
+                    targets[i - first] = new int[row.size()];
+                    rates[i - first] = new double[row.size()];
+                    int k = 0;
+                    for (Map.Entry<S, Double> e : row.entrySet()) {
+                        targets[i - first][k] = index.add(e.getKey());
+                        rates[i - first][k] = e.getValue();
+                        k++;
+                    }
+                });
+                for (int i = 0; i < rows.length; i++) {
+                    store.addRow(targets[i], rates[i]);
+                }
+                level++;
+                progressListener.accept(new Progress(level, index.size(), store.transitions(), index.size() - to,
+                        (System.nanoTime() - startTime) / 1_000_000));
+                from = to;
+            }
+            return new IndexedContinuousTimeMarkovChain<>(index, store.toMatrix());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void forEach(int from, int to, IntConsumer action) {
+        if (parallel && (to - from >= PARALLEL_THRESHOLD)) {
+            IntStream.range(from, to).parallel().forEach(action);
+        } else {
+            for (int i = from; i < to; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    private TransitionStore createStore() {
+        if (spillDirectory == null) {
+            return new ArrayTransitionStore();
+        }
+        try {
+            return new MappedTransitionStore(spillDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Statistics collected during exploration.
+     */
+    public static final class Progress {
+
+        private final int level;
+        private final int states;
+        private final long transitions;
+        private final int frontier;
+        private final long elapsedMillis;
+
+        Progress(int level, int states, long transitions, int frontier, long elapsedMillis) {
+            this.level = level;
+            this.states = states;
+            this.transitions = transitions;
+            this.frontier = frontier;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Returns the number of explored levels.
+         *
+         * @return the number of explored levels.
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * Returns the number of discovered states.
+         *
+         * @return the number of discovered states.
+         */
+        public int getStates() {
+            return states;
+        }
+
+        /**
+         * Returns the number of stored transitions.
+         *
+         * @return the number of stored transitions.
+         */
+        public long getTransitions() {
+            return transitions;
+        }
+
+        /**
+         * Returns the number of states that will be explored in the next level.
+         *
+         * @return the number of states that will be explored in the next level.
+         */
+        public int getFrontier() {
+            return frontier;
+        }
+
+        /**
+         * Returns the time elapsed since the beginning of exploration, in milliseconds.
+         *
+         * @return the time elapsed since the beginning of exploration.
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("level %d: %d states, %d transitions, %d in frontier (%d ms)",
+                    level, states, transitions, frontier, elapsedMillis);
+        }
+    }
+
+    /**
+     * Stores the rows of the rate matrix in increasing order.
+     */
+    private interface TransitionStore extends AutoCloseable {
+
+        void addRow(int[] columns, double[] values) throws IOException;
+
+        long transitions();
+
+        SparseMatrix toMatrix() throws IOException;
+
+        @Override
+        void close() throws IOException;
+
+    }
+
+    private static final class ArrayTransitionStore implements TransitionStore {
+
+        private int[] rowStart = new int[16];
+        private int rows = 0;
+        private int[] columns = new int[16];
+        private double[] values = new double[16];
+
+        @Override
+        public void addRow(int[] rowColumns, double[] rowValues) {
+            int count = rowStart[rows];
+            if (rows + 2 > rowStart.length) {
+                rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+            }
+            if (count + rowColumns.length > columns.length) {
+                int capacity = Math.max(count + rowColumns.length, columns.length * 2);
+                columns = Arrays.copyOf(columns, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            System.arraycopy(rowColumns, 0, columns, count, rowColumns.length);
+            System.arraycopy(rowValues, 0, values, count, rowValues.length);
+            rowStart[++rows] = count + rowColumns.length;
+        }
+
+        @Override
+        public long transitions() {
+            return rowStart[rows];
+        }
+
+        @Override
+        public SparseMatrix toMatrix() {
+            int count = rowStart[rows];
+            return SparseMatrix.of(rows, Arrays.copyOf(rowStart, rows + 1), Arrays.copyOf(columns, count),
+                    Arrays.copyOf(values, count));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Writes transitions to a temporary file mapped in memory by segments. Row offsets are kept on the heap, while
+     * columns and values are copied into on-heap arrays only when the rate matrix is built.
+     */
+    private static final class MappedTransitionStore implements TransitionStore {
+
+        private static final int ENTRY_BYTES = Integer.BYTES + Double.BYTES;
+        private static final long SEGMENT_BYTES = (long) ENTRY_BYTES * (1 << 22);
+
+        private final Path file;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private int segment = -1;
+        private long[] rowStart = new long[16];
+        private int rows = 0;
+
+        MappedTransitionStore(Path directory) throws IOException {
+            this.file = Files.createTempFile(directory, "transitions", ".bin");
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        @Override
+        public void addRow(int[] columns, double[] values) throws IOException {
+            if (rows + 2 > rowStart.length) {
+                rowStart = Arrays.copyOf(rowStart, rowStart.length * 2);
+            }
+            for (int k = 0; k < columns.length; k++) {
+                if ((buffer == null) || !buffer.hasRemaining()) {
+                    segment++;
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, segment * SEGMENT_BYTES, SEGMENT_BYTES);
+                }
+                buffer.putInt(columns[k]);
+                buffer.putDouble(values[k]);
+            }
+            rowStart[rows + 1] = rowStart[rows] + columns.length;
+            rows++;
+        }
+
+        @Override
+        public long transitions() {
+            return rowStart[rows];
+        }
+
+        @Override
+        public SparseMatrix toMatrix() throws IOException {
+            long count = rowStart[rows];
+            if (count > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Too many transitions: " + count);
+            }
+            int[] start = new int[rows + 1];
+            for (int i = 0; i <= rows; i++) {
+                start[i] = (int) rowStart[i];
+            }
+            rowStart = null;
+            buffer = null;
+            int[] columns = new int[(int) count];
+            double[] values = new double[(int) count];
+            MappedByteBuffer reader = null;
+            int readSegment = -1;
+            for (int k = 0; k < count; k++) {
+                if ((reader == null) || !reader.hasRemaining()) {
+                    readSegment++;
+                    reader = channel.map(FileChannel.MapMode.READ_ONLY, readSegment * SEGMENT_BYTES, SEGMENT_BYTES);
+                }
+                columns[k] = reader.getInt();
+                values[k] = reader.getDouble();
+            }
+            return SparseMatrix.of(rows, start, columns, values);
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            channel.close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+}
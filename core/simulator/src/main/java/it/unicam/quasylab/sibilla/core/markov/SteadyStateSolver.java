@@ -20,54 +20,304 @@
  *  See the License for the specific language governing permissions and
  *  limitations under the License.
  */
-
 package it.unicam.quasylab.sibilla.core.markov;
 
 import java.util.*;
 
 /**
+ * Computes the steady state distribution of a {@link ContinuousTimeMarkovChain} starting from a given initial state.
+ * Bottom strongly connected components (BSCCs) of the chain are identified; the stationary distribution of each BSCC
+ * is computed via Gauss-Seidel or power iteration and is weighted with the probability of reaching the BSCC from the
+ * initial state. States are indexed once and rates are stored in a {@link SparseMatrix}.
+ *
  * @author loreti
  * @param <S>
  *
  */
 public class SteadyStateSolver<S> {
 
-	private final ContinuousTimeMarkovChain<S> chain;
-	private LinkedList<Set<S>> bscc;
+	/**
+	 * Iterative methods used to compute the stationary distribution of a BSCC.
+	 */
+	public enum Method {
+		GAUSS_SEIDEL,
+		POWER
+	}
+
+	public static final double DEFAULT_EPSILON = 1e-10;
+
+	public static final int DEFAULT_MAX_ITERATIONS = 100000;
+
+	/**
+	 * Factor used to compute the uniformisation rate in power iteration. Using a value greater than 1 guarantees
+	 * that the uniformised chain is aperiodic.
+	 */
+	private static final double UNIFORMISATION_FACTOR = 1.02;
+
+	private final IndexedContinuousTimeMarkovChain<S> chain;
 	private final S init;
-	private final Map<S,Integer> bsccIndex = new HashMap<S,Integer>();
-	private final Map<S,Integer> lowIndex = new HashMap<S,Integer>();
-	private final List<S> bsccQueue = new LinkedList<>();
-	private final Set<S> inQueue = new HashSet<S>();
-	private int indexCounter = 0;
-	
+	private final double epsilon;
+	private final Method method;
+	private int[] component;
+	private boolean[] bottom;
+
 	public SteadyStateSolver(ContinuousTimeMarkovChain<S> chain, S init) {
+		this(chain, init, DEFAULT_EPSILON, Method.GAUSS_SEIDEL);
+	}
+
+	public SteadyStateSolver(ContinuousTimeMarkovChain<S> chain, S init, double epsilon, Method method) {
+		this(IndexedContinuousTimeMarkovChain.of(chain), init, epsilon, method);
+	}
+
+	/**
+	 * Creates a solver for a chain whose states are already indexed, as the ones generated by
+	 * {@link StateSpaceExplorer}.
+	 *
+	 * @param chain an indexed continuous time Markov chain.
+	 * @param init initial state.
+	 */
+	public SteadyStateSolver(IndexedContinuousTimeMarkovChain<S> chain, S init) {
+		this(chain, init, DEFAULT_EPSILON, Method.GAUSS_SEIDEL);
+	}
+
+	/**
+	 * Creates a solver for a chain whose states are already indexed, as the ones generated by
+	 * {@link StateSpaceExplorer}.
+	 *
+	 * @param chain an indexed continuous time Markov chain.
+	 * @param init initial state.
+	 * @param epsilon tolerance used to check convergence of iterative methods.
+	 * @param method method used to compute the stationary distribution of each BSCC.
+	 */
+	public SteadyStateSolver(IndexedContinuousTimeMarkovChain<S> chain, S init, double epsilon, Method method) {
 		this.chain = chain;
 		this.init = init;
+		this.epsilon = epsilon;
+		this.method = method;
+		if (this.chain.indexOf(init) < 0) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Returns the bottom strongly connected components of the chain.
+	 *
+	 * @return the bottom strongly connected components of the chain.
+	 */
+	public List<Set<S>> computeBSCC( ) {
+		computeComponents();
+		Map<Integer, Set<S>> result = new TreeMap<>();
+		for (int i = 0; i < component.length; i++) {
+			if (bottom[component[i]]) {
+				result.computeIfAbsent(component[i], c -> new HashSet<>()).add(chain.stateOf(i));
+			}
+		}
+		return new ArrayList<>(result.values());
+	}
+
+	/**
+	 * Returns the steady state probability of each state of the chain.
+	 *
+	 * @return the steady state probability of each state of the chain.
+	 */
+	public Map<S, Double> compute() {
+		return chain.toMap(computeVector());
 	}
-	
-	public void computeBSCC( ) {
-		for (S s : chain.getStates()) {
-			strongconnected(s);
+
+	/**
+	 * Returns the vector of the steady state probabilities. The element at position <code>i</code>
+	 * is the probability of {@link IndexedContinuousTimeMarkovChain#stateOf(int)}.
+	 *
+	 * @return the vector of the steady state probabilities.
+	 */
+	public double[] computeVector() {
+		computeComponents();
+		double[] result = new double[chain.size()];
+		double[] reach = computeReachProbabilities();
+		for (int c = 0; c < reach.length; c++) {
+			if (reach[c] > 0) {
+				double[] stationary = computeStationaryDistribution(c);
+				for (int i = 0; i < result.length; i++) {
+					result[i] += reach[c] * stationary[i];
+				}
+			}
 		}
+		return result;
 	}
 
-	private void strongconnected(S s) {
-		bsccIndex.put(s, indexCounter);
-		lowIndex.put(s, indexCounter++);
-		bsccQueue.add(s);
-		inQueue.add(s);
-		for (S w : chain.next(s)) {
-			Integer wIndex = bsccIndex.get(s);
-			if (wIndex != null) {
-				strongconnected(w);
-				lowIndex.merge(s, lowIndex.get(w), Math::min);
-			} else {
-				if (inQueue.contains(w)) {
-					lowIndex.merge(s, bsccIndex.get(w), Math::min);
+	private synchronized void computeComponents() {
+		if (component != null) {
+			return;
+		}
+		SparseMatrix rates = chain.getRates();
+		int n = rates.size();
+		int[] index = new int[n];
+		int[] low = new int[n];
+		int[] components = new int[n];
+		Arrays.fill(index, -1);
+		Arrays.fill(components, -1);
+		int[] stack = new int[n];
+		int[] callStack = new int[n];
+		int[] edge = new int[n];
+		int sp = 0;
+		int counter = 0;
+		int count = 0;
+		for (int root = 0; root < n; root++) {
+			if (index[root] >= 0) {
+				continue;
+			}
+			int csp = 0;
+			index[root] = low[root] = counter++;
+			stack[sp++] = root;
+			callStack[csp] = root;
+			edge[csp++] = rates.rowStart(root);
+			while (csp > 0) {
+				int v = callStack[csp - 1];
+				if (edge[csp - 1] < rates.rowEnd(v)) {
+					int w = rates.columnAt(edge[csp - 1]++);
+					if (index[w] < 0) {
+						index[w] = low[w] = counter++;
+						stack[sp++] = w;
+						callStack[csp] = w;
+						edge[csp++] = rates.rowStart(w);
+					} else if (components[w] < 0) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+				} else {
+					if (low[v] == index[v]) {
+						int w;
+						do {
+							w = stack[--sp];
+							components[w] = count;
+						} while (w != v);
+						count++;
+					}
+					csp--;
+					if (csp > 0) {
+						int u = callStack[csp - 1];
+						low[u] = Math.min(low[u], low[v]);
+					}
 				}
 			}
 		}
+		boolean[] isBottom = new boolean[count];
+		Arrays.fill(isBottom, true);
+		for (int i = 0; i < n; i++) {
+			for (int k = rates.rowStart(i); k < rates.rowEnd(i); k++) {
+				if (components[rates.columnAt(k)] != components[i]) {
+					isBottom[components[i]] = false;
+				}
+			}
+		}
+		this.component = components;
+		this.bottom = isBottom;
+	}
+
+	/**
+	 * Returns, for each component, the probability to reach it from the initial state (0 for non bottom components).
+	 * Expected numbers of visits to transient states are computed with Gauss-Seidel iterations.
+	 */
+	private double[] computeReachProbabilities() {
+		double[] reach = new double[bottom.length];
+		int start = chain.indexOf(init);
+		if (bottom[component[start]]) {
+			reach[component[start]] = 1.0;
+			return reach;
+		}
+		SparseMatrix incoming = chain.getRates().transpose();
+		double[] visits = new double[chain.size()];
+		boolean converged = false;
+		for (int iteration = 0; (iteration < DEFAULT_MAX_ITERATIONS) && !converged; iteration++) {
+			converged = true;
+			for (int t = 0; t < visits.length; t++) {
+				if (!bottom[component[t]]) {
+					double value = (t == start ? 1.0 : 0.0);
+					for (int k = incoming.rowStart(t); k < incoming.rowEnd(t); k++) {
+						int s = incoming.columnAt(k);
+						if ((s != t) && !bottom[component[s]]) {
+							value += visits[s] * incoming.valueAt(k) / chain.getExitRate(s);
+						}
+					}
+					converged &= hasConverged(visits[t], value);
+					visits[t] = value;
+				}
+			}
+		}
+		SparseMatrix rates = chain.getRates();
+		for (int s = 0; s < visits.length; s++) {
+			if (visits[s] > 0) {
+				for (int k = rates.rowStart(s); k < rates.rowEnd(s); k++) {
+					int t = rates.columnAt(k);
+					if (bottom[component[t]]) {
+						reach[component[t]] += visits[s] * rates.valueAt(k) / chain.getExitRate(s);
+					}
+				}
+			}
+		}
+		return reach;
+	}
+
+	private boolean hasConverged(double oldValue, double newValue) {
+		return Math.abs(newValue - oldValue) <= epsilon;
+	}
+
+	private double[] computeStationaryDistribution(int c) {
+		int[] members = java.util.stream.IntStream.range(0, chain.size()).filter(i -> component[i] == c).toArray();
+		double[] pi = new double[chain.size()];
+		if (members.length == 1) {
+			pi[members[0]] = 1.0;
+			return pi;
+		}
+		for (int i : members) {
+			pi[i] = 1.0 / members.length;
+		}
+		if (method == Method.POWER) {
+			return powerIteration(pi);
+		}
+		return gaussSeidel(c, members, pi);
+	}
+
+	private double[] gaussSeidel(int c, int[] members, double[] pi) {
+		SparseMatrix incoming = chain.getRates().transpose();
+		boolean converged = false;
+		for (int iteration = 0; (iteration < DEFAULT_MAX_ITERATIONS) && !converged; iteration++) {
+			converged = true;
+			double total = 0.0;
+			for (int j : members) {
+				double value = 0.0;
+				for (int k = incoming.rowStart(j); k < incoming.rowEnd(j); k++) {
+					int i = incoming.columnAt(k);
+					if ((i != j) && (component[i] == c)) {
+						value += pi[i] * incoming.valueAt(k);
+					}
+				}
+				value = value / chain.getExitRate(j);
+				converged &= hasConverged(pi[j], value);
+				pi[j] = value;
+				total += value;
+			}
+			for (int j : members) {
+				pi[j] /= total;
+			}
+		}
+		return pi;
+	}
+
+	private double[] powerIteration(double[] pi) {
+		SparseMatrix matrix = chain.getTransposedUniformisedMatrix(UNIFORMISATION_FACTOR * chain.getMaxExitRate());
+		double[] next = new double[pi.length];
+		boolean converged = false;
+		for (int iteration = 0; (iteration < DEFAULT_MAX_ITERATIONS) && !converged; iteration++) {
+			matrix.multiply(pi, next);
+			converged = true;
+			for (int i = 0; i < pi.length; i++) {
+				converged &= hasConverged(pi[i], next[i]);
+			}
+			double[] tmp = pi;
+			pi = next;
+			next = tmp;
+		}
+		return pi;
 	}
 
 }
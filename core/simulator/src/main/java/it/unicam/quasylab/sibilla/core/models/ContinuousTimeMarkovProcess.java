@@ -58,8 +58,7 @@ public interface ContinuousTimeMarkovProcess<S extends ImmutableState> extends I
 			return Optional.empty();
 		}
 		double dt = sampleExponentialDistribution(totalRate,r);
-		double select = r.nextDouble() * totalRate;
-		WeightedElement<? extends StepFunction<S>> wa = activities.select(select);
+		WeightedElement<? extends StepFunction<S>> wa = activities.select(r);
 		return Optional.of(new TimeStep<>(dt,wa.getElement().step(r,time,dt)));
 	}
 
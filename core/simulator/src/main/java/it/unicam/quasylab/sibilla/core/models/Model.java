@@ -30,6 +30,7 @@ import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -74,6 +75,35 @@ public interface Model<S extends State> extends Serializable {
      */
     S fromByte(byte[] bytes) throws IOException;
 
+    /**
+     * Writes the given state at the current position of the given buffer. Exactly
+     * {@link #stateByteArraySize()} bytes are written. The default implementation relies on
+     * {@link #byteOf(State)}; models should override this method to avoid the allocation of
+     * intermediate arrays.
+     *
+     * @param buffer the buffer where the state is written.
+     * @param state the state to serialise.
+     * @throws IOException if the state cannot be serialised.
+     */
+    default void writeState(ByteBuffer buffer, S state) throws IOException {
+        buffer.put(byteOf(state));
+    }
+
+    /**
+     * Reads a state from the current position of the given buffer. Exactly
+     * {@link #stateByteArraySize()} bytes are consumed. The default implementation relies on
+     * {@link #fromByte(byte[])}.
+     *
+     * @param buffer the buffer containing the serialised state.
+     * @return the state read from the buffer.
+     * @throws IOException if the state cannot be deserialised.
+     */
+    default S readState(ByteBuffer buffer) throws IOException {
+        byte[] bytes = new byte[stateByteArraySize()];
+        buffer.get(bytes);
+        return fromByte(bytes);
+    }
+
     /**
      * Each model is associated with a set of measures. This method returns the
      * array of measure names identified by strings.
@@ -23,6 +23,7 @@
 
 package it.unicam.quasylab.sibilla.core.models.lio;
 
+import it.unicam.quasylab.sibilla.core.tools.InternedProbabilityVector;
 import it.unicam.quasylab.sibilla.core.tools.ProbabilityVector;
 import it.unicam.quasylab.sibilla.core.util.datastructures.Pair;
 
@@ -78,6 +79,24 @@ public final class LIOAgent {
         return result.complete(this);
     }
 
+    /**
+     * Computes the same distribution of {@link #probabilityVector(LIOActionsProbability)} where each agent
+     * is identified by its index.
+     *
+     * @param distribution a function associating each action with a probability value.
+     * @return the probability of each next agent state, indexed by agent index.
+     */
+    public InternedProbabilityVector internedProbabilityVector(LIOActionsProbability distribution) {
+        InternedProbabilityVector result = new InternedProbabilityVector(actions.size() + 1);
+        for (Pair<LIOAgentAction, LIOAgent> p : actions) {
+            double q = distribution.probabilityOf(p.getKey());
+            if (q > 0.0) {
+                result.add(p.getValue().getIndex(), q);
+            }
+        }
+        return result.complete(index);
+    }
+
     /**
      * Return agent index.
      *
@@ -24,13 +24,18 @@
 package it.unicam.quasylab.sibilla.core.models.lio;
 
 import it.unicam.quasylab.sibilla.core.models.IndexedState;
+import it.unicam.quasylab.sibilla.core.simulator.util.RandomSampling;
 import it.unicam.quasylab.sibilla.core.tools.ProbabilityMatrix;
 import it.unicam.quasylab.sibilla.core.tools.ProbabilityVector;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ObjDoubleConsumer;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -102,26 +107,73 @@ public class LIOCountingState implements LIOState {
     @Override
     public LIOCountingState step(RandomGenerator randomGenerator, ProbabilityMatrix<LIOAgent> probabilityMatrix) {
         int[] occupancy = new int[this.occupancy.length];
-        IntStream.range(0, occupancy.length).forEach(s ->
-            IntStream.range(0, this.occupancy[s]).forEach(i -> {
-                LIOAgent nextAgent = probabilityMatrix.sample(randomGenerator, definition.getAgent(s));
-                occupancy[nextAgent.getIndex()]++;
-            })
-        );
-        return new LIOCountingState(definition, occupancy);
+        for (int s = 0; s < occupancy.length; s++) {
+            if (this.occupancy[s] > 0) {
+                probabilityMatrix.sample(randomGenerator, definition.getAgent(s), this.occupancy[s], (a, k) -> occupancy[a.getIndex()] += k);
+            }
+        }
+        return new LIOCountingState(definition, occupancy, size);
     }
 
     @Override
     public ProbabilityVector<LIOCountingState> next(ProbabilityMatrix<LIOAgent> matrix) {
-        ProbabilityVector<LIOCountingState> current = new ProbabilityVector<>();
-        current.add(new LIOCountingState(definition), 1.0);
+        Map<LIOCountingState, Double> current = Map.of(new LIOCountingState(definition), 1.0);
         for(int i = 0; i<occupancy.length; i++) {
-            LIOAgent a = definition.getAgent(i);
-            for(int k=0; k<occupancy[i]; k++) {
-                current = current.apply(LIOCountingState::add, matrix.getRowOf(a));
+            if (occupancy[i] > 0) {
+                current = convolve(current, i, matrix.getRowOf(definition.getAgent(i)));
+            }
+        }
+        return ProbabilityVector.of(current);
+    }
+
+    /**
+     * Moves the agents in local state <code>i</code> according to the given row. The possible outcomes are the
+     * ways of distributing the agents among the successors of <code>i</code>, each of which has a multinomial
+     * probability, hence the number of convolutions does not depend on the number of agents.
+     */
+    private Map<LIOCountingState, Double> convolve(Map<LIOCountingState, Double> current, int i, ProbabilityVector<LIOAgent> row) {
+        Map<Integer, Double> successors = new TreeMap<>();
+        row.iterate((a, p) -> {
+            if (p > 0) {
+                successors.merge(a.getIndex(), p, Double::sum);
+            }
+        });
+        double stay = 1.0 - row.getTotalProbability();
+        if (stay > 0) {
+            successors.merge(i, stay, Double::sum);
+        }
+        int[] targets = successors.keySet().stream().mapToInt(Integer::intValue).toArray();
+        double[] logProbabilities = successors.values().stream().mapToDouble(Math::log).toArray();
+        Map<LIOCountingState, Double> result = new HashMap<>();
+        int[] counts = new int[targets.length];
+        enumerateOutcomes(occupancy[i], 0, counts, targets, logProbabilities, RandomSampling.logFactorial(occupancy[i]), (outcome, q) ->
+                current.forEach((state, p) -> result.merge(state.move(targets, outcome), p * q, Double::sum)));
+        return result;
+    }
+
+    private static void enumerateOutcomes(int remaining, int j, int[] counts, int[] targets, double[] logProbabilities, double logProbability, ObjDoubleConsumer<int[]> consumer) {
+        if (j == targets.length - 1) {
+            counts[j] = remaining;
+            double q = Math.exp(logProbability + remaining * logProbabilities[j] - RandomSampling.logFactorial(remaining));
+            if (q > 0) {
+                consumer.accept(counts, q);
             }
+            return;
+        }
+        for (int k = 0; k <= remaining; k++) {
+            counts[j] = k;
+            enumerateOutcomes(remaining - k, j + 1, counts, targets, logProbabilities, logProbability + k * logProbabilities[j] - RandomSampling.logFactorial(k), consumer);
+        }
+    }
+
+    private LIOCountingState move(int[] targets, int[] counts) {
+        int[] newOccupancy = Arrays.copyOf(occupancy, occupancy.length);
+        int moved = 0;
+        for (int j = 0; j < targets.length; j++) {
+            newOccupancy[targets[j]] += counts[j];
+            moved += counts[j];
         }
-        return current;
+        return new LIOCountingState(definition, newOccupancy, size + moved);
     }
 
     @Override
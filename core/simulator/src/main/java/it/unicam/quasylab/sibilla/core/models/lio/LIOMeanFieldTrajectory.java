@@ -102,7 +102,7 @@ public class LIOMeanFieldTrajectory {
      */
     private void generateUpToStep(int step) {
         while (trajectory.size()<=step) {
-            lastStep = lastStep.multuply(agentsDefinition.getAgentProbabilityMatrix(lastStep));
+            lastStep = lastStep.multiply(agentsDefinition.getActionProbability(lastStep));
             trajectory.add(lastStep);
         }
     }
@@ -23,9 +23,11 @@
 
 package it.unicam.quasylab.sibilla.core.models.lio;
 
+import it.unicam.quasylab.sibilla.core.tools.InternedProbabilityVector;
 import it.unicam.quasylab.sibilla.core.tools.ProbabilityMatrix;
 
 import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -57,11 +59,31 @@ public class LIOPopulationFraction implements LIOCollective {
     }
 
     public LIOPopulationFraction multuply(ProbabilityMatrix<LIOAgent> matrix) {
+        return multiplyRows(i -> InternedProbabilityVector.of(matrix.getRowOf(agentsDefinition.getAgent(i)), LIOAgent::getIndex));
+    }
+
+    /**
+     * Returns the population fraction reached after one step where each agent selects its actions according
+     * to the given probabilities.
+     *
+     * @param actionsProbability the probability of each action.
+     * @return the population fraction reached after one step.
+     */
+    public LIOPopulationFraction multiply(LIOActionsProbability actionsProbability) {
+        return multiplyRows(i -> agentsDefinition.getAgent(i).internedProbabilityVector(actionsProbability));
+    }
+
+    private LIOPopulationFraction multiplyRows(IntFunction<InternedProbabilityVector> rows) {
         double[] result = new double[populationFraction.length];
-        matrix.iterate((a1, pv) -> pv.iterate((a2,p) -> {
-                result[a2.getIndex()] += populationFraction[a1.getIndex()]*p;
+        for (int i = 0; i < populationFraction.length; i++) {
+            double fraction = populationFraction[i];
+            if (fraction > 0) {
+                InternedProbabilityVector row = rows.apply(i);
+                for (int j = 0; j < row.size(); j++) {
+                    result[(int) row.idAt(j)] += fraction * row.massAt(j);
+                }
             }
-        ));
+        }
         return new LIOPopulationFraction(this.agentsDefinition, result);
     }
 
@@ -23,6 +23,8 @@
 
 package it.unicam.quasylab.sibilla.core.models.markov;
 
+import it.unicam.quasylab.sibilla.core.markov.IndexedContinuousTimeMarkovChain;
+import it.unicam.quasylab.sibilla.core.markov.StateSpaceExplorer;
 import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
 import it.unicam.quasylab.sibilla.core.models.StepFunction;
 import it.unicam.quasylab.sibilla.core.models.util.MappingState;
@@ -32,6 +34,7 @@ import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -65,4 +68,34 @@ public class CTMCModel extends MarkovChainModel implements ContinuousTimeMarkovP
         return result;
     }
 
+    /**
+     * Returns the rates of the transitions enabled in the given state. Rates of updates leading to the same state
+     * are summed.
+     *
+     * @param state current state.
+     * @return the rates of the transitions enabled in the given state.
+     */
+    public Map<MappingState, Double> getRates(MappingState state) {
+        Map<MappingState, Double> result = new HashMap<>();
+        for (MappingStateUpdate update: this.rules) {
+            if (update.isEnabled(state)) {
+                double weight = update.weightOf(state);
+                if (weight>0) {
+                    result.merge(update.apply(state), weight, Double::sum);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the chain reachable from the given state.
+     *
+     * @param init initial state.
+     * @return the chain reachable from the given state.
+     */
+    public IndexedContinuousTimeMarkovChain<MappingState> generateStateSpace(MappingState init) {
+        return new StateSpaceExplorer<>(this::getRates).explore(init);
+    }
+
 }
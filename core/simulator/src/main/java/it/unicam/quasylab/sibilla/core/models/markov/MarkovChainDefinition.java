@@ -23,10 +23,12 @@
 
 package it.unicam.quasylab.sibilla.core.models.markov;
 
+import it.unicam.quasylab.sibilla.core.markov.IndexedContinuousTimeMarkovChain;
 import it.unicam.quasylab.sibilla.core.models.*;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
 import it.unicam.quasylab.sibilla.core.models.util.MappingState;
 import it.unicam.quasylab.sibilla.core.models.util.VariableTable;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
 import org.apache.commons.math3.random.RandomGenerator;
 
@@ -152,5 +154,36 @@ public class MarkovChainDefinition<M extends MarkovChainModel> extends AbstractM
         return getStates().getInfo(name);
     }
 
+    /**
+     * Returns the continuous time Markov chain reachable from the initial configuration with the given name.
+     *
+     * @param name name of the initial configuration.
+     * @param args arguments of the initial configuration.
+     * @return the continuous time Markov chain reachable from the given initial configuration.
+     * @throws IllegalStateException if this definition does not describe a continuous time Markov chain.
+     */
+    public IndexedContinuousTimeMarkovChain<MappingState> generateStateSpace(String name, double... args) {
+        return generateStateSpace(getConfiguration(name, args));
+    }
+
+    /**
+     * Returns the continuous time Markov chain reachable from the default initial configuration.
+     *
+     * @param args arguments of the default initial configuration.
+     * @return the continuous time Markov chain reachable from the default initial configuration.
+     * @throws IllegalStateException if this definition does not describe a continuous time Markov chain.
+     */
+    public IndexedContinuousTimeMarkovChain<MappingState> generateStateSpace(double... args) {
+        return generateStateSpace(getDefaultConfiguration(args));
+    }
+
+    private IndexedContinuousTimeMarkovChain<MappingState> generateStateSpace(Function<RandomGenerator, MappingState> configuration) {
+        Model<MappingState> model = createModel();
+        if (!(model instanceof CTMCModel)) {
+            throw new IllegalStateException("State space can be generated only for continuous time Markov chains");
+        }
+        return ((CTMCModel) model).generateStateSpace(configuration.apply(new DefaultRandomGenerator()));
+    }
+
 
 }
@@ -0,0 +1,108 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
+import it.unicam.quasylab.sibilla.core.models.TimeStep;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationStepFunction;
+import it.unicam.quasylab.sibilla.core.simulator.util.SumTreeWeightedStructure;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This class implements the optimised direct method for population models. Rates of rules are stored
+ * in a {@link SumTreeWeightedStructure} and, after each firing, only the rates of the rules that depend on the fired one (according to a
+ * {@link RuleDependencyGraph}) are recomputed. Each instance keeps the rates associated with the last
+ * computed state; hence an instance must not be shared among different simulation runs. When the
+ * current state is a {@link MutablePopulationState}, the selected update is applied in place.
+ */
+public class IncrementalPopulationStepFunction implements SimulationStepFunction<PopulationState> {
+
+    private final PopulationRule[] rules;
+
+    private final RuleDependencyGraph graph;
+
+    private final SumTreeWeightedStructure<PopulationTransition> transitions;
+
+    private PopulationState lastState;
+
+    private int lastFired = -1;
+
+    /**
+     * Creates a new step function for the given rules.
+     *
+     * @param rules population rules.
+     * @param graph dependency graph of the given rules.
+     */
+    public IncrementalPopulationStepFunction(List<PopulationRule> rules, RuleDependencyGraph graph) {
+        this.rules = rules.toArray(new PopulationRule[0]);
+        this.graph = graph;
+        this.transitions = new SumTreeWeightedStructure<>(this.rules.length);
+        for (int i = 0; i < this.rules.length; i++) {
+            this.transitions.add(0.0, null);
+        }
+    }
+
+    @Override
+    public Optional<TimeStep<PopulationState>> next(RandomGenerator r, double time, PopulationState state) {
+        if ((state != lastState)||(lastFired < 0)) {
+            for (int i = 0; i < rules.length; i++) {
+                compute(r, time, state, i);
+            }
+        } else {
+            for (int i : graph.getDependentRules(lastFired)) {
+                compute(r, time, state, i);
+            }
+            for (int i : graph.getVolatileRules()) {
+                compute(r, time, state, i);
+            }
+        }
+        double totalRate = transitions.getTotalWeight();
+        if (totalRate <= 0.0) {
+            lastFired = -1;
+            return Optional.empty();
+        }
+        double dt = ContinuousTimeMarkovProcess.sampleExponentialDistribution(totalRate, r);
+        int selected = transitions.selectIndex(r.nextDouble() * totalRate);
+        Update update = transitions.getElement(selected).apply(r);
+        PopulationState next;
+        if (state instanceof MutablePopulationState) {
+            ((MutablePopulationState) state).update(update);
+            next = state;
+        } else {
+            next = state.apply(update);
+        }
+        this.lastFired = selected;
+        this.lastState = next;
+        return Optional.of(new TimeStep<>(dt, next));
+    }
+
+    private void compute(RandomGenerator r, double time, PopulationState state, int i) {
+        PopulationTransition transition = rules[i].apply(r, time, state);
+        transitions.set(i, (transition == null ? 0.0 : transition.getRate()), transition);
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+/**
+ * A population state that is updated in place along a simulation run. Instances of this class are
+ * used by {@link PopulationSimulationEngine#IN_PLACE} to avoid allocating a new population vector
+ * at each step. Since the content of these states changes along a simulation, a state must be copied
+ * (see {@link #copy()}) whenever it has to be retained.
+ */
+public class MutablePopulationState extends PopulationState {
+
+    private static final long serialVersionUID = 2710396812950128374L;
+
+    private final int[] vector;
+
+    private double size;
+
+    /**
+     * Creates a new mutable state whose content is initially equal to the given state.
+     *
+     * @param state initial content of the state.
+     */
+    public MutablePopulationState(PopulationState state) {
+        this(state.population(), state.getPopulationVector().clone());
+    }
+
+    private MutablePopulationState(double size, int[] vector) {
+        super(size, vector);
+        this.vector = vector;
+        this.size = size;
+    }
+
+    /**
+     * Applies the given update to this state.
+     *
+     * @param update the update to apply.
+     */
+    public void update(Update update) {
+        this.size += applyTo(vector, update);
+    }
+
+    @Override
+    public double population() {
+        return size;
+    }
+
+    /**
+     * Returns an immutable snapshot of this state.
+     *
+     * @return an immutable snapshot of this state.
+     */
+    @Override
+    public PopulationState copy() {
+        return new PopulationState(size, vector.clone());
+    }
+
+}
@@ -27,17 +27,19 @@ import it.unicam.quasylab.sibilla.core.models.AbstractModel;
 import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
 import it.unicam.quasylab.sibilla.core.models.StepFunction;
 import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultSimulationCursor;
+import it.unicam.quasylab.sibilla.core.simulator.InPlaceSimulationCursor;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.Measure;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedElement;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import org.apache.commons.math3.random.RandomGenerator;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
 
@@ -57,13 +59,87 @@ public class PopulationModel extends AbstractModel<PopulationState> implements C
 
     private final List<PopulationRule> rules;
 
+    private final PopulationSimulationEngine engine;
+
+    private final TauLeapingParameters tauLeapingParameters;
+
+    private RuleDependencyGraph dependencyGraph;
+
     public PopulationModel(PopulationRegistry registry,
                            List<PopulationRule> rules,
                            Map<String, Measure<? super PopulationState>> measuresTable,
                            Map<String, Predicate<? super PopulationState>> predicatesTable) {
+        this(registry, rules, measuresTable, predicatesTable, PopulationSimulationEngine.DIRECT);
+    }
+
+    public PopulationModel(PopulationRegistry registry,
+                           List<PopulationRule> rules,
+                           Map<String, Measure<? super PopulationState>> measuresTable,
+                           Map<String, Predicate<? super PopulationState>> predicatesTable,
+                           PopulationSimulationEngine engine) {
+        this(registry, rules, measuresTable, predicatesTable, engine, TauLeapingParameters.DEFAULT);
+    }
+
+    public PopulationModel(PopulationRegistry registry,
+                           List<PopulationRule> rules,
+                           Map<String, Measure<? super PopulationState>> measuresTable,
+                           Map<String, Predicate<? super PopulationState>> predicatesTable,
+                           PopulationSimulationEngine engine,
+                           TauLeapingParameters tauLeapingParameters) {
         super(measuresTable, predicatesTable);
         this.registry = registry;
         this.rules = rules;
+        this.engine = engine;
+        this.tauLeapingParameters = tauLeapingParameters;
+    }
+
+    @Override
+    public SimulatorCursor<PopulationState> createSimulationCursor(RandomGenerator r, Function<RandomGenerator, PopulationState> initialStateBuilder) {
+        if (engine == PopulationSimulationEngine.INCREMENTAL) {
+            return new DefaultSimulationCursor<>(r, new IncrementalPopulationStepFunction(rules, getDependencyGraph()), initialStateBuilder);
+        }
+        if (engine == PopulationSimulationEngine.IN_PLACE) {
+            return new InPlaceSimulationCursor<>(r,
+                    new IncrementalPopulationStepFunction(rules, getDependencyGraph()),
+                    initialStateBuilder.andThen(MutablePopulationState::new),
+                    PopulationState::copy);
+        }
+        if ((engine == PopulationSimulationEngine.TAU_LEAPING) || (engine == PopulationSimulationEngine.HYBRID)) {
+            return new DefaultSimulationCursor<>(r,
+                    new TauLeapingStepFunction(rules, tauLeapingParameters, engine == PopulationSimulationEngine.HYBRID),
+                    initialStateBuilder);
+        }
+        return ContinuousTimeMarkovProcess.super.createSimulationCursor(r, initialStateBuilder);
+    }
+
+    /**
+     * Returns the algorithm used to simulate this model.
+     *
+     * @return the algorithm used to simulate this model.
+     */
+    public PopulationSimulationEngine getSimulationEngine() {
+        return engine;
+    }
+
+    /**
+     * Returns the parameters used to control the error of tau-leaping engines.
+     *
+     * @return the parameters used to control the error of tau-leaping engines.
+     */
+    public TauLeapingParameters getTauLeapingParameters() {
+        return tauLeapingParameters;
+    }
+
+    /**
+     * Returns the dependency graph of the rules of this model.
+     *
+     * @return the dependency graph of the rules of this model.
+     */
+    public synchronized RuleDependencyGraph getDependencyGraph() {
+        if (dependencyGraph == null) {
+            dependencyGraph = new RuleDependencyGraph(rules);
+        }
+        return dependencyGraph;
     }
 
     @Override
@@ -96,22 +172,28 @@ public class PopulationModel extends AbstractModel<PopulationState> implements C
 
     @Override
     public byte[] byteOf(PopulationState state) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(stateByteArraySize());
+        writeState(buffer, state);
+        return buffer.array();
+    }
+
+    @Override
+    public PopulationState fromByte(byte[] bytes) throws IOException {
+        return readState(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public void writeState(ByteBuffer buffer, PopulationState state) {
         for (int vectorSingleValue : state.getPopulationVector()) {
-                baos.write(ByteBuffer.allocate(4).putInt(vectorSingleValue).array());
+            buffer.putInt(vectorSingleValue);
         }
-        byte[] toReturn = baos.toByteArray();
-        baos.close();
-        return toReturn;
     }
 
     @Override
-    public PopulationState fromByte(byte[] bytes) throws IOException {
-        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-        int length = registry.size();
-        int[] vector = new int[length];
-        for (int i = 0; i < length; i++) {
-            vector[i] = ByteBuffer.wrap(bais.readNBytes(4)).getInt();
+    public PopulationState readState(ByteBuffer buffer) {
+        int[] vector = new int[registry.size()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = buffer.getInt();
         }
         return new PopulationState(vector);
     }
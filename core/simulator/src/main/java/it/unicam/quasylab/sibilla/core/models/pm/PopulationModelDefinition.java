@@ -57,6 +57,8 @@ public class PopulationModelDefinition extends AbstractModelDefinition<Populatio
     private PopulationModel model;
     private ParametricDataSet<Function<RandomGenerator,PopulationState>> states;
     private Map<String, Predicate<? super PopulationState>> predicates;
+    private PopulationSimulationEngine engine = PopulationSimulationEngine.DIRECT;
+    private TauLeapingParameters tauLeapingParameters = TauLeapingParameters.DEFAULT;
 
     /**
      * Create a new PopulationModelDefinition with the given functions used to build the elements of a definition.
@@ -113,11 +115,53 @@ public class PopulationModelDefinition extends AbstractModelDefinition<Populatio
             List<PopulationRule> rules = getRules();
             Map<String,Measure<? super PopulationState>> measures = getMeasures();
             Map<String,Predicate<? super PopulationState>> predicates = getPredicates();
-            model = new PopulationModel(registry,rules,measures, predicates);
+            model = new PopulationModel(registry,rules,measures, predicates, engine, tauLeapingParameters);
         }
         return model;
     }
 
+    /**
+     * Sets the algorithm used to simulate the models generated by this definition.
+     *
+     * @param engine the algorithm used to simulate the generated models.
+     */
+    public synchronized void setSimulationEngine(PopulationSimulationEngine engine) {
+        if (this.engine != engine) {
+            this.engine = engine;
+            this.model = null;
+        }
+    }
+
+    /**
+     * Returns the algorithm used to simulate the models generated by this definition.
+     *
+     * @return the algorithm used to simulate the models generated by this definition.
+     */
+    public PopulationSimulationEngine getSimulationEngine() {
+        return engine;
+    }
+
+    /**
+     * Sets the parameters used to control the error of tau-leaping engines.
+     *
+     * @param parameters the parameters used to control the error of tau-leaping engines.
+     */
+    public synchronized void setTauLeapingParameters(TauLeapingParameters parameters) {
+        if (!this.tauLeapingParameters.equals(parameters)) {
+            this.tauLeapingParameters = parameters;
+            this.model = null;
+        }
+    }
+
+    /**
+     * Returns the parameters used to control the error of tau-leaping engines.
+     *
+     * @return the parameters used to control the error of tau-leaping engines.
+     */
+    public TauLeapingParameters getTauLeapingParameters() {
+        return tauLeapingParameters;
+    }
+
     @Override
     public boolean isAnInitialConfiguration(String name) {
         return getStates().isDefined(name);
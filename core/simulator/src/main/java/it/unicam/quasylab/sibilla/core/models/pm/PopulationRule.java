@@ -45,6 +45,26 @@ public interface PopulationRule extends Serializable {
 	 */
 	PopulationTransition apply( RandomGenerator r , double now, PopulationState state );
 
+	/**
+	 * Returns the part of the population state that is read to decide if this rule is enabled and to
+	 * compute its rate. By default, a rule is assumed to depend on the whole state and on time.
+	 *
+	 * @return the part of the population state read by this rule.
+	 */
+	default SpeciesDependencies getReadDependencies() {
+		return SpeciesDependencies.ALL;
+	}
+
+	/**
+	 * Returns the part of the population state that can be changed when this rule is fired. By default,
+	 * a rule is assumed to change the whole state.
+	 *
+	 * @return the part of the population state changed by this rule.
+	 */
+	default SpeciesDependencies getWriteDependencies() {
+		return SpeciesDependencies.ALL;
+	}
+
 
 	static Function<PopulationState,Double> fractionOf(int idx) {
 		return s -> s.getFraction(idx);
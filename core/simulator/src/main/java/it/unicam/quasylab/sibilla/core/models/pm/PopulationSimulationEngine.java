@@ -0,0 +1,60 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+/**
+ * Identifies the algorithm used to simulate a {@link PopulationModel}.
+ */
+public enum PopulationSimulationEngine {
+
+    /**
+     * At each step the rates of all the rules are recomputed (standard Gillespie direct method).
+     */
+    DIRECT,
+
+    /**
+     * After each step only the rates of the rules depending on the fired one are recomputed
+     * (see {@link IncrementalPopulationStepFunction}).
+     */
+    INCREMENTAL,
+
+    /**
+     * Like {@link #INCREMENTAL} but the population vector is updated in place (see {@link MutablePopulationState}).
+     * States are copied only when a sampling handler needs to retain them.
+     */
+    IN_PLACE,
+
+    /**
+     * Explicit tau-leaping: in each step several rules may fire (see {@link TauLeapingStepFunction}). Results are
+     * approximated with an error controlled by {@link TauLeapingParameters}.
+     */
+    TAU_LEAPING,
+
+    /**
+     * Like {@link #TAU_LEAPING} but exact steps are performed when critical rules are enabled, namely when some
+     * of the involved species has a low number of agents.
+     */
+    HYBRID
+
+}
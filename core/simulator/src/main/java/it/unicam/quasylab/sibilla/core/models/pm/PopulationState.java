@@ -30,7 +30,6 @@ import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -86,7 +85,7 @@ public class PopulationState implements ImmutableState {
         this(IntStream.range(0, state.length).map(i -> state[i]).sum(), state);
     }
 
-    private PopulationState(double population, int[] state) {
+    PopulationState(double population, int[] state) {
         this.populationVector = state;
         this.population = population;
     }
@@ -138,20 +137,35 @@ public class PopulationState implements ImmutableState {
     // applies one update function
     public PopulationState apply(Update update) {
         int[] newState = Arrays.copyOf(populationVector, populationVector.length);
-        double population = this.population;
-        for (Entry<Integer, Integer> u : update.getUpdate()) {
-            int idx = u.getKey();
-            int newValue = newState[idx] + u.getValue();
-            if (newValue >= 0) {
-                newState[idx] = newValue;
-                population += u.getValue();
-            } else {
+        return new PopulationState(population() + applyTo(newState, update), newState);
+    }
+
+    /**
+     * Applies the given update to the given population vector and returns the variation of the population size.
+     * An {@link IllegalArgumentException} is thrown if the update leads to a negative occupancy; in this case
+     * the vector is left unchanged.
+     *
+     * @param vector the population vector to update.
+     * @param update the update to apply.
+     * @return the variation of the population size.
+     */
+    static int applyTo(int[] vector, Update update) {
+        int size = update.size();
+        for (int i = 0; i < size; i++) {
+            int idx = update.indexAt(i);
+            int newValue = vector[idx] + update.deltaAt(i);
+            if (newValue < 0) {
                 throw new IllegalArgumentException(
-                        "Population Vector: " + this + " newState: " + Arrays.toString(newState) + " Update: " + update
-                                + " idx: " + idx + " newValue: " + newValue + " u: " + u);
+                        "Population Vector: " + Arrays.toString(vector) + " Update: " + update
+                                + " idx: " + idx + " newValue: " + newValue);
             }
         }
-        return new PopulationState(population, newState);
+        int drift = 0;
+        for (int i = 0; i < size; i++) {
+            vector[update.indexAt(i)] += update.deltaAt(i);
+            drift += update.deltaAt(i);
+        }
+        return drift;
     }
 
     public double min(Function<Integer, Double> f) {
@@ -36,4 +36,57 @@ public interface RatePopulationFunction extends Serializable {
 
     SibillaValue apply(double now, PopulationState state);
 
+    /**
+     * Returns the double value of this function in the given state. By default, this method returns
+     * <code>apply(now, state).doubleOf()</code>. Implementations can override this method to avoid
+     * the allocation of intermediate values.
+     *
+     * @param now current time.
+     * @param state current state.
+     * @return the double value of this function in the given state.
+     */
+    default double rate(double now, PopulationState state) {
+        return apply(now, state).doubleOf();
+    }
+
+    /**
+     * Returns the part of the population state this function depends on. By default, a function is
+     * assumed to depend on the whole state and on time.
+     *
+     * @return the part of the population state this function depends on.
+     */
+    default SpeciesDependencies getDependencies() {
+        return SpeciesDependencies.ALL;
+    }
+
+    /**
+     * Returns a function that behaves like <code>f</code> and that only depends on the given part of
+     * the population state.
+     *
+     * @param dependencies the part of the population state the function depends on.
+     * @param f the function used to compute values.
+     * @return a function that behaves like <code>f</code> and that only depends on the given dependencies.
+     */
+    static RatePopulationFunction of(SpeciesDependencies dependencies, RatePopulationFunction f) {
+        return new RatePopulationFunction() {
+
+            private static final long serialVersionUID = 2419262394880452146L;
+
+            @Override
+            public SibillaValue apply(double now, PopulationState state) {
+                return f.apply(now, state);
+            }
+
+            @Override
+            public double rate(double now, PopulationState state) {
+                return f.rate(now, state);
+            }
+
+            @Override
+            public SpeciesDependencies getDependencies() {
+                return dependencies;
+            }
+        };
+    }
+
 }
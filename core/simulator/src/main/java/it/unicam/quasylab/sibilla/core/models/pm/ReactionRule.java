@@ -28,6 +28,7 @@ package it.unicam.quasylab.sibilla.core.models.pm;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Predicate;
@@ -49,6 +50,10 @@ public class ReactionRule implements PopulationRule, Serializable {
 	private final String name;
 
 	private final Update update;
+
+	private final SpeciesDependencies readDependencies;
+
+	private final SpeciesDependencies writeDependencies;
 	
 	/**
 	 * @param reactants
@@ -60,6 +65,20 @@ public class ReactionRule implements PopulationRule, Serializable {
 	}
 
 	public ReactionRule(String name, Predicate<PopulationState> guard, Population[] reactants, Population[] products, RatePopulationFunction rateFunction) {
+		this(name, guard, (guard==null?SpeciesDependencies.NONE:SpeciesDependencies.ALL), reactants, products, rateFunction);
+	}
+
+	/**
+	 * Creates a new reaction rule whose guard only depends on the given part of the population state.
+	 *
+	 * @param name rule name.
+	 * @param guard rule guard (a null value stands for a rule that is always enabled).
+	 * @param guardDependencies the part of the population state read by the guard.
+	 * @param reactants species consumed by the rule.
+	 * @param products species produced by the rule.
+	 * @param rateFunction rule rate.
+	 */
+	public ReactionRule(String name, Predicate<PopulationState> guard, SpeciesDependencies guardDependencies, Population[] reactants, Population[] products, RatePopulationFunction rateFunction) {
 		super();
 		this.guard = guard;
 		this.reactants = new HashMap<>();
@@ -68,6 +87,10 @@ public class ReactionRule implements PopulationRule, Serializable {
 		this.update = new Update(name);
 		initReactants(reactants);
 		initDrift(reactants, products);
+		this.readDependencies = SpeciesDependencies.of(this.reactants.keySet().stream().mapToInt(Integer::intValue).toArray())
+				.union(guardDependencies)
+				.union(rateFunction.getDependencies());
+		this.writeDependencies = SpeciesDependencies.of(this.update);
 	}
 
 	private void initReactants(Population[] reactants) {
@@ -90,7 +113,7 @@ public class ReactionRule implements PopulationRule, Serializable {
 	@Override
 	public PopulationTransition apply(RandomGenerator r, double now, PopulationState state) {
 		if (isEnabled(state)) {
-			double rate = rateFunction.apply(now,state).doubleOf();
+			double rate = rateFunction.rate(now,state);
 			if (rate>0&&Double.isFinite(rate)) {
 				return new PopulationTransition(
 						name, 
@@ -102,6 +125,25 @@ public class ReactionRule implements PopulationRule, Serializable {
 		return null;
 	}
 	
+	/**
+	 * Returns the number of agents of each species that are needed to fire this rule.
+	 *
+	 * @return the number of agents of each species that are needed to fire this rule.
+	 */
+	public Map<Integer, Integer> getReactants() {
+		return Collections.unmodifiableMap(reactants);
+	}
+
+	@Override
+	public SpeciesDependencies getReadDependencies() {
+		return readDependencies;
+	}
+
+	@Override
+	public SpeciesDependencies getWriteDependencies() {
+		return writeDependencies;
+	}
+
 	private boolean isEnabled(PopulationState state) {
 		if ((guard != null)&&(!guard.test(state))) {
 			return false;
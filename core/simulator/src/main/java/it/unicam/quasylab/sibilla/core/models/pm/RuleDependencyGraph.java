@@ -0,0 +1,90 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * This class represents the dependency graph of a list of population rules. Rule <code>j</code>
+ * depends on rule <code>i</code> when the part of the state changed by <code>i</code> is read by
+ * <code>j</code>. Rules that read the whole state (or time) are not considered in the graph since their
+ * rate has to be recomputed at each step.
+ */
+public class RuleDependencyGraph implements Serializable {
+
+    private static final long serialVersionUID = 1569383204187736592L;
+
+    private final int[][] dependentRules;
+
+    private final int[] volatileRules;
+
+    /**
+     * Creates the dependency graph of the given list of rules.
+     *
+     * @param rules a list of population rules.
+     */
+    public RuleDependencyGraph(List<PopulationRule> rules) {
+        SpeciesDependencies[] reads = rules.stream().map(PopulationRule::getReadDependencies).toArray(SpeciesDependencies[]::new);
+        SpeciesDependencies[] writes = rules.stream().map(PopulationRule::getWriteDependencies).toArray(SpeciesDependencies[]::new);
+        this.volatileRules = IntStream.range(0, reads.length).filter(j -> reads[j].isAll()).toArray();
+        this.dependentRules = new int[writes.length][];
+        for (int i = 0; i < writes.length; i++) {
+            SpeciesDependencies changes = writes[i];
+            this.dependentRules[i] = IntStream.range(0, reads.length)
+                    .filter(j -> !reads[j].isAll() && reads[j].isAffectedBy(changes)).toArray();
+        }
+    }
+
+    /**
+     * Returns the number of rules in the graph.
+     *
+     * @return the number of rules in the graph.
+     */
+    public int size() {
+        return dependentRules.length;
+    }
+
+    /**
+     * Returns the indexes of the rules whose rate must be recomputed after the firing of the rule with
+     * index <code>i</code>. Rules returned by {@link #getVolatileRules()} are not included.
+     *
+     * @param i index of a rule.
+     * @return the indexes of the rules depending on the rule with index <code>i</code>.
+     */
+    public int[] getDependentRules(int i) {
+        return dependentRules[i];
+    }
+
+    /**
+     * Returns the indexes of the rules whose rate must be recomputed at each step.
+     *
+     * @return the indexes of the rules whose rate must be recomputed at each step.
+     */
+    public int[] getVolatileRules() {
+        return volatileRules;
+    }
+
+}
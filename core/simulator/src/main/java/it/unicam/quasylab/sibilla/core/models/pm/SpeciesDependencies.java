@@ -0,0 +1,186 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * Instances of this class describe the portion of a {@link PopulationState} that is involved in the
+ * evaluation, or in the application, of a population rule. A dependency is identified by a set of species
+ * indexes and by a flag indicating if the total size of the population is also involved. The special
+ * value {@link #ALL} is used when no static information is available: it depends on the whole state
+ * and on time.
+ */
+public final class SpeciesDependencies implements Serializable {
+
+    private static final long serialVersionUID = -4531628309817230173L;
+
+    /**
+     * Dependencies associated with elements that do not involve the population state.
+     */
+    public static final SpeciesDependencies NONE = new SpeciesDependencies(new BitSet(), false, false);
+
+    /**
+     * Dependencies associated with elements that may involve any part of the population state.
+     */
+    public static final SpeciesDependencies ALL = new SpeciesDependencies(new BitSet(), true, true);
+
+    private final BitSet species;
+
+    private final boolean population;
+
+    private final boolean all;
+
+    private SpeciesDependencies(BitSet species, boolean population, boolean all) {
+        this.species = species;
+        this.population = population;
+        this.all = all;
+    }
+
+    /**
+     * Returns the dependencies on the occupancy of the given species.
+     *
+     * @param species indexes of species.
+     * @return the dependencies on the occupancy of the given species.
+     */
+    public static SpeciesDependencies of(int ... species) {
+        return new SpeciesDependencies(toBitSet(species), false, false);
+    }
+
+    /**
+     * Returns the dependencies on the fraction of the given species. These depend both on the occupancy
+     * of the species and on the size of the whole population.
+     *
+     * @param species indexes of species.
+     * @return the dependencies on the fraction of the given species.
+     */
+    public static SpeciesDependencies fractionOf(int ... species) {
+        return new SpeciesDependencies(toBitSet(species), true, false);
+    }
+
+    /**
+     * Returns the species changed by the given update. The size of the population is also marked as
+     * changed when the update is not balanced.
+     *
+     * @param update a population update.
+     * @return the species changed by the given update.
+     */
+    public static SpeciesDependencies of(Update update) {
+        BitSet species = new BitSet();
+        int drift = 0;
+        for (int i: update.getIndexes()) {
+            species.set(i);
+            drift += update.get(i);
+        }
+        return new SpeciesDependencies(species, drift != 0, false);
+    }
+
+    private static BitSet toBitSet(int[] species) {
+        BitSet result = new BitSet();
+        for (int s: species) {
+            result.set(s);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the dependencies obtained by combining this element with the given one.
+     *
+     * @param other other dependencies.
+     * @return the dependencies obtained by combining this element with the given one.
+     */
+    public SpeciesDependencies union(SpeciesDependencies other) {
+        if (this.all || other.all) {
+            return ALL;
+        }
+        BitSet species = (BitSet) this.species.clone();
+        species.or(other.species);
+        return new SpeciesDependencies(species, this.population || other.population, false);
+    }
+
+    /**
+     * Returns true if an element with these (read) dependencies can be affected by a change of the
+     * part of the state described by <code>changes</code>.
+     *
+     * @param changes part of the state that is changed.
+     * @return true if an element with these dependencies can be affected by the given changes.
+     */
+    public boolean isAffectedBy(SpeciesDependencies changes) {
+        if (this.all || changes.all) {
+            return true;
+        }
+        return (this.population && changes.population) || this.species.intersects(changes.species);
+    }
+
+    /**
+     * Returns true if these dependencies involve the whole state.
+     *
+     * @return true if these dependencies involve the whole state.
+     */
+    public boolean isAll() {
+        return all;
+    }
+
+    /**
+     * Returns true if these dependencies involve the total size of the population.
+     *
+     * @return true if these dependencies involve the total size of the population.
+     */
+    public boolean dependsOnPopulationSize() {
+        return population || all;
+    }
+
+    /**
+     * Returns the indexes of the species occurring in these dependencies.
+     *
+     * @return the indexes of the species occurring in these dependencies.
+     */
+    public int[] getSpecies() {
+        return species.stream().toArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SpeciesDependencies that = (SpeciesDependencies) o;
+        return population == that.population && all == that.all && species.equals(that.species);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(species, population, all);
+    }
+
+    @Override
+    public String toString() {
+        if (all) {
+            return "ALL";
+        }
+        return Arrays.toString(getSpecies())+(population?"+population":"");
+    }
+}
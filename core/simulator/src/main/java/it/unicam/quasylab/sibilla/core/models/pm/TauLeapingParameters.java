@@ -0,0 +1,128 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Error control parameters of the tau-leaping algorithms (see {@link TauLeapingStepFunction}).
+ */
+public final class TauLeapingParameters implements Serializable {
+
+    private static final long serialVersionUID = -1660497004466525047L;
+
+    /**
+     * Default value of the error control parameter.
+     */
+    public static final double DEFAULT_EPSILON = 0.03;
+
+    /**
+     * Default threshold used to identify critical reactions.
+     */
+    public static final int DEFAULT_CRITICAL_THRESHOLD = 10;
+
+    /**
+     * Default parameters.
+     */
+    public static final TauLeapingParameters DEFAULT = new TauLeapingParameters(DEFAULT_EPSILON, DEFAULT_CRITICAL_THRESHOLD);
+
+    private final double epsilon;
+
+    private final int criticalThreshold;
+
+    /**
+     * Creates new parameters.
+     *
+     * @param epsilon bound on the relative change of propensities in a leap (a value in (0,1)).
+     * @param criticalThreshold a rule is critical when it can fire less than this number of times before exhausting one of its reactants.
+     */
+    public TauLeapingParameters(double epsilon, int criticalThreshold) {
+        if ((epsilon <= 0)||(epsilon >= 1)) {
+            throw new IllegalArgumentException(SibillaMessages.aPositiveValueIsExpected(epsilon));
+        }
+        if (criticalThreshold < 0) {
+            throw new IllegalArgumentException(SibillaMessages.aNonNegativeValueIsExpected(criticalThreshold));
+        }
+        this.epsilon = epsilon;
+        this.criticalThreshold = criticalThreshold;
+    }
+
+    /**
+     * Returns the bound on the relative change of propensities in a leap.
+     *
+     * @return the bound on the relative change of propensities in a leap.
+     */
+    public double getEpsilon() {
+        return epsilon;
+    }
+
+    /**
+     * Returns the threshold used to identify critical rules.
+     *
+     * @return the threshold used to identify critical rules.
+     */
+    public int getCriticalThreshold() {
+        return criticalThreshold;
+    }
+
+    /**
+     * Returns a copy of these parameters with the given error control parameter.
+     *
+     * @param epsilon bound on the relative change of propensities in a leap.
+     * @return a copy of these parameters with the given error control parameter.
+     */
+    public TauLeapingParameters withEpsilon(double epsilon) {
+        return new TauLeapingParameters(epsilon, criticalThreshold);
+    }
+
+    /**
+     * Returns a copy of these parameters with the given critical threshold.
+     *
+     * @param criticalThreshold threshold used to identify critical rules.
+     * @return a copy of these parameters with the given critical threshold.
+     */
+    public TauLeapingParameters withCriticalThreshold(int criticalThreshold) {
+        return new TauLeapingParameters(epsilon, criticalThreshold);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TauLeapingParameters that = (TauLeapingParameters) o;
+        return Double.compare(that.epsilon, epsilon) == 0 && criticalThreshold == that.criticalThreshold;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(epsilon, criticalThreshold);
+    }
+
+    @Override
+    public String toString() {
+        return "epsilon=" + epsilon + ", criticalThreshold=" + criticalThreshold;
+    }
+}
@@ -0,0 +1,367 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.ContinuousTimeMarkovProcess;
+import it.unicam.quasylab.sibilla.core.models.TimeStep;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationStepFunction;
+import it.unicam.quasylab.sibilla.core.simulator.util.RandomSampling;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * This class implements the explicit tau-leaping algorithm with the step size selection of Cao, Gillespie and
+ * Petzold (<i>Efficient step size selection for the tau-leaping simulation method</i>, J. Chem. Phys. 124, 2006).
+ * At each step, rules that can fire less than {@link TauLeapingParameters#getCriticalThreshold()} times are
+ * considered <i>critical</i> and fire at most once in a leap. The leap size guarantees that the expected relative
+ * change of propensities is bounded by {@link TauLeapingParameters#getEpsilon()}. When the selected leap is not
+ * larger than a few exact steps, or when it cannot be bounded because no non critical rule consumes agents, a sequence
+ * of exact (SSA) steps is performed.
+ * <br>
+ * In the <i>hybrid</i> variant, exact steps are performed whenever a critical rule is enabled, namely when the number of
+ * agents in one of its reactant species is low.
+ * <br>
+ * The update of a rule is sampled once per step and applied as many times as the rule fires in the leap. Each instance
+ * keeps information about the current trajectory; hence an instance must not be shared among different simulation runs.
+ */
+public class TauLeapingStepFunction implements SimulationStepFunction<PopulationState> {
+
+    /**
+     * A leap is replaced by exact steps when it is smaller than this number of expected exact steps.
+     */
+    private static final double SSA_FACTOR = 10.0;
+
+    /**
+     * Number of exact steps performed when a leap is too small.
+     */
+    private static final int SSA_STEPS = 100;
+
+    private final PopulationRule[] rules;
+
+    private final TauLeapingParameters parameters;
+
+    private final boolean hybrid;
+
+    /**
+     * Species consumed by each rule and the number of needed agents. Null values are used when this
+     * information is not available.
+     */
+    private final int[][] reactantSpecies;
+
+    private final int[][] reactantCounts;
+
+    private final int[] order;
+
+    /**
+     * For each species, the rules where the species occurs as a reactant.
+     */
+    private final int[][] rulesBySpecies;
+
+    private final double[] rates;
+
+    private final Update[] updates;
+
+    private final boolean[] critical;
+
+    private double[] mu = new double[0];
+
+    private double[] sigma = new double[0];
+
+    private boolean[] reactant = new boolean[0];
+
+    private boolean[] unknownOrder = new boolean[0];
+
+    private int pendingExactSteps = 0;
+
+    private PopulationState lastState;
+
+    /**
+     * Creates a new step function.
+     *
+     * @param rules population rules.
+     * @param parameters error control parameters.
+     * @param hybrid true if exact steps must be performed when critical rules are enabled.
+     */
+    public TauLeapingStepFunction(List<PopulationRule> rules, TauLeapingParameters parameters, boolean hybrid) {
+        this.rules = rules.toArray(new PopulationRule[0]);
+        this.parameters = parameters;
+        this.hybrid = hybrid;
+        this.reactantSpecies = new int[this.rules.length][];
+        this.reactantCounts = new int[this.rules.length][];
+        this.order = new int[this.rules.length];
+        this.rates = new double[this.rules.length];
+        this.updates = new Update[this.rules.length];
+        this.critical = new boolean[this.rules.length];
+        int maxSpecies = -1;
+        for (int j = 0; j < this.rules.length; j++) {
+            if (this.rules[j] instanceof ReactionRule) {
+                Map<Integer, Integer> reactants = ((ReactionRule) this.rules[j]).getReactants();
+                reactantSpecies[j] = reactants.keySet().stream().mapToInt(Integer::intValue).toArray();
+                reactantCounts[j] = Arrays.stream(reactantSpecies[j]).map(reactants::get).toArray();
+                order[j] = Arrays.stream(reactantCounts[j]).sum();
+                maxSpecies = Math.max(maxSpecies, Arrays.stream(reactantSpecies[j]).max().orElse(-1));
+            } else {
+                order[j] = -1;
+            }
+        }
+        this.rulesBySpecies = new int[maxSpecies + 1][];
+        for (int i = 0; i <= maxSpecies; i++) {
+            int species = i;
+            rulesBySpecies[i] = IntStream.range(0, this.rules.length)
+                    .filter(j -> (reactantSpecies[j] != null) && Arrays.stream(reactantSpecies[j]).anyMatch(s -> s == species))
+                    .toArray();
+        }
+    }
+
+    @Override
+    public Optional<TimeStep<PopulationState>> next(RandomGenerator r, double time, PopulationState state) {
+        if (state != lastState) {
+            pendingExactSteps = 0;
+        }
+        int[] vector = state.getPopulationVector();
+        double totalRate = computeRates(r, time, state);
+        if (totalRate <= 0.0) {
+            lastState = null;
+            return Optional.empty();
+        }
+        if (pendingExactSteps > 0) {
+            pendingExactSteps--;
+            return record(exactStep(r, state, totalRate));
+        }
+        boolean criticalEnabled = computeCriticalRules(vector);
+        if (hybrid && criticalEnabled) {
+            return record(exactStep(r, state, totalRate));
+        }
+        double tau = selectLeap(vector);
+        if (Double.isInfinite(tau) || (tau < SSA_FACTOR / totalRate)) {
+            pendingExactSteps = SSA_STEPS - 1;
+            return record(exactStep(r, state, totalRate));
+        }
+        return record(leap(r, vector, tau));
+    }
+
+    private Optional<TimeStep<PopulationState>> record(TimeStep<PopulationState> step) {
+        lastState = step.getValue();
+        return Optional.of(step);
+    }
+
+    private double computeRates(RandomGenerator r, double time, PopulationState state) {
+        double totalRate = 0.0;
+        for (int j = 0; j < rules.length; j++) {
+            PopulationTransition transition = rules[j].apply(r, time, state);
+            if (transition == null) {
+                rates[j] = 0.0;
+                updates[j] = null;
+            } else {
+                rates[j] = transition.getRate();
+                updates[j] = transition.apply(r);
+                totalRate += rates[j];
+            }
+        }
+        return totalRate;
+    }
+
+    /**
+     * Marks as critical the enabled rules that can fire less than the critical threshold times. Returns true
+     * if at least one critical rule is enabled.
+     */
+    private boolean computeCriticalRules(int[] vector) {
+        boolean flag = false;
+        for (int j = 0; j < rules.length; j++) {
+            critical[j] = false;
+            if (updates[j] != null) {
+                long firings = Long.MAX_VALUE;
+                for (int k = 0; k < updates[j].size(); k++) {
+                    int delta = updates[j].deltaAt(k);
+                    if (delta < 0) {
+                        firings = Math.min(firings, vector[updates[j].indexAt(k)] / (-delta));
+                    }
+                }
+                critical[j] = firings < parameters.getCriticalThreshold();
+                flag = flag || critical[j];
+            }
+        }
+        return flag;
+    }
+
+    /**
+     * Computes the leap size for the non critical rules. The result is infinite when no non critical rule consumes
+     * agents (for instance, when only zero-order rules are non critical); in this case no error control is possible
+     * and exact steps are performed.
+     */
+    private double selectLeap(int[] vector) {
+        if (mu.length != vector.length) {
+            mu = new double[vector.length];
+            sigma = new double[vector.length];
+            reactant = new boolean[vector.length];
+            unknownOrder = new boolean[vector.length];
+        }
+        Arrays.fill(mu, 0.0);
+        Arrays.fill(sigma, 0.0);
+        Arrays.fill(reactant, false);
+        Arrays.fill(unknownOrder, false);
+        for (int j = 0; j < rules.length; j++) {
+            if ((updates[j] != null) && !critical[j]) {
+                for (int k = 0; k < updates[j].size(); k++) {
+                    int i = updates[j].indexAt(k);
+                    int delta = updates[j].deltaAt(k);
+                    mu[i] += delta * rates[j];
+                    sigma[i] += delta * delta * rates[j];
+                    if ((reactantSpecies[j] == null) && (delta < 0)) {
+                        reactant[i] = true;
+                        unknownOrder[i] = true;
+                    }
+                }
+                if (reactantSpecies[j] != null) {
+                    for (int i : reactantSpecies[j]) {
+                        reactant[i] = true;
+                    }
+                }
+            }
+        }
+        double tau = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < vector.length; i++) {
+            if (reactant[i]) {
+                double bound = Math.max(parameters.getEpsilon() * vector[i] / highestOrder(i, vector[i]), 1.0);
+                if (mu[i] != 0.0) {
+                    tau = Math.min(tau, bound / Math.abs(mu[i]));
+                }
+                if (sigma[i] != 0.0) {
+                    tau = Math.min(tau, bound * bound / sigma[i]);
+                }
+            }
+        }
+        return tau;
+    }
+
+    /**
+     * Returns the function <code>g_i</code> of Cao et al. for the given species.
+     */
+    private double highestOrder(int species, int agents) {
+        double g = (unknownOrder[species] ? 3.0 : 1.0);
+        if (species < rulesBySpecies.length) {
+            for (int j : rulesBySpecies[species]) {
+                if ((updates[j] != null) && !critical[j]) {
+                    g = Math.max(g, highestOrder(order[j], countOf(j, species), agents));
+                }
+            }
+        }
+        return g;
+    }
+
+    private int countOf(int rule, int species) {
+        for (int k = 0; k < reactantSpecies[rule].length; k++) {
+            if (reactantSpecies[rule][k] == species) {
+                return reactantCounts[rule][k];
+            }
+        }
+        return 0;
+    }
+
+    private static double highestOrder(int order, int multiplicity, int agents) {
+        switch (order) {
+            case 1:
+                return 1.0;
+            case 2:
+                return ((multiplicity == 2) && (agents > 1) ? 2.0 + 1.0 / (agents - 1) : 2.0);
+            case 3:
+                if ((multiplicity == 3) && (agents > 2)) {
+                    return 3.0 + 1.0 / (agents - 1) + 2.0 / (agents - 2);
+                }
+                if ((multiplicity == 2) && (agents > 1)) {
+                    return 1.5 * (2.0 + 1.0 / (agents - 1));
+                }
+                return 3.0;
+            default:
+                return order;
+        }
+    }
+
+    private TimeStep<PopulationState> exactStep(RandomGenerator r, PopulationState state, double totalRate) {
+        double dt = ContinuousTimeMarkovProcess.sampleExponentialDistribution(totalRate, r);
+        int selected = select(r.nextDouble() * totalRate, false);
+        return new TimeStep<>(dt, state.apply(updates[selected]));
+    }
+
+    private TimeStep<PopulationState> leap(RandomGenerator r, int[] vector, double tau) {
+        double criticalRate = 0.0;
+        for (int j = 0; j < rules.length; j++) {
+            if (critical[j]) {
+                criticalRate += rates[j];
+            }
+        }
+        int[] next = new int[vector.length];
+        while (true) {
+            double criticalTau = (criticalRate > 0 ? ContinuousTimeMarkovProcess.sampleExponentialDistribution(criticalRate, r) : Double.POSITIVE_INFINITY);
+            double dt = Math.min(tau, criticalTau);
+            if (Double.isInfinite(dt)) {
+                throw new IllegalStateException("Internal error!");
+            }
+            System.arraycopy(vector, 0, next, 0, vector.length);
+            if (criticalTau <= tau) {
+                apply(next, updates[select(r.nextDouble() * criticalRate, true)], 1);
+            }
+            for (int j = 0; j < rules.length; j++) {
+                if ((updates[j] != null) && !critical[j]) {
+                    apply(next, updates[j], RandomSampling.poisson(r, rates[j] * dt));
+                }
+            }
+            if (Arrays.stream(next).allMatch(v -> v >= 0)) {
+                return new TimeStep<>(dt, new PopulationState(next));
+            }
+            tau = tau / 2;
+        }
+    }
+
+    private static void apply(int[] vector, Update update, long firings) {
+        if (firings > 0) {
+            for (int k = 0; k < update.size(); k++) {
+                vector[update.indexAt(k)] += (int) (firings * update.deltaAt(k));
+            }
+        }
+    }
+
+    /**
+     * Selects an enabled rule with probability proportional to its rate. If <code>onlyCritical</code> is true, only
+     * critical rules are considered.
+     */
+    private int select(double value, boolean onlyCritical) {
+        int last = -1;
+        for (int j = 0; j < rules.length; j++) {
+            if ((updates[j] != null) && (!onlyCritical || critical[j])) {
+                last = j;
+                if (value < rates[j]) {
+                    return j;
+                }
+                value -= rates[j];
+            }
+        }
+        return last;
+    }
+
+}
@@ -26,6 +26,7 @@
 package it.unicam.quasylab.sibilla.core.models.pm;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -40,6 +41,8 @@ public class Update implements Serializable {
 	private static final long serialVersionUID = 5759358996259668600L;
 	private final Map<Integer, Integer> update;
 	private final String name;
+	private int[] indexes = new int[0];
+	private int[] deltas = new int[0];
 
 	public Update(String name) {
 		this.update = new HashMap<>();
@@ -58,13 +61,69 @@ public class Update implements Serializable {
 			} else {
 				update.remove(idx);
 			}
+			compile();
 		}
 	}
 
+	/**
+	 * Stores the content of the update map in the two parallel arrays <code>indexes</code> and
+	 * <code>deltas</code> so that the update can be applied without iterating over boxed entries.
+	 */
+	private void compile() {
+		int[] newIndexes = new int[update.size()];
+		int[] newDeltas = new int[update.size()];
+		int counter = 0;
+		for (Entry<Integer, Integer> e : update.entrySet()) {
+			newIndexes[counter] = e.getKey();
+			newDeltas[counter] = e.getValue();
+			counter++;
+		}
+		this.indexes = newIndexes;
+		this.deltas = newDeltas;
+	}
+
 	public int get(int i) {
 		return update.getOrDefault(i, 0);
 	}
 
+	/**
+	 * Returns the indexes of the species whose occupancy is changed by this update.
+	 *
+	 * @return the indexes of the species whose occupancy is changed by this update.
+	 */
+	public int[] getIndexes() {
+		return Arrays.copyOf(indexes, indexes.length);
+	}
+
+	/**
+	 * Returns the number of species whose occupancy is changed by this update.
+	 *
+	 * @return the number of species whose occupancy is changed by this update.
+	 */
+	public int size() {
+		return indexes.length;
+	}
+
+	/**
+	 * Returns the index of the <code>i</code>-th species changed by this update.
+	 *
+	 * @param i position in the update.
+	 * @return the index of the <code>i</code>-th species changed by this update.
+	 */
+	public int indexAt(int i) {
+		return indexes[i];
+	}
+
+	/**
+	 * Returns the variation of the <code>i</code>-th species changed by this update.
+	 *
+	 * @param i position in the update.
+	 * @return the variation of the <code>i</code>-th species changed by this update.
+	 */
+	public int deltaAt(int i) {
+		return deltas[i];
+	}
+
 	public void consume(int idx, int c) {
 		this.add(idx, c, 0);
 	}
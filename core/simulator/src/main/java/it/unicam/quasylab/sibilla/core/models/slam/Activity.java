@@ -23,6 +23,8 @@
 
 package it.unicam.quasylab.sibilla.core.models.slam;
 
+import it.unicam.quasylab.sibilla.core.models.slam.agents.AgentMessage;
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
 import org.apache.commons.math3.random.RandomGenerator;
 
 /**
@@ -104,6 +106,42 @@ public abstract class Activity implements Comparable<Activity> {
         }
     }
 
+    /**
+     * Delivers the same message to a group of receivers at the same time. Single deliveries are created only
+     * when the activity is executed.
+     */
+    public static class BroadcastDeliveryActivity extends Activity {
+
+        private final SlamAgent sender;
+
+        private final AgentMessage message;
+
+        private final int[] receivers;
+
+        private BroadcastDeliveryActivity(int activityCounter, double time, SlamAgent sender, AgentMessage message, int[] receivers) {
+            super(activityCounter, time);
+            this.sender = sender;
+            this.message = message;
+            this.receivers = receivers;
+        }
+
+        public AgentMessage getMessage() {
+            return this.message;
+        }
+
+        public int[] getReceivers() {
+            return this.receivers;
+        }
+
+        @Override
+        public SlamState execute(RandomGenerator rg, SlamState state) {
+            for (int receiverId : receivers) {
+                state = state.deliverMessage(rg, new DeliveredMessage(sender, message, receiverId));
+            }
+            return state;
+        }
+    }
+
     public static class ActivityFactory {
 
         private int activityCounter = 0;
@@ -116,6 +154,10 @@ public abstract class Activity implements Comparable<Activity> {
             return new MessageDeliveryActivity(activityCounter++, time, deliveredMessage);
         }
 
+        public Activity.BroadcastDeliveryActivity broadcastDeliveryActivity(double time, SlamAgent sender, AgentMessage message, int[] receivers) {
+            return new BroadcastDeliveryActivity(activityCounter++, time, sender, message, receivers);
+        }
+
     }
 
 }
@@ -71,6 +71,15 @@ public class MessageHandler {
     }
 
 
+    /**
+     * Returns the tag of the messages handled by this handler.
+     *
+     * @return the tag of the messages handled by this handler.
+     */
+    public MessageTag getHandledTag() {
+        return handledTag;
+    }
+
     public Optional<SlamAgentStepEffect> doReceive(RandomGenerator rg, AgentStore receiverStore, DeliveredMessage message) {
         if (this.handledTag.equals(message.getMessage().getTag())) {
             AgentStore handlerStore = handlerBindings.apply(receiverStore, message.getMessage().getContent());
@@ -0,0 +1,116 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
+import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class associates each message tag with the identifiers, in ascending order, of the agents that may receive
+ * messages with that tag. Agents keep their identifier and their prototype along a simulation run, hence the index
+ * is shared by all the states reached in a run (like {@link Activity.ActivityFactory}) and the receivers of a tag
+ * are computed only when the first message with that tag is sent. Agents whose prototype has no behaviour are
+ * always indexed and marked, so that the handlers of their current state are checked when a message is sent.
+ */
+final class ReceiverIndex {
+
+    private final Map<MessageTag, Receivers> receivers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the agents in the given map that may receive messages with the given tag.
+     *
+     * @param tag a message tag.
+     * @param agents the agents of a state.
+     * @return the agents in the given map that may receive messages with the given tag.
+     */
+    Receivers receiversOf(MessageTag tag, SibillaMap<Integer, SlamAgent> agents) {
+        return receivers.computeIfAbsent(tag, t -> Receivers.of(t, agents));
+    }
+
+    /**
+     * The agents that may receive messages with a given tag.
+     */
+    static final class Receivers {
+
+        private final int[] agentIds;
+
+        private final BitSet stateDependent;
+
+        private Receivers(int[] agentIds, BitSet stateDependent) {
+            this.agentIds = agentIds;
+            this.stateDependent = stateDependent;
+        }
+
+        private static Receivers of(MessageTag tag, SibillaMap<Integer, SlamAgent> agents) {
+            List<Integer> ids = new ArrayList<>();
+            BitSet stateDependent = new BitSet();
+            agents.iterate((id, agent) -> {
+                if (!agent.hasBehaviour()) {
+                    stateDependent.set(ids.size());
+                    ids.add(id);
+                } else if (agent.canReceive(tag)) {
+                    ids.add(id);
+                }
+            });
+            return new Receivers(ids.stream().mapToInt(Integer::intValue).toArray(), stateDependent);
+        }
+
+        /**
+         * Returns the number of indexed agents.
+         *
+         * @return the number of indexed agents.
+         */
+        int size() {
+            return agentIds.length;
+        }
+
+        /**
+         * Returns the identifier of the i-th indexed agent.
+         *
+         * @param i index of the agent.
+         * @return the identifier of the i-th indexed agent.
+         */
+        int agentId(int i) {
+            return agentIds[i];
+        }
+
+        /**
+         * Returns true if the i-th indexed agent must be checked against the handlers of its current state.
+         *
+         * @param i index of the agent.
+         * @return true if the i-th indexed agent must be checked against the handlers of its current state.
+         */
+        boolean isStateDependent(int i) {
+            return stateDependent.get(i);
+        }
+
+    }
+
+}
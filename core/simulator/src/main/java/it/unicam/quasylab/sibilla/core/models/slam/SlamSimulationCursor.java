@@ -24,17 +24,35 @@
 package it.unicam.quasylab.sibilla.core.models.slam;
 
 import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.datastructures.CalendarScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.MapScheduler;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.Optional;
 import java.util.function.Function;
 
+/**
+ * Simulation cursor of SLAM models. When no reached state is retained, namely when {@link #snapshot()} is not
+ * invoked before the first step of a run, scheduled activities are moved to a {@link CalendarScheduler} that is
+ * updated in place. Otherwise, the persistent scheduler of the initial state is used for the whole run, so that
+ * the returned snapshots are not affected by the next steps.
+ */
 public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
 
     private RandomGenerator rg;
     private SlamState currentState = null;
     private final Function<RandomGenerator, SlamState> initialStateSupplier;
 
+    /**
+     * Whether the scheduled activities of the current state are stored in a scheduler updated in place.
+     */
+    private boolean inPlace;
+
+    /**
+     * Whether a reached state has been retained in the current run.
+     */
+    private boolean retained;
+
     public SlamSimulationCursor(RandomGenerator rg, Function<RandomGenerator, SlamState> initialStateSupplier) {
         this.rg = rg;
         this.initialStateSupplier = initialStateSupplier;
@@ -43,10 +61,16 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
     @Override
     public void start() {
         this.currentState = initialStateSupplier.apply(rg);
+        this.inPlace = false;
+        this.retained = false;
     }
 
     @Override
     public boolean step() {
+        if (!inPlace && !retained) {
+            currentState = currentState.withScheduler(new CalendarScheduler<>());
+            inPlace = true;
+        }
         Optional<SlamState> next = currentState.next(rg);
         if (next.isPresent()) {
             currentState = next.get();
@@ -61,6 +85,19 @@ public class SlamSimulationCursor implements SimulatorCursor<SlamState> {
         return currentState;
     }
 
+    @Override
+    public SlamState snapshot() {
+        if (currentState == null) {
+            return null;
+        }
+        if (inPlace) {
+            currentState = currentState.withScheduler(new MapScheduler<>());
+            inPlace = false;
+        }
+        retained = true;
+        return currentState;
+    }
+
     @Override
     public double time() {
         if (currentState != null) {
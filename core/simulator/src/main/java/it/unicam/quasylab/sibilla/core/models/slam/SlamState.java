@@ -25,13 +25,17 @@ package it.unicam.quasylab.sibilla.core.models.slam;
 
 import it.unicam.quasylab.sibilla.core.models.State;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.AgentFactory;
+import it.unicam.quasylab.sibilla.core.models.slam.agents.AgentMessage;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.OutgoingMessage;
 import it.unicam.quasylab.sibilla.core.models.slam.agents.SlamAgent;
 import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
 import it.unicam.quasylab.sibilla.core.util.datastructures.*;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.IntFunction;
@@ -54,6 +58,8 @@ public final class SlamState implements State, StateExpressionEvaluator {
 
     private final SibillaMap<Integer, Activity.AgentStepActivity> agentActivities;
 
+    private final ReceiverIndex receiverIndex;
+
     public static SlamState newSlamState(List<AgentFactory> initialPopulation) {
         SibillaMap<Integer, SlamAgent> agents = new SibillaMap<>();
         int i = 0;
@@ -64,23 +70,49 @@ public final class SlamState implements State, StateExpressionEvaluator {
     }
 
     public SlamState(Activity.ActivityFactory activityFactory, double now, SibillaMap<Integer, SlamAgent> agents, Scheduler<Activity> scheduledActivities, SibillaMap<Integer, Activity.AgentStepActivity> agentActivities) {
+        this(activityFactory, new ReceiverIndex(), now, agents, scheduledActivities, agentActivities);
+    }
+
+    private SlamState(Activity.ActivityFactory activityFactory, ReceiverIndex receiverIndex, double now, SibillaMap<Integer, SlamAgent> agents, Scheduler<Activity> scheduledActivities, SibillaMap<Integer, Activity.AgentStepActivity> agentActivities) {
         this.activityFactory = activityFactory;
+        this.receiverIndex = receiverIndex;
         this.now = now;
         this.scheduledActivities = scheduledActivities;
         this.agents = agents;
         this.agentActivities = agentActivities;
     }
 
+    /**
+     * Returns a state equal to this one where scheduled activities are stored in the given scheduler. This is
+     * used to replace the persistent scheduler of this state with one, like {@link CalendarScheduler}, that is
+     * updated in place. In that case, the states reached from the returned one share the same scheduler and only the
+     * last one can be used to continue the simulation.
+     *
+     * @param scheduler an empty scheduler.
+     * @return a state equal to this one where scheduled activities are stored in the given scheduler.
+     */
+    public SlamState withScheduler(Scheduler<Activity> scheduler) {
+        Optional<Pair<ScheduledElements<Activity>, Scheduler<Activity>>> next = this.scheduledActivities.scheduleNext();
+        while (next.isPresent()) {
+            ScheduledElements<Activity> elements = next.get().getKey();
+            for (Activity activity: elements.getScheduledElements()) {
+                scheduler = scheduler.schedule(activity, elements.getTime());
+            }
+            next = next.get().getValue().scheduleNext();
+        }
+        return SlamState.set(this, scheduler);
+    }
+
     public static SlamState set(SlamState slamState, SibillaMap<Integer, SlamAgent> agents) {
-        return new SlamState(slamState.activityFactory, slamState.now, agents, slamState.scheduledActivities, slamState.agentActivities);
+        return new SlamState(slamState.activityFactory, slamState.receiverIndex, slamState.now, agents, slamState.scheduledActivities, slamState.agentActivities);
     }
 
     public static SlamState set(SlamState slamState, Scheduler<Activity> scheduledActivities) {
-        return new SlamState(slamState.activityFactory, slamState.now, slamState.agents, scheduledActivities, slamState.agentActivities);
+        return new SlamState(slamState.activityFactory, slamState.receiverIndex, slamState.now, slamState.agents, scheduledActivities, slamState.agentActivities);
     }
 
     public static SlamState set(SlamState slamState, Scheduler<Activity> scheduledActivities, SibillaMap<Integer, Activity.AgentStepActivity> agentActivities) {
-        return new SlamState(slamState.activityFactory, slamState.now, slamState.agents, scheduledActivities, agentActivities);
+        return new SlamState(slamState.activityFactory, slamState.receiverIndex, slamState.now, slamState.agents, scheduledActivities, agentActivities);
     }
 
 
@@ -218,7 +250,7 @@ public final class SlamState implements State, StateExpressionEvaluator {
     }
 
     public SlamState progressTimeAt(RandomGenerator rg, double time) {
-        return new SlamState(activityFactory, time, agents.apply(a -> a.progressTime(rg, time)).apply(a -> a.perceive(rg, getStateExpressionEvaluator(a))), scheduledActivities, agentActivities);
+        return new SlamState(activityFactory, receiverIndex, time, agents.apply(a -> a.progressTime(rg, time)).apply(a -> a.perceive(rg, getStateExpressionEvaluator(a))), scheduledActivities, agentActivities);
     }
 
     private StateExpressionEvaluator getStateExpressionEvaluator(SlamAgent agent) {
@@ -299,10 +331,21 @@ public final class SlamState implements State, StateExpressionEvaluator {
         }
         Scheduler<Activity> queue = this.scheduledActivities;
         for (OutgoingMessage message: messages) {
-            for(int i=0; i<agents.size(); i++) {
-                DeliveredMessage dm = new DeliveredMessage(sender, message.getMessage(), i);
+            AgentMessage agentMessage = message.getMessage();
+            ReceiverIndex.Receivers candidates = receiverIndex.receiversOf(agentMessage.getTag(), agents);
+            Map<Double, List<Integer>> receivers = new LinkedHashMap<>();
+            for (int i = 0; i < candidates.size(); i++) {
+                int id = candidates.agentId(i);
+                if (candidates.isStateDependent(i) && !agents.get(id).map(a -> a.canReceive(agentMessage.getTag())).orElse(false)) {
+                    continue;
+                }
                 double time = message.getDeliveryTime().applyAsDouble(rg, sender.getAgentMemory());
-                queue = queue.schedule(activityFactory.messageDeliveryActivity(time, dm), time);
+                receivers.computeIfAbsent(time, t -> new ArrayList<>()).add(id);
+            }
+            for (Map.Entry<Double, List<Integer>> entry: receivers.entrySet()) {
+                double time = entry.getKey();
+                int[] receiverIds = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+                queue = queue.schedule(activityFactory.broadcastDeliveryActivity(time, sender, agentMessage, receiverIds), time);
             }
         }
         return SlamState.set(this, queue);
@@ -324,6 +367,15 @@ public final class SlamState implements State, StateExpressionEvaluator {
 
 
 
+    /**
+     * Returns the activities scheduled in this state.
+     *
+     * @return the activities scheduled in this state.
+     */
+    Scheduler<Activity> getScheduledActivities() {
+        return scheduledActivities;
+    }
+
     public boolean isTerminal() {
         return scheduledActivities.isEmpty();
     }
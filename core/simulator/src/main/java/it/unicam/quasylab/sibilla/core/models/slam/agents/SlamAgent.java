@@ -128,6 +128,31 @@ public final class SlamAgent {
         return state.onReceive(rg, agentMemory, message).map(e -> this.apply(rg, e));
     }
 
+    /**
+     * Returns true if this agent may handle messages with the given tag, now or after a change of state. When
+     * this method returns false, messages with the given tag can be safely discarded.
+     *
+     * @param tag a message tag.
+     * @return true if this agent may handle messages with the given tag.
+     */
+    public boolean canReceive(MessageTag tag) {
+        SlamAgentBehaviour behaviour = agentPrototype.getAgentBehaviour();
+        if (behaviour == null) {
+            return state.handles(tag);
+        }
+        return behaviour.handles(tag);
+    }
+
+    /**
+     * Returns true if the prototype of this agent has a behaviour. When this method returns false, the messages
+     * received by this agent only depend on the handlers of its current state.
+     *
+     * @return true if the prototype of this agent has a behaviour.
+     */
+    public boolean hasBehaviour() {
+        return agentPrototype.getAgentBehaviour() != null;
+    }
+
     private Pair<List<OutgoingMessage>, SlamAgent> apply(RandomGenerator rg, SlamAgentStepEffect effect) {
         SlamAgent nextAgent = new SlamAgent(rg, this, effect.getNextState(), effect.getNextAgentStore());
         return Pair.of(effect.getSentMessages(), nextAgent);
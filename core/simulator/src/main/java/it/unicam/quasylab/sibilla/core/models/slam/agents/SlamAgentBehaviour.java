@@ -25,10 +25,13 @@ package it.unicam.quasylab.sibilla.core.models.slam.agents;
 
 import it.unicam.quasylab.sibilla.core.models.slam.AgentTimePassingFunction;
 import it.unicam.quasylab.sibilla.core.models.slam.MessageHandler;
+import it.unicam.quasylab.sibilla.core.models.slam.MessageTag;
 import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.function.ToDoubleBiFunction;
 
@@ -41,11 +44,14 @@ public class SlamAgentBehaviour {
     private SlamAgentState initialState;
     private final Map<String, SlamAgentState> states;
 
+    private final Set<MessageTag> handledTags;
+
     /**
      * Creates an empty agent behaviour.
      */
     public SlamAgentBehaviour() {
         this.states = new TreeMap<>();
+        this.handledTags = new HashSet<>();
     }
 
     /**
@@ -106,11 +112,23 @@ public class SlamAgentBehaviour {
         SlamAgentState state = this.states.get(stateName);
         if (state != null) {
             state.addMessageHandler(messageHandler);
+            this.handledTags.add(messageHandler.getHandledTag());
         } else {
             throw new IllegalArgumentException();//TODO: Add Message!
         }
     }
 
+    /**
+     * Returns true if a message with the given tag is handled in at least one of the states of this behaviour.
+     * Messages with other tags are never received by agents with this behaviour.
+     *
+     * @param tag a message tag.
+     * @return true if a message with the given tag is handled in at least one of the states of this behaviour.
+     */
+    public boolean handles(MessageTag tag) {
+        return this.handledTags.contains(tag);
+    }
+
     /**
      * Sets the behaviour of the state associated with the passage of time.
      *
@@ -113,6 +113,18 @@ public final class SlamAgentState {
         return Optional.empty();
     }
 
+    /**
+     * Returns true if this state has a handler for messages with the given tag.
+     *
+     * @param tag a message tag.
+     * @return true if this state has a handler for messages with the given tag.
+     */
+    public boolean handles(MessageTag tag) {
+        for (MessageHandler mh : messageHandlers) {
+            if (mh.getHandledTag().equals(tag)) return true;
+        }
+        return false;
+    }
 
     public Optional<SlamAgentStepEffect> step(RandomGenerator rg, AgentStore m) {
         if (this.step == null) return Optional.empty();
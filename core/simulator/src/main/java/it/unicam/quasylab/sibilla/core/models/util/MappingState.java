@@ -29,6 +29,7 @@ import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 
@@ -130,4 +131,17 @@ public class MappingState implements ImmutableState {
     public SibillaValue get(int idx) {
         return this.state[idx];
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        MappingState that = (MappingState) o;
+        return Objects.equals(table, that.table) && Arrays.equals(state, that.state);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(state);
+    }
 }
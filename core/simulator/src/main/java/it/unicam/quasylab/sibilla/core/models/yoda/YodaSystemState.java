@@ -26,14 +26,17 @@ package it.unicam.quasylab.sibilla.core.models.yoda;
 import it.unicam.quasylab.sibilla.core.models.ImmutableState;
 import it.unicam.quasylab.sibilla.core.models.IndexedState;
 import it.unicam.quasylab.sibilla.core.models.TimeStep;
+import it.unicam.quasylab.sibilla.core.simulator.RandomStreams;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 import org.apache.commons.math3.random.RandomGenerator;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +51,10 @@ import java.util.stream.Stream;
  */
 public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent> {
 
+    /**
+     * Number of agents updated, one after the other, by the same thread.
+     */
+    private static final int UPDATE_CHUNK_SIZE = 64;
 
     private final YodaVariableMapping globalAttributes;
 
@@ -99,6 +106,19 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
     }
 
 
+    /**
+     * Returns the state reached after the next scheduled event. When agents perform their actions, the agents are
+     * updated in parallel chunks: each agent reads the current state and the new agent is written at its index in
+     * the array of the reached state, that is the only buffer written during the step. Each agent samples its
+     * random values from its own stream, that is derived from a seed drawn from <code>rg</code> and from the agent
+     * id (see {@link RandomStreams}). No generator is stored in the state or shared among threads: the resulting
+     * state only depends on this state and on <code>rg</code>, and not on the number of threads updating the agents
+     * or on the position of agents in the list.
+     *
+     * @param rg random generator used in the step.
+     * @param time current time.
+     * @return the state reached after the next scheduled event.
+     */
     public TimeStep<YodaSystemState> next(RandomGenerator rg, double time) {
         double dt = Math.min(nextScheduledActionExecutionTime, nextScheduledAttributeUpdateTime) - time;
         if (dt<=0)  {
@@ -108,13 +128,22 @@ public class YodaSystemState implements ImmutableState, IndexedState<YodaAgent>
         if (nextScheduledAttributeUpdateTime<nextScheduledActionExecutionTime) {
             return new TimeStep<>(dt, state.scheduleAttributeUpdate(nextScheduledAttributeUpdateTime+attributesUpdateInterval));
         }
-        List<YodaAgent> newAgents = state.agents.stream().parallel().map(a -> a.next(rg, state)).collect(Collectors.toList());
+        RandomStreams streams = new RandomStreams(rg.nextLong());
+        YodaAgent[] newAgents = new YodaAgent[state.agents.size()];
+        int chunks = (newAgents.length + UPDATE_CHUNK_SIZE - 1) / UPDATE_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int last = Math.min(newAgents.length, (c + 1) * UPDATE_CHUNK_SIZE);
+            for (int i = c * UPDATE_CHUNK_SIZE; i < last; i++) {
+                YodaAgent agent = state.agents.get(i);
+                newAgents[i] = agent.next(streams.getStream(agent.getId()), state);
+            }
+        });
         double nextScheduledActionExecutionTime = this.nextScheduledActionExecutionTime+this.actionExecutionInterval;
         double nextScheduledAttributeUpdateTime = this.nextScheduledAttributeUpdateTime;
         if (this.nextScheduledActionExecutionTime <= this.nextScheduledAttributeUpdateTime) {
             nextScheduledAttributeUpdateTime += this.attributesUpdateInterval;
         }
-        return new TimeStep<>(dt, new YodaSystemState(actionExecutionInterval, nextScheduledActionExecutionTime, attributesUpdateInterval, nextScheduledAttributeUpdateTime, globalAttributes, newAgents, state.sceneElements));
+        return new TimeStep<>(dt, new YodaSystemState(actionExecutionInterval, nextScheduledActionExecutionTime, attributesUpdateInterval, nextScheduledAttributeUpdateTime, globalAttributes, Arrays.asList(newAgents), state.sceneElements));
     }
 
     private YodaSystemState scheduleAttributeUpdate(double v) {
@@ -22,7 +22,7 @@
  */
 package it.unicam.quasylab.sibilla.core.past.ds;
 
-import it.unicam.quasylab.sibilla.core.simulator.util.ComposedWeightedStructure;
+import it.unicam.quasylab.sibilla.core.simulator.util.SumTreeWeightedStructure;
 import it.unicam.quasylab.sibilla.core.simulator.util.WeightedStructure;
 import it.unicam.quasylab.sibilla.core.simulator.util.Weighter;
 
@@ -88,7 +88,7 @@ public class TupleSpace {
 
 	public WeightedStructure<GetActivity> get(Template t) {
 		LinkedList<Node> lst = collect(t);
-		ComposedWeightedStructure<GetActivity> ws = new ComposedWeightedStructure<GetActivity>();
+		SumTreeWeightedStructure<GetActivity> ws = new SumTreeWeightedStructure<>(lst.size());
 		for (Node node : lst) {
 			if (node.occurrences > 0) {
 				ws.add(weight(node), new GetActivity(node));
@@ -99,7 +99,7 @@ public class TupleSpace {
 
 	public WeightedStructure<Tuple> query(Template t) {
 		LinkedList<Node> lst = collect(t);
-		ComposedWeightedStructure<Tuple> ws = new ComposedWeightedStructure<Tuple>();
+		SumTreeWeightedStructure<Tuple> ws = new SumTreeWeightedStructure<>(lst.size());
 		for (Node node : lst) {
 			if (node.occurrences > 0) {
 				ws.add(weight(node), node.t);
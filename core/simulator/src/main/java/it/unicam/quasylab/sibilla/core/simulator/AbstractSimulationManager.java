@@ -32,14 +32,21 @@ import java.util.stream.Collectors;
 
 public abstract class AbstractSimulationManager<S extends State> implements SimulationManager<S> {
 
-    private final RandomGenerator random;
+    private final RandomStreams streams;
     private final SimulationMonitor monitor;
     private final LinkedList<Long> executionTime = new LinkedList<>();
     private int counter = 0;
     private boolean running = true;
 
+    /**
+     * Creates a new manager. Each replica is executed with its own random stream; streams are
+     * seeded with a value sampled from the given generator.
+     *
+     * @param random random generator used to seed the streams of the replicas.
+     * @param monitor monitor used to control the simulation.
+     */
     public AbstractSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
-        this.random = random;
+        this.streams = new RandomStreams(random.nextLong());
         this.monitor = monitor;
         if (this.monitor != null) {
             this.monitor.registerPropertyChangeListener(this::manageSimulationMonitorEvent);
@@ -67,7 +74,7 @@ public abstract class AbstractSimulationManager<S extends State> implements Simu
             throw new IllegalStateException();
         }
         counter++;
-        handleTask(new SimulationTask<>(counter,random,unit));
+        handleTask(new SimulationTask<>(counter,streams.getStream(counter),unit));
     }
 
     protected abstract void handleTask(SimulationTask<S> simulationTask);
@@ -0,0 +1,246 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * A simulation manager that groups replicas in chunks that are executed sequentially by a single worker. The size
+ * of chunks is adapted so that each chunk lasts at least {@link #TARGET_CHUNK_DURATION} nanoseconds: in this way the
+ * scheduling overhead is negligible also when each replica is very fast. Completion is tracked by counting the chunks
+ * in flight with an atomic counter, without any limit on their number: {@link #join()} waits on a monitor until the
+ * counter reaches zero. When the manager is shut down, or the monitor is cancelled, running replicas are cancelled,
+ * pending ones are skipped and the replicas buffered in a partially filled chunk are cancelled. The first exception
+ * thrown by a replica is rethrown by {@link #join()}, once all the submitted chunks are terminated.
+ * <br>
+ * Chunks can be executed in a {@link ForkJoinPool}, for CPU bound simulations, or in virtual threads, when
+ * sampling handlers perform I/O.
+ */
+public class ChunkedSimulationManager<S extends State> extends AbstractSimulationManager<S> {
+
+    private static final Logger LOGGER = Logger.getLogger(ChunkedSimulationManager.class.getName());
+
+    /**
+     * Minimal expected duration, in nanoseconds, of a chunk.
+     */
+    public static final long TARGET_CHUNK_DURATION = 1_000_000L;
+
+    /**
+     * Maximal number of replicas in a chunk.
+     */
+    public static final int MAX_CHUNK_SIZE = 1024;
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger runningChunks = new AtomicInteger();
+
+    private final Object completion = new Object();
+
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private final LongAdder pendingTasks = new LongAdder();
+
+    private final Set<SimulationTask<S>> runningTasks = ConcurrentHashMap.newKeySet();
+
+    private volatile int chunkSize = 1;
+
+    private List<SimulationTask<S>> currentChunk = new ArrayList<>();
+
+    public ChunkedSimulationManager(ExecutorService executor, RandomGenerator random, SimulationMonitor monitor) {
+        super(random, monitor);
+        this.executor = executor;
+    }
+
+    public static SimulationManagerFactory getChunkedSimulationManagerFactory(Supplier<ExecutorService> executor) {
+        return new SimulationManagerFactory() {
+            @Override
+            public <S extends State> SimulationManager<S> getSimulationManager(RandomGenerator random, SimulationMonitor monitor) {
+                return new ChunkedSimulationManager<>(executor.get(), random, monitor);
+            }
+        };
+    }
+
+    public static SimulationManagerFactory getForkJoinSimulationManagerFactory() {
+        return getChunkedSimulationManagerFactory(ForkJoinPool::new);
+    }
+
+    public static SimulationManagerFactory getForkJoinSimulationManagerFactory(int parallelism) {
+        return getChunkedSimulationManagerFactory(() -> new ForkJoinPool(parallelism));
+    }
+
+    public static SimulationManagerFactory getVirtualThreadSimulationManagerFactory() {
+        return getChunkedSimulationManagerFactory(Executors::newVirtualThreadPerTaskExecutor);
+    }
+
+    @Override
+    protected synchronized void handleTask(SimulationTask<S> simulationTask) {
+        pendingTasks.increment();
+        currentChunk.add(simulationTask);
+        if (currentChunk.size() >= chunkSize) {
+            submitChunk();
+        }
+    }
+
+    private void submitChunk() {
+        if (currentChunk.isEmpty()) {
+            return;
+        }
+        List<SimulationTask<S>> chunk = currentChunk;
+        currentChunk = new ArrayList<>(chunkSize);
+        if (!isRunning()) {
+            chunk.forEach(SimulationTask::cancel);
+            pendingTasks.add(-chunk.size());
+            return;
+        }
+        runningChunks.incrementAndGet();
+        try {
+            executor.execute(() -> runChunk(chunk));
+        } catch (RejectedExecutionException e) {
+            chunk.forEach(SimulationTask::cancel);
+            pendingTasks.add(-chunk.size());
+            chunkTerminated();
+            throw e;
+        }
+    }
+
+    private void chunkTerminated() {
+        if (runningChunks.decrementAndGet() == 0) {
+            synchronized (completion) {
+                completion.notifyAll();
+            }
+        }
+    }
+
+    private void runChunk(List<SimulationTask<S>> chunk) {
+        long start = System.nanoTime();
+        try {
+            for (SimulationTask<S> task : chunk) {
+                runTask(task);
+                pendingTasks.decrement();
+            }
+        } finally {
+            adaptChunkSize(chunk.size(), System.nanoTime() - start);
+            chunkTerminated();
+        }
+    }
+
+    private void runTask(SimulationTask<S> task) {
+        if (isCancelled()) {
+            task.cancel();
+            return;
+        }
+        runningTasks.add(task);
+        try {
+            task.get();
+        } catch (RuntimeException e) {
+            LOGGER.warning(e.getLocalizedMessage());
+            RuntimeException first = failure.compareAndExchange(null, e);
+            if ((first != null) && (first != e)) {
+                first.addSuppressed(e);
+            }
+        } finally {
+            runningTasks.remove(task);
+        }
+    }
+
+    private boolean isCancelled() {
+        SimulationMonitor monitor = getMonitor();
+        return !isRunning() || ((monitor != null) && monitor.isCancelled());
+    }
+
+    private void adaptChunkSize(int size, long elapsed) {
+        if ((size >= chunkSize) && (elapsed < TARGET_CHUNK_DURATION) && (chunkSize < MAX_CHUNK_SIZE)) {
+            chunkSize = Math.min(2 * chunkSize, MAX_CHUNK_SIZE);
+        }
+    }
+
+    /**
+     * Returns the number of replicas that are currently grouped in a chunk.
+     *
+     * @return the number of replicas that are currently grouped in a chunk.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Submits the replicas grouped in the current chunk, even if the chunk is not full.
+     */
+    @Override
+    public synchronized void flush() {
+        submitChunk();
+    }
+
+    @Override
+    public int pendingTasks() {
+        return pendingTasks.intValue();
+    }
+
+    /**
+     * Waits until all the submitted replicas are terminated. If a replica has failed since the last invocation of
+     * this method, the first exception it has thrown is rethrown here; exceptions thrown by other replicas are
+     * added to it as suppressed exceptions.
+     *
+     * @throws InterruptedException if current thread is interrupted while its waiting for ending of simulation.
+     */
+    @Override
+    public void join() throws InterruptedException {
+        flush();
+        synchronized (completion) {
+            while (runningChunks.get() > 0) {
+                completion.wait();
+            }
+        }
+        RuntimeException e = failure.getAndSet(null);
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() throws InterruptedException {
+        synchronized (this) {
+            super.shutdown();
+            // Since the manager is no longer running, the replicas of the current chunk are cancelled.
+            submitChunk();
+        }
+        runningTasks.forEach(SimulationTask::cancel);
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.State;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A simulation cursor for step functions that update the current state in place. The current state
+ * returned by {@link #currentState()} changes along the simulation, while {@link #snapshot()} returns a copy
+ * of it that can be safely retained.
+ *
+ * @param <S> the type of process states.
+ */
+public class InPlaceSimulationCursor<S extends State> extends DefaultSimulationCursor<S> {
+
+    private final UnaryOperator<S> snapshotFunction;
+
+    /**
+     * Creates a new cursor.
+     *
+     * @param rg random generator used in the simulation.
+     * @param stepFunction step function updating the current state in place.
+     * @param initialStateBuilder function used to build a fresh initial state for each run.
+     * @param snapshotFunction function used to copy the current state.
+     */
+    public InPlaceSimulationCursor(RandomGenerator rg, SimulationStepFunction<S> stepFunction, Function<RandomGenerator, S> initialStateBuilder, UnaryOperator<S> snapshotFunction) {
+        super(rg, stepFunction, initialStateBuilder);
+        this.snapshotFunction = snapshotFunction;
+    }
+
+    @Override
+    public S snapshot() {
+        S current = currentState();
+        if (current == null) {
+            return null;
+        }
+        return snapshotFunction.apply(current);
+    }
+}
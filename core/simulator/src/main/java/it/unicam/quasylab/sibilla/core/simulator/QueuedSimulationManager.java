@@ -77,6 +77,16 @@ public abstract class QueuedSimulationManager<S extends State> extends AbstractS
         addAll(tasks);
     }
 
+    /**
+     * Marks the given tasks as completed.
+     *
+     * @param tasks completed tasks
+     */
+    protected synchronized void completed(Collection<? extends SimulationTask<S>> tasks) {
+        runningTasks -= tasks.size();
+        notifyAll();
+    }
+
     /**
      * Adds all the given tasks to the tasks to be executed
      *
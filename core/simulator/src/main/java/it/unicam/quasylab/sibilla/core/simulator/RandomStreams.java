@@ -0,0 +1,99 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.Serializable;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * A family of independent random streams indexed by replica. The stream of replica <code>i</code> only depends on
+ * the seed of the family and on <code>i</code>; hence simulation results do not depend on the simulation
+ * manager executing the replicas or on the interleaving of threads. Streams are generated with a generator of the
+ * LXM family (by default <code>L64X128MixRandom</code>) seeded with a SplitMix64 mixing of seed and replica index.
+ */
+public final class RandomStreams implements Serializable {
+
+    private static final long serialVersionUID = -6052823937281693006L;
+
+    /**
+     * Algorithm used when no other algorithm is specified.
+     */
+    public static final String DEFAULT_ALGORITHM = "L64X128MixRandom";
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final String algorithm;
+
+    private final long seed;
+
+    /**
+     * Creates a family of streams generated with the default algorithm.
+     *
+     * @param seed seed of the family.
+     */
+    public RandomStreams(long seed) {
+        this(DEFAULT_ALGORITHM, seed);
+    }
+
+    /**
+     * Creates a family of streams generated with the given algorithm.
+     *
+     * @param algorithm name of the algorithm (see {@link RandomGeneratorFactory#of(String)}).
+     * @param seed seed of the family.
+     * @throws IllegalArgumentException if the algorithm is not available.
+     */
+    public RandomStreams(String algorithm, long seed) {
+        RandomGeneratorFactory.of(algorithm);
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the random generator of the given replica. Each invocation returns a new generator starting
+     * from the beginning of the stream.
+     *
+     * @param replica replica index.
+     * @return the random generator of the given replica.
+     */
+    public RandomGenerator getStream(long replica) {
+        return new StreamRandomGenerator(algorithm, mix(seed + (replica + 1) * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Returns the seed of this family.
+     *
+     * @return the seed of this family.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+}
@@ -27,12 +27,16 @@ import it.unicam.quasylab.sibilla.core.models.*;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplePredicate;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingFunction;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestSampling;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.TrajectoryCollector;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.io.Serializable;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Logger;
@@ -53,6 +57,7 @@ public class SimulationEnvironment implements Serializable {
 
 	private static final long serialVersionUID = 1L;
 	private static final Logger LOGGER = Logger.getLogger(SimulationEnvironment.class.getName());
+	private static final long SEQUENTIAL_TEST_AWAIT_TIMEOUT = 100;
 	public static boolean silent = true;
 	private SimulationManagerFactory simulationManagerFactory;
 
@@ -385,6 +390,93 @@ public class SimulationEnvironment implements Serializable {
 	}
 
 
+	/**
+	 * Checks, via the given sequential test, the probability to reach a state satisfying the given goal
+	 * predicate within the given deadline while traversing only states satisfying a given condition.
+	 * Differently from {@link #reachability(SimulationMonitor, RandomGenerator, double, double, double, Model, Function, StatePredicate, StatePredicate)},
+	 * the number of runs is not fixed in advance: runs are submitted until the test is decided.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param test             sequential test used to decide when to stop.
+	 * @param deadline         reachability deadline.
+	 * @param model            model to simulate.
+	 * @param state            initial state
+	 * @param condition        condition predicate.
+	 * @param goal             goal predicate.
+	 * @return the result of the sequential test.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> SequentialTestResult reachability(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			SequentialTest test,
+			double deadline,
+			Model<S> model,
+			Function<RandomGenerator,S> state,
+			StatePredicate<? super S> condition,
+			StatePredicate<? super S> goal) throws InterruptedException {
+		return sequentialTest(monitor, random, test, model::createSimulationCursor, state,
+				outcome -> new ReachabilityHandler<>(condition, goal, outcome),
+				(t, s) -> (t > deadline) || goal.check(s) || !condition.check(s));
+	}
+
+	/**
+	 * Runs simulations until the given sequential test is decided, or its maximum number of runs is reached. The
+	 * outcome of each run is reported by the handler built by <code>handlerFactory</code>. At most a bounded number
+	 * of runs is pending at any time, so that no further tasks are submitted to the {@link SimulationManager} once
+	 * the test is decided. When the bound is reached, buffered runs are flushed to the manager and no run is submitted
+	 * until a pending one terminates. The bound starts from twice the number of available processors and is doubled
+	 * only when all the pending runs terminate while waiting, that is when the manager has idle capacity.
+	 *
+	 * @param monitor          monitor used to control simulation.
+	 * @param random           random generator used in the simulation.
+	 * @param test             sequential test used to decide when to stop.
+	 * @param cursorSupplier   cursor used to generate the simulated trajectory.
+	 * @param state            initial state
+	 * @param handlerFactory   function building the handler of a run from the consumer receiving its outcome.
+	 * @param stoppingPredicate predicate used to stop each run.
+	 * @return the result of the sequential test.
+	 * @throws InterruptedException is thrown when simulation is interrupted.
+	 */
+	public <S extends State> SequentialTestResult sequentialTest(
+			SimulationMonitor monitor,
+			RandomGenerator random,
+			SequentialTest test,
+			BiFunction<RandomGenerator, Function<RandomGenerator, S>, SimulatorCursor<S>> cursorSupplier,
+			Function<RandomGenerator,S> state,
+			Function<Consumer<Boolean>, SamplingHandler<S>> handlerFactory,
+			SamplePredicate<? super S> stoppingPredicate) throws InterruptedException {
+		SequentialTestSampling<S> sampling = new SequentialTestSampling<>(test, handlerFactory);
+		SimulationUnit<S> unit = new SimulationUnit<>(cursorSupplier, state, sampling, stoppingPredicate);
+		SimulationManager<S> simulationManager = simulationManagerFactory.getSimulationManager(random, monitor);
+		int window = 2 * Runtime.getRuntime().availableProcessors();
+		int submitted = 0;
+		while (!sampling.isDecided() && (submitted < test.getMaximumRuns()) && ((monitor == null) || (!monitor.isCancelled()))) {
+			if (sampling.getRuns() + window <= submitted) {
+				simulationManager.flush();
+				while (!sampling.isDecided() && (sampling.getRuns() + window <= submitted) && (simulationManager.pendingTasks() > 0)) {
+					sampling.await(submitted - window + 1, SEQUENTIAL_TEST_AWAIT_TIMEOUT);
+				}
+				if (simulationManager.pendingTasks() == 0) {
+					// The whole window has been consumed while waiting: the manager has idle capacity.
+					window = Math.min(2 * window, test.getMaximumRuns());
+				}
+			}
+			if (!sampling.isDecided()) {
+				simulationManager.simulate(unit);
+				submitted++;
+			}
+		}
+		if (!sampling.isDecided()) {
+			simulationManager.join();
+		}
+		simulationManager.shutdown();
+		SequentialTestResult result = sampling.getResult();
+		LOGGER.info("Sequential test concluded after "+result.getRuns()+" of "+submitted+" submitted runs: "+result);
+		return result;
+	}
+
 	public void setSimulationManagerFactory(SimulationManagerFactory simulationManagerFactory) {
 		this.simulationManagerFactory = simulationManagerFactory;
 	}
@@ -413,27 +505,43 @@ public class SimulationEnvironment implements Serializable {
 
 		@Override
 		public SamplingHandler<S> get() {
-			return new SamplingHandler<S>() {
+			return new ReachabilityHandler<>(condition, goal, this::record);
+		}
+	}
 
-				private boolean reached = false;
-				private boolean failed = false;
+	private static class ReachabilityHandler<S extends State> implements SamplingHandler<S> {
 
-				@Override
-				public void start() {
+		private final StatePredicate<? super S> goal;
+		private final StatePredicate<? super S> condition;
+		private final Consumer<Boolean> outcome;
+		private boolean reached = false;
+		private boolean failed = false;
 
-				}
+		public ReachabilityHandler(StatePredicate<? super S> condition, StatePredicate<? super S> goal, Consumer<Boolean> outcome) {
+			this.condition = condition;
+			this.goal = goal;
+			this.outcome = outcome;
+		}
 
-				@Override
-				public void sample(double time, S state) {
-					failed = failed || (!condition.check(state)&&!goal.check(state));
-					reached = reached || goal.check(state);
-				}
+		@Override
+		public void start() {
 
-				@Override
-				public void end(double time) {
-					record(!failed&&reached);
-				}
-			};
+		}
+
+		@Override
+		public void sample(double time, S state) {
+			failed = failed || (!condition.check(state)&&!goal.check(state));
+			reached = reached || goal.check(state);
+		}
+
+		@Override
+		public void end(double time) {
+			outcome.accept(!failed&&reached);
+		}
+
+		@Override
+		public boolean retainsStates() {
+			return false;
 		}
 	}
 
@@ -496,6 +604,11 @@ public class SimulationEnvironment implements Serializable {
 				public void end(double time) {
 					record(idx);
 				}
+
+				@Override
+				public boolean retainsStates() {
+					return false;
+				}
 			};
 		}
 	}
@@ -47,6 +47,13 @@ public interface SimulationManager<S extends State> {
      */
     int pendingTasks();
 
+    /**
+     * Starts the execution of the tasks that have been scheduled but are still buffered by this manager. Managers
+     * that start each task as soon as it is scheduled do not need to override this method.
+     */
+    default void flush() {
+    }
+
     /**
      * Waits until all the pending tasks are terminated.
      *
@@ -56,6 +56,17 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 		this.index = index;
 	}
 
+	/**
+	 * Returns a new task, with the same index and random generator of this one, where data are collected with the
+	 * handlers provided by the given supplier.
+	 *
+	 * @param handlerSupplier supplier used to create the handlers collecting data from the sampled trajectory.
+	 * @return a new task where data are collected with the handlers provided by the given supplier.
+	 */
+	public SimulationTask<S> withSamplingHandler(Supplier<SamplingHandler<S>> handlerSupplier) {
+		return new SimulationTask<>(index, random, unit.withSamplingHandler(handlerSupplier));
+	}
+
 	public void reset(){
 		status = SimulationStatus.INIT;
 		startTime = 0;
@@ -72,11 +83,12 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 		long start = System.currentTimeMillis();
 		SamplingHandler<S> handler = this.unit.getSamplingHandler();
 		SimulatorCursor<S> cursor = this.unit.getSimulationCursor(this.random);
+		boolean snapshot = handler.retainsStates();
 		cursor.start();
 		handler.start();
-		handler.sample(cursor.time(), cursor.currentState());
-		while (!unit.getStoppingPredicate().test(cursor.time(),cursor.currentState())&&(!isCancelled())) {
-			step(handler, cursor);
+		sample(handler, cursor, snapshot);
+		while (!unit.getStoppingPredicate().test(cursor.time(),cursor.currentState())&&(!handler.isTerminated())&&(!isCancelled())) {
+			step(handler, cursor, snapshot);
 		}
 		handler.end(cursor.time());
 		completed(true);
@@ -98,14 +110,18 @@ public class SimulationTask<S extends State> implements Supplier<Long>, Serializ
 		elapsedTime = System.nanoTime() - startTime;
 	}
 
-	private void step(SamplingHandler<S> handler, SimulatorCursor<S> cursor) {
+	private void step(SamplingHandler<S> handler, SimulatorCursor<S> cursor, boolean snapshot) {
 		if (cursor.step()) {
-			handler.sample(cursor.time(), cursor.currentState());
+			sample(handler, cursor, snapshot);
 		} else {
 			cancel();
 		}
 	}
 
+	private void sample(SamplingHandler<S> handler, SimulatorCursor<S> cursor, boolean snapshot) {
+		handler.sample(cursor.time(), (snapshot ? cursor.snapshot() : cursor.currentState()));
+	}
+
 	public synchronized void cancel() {
 		if (!this.isCompleted()) {
 			this.status = SimulationStatus.CANCELLED; 			
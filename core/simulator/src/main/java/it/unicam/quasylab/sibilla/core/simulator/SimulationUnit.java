@@ -75,6 +75,16 @@ public class SimulationUnit<S extends State> implements Serializable {
 		this.reachPredicate = reachPredicate;
 	}
 
+	/**
+	 * Returns a copy of this unit where data are collected with the handlers provided by the given supplier.
+	 *
+	 * @param handlerSupplier supplier used to create the handlers collecting data from the sampled trajectories.
+	 * @return a copy of this unit where data are collected with the handlers provided by the given supplier.
+	 */
+	public SimulationUnit<S> withSamplingHandler(Supplier<SamplingHandler<S>> handlerSupplier) {
+		return new SimulationUnit<>(simulationCursorSupplier, stateSupplier, handlerSupplier, stoppingPredicate, reachPredicate);
+	}
+
 	public Function<RandomGenerator, S> getStateSupplier() {
 		return stateSupplier;
 	}
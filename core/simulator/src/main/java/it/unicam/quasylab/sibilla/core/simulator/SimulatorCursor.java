@@ -54,6 +54,16 @@ public interface SimulatorCursor<S extends State> {
      */
     S currentState();
 
+    /**
+     * Returns a copy of the current state that is not affected by the next simulation steps. By default,
+     * this method returns the current state. Cursors updating their state in place must override this method.
+     *
+     * @return a copy of the current state that is not affected by the next simulation steps.
+     */
+    default S snapshot() {
+        return currentState();
+    }
+
     /**
      * Returns current time. A {@link Double#NaN} is returned
      * if the simulation is not started (see {@link SimulatorCursor#start()}).
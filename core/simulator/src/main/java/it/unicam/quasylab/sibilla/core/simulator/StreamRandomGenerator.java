@@ -0,0 +1,132 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.Serializable;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Adapts a generator of <code>java.util.random</code> to the {@link RandomGenerator} interface used in Sibilla. Only
+ * the algorithm name and the seed are serialised: the underlying generator is created when the first value is
+ * requested. Instances are not thread safe.
+ */
+public class StreamRandomGenerator implements RandomGenerator, Serializable {
+
+    private static final long serialVersionUID = 4425381069745627418L;
+
+    private final String algorithm;
+
+    private long seed;
+
+    private transient java.util.random.RandomGenerator generator;
+
+    /**
+     * Creates a new generator that uses the given algorithm initialised with the given seed.
+     *
+     * @param algorithm name of the algorithm (see {@link RandomGeneratorFactory#of(String)}).
+     * @param seed initial seed.
+     */
+    public StreamRandomGenerator(String algorithm, long seed) {
+        this.algorithm = algorithm;
+        this.seed = seed;
+    }
+
+    private java.util.random.RandomGenerator generator() {
+        if (generator == null) {
+            generator = RandomGeneratorFactory.of(algorithm).create(seed);
+        }
+        return generator;
+    }
+
+    @Override
+    public void setSeed(int seed) {
+        setSeed((long) seed);
+    }
+
+    @Override
+    public void setSeed(int[] seed) {
+        long value = 0;
+        for (int v : seed) {
+            value = 31 * value + v;
+        }
+        setSeed(value);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.generator = null;
+    }
+
+    @Override
+    public void nextBytes(byte[] bytes) {
+        generator().nextBytes(bytes);
+    }
+
+    @Override
+    public int nextInt() {
+        return generator().nextInt();
+    }
+
+    @Override
+    public int nextInt(int n) {
+        return generator().nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return generator().nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return generator().nextBoolean();
+    }
+
+    @Override
+    public float nextFloat() {
+        return generator().nextFloat();
+    }
+
+    @Override
+    public double nextDouble() {
+        return generator().nextDouble();
+    }
+
+    @Override
+    public double nextGaussian() {
+        return generator().nextGaussian();
+    }
+
+    /**
+     * Returns the name of the algorithm used by this generator.
+     *
+     * @return the name of the algorithm used by this generator.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+}
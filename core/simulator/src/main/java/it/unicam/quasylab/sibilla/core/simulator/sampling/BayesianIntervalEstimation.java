@@ -0,0 +1,98 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import org.apache.commons.math3.special.Beta;
+
+/**
+ * Sequential Bayesian interval estimation of a success probability. Starting from a uniform prior, after
+ * <code>n</code> runs with <code>k</code> successes the posterior is the distribution
+ * <code>Beta(k+1, n-k+1)</code>. The test accepts as soon as the posterior probability of the interval of half width
+ * <code>delta</code> centered on the posterior mean (shifted inside [0,1] when needed) is at least
+ * <code>1-errorProbability</code>. The number of runs is bounded by the Chernoff-Hoeffding bound, so that this test
+ * never performs more runs than the fixed-size estimation.
+ */
+public class BayesianIntervalEstimation implements SequentialTest {
+
+    private final double errorProbability;
+    private final double delta;
+    private final int maximumRuns;
+
+    /**
+     * Creates a new estimation with the given error probability and precision.
+     *
+     * @param errorProbability error probability.
+     * @param delta half width of the estimated interval.
+     */
+    public BayesianIntervalEstimation(double errorProbability, double delta) {
+        if ((errorProbability <= 0) || (errorProbability >= 1)) {
+            throw new IllegalArgumentException(String.format("Illegal error probability %g", errorProbability));
+        }
+        if ((delta <= 0) || (delta >= 0.5)) {
+            throw new IllegalArgumentException(String.format("Illegal interval half width %g", delta));
+        }
+        this.errorProbability = errorProbability;
+        this.delta = delta;
+        this.maximumRuns = SequentialTest.chernoffBound(errorProbability, delta);
+    }
+
+    @Override
+    public Verdict test(int runs, int successes) {
+        if (runs == 0) {
+            return Verdict.CONTINUE;
+        }
+        double mean = estimate(runs, successes);
+        double lower = Math.max(0.0, Math.min(mean - delta, 1 - 2 * delta));
+        double upper = lower + 2 * delta;
+        double a = successes + 1;
+        double b = runs - successes + 1;
+        double coverage = cdf(upper, a, b) - cdf(lower, a, b);
+        return (coverage >= 1 - errorProbability ? Verdict.ACCEPT : Verdict.CONTINUE);
+    }
+
+    private static double cdf(double x, double a, double b) {
+        if (x <= 0) {
+            return 0.0;
+        }
+        if (x >= 1) {
+            return 1.0;
+        }
+        return Beta.regularizedBeta(x, a, b);
+    }
+
+    @Override
+    public Verdict decide(int runs, int successes) {
+        return (runs >= maximumRuns ? Verdict.ACCEPT : Verdict.REJECT);
+    }
+
+    @Override
+    public int getMaximumRuns() {
+        return maximumRuns;
+    }
+
+    @Override
+    public double estimate(int runs, int successes) {
+        return (successes + 1.0) / (runs + 2.0);
+    }
+}
@@ -47,4 +47,14 @@ public class CompositeSamplingHandler<S> implements SamplingHandler<S> {
     public synchronized void end(double time) {
         handlers.forEach(h -> h.end(time));
     }
+
+    @Override
+    public boolean retainsStates() {
+        return handlers.stream().anyMatch(SamplingHandler::retainsStates);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return !handlers.isEmpty() && handlers.stream().allMatch(SamplingHandler::isTerminated);
+    }
 }
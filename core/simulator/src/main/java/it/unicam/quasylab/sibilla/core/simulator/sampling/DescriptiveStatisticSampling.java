@@ -31,6 +31,8 @@ import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.function.Function;
@@ -77,12 +79,67 @@ public class DescriptiveStatisticSampling<S extends State> extends StatisticSamp
 		}
 	}
 
+	@Override
+	public DescriptiveStatisticSampling<S> newInstance() {
+		return new DescriptiveStatisticSampling<>(data.length, dt, measure);
+	}
 
+	/**
+	 * Percentiles are computed on the exact sampled values, hence the partial result contains, for each time
+	 * index, all the values collected so far.
+	 */
+	@Override
+	protected Serializable getPartialResult() {
+		double[][] values = new double[data.length][];
+		for (int i = 0; i < data.length; i++) {
+			values[i] = data[i].getValues();
+		}
+		return values;
+	}
 
+	@Override
+	protected void mergePartialResult(Serializable partial) {
+		double[][] values = (double[][]) partial;
+		for (int i = 0; i < data.length; i++) {
+			for (double v : values[i]) {
+				data[i].addValue(v);
+			}
+		}
+	}
 
 	@Override
-	public synchronized void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
+	protected Accumulator createAccumulator() {
+		return new Accumulator() {
+
+			private double[] values = new double[16 * data.length];
+
+			private int size = 0;
+
+			@Override
+			public void record(double[] row) {
+				if (size + row.length > values.length) {
+					values = Arrays.copyOf(values, 2 * values.length);
+				}
+				System.arraycopy(row, 0, values, size, row.length);
+				size += row.length;
+			}
+
+			@Override
+			public void flush() {
+				for (int k = 0; k < size; k++) {
+					data[k % data.length].addValue(values[k]);
+				}
+				size = 0;
+			}
+		};
+	}
+
+
 
+
+	@Override
+	public synchronized void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
+		mergeAccumulators();
 		String fileName = nameFunction.apply(this.getName());
 		PrintStream out = new PrintStream(fileName);
 		double time = 0.0;
@@ -121,16 +178,6 @@ public class DescriptiveStatisticSampling<S extends State> extends StatisticSamp
 		return data.length;
 	}
 
-	@Override
-	protected synchronized void recordValues(double[] values) {
-		if (values.length != data.length) {
-			throw new IllegalArgumentException();//TODO: Add Message!
-		}
-		for(int i=0; i<values.length; i++) {
-			data[i].addValue(values[i]);
-		}
-	}
-
 	@Override
 	protected synchronized double[] getDataRow(int i) {
 		return new double[] {getTimeOfIndex(i),
@@ -75,6 +75,11 @@ public class FirstPassageTimeHandlerSupplier<S extends State> implements Supplie
 
             @Override
             public void end(double time) {}
+
+            @Override
+            public boolean retainsStates() {
+                return false;
+            }
         };
     }
 }
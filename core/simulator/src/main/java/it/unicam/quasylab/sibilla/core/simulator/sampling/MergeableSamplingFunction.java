@@ -0,0 +1,59 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A {@link SamplingFunction} whose collected data can be exported and merged in another instance with the same
+ * definition. This allows data to be aggregated where simulations are executed, so that only partial statistics,
+ * and not trajectories, have to be moved between hosts.
+ *
+ * @param <S> type of sampled states.
+ */
+public interface MergeableSamplingFunction<S> extends SamplingFunction<S> {
+
+    /**
+     * Returns a new sampling function with the same definition of this one and without collected data.
+     *
+     * @return a new sampling function with the same definition of this one.
+     */
+    MergeableSamplingFunction<S> newInstance();
+
+    /**
+     * Returns the data collected so far, indexed by measure name.
+     *
+     * @return the data collected so far.
+     */
+    Map<String, Serializable> getPartialResults();
+
+    /**
+     * Adds to the data collected by this function the given partial results. Partial results must be obtained from
+     * a function created via {@link #newInstance()}.
+     *
+     * @param partialResults partial results to merge.
+     */
+    void mergePartialResults(Map<String, ? extends Serializable> partialResults);
+
+}
@@ -26,6 +26,7 @@ package it.unicam.quasylab.sibilla.core.simulator.sampling;
 import it.unicam.quasylab.sibilla.core.models.State;
 
 import java.io.FileNotFoundException;
+import java.io.Serializable;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -34,7 +35,7 @@ import java.util.stream.Collectors;
  * @author loreti
  *
  */
-public class SamplingCollection<S extends State> implements SamplingFunction<S> {
+public class SamplingCollection<S extends State> implements MergeableSamplingFunction<S> {
 
 	private final LinkedList<SamplingFunction<S>> functions;
 
@@ -81,4 +82,41 @@ public class SamplingCollection<S extends State> implements SamplingFunction<S>
 	public void add(SamplingFunction<S> f) {
 		functions.add(f);
 	}
+
+	/**
+	 * Returns true if all the functions in this collection are mergeable.
+	 *
+	 * @return true if all the functions in this collection are mergeable.
+	 */
+	public boolean isMergeable() {
+		return functions.stream().allMatch(f -> f instanceof MergeableSamplingFunction);
+	}
+
+	private MergeableSamplingFunction<S> mergeable(SamplingFunction<S> f) {
+		if (f instanceof MergeableSamplingFunction<S> m) {
+			return m;
+		}
+		throw new IllegalStateException("Sampling function "+f.getClass().getName()+" is not mergeable!");
+	}
+
+	@Override
+	public SamplingCollection<S> newInstance() {
+		return new SamplingCollection<>(functions.stream().map(f -> mergeable(f).newInstance()).collect(Collectors.toList()));
+	}
+
+	@Override
+	public Map<String, Serializable> getPartialResults() {
+		Map<String, Serializable> toReturn = new TreeMap<>();
+		for (SamplingFunction<S> f : functions) {
+			toReturn.putAll(mergeable(f).getPartialResults());
+		}
+		return toReturn;
+	}
+
+	@Override
+	public void mergePartialResults(Map<String, ? extends Serializable> partialResults) {
+		for (SamplingFunction<S> f : functions) {
+			mergeable(f).mergePartialResults(partialResults);
+		}
+	}
 }
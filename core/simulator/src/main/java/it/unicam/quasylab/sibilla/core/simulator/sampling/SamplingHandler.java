@@ -53,5 +53,26 @@ public interface SamplingHandler<S> {
      */
     void end(double time);
 
+    /**
+     * Returns true if this handler keeps a reference to the sampled states after method
+     * {@link SamplingHandler#sample(double, Object)} returns. When this method returns false,
+     * states that are updated in place are passed to the handler without being copied.
+     *
+     * @return true if this handler keeps a reference to the sampled states.
+     */
+    default boolean retainsStates() {
+        return true;
+    }
+
+    /**
+     * Returns true if this handler does not need further samples. When this method returns true,
+     * the handled simulation run can be stopped before its deadline is reached.
+     *
+     * @return true if this handler does not need further samples.
+     */
+    default boolean isTerminated() {
+        return false;
+    }
+
 
 }
@@ -61,6 +61,11 @@ public class SamplingLog<S extends State> implements SamplingFunction<S> {
 				System.out.println(time + ": END");
 			}
 
+			@Override
+			public boolean retainsStates() {
+				return false;
+			}
+
 			@Override
 			public void start() {
 				this.last_time = 0.0;
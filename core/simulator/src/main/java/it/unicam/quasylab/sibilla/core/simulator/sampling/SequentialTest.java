@@ -0,0 +1,128 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+/**
+ * A sequential test decides, after each simulation run, whether the Bernoulli outcomes collected so far are
+ * enough to answer a statistical query, or whether further runs are needed. Tests are stateless: the decision
+ * only depends on the number of collected runs and on the number of successful ones.
+ */
+public interface SequentialTest {
+
+    /**
+     * Possible outcomes of a sequential test.
+     */
+    enum Verdict {
+        /**
+         * Further runs are needed.
+         */
+        CONTINUE,
+        /**
+         * The query is answered positively (the threshold is met, or the required precision is reached).
+         */
+        ACCEPT,
+        /**
+         * The query is answered negatively.
+         */
+        REJECT
+    }
+
+    /**
+     * Returns the verdict of this test after the given number of runs.
+     *
+     * @param runs number of collected runs.
+     * @param successes number of successful runs.
+     * @return the verdict of this test after the given number of runs.
+     */
+    Verdict test(int runs, int successes);
+
+    /**
+     * Returns the verdict to use when the maximum number of runs is reached, or the simulation is stopped,
+     * before this test is decided. This verdict is never {@link Verdict#CONTINUE}.
+     *
+     * @param runs number of collected runs.
+     * @param successes number of successful runs.
+     * @return the verdict to use when no further runs are available.
+     */
+    Verdict decide(int runs, int successes);
+
+    /**
+     * Returns the maximum number of runs that can be performed by this test.
+     *
+     * @return the maximum number of runs that can be performed by this test.
+     */
+    int getMaximumRuns();
+
+    /**
+     * Returns the estimated success probability after the given number of runs.
+     *
+     * @param runs number of collected runs.
+     * @param successes number of successful runs.
+     * @return the estimated success probability after the given number of runs.
+     */
+    default double estimate(int runs, int successes) {
+        return (runs == 0 ? 0.0 : ((double) successes) / runs);
+    }
+
+    /**
+     * Returns the number of runs guaranteed by the Chernoff-Hoeffding bound to estimate a probability with
+     * an error greater than <code>delta</code> with probability at most <code>errorProbability</code>.
+     *
+     * @param errorProbability error probability.
+     * @param delta error gap.
+     * @return the number of runs needed to estimate a probability via the Chernoff-Hoeffding bound.
+     */
+    static int chernoffBound(double errorProbability, double delta) {
+        return (int) Math.ceil(Math.log(2 / errorProbability) / (2 * delta * delta));
+    }
+
+    /**
+     * Returns the sequential probability ratio test of Wald checking whether the success probability is at
+     * least <code>threshold</code>.
+     *
+     * @param threshold probability threshold.
+     * @param indifference half width of the indifference region around the threshold.
+     * @param alpha probability of wrongly rejecting the query.
+     * @param beta probability of wrongly accepting the query.
+     * @return the sequential probability ratio test checking whether the success probability is at least
+     * <code>threshold</code>.
+     */
+    static SequentialTest probabilityRatioTest(double threshold, double indifference, double alpha, double beta) {
+        return new WaldSequentialTest(threshold, indifference, alpha, beta);
+    }
+
+    /**
+     * Returns the sequential Bayesian interval estimation of the success probability that stops as soon as
+     * the posterior probability of an interval of half width <code>delta</code> around the estimate is at
+     * least <code>1-errorProbability</code>.
+     *
+     * @param errorProbability error probability.
+     * @param delta half width of the estimated interval.
+     * @return the sequential Bayesian interval estimation of the success probability.
+     */
+    static SequentialTest intervalEstimation(double errorProbability, double delta) {
+        return new BayesianIntervalEstimation(errorProbability, delta);
+    }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+
+/**
+ * Result of a {@link SequentialTest}: the verdict, the number of runs that have been used to take it and the
+ * estimated success probability.
+ */
+public final class SequentialTestResult implements Serializable {
+
+    private static final long serialVersionUID = 4316905786512960178L;
+
+    private final SequentialTest.Verdict verdict;
+    private final int runs;
+    private final int successes;
+    private final double estimate;
+    private final boolean truncated;
+
+    /**
+     * Creates a new result.
+     *
+     * @param verdict test verdict.
+     * @param runs number of collected runs.
+     * @param successes number of successful runs.
+     * @param estimate estimated success probability.
+     * @param truncated true if the test has been stopped before being decided.
+     */
+    public SequentialTestResult(SequentialTest.Verdict verdict, int runs, int successes, double estimate, boolean truncated) {
+        this.verdict = verdict;
+        this.runs = runs;
+        this.successes = successes;
+        this.estimate = estimate;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Returns the test verdict.
+     *
+     * @return the test verdict.
+     */
+    public SequentialTest.Verdict getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Returns true if the test has been answered positively.
+     *
+     * @return true if the test has been answered positively.
+     */
+    public boolean isAccepted() {
+        return verdict == SequentialTest.Verdict.ACCEPT;
+    }
+
+    /**
+     * Returns the number of runs used to take the verdict.
+     *
+     * @return the number of runs used to take the verdict.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the number of successful runs.
+     *
+     * @return the number of successful runs.
+     */
+    public int getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * Returns the estimated success probability.
+     *
+     * @return the estimated success probability.
+     */
+    public double getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * Returns true if the verdict has been taken because the maximum number of runs has been reached, or the
+     * simulation has been stopped, before the test was decided.
+     *
+     * @return true if the test has been stopped before being decided.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (estimate: %g, runs: %d%s)", verdict, estimate, runs, (truncated ? ", truncated" : ""));
+    }
+}
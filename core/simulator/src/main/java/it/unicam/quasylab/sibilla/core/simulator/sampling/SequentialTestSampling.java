@@ -0,0 +1,164 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.util.BitSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Collects the Bernoulli outcomes of simulation runs and feeds them to a {@link SequentialTest}. Each handler
+ * provided by this supplier reports the outcome of its run to a consumer built when the handler is created.
+ * Outcomes are passed to the test in the order in which handlers are created, and not in the order in which runs
+ * terminate, so that short runs do not bias the verdict. Once the test is decided, further outcomes are ignored and
+ * the provided handlers are terminated, so that pending runs can stop as soon as possible.
+ *
+ * @param <S> type of sampled states.
+ */
+public class SequentialTestSampling<S> implements Supplier<SamplingHandler<S>> {
+
+    private final SequentialTest test;
+    private final Function<Consumer<Boolean>, SamplingHandler<S>> handlerFactory;
+    private final BitSet completed = new BitSet();
+    private final BitSet outcomes = new BitSet();
+    private int started = 0;
+    private int runs = 0;
+    private int successes = 0;
+    private SequentialTest.Verdict verdict = SequentialTest.Verdict.CONTINUE;
+    private volatile boolean decided = false;
+
+    /**
+     * Creates a new sampling for the given test.
+     *
+     * @param test sequential test.
+     * @param handlerFactory function that, given the consumer receiving the outcome of a run, builds the handler
+     *                       used to sample the run.
+     */
+    public SequentialTestSampling(SequentialTest test, Function<Consumer<Boolean>, SamplingHandler<S>> handlerFactory) {
+        this.test = test;
+        this.handlerFactory = handlerFactory;
+    }
+
+    @Override
+    public SamplingHandler<S> get() {
+        SamplingHandler<S> handler = handlerFactory.apply(nextConsumer());
+        return new SamplingHandler<>() {
+            @Override
+            public void start() {
+                handler.start();
+            }
+
+            @Override
+            public void sample(double time, S state) {
+                handler.sample(time, state);
+            }
+
+            @Override
+            public void end(double time) {
+                handler.end(time);
+            }
+
+            @Override
+            public boolean retainsStates() {
+                return handler.retainsStates();
+            }
+
+            @Override
+            public boolean isTerminated() {
+                return decided || handler.isTerminated();
+            }
+        };
+    }
+
+    private synchronized Consumer<Boolean> nextConsumer() {
+        int index = started++;
+        return outcome -> record(index, outcome);
+    }
+
+    private synchronized void record(int index, boolean outcome) {
+        completed.set(index);
+        outcomes.set(index, outcome);
+        while (!decided && completed.get(runs)) {
+            if (outcomes.get(runs)) {
+                successes++;
+            }
+            runs++;
+            verdict = test.test(runs, successes);
+            decided = (verdict != SequentialTest.Verdict.CONTINUE);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns true if the test is decided.
+     *
+     * @return true if the test is decided.
+     */
+    public boolean isDecided() {
+        return decided;
+    }
+
+    /**
+     * Returns the number of runs passed to the test.
+     *
+     * @return the number of runs passed to the test.
+     */
+    public synchronized int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Waits until either the test is decided or at least the given number of runs has been passed to the test.
+     * The method returns after at most <code>timeout</code> milliseconds.
+     *
+     * @param runs number of runs to wait for.
+     * @param timeout maximum time to wait in milliseconds.
+     * @return true if the test is decided or further runs have been passed to the test while waiting.
+     * @throws InterruptedException if current thread is interrupted while waiting.
+     */
+    public synchronized boolean await(int runs, long timeout) throws InterruptedException {
+        int current = this.runs;
+        long end = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while (!decided && (this.runs < runs) && (remaining > 0)) {
+            wait(remaining);
+            remaining = end - System.currentTimeMillis();
+        }
+        return decided || (this.runs > current);
+    }
+
+    /**
+     * Returns the result of the test. If the test is not decided, the verdict is the one returned by
+     * {@link SequentialTest#decide(int, int)} and the result is marked as truncated.
+     *
+     * @return the result of the test.
+     */
+    public synchronized SequentialTestResult getResult() {
+        if (decided) {
+            return new SequentialTestResult(verdict, runs, successes, test.estimate(runs, successes), false);
+        }
+        return new SequentialTestResult(test.decide(runs, successes), runs, successes, test.estimate(runs, successes), true);
+    }
+}
@@ -24,15 +24,34 @@
 package it.unicam.quasylab.sibilla.core.simulator.sampling;
 
 import it.unicam.quasylab.sibilla.core.models.State;
+import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
 
 import java.io.FileNotFoundException;
+import java.io.Serializable;
+import java.util.Deque;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
 
-public abstract class StatisticSampling<S extends State> implements SamplingFunction<S> {
+/**
+ * A sampling function collecting statistics about a measure at regular time intervals. Values sampled in
+ * each replica are recorded, without any synchronisation, in an {@link Accumulator} that is borrowed from a pool
+ * for the time needed to record them. The pool only grows when all its accumulators are in use; hence, the number
+ * of accumulators is bounded by the number of replicas recording values at the same time and not by the number of
+ * threads (possibly virtual) used to run the simulation. Accumulators are merged when data are read, namely after
+ * all the simulation tasks have been joined.
+ *
+ * @param <S> type of sampled states.
+ */
+public abstract class StatisticSampling<S extends State> implements MergeableSamplingFunction<S> {
     protected final Measure<? super S> measure;
     protected final double dt;
 
+    private transient volatile Deque<Accumulator> idleAccumulators;
+    private transient Queue<Accumulator> accumulators;
+
     public StatisticSampling(Measure<? super S> measure, double dt) {
         this.measure = measure;
         this.dt = dt;
@@ -51,7 +70,105 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
 
     public abstract int getSize();
 
-    protected abstract void recordValues(double[] values);
+    /**
+     * Creates a new accumulator used to record the values sampled by one replica at a time.
+     *
+     * @return a new accumulator.
+     */
+    protected abstract Accumulator createAccumulator();
+
+    /**
+     * Records the values sampled in a replica in an accumulator that is not used by any other replica.
+     *
+     * @param values the values sampled in a replica.
+     */
+    protected void recordValues(double[] values) {
+        if (values.length != getSize()) {
+            throw new IllegalArgumentException(SibillaMessages.wrongNumberOfSampledValues(getSize(), values.length));
+        }
+        Deque<Accumulator> idle = getIdleAccumulators();
+        Accumulator accumulator = idle.pollFirst();
+        if (accumulator == null) {
+            accumulator = registerAccumulator();
+        }
+        try {
+            accumulator.record(values);
+        } finally {
+            idle.offerFirst(accumulator);
+        }
+    }
+
+    private Deque<Accumulator> getIdleAccumulators() {
+        Deque<Accumulator> idle = this.idleAccumulators;
+        if (idle == null) {
+            synchronized (this) {
+                if (this.idleAccumulators == null) {
+                    this.accumulators = new ConcurrentLinkedQueue<>();
+                    this.idleAccumulators = new ConcurrentLinkedDeque<>();
+                }
+                idle = this.idleAccumulators;
+            }
+        }
+        return idle;
+    }
+
+    private Accumulator registerAccumulator() {
+        Accumulator accumulator = createAccumulator();
+        this.accumulators.add(accumulator);
+        return accumulator;
+    }
+
+    /**
+     * Returns the number of accumulators created so far.
+     *
+     * @return the number of accumulators created so far.
+     */
+    protected synchronized int getNumberOfAccumulators() {
+        return (this.accumulators == null ? 0 : this.accumulators.size());
+    }
+
+    /**
+     * Merges in the collected statistics the values recorded in all the accumulators. This method must be invoked
+     * before data are read.
+     */
+    protected synchronized void mergeAccumulators() {
+        if (this.accumulators != null) {
+            this.accumulators.forEach(Accumulator::flush);
+        }
+    }
+
+    @Override
+    public abstract StatisticSampling<S> newInstance();
+
+    @Override
+    public Map<String, Serializable> getPartialResults() {
+        mergeAccumulators();
+        synchronized (this) {
+            return Map.of(getName(), getPartialResult());
+        }
+    }
+
+    @Override
+    public synchronized void mergePartialResults(Map<String, ? extends Serializable> partialResults) {
+        Serializable partial = partialResults.get(getName());
+        if (partial != null) {
+            mergePartialResult(partial);
+        }
+    }
+
+    /**
+     * Returns a copy of the statistics collected so far.
+     *
+     * @return a copy of the statistics collected so far.
+     */
+    protected abstract Serializable getPartialResult();
+
+    /**
+     * Adds to the collected statistics the ones in the given partial result.
+     *
+     * @param partial a partial result obtained from a sampling function with the same definition.
+     */
+    protected abstract void mergePartialResult(Serializable partial);
 
     @Override
     public SamplingHandler<S> getSamplingHandler() {
@@ -78,6 +195,7 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
     }
 
     public double[][] getData() {
+        mergeAccumulators();
         double[][] data = new double[getSize()][];
         for(int i=0; i<getSize(); i++) {
             data[i] = getDataRow(i);
@@ -87,6 +205,26 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
 
     protected abstract double[] getDataRow(int i);
 
+    /**
+     * Collects, without any synchronisation, the values sampled by the replicas that borrowed it, one at a time.
+     */
+    protected interface Accumulator {
+
+        /**
+         * Records the values sampled in a replica.
+         *
+         * @param values the values sampled in a replica.
+         */
+        void record(double[] values);
+
+        /**
+         * Adds the recorded values to the statistics of the enclosing sampling function and resets this
+         * accumulator.
+         */
+        void flush();
+
+    }
+
     protected class StatisticsCollector implements SamplingHandler<S> {
             private final double[] values = new double[getSize()];
             private double last_measure = Double.NaN;
@@ -95,7 +233,7 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
             private double new_measure = Double.NaN;
 
         @Override
-            public synchronized void sample(double time, S context) {
+            public void sample(double time, S context) {
                 this.new_measure = measure.measure(context);
                 if ((time >= this.next_time) && (this.current_index < getSize())) {
                     recordMeasure(time);
@@ -120,13 +258,18 @@ public abstract class StatisticSampling<S extends State> implements SamplingFunc
             }
 
             @Override
-            public synchronized void end(double time) {
+            public void end(double time) {
                 while (this.current_index < getSize()) {
                     recordSample();
                 }
                 recordValues(this.values);
             }
 
+            @Override
+            public boolean retainsStates() {
+                return false;
+            }
+
             @Override
             public void start() {
                 if (this.current_index != 0) {
@@ -26,10 +26,10 @@ package it.unicam.quasylab.sibilla.core.simulator.sampling;
 import it.unicam.quasylab.sibilla.core.models.MeasureFunction;
 import it.unicam.quasylab.sibilla.core.models.State;
 import org.apache.commons.math3.distribution.TDistribution;
-import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.io.Serializable;
 import java.util.LinkedList;
 import java.util.function.Function;
 
@@ -40,7 +40,7 @@ import java.util.function.Function;
  */
 public class SummaryStatisticSampling<S extends State> extends StatisticSampling<S> {
 
-	private final SummaryStatistics[] data;
+	private final WelfordStatistics data;
 
 	public static <S extends State> StatisticSampling<S> measure(String name, int samplings, double deadline, MeasureFunction<S> m) {
 		return new SummaryStatisticSampling<>(samplings, deadline / samplings,
@@ -64,38 +64,59 @@ public class SummaryStatisticSampling<S extends State> extends StatisticSampling
 
 	public SummaryStatisticSampling(int samples, double dt, Measure<? super S> measure) {
 		super(measure, dt);
-		this.data = new SummaryStatistics[samples];
+		this.data = new WelfordStatistics(samples);
 		init();
 	}
 
 	@Override
 	protected void init() {
-		for (int i = 0; i < data.length; i++) {
-			data[i] = new SummaryStatistics();
-		}
+		data.clear();
 	}
 
 	@Override
-	protected synchronized void recordValues(double[] values) {
-		if (values.length != data.length) {
-			throw new IllegalArgumentException();//TODO: Add Message!
-		}
-		for(int i=0; i<values.length; i++) {
-			data[i].addValue(values[i]);
-		}
+	public SummaryStatisticSampling<S> newInstance() {
+		return new SummaryStatisticSampling<>(data.size(), dt, measure);
+	}
+
+	@Override
+	protected Serializable getPartialResult() {
+		return data.copy();
+	}
+
+	@Override
+	protected void mergePartialResult(Serializable partial) {
+		data.merge((WelfordStatistics) partial);
+	}
+
+	@Override
+	protected Accumulator createAccumulator() {
+		WelfordStatistics partial = new WelfordStatistics(data.size());
+		return new Accumulator() {
+			@Override
+			public void record(double[] values) {
+				partial.add(values);
+			}
+
+			@Override
+			public void flush() {
+				data.merge(partial);
+				partial.clear();
+			}
+		};
 	}
 
 
 	@Override
 	public void printTimeSeries(Function<String, String> nameFunction, char separator, double significance) throws FileNotFoundException {
 
+		mergeAccumulators();
 		String fileName = nameFunction.apply(this.getName());
 		PrintStream out = new PrintStream(fileName);
 		double time = 0.0;
-		for (int i = 0; i < this.data.length; i++) {
+		for (int i = 0; i < this.data.size(); i++) {
 			double ci = getConfidenceInterval(i,significance);
 			out.println(""+time + separator 
-					+ this.data[i].getMean() 
+					+ this.data.getMean(i) 
 					+ separator + ci);
 			time += dt;
 		}
@@ -104,19 +125,19 @@ public class SummaryStatisticSampling<S extends State> extends StatisticSampling
 	
 	
 	private double getConfidenceInterval(int i, double significance) {
-		TDistribution tDist = new TDistribution(this.data[i].getN());
+		TDistribution tDist = new TDistribution(this.data.getN());
 		double a = tDist.inverseCumulativeProbability(1.0 -significance/2);
-		return a*this.data[i].getStandardDeviation() / Math.sqrt(this.data[i].getN());
+		return a*this.data.getStandardDeviation(i) / Math.sqrt(this.data.getN());
 	}
 
 	@Override
 	public int getSize() {
-		return data.length;
+		return data.size();
 	}
 
 	@Override
 	protected double[] getDataRow(int i) {
-		return new double[] { getTimeOfIndex(i), data[i].getMean(), data[i].getStandardDeviation(), getConfidenceInterval(i, 0.05)};
+		return new double[] { getTimeOfIndex(i), data.getMean(i), data.getStandardDeviation(i), getConfidenceInterval(i, 0.05)};
 	}
 
 }
\ No newline at end of file
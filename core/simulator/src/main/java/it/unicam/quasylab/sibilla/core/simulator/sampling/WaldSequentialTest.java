@@ -0,0 +1,94 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+/**
+ * Sequential probability ratio test of Wald checking whether a success probability <code>p</code> is at least
+ * a given threshold. The test compares the hypothesis <code>p &gt;= threshold+indifference</code> against
+ * <code>p &lt;= threshold-indifference</code>: the former is wrongly rejected with probability at most
+ * <code>alpha</code>, the latter is wrongly rejected with probability at most <code>beta</code>. When the
+ * maximum number of runs, given by the Chernoff-Hoeffding bound, is reached the verdict is taken by comparing the
+ * estimated probability with the threshold.
+ */
+public class WaldSequentialTest implements SequentialTest {
+
+    private final double threshold;
+    private final double successRatio;
+    private final double failureRatio;
+    private final double acceptBound;
+    private final double rejectBound;
+    private final int maximumRuns;
+
+    /**
+     * Creates a new test checking whether the success probability is at least <code>threshold</code>.
+     *
+     * @param threshold probability threshold.
+     * @param indifference half width of the indifference region around the threshold.
+     * @param alpha probability of wrongly rejecting the query.
+     * @param beta probability of wrongly accepting the query.
+     */
+    public WaldSequentialTest(double threshold, double indifference, double alpha, double beta) {
+        if ((indifference <= 0) || (threshold - indifference <= 0) || (threshold + indifference >= 1)) {
+            throw new IllegalArgumentException(String.format("Illegal indifference region [%g,%g]", threshold - indifference, threshold + indifference));
+        }
+        if ((alpha <= 0) || (alpha >= 1) || (beta <= 0) || (beta >= 1)) {
+            throw new IllegalArgumentException(String.format("Illegal error probabilities %g and %g", alpha, beta));
+        }
+        double p0 = threshold + indifference;
+        double p1 = threshold - indifference;
+        this.threshold = threshold;
+        this.successRatio = Math.log(p1 / p0);
+        this.failureRatio = Math.log((1 - p1) / (1 - p0));
+        this.acceptBound = Math.log(beta / (1 - alpha));
+        this.rejectBound = Math.log((1 - beta) / alpha);
+        this.maximumRuns = SequentialTest.chernoffBound(Math.min(alpha, beta), indifference);
+    }
+
+    @Override
+    public Verdict test(int runs, int successes) {
+        double ratio = successes * successRatio + (runs - successes) * failureRatio;
+        if (ratio <= acceptBound) {
+            return Verdict.ACCEPT;
+        }
+        if (ratio >= rejectBound) {
+            return Verdict.REJECT;
+        }
+        return Verdict.CONTINUE;
+    }
+
+    @Override
+    public Verdict decide(int runs, int successes) {
+        Verdict verdict = test(runs, successes);
+        if (verdict != Verdict.CONTINUE) {
+            return verdict;
+        }
+        return (estimate(runs, successes) >= threshold ? Verdict.ACCEPT : Verdict.REJECT);
+    }
+
+    @Override
+    public int getMaximumRuns() {
+        return maximumRuns;
+    }
+
+}
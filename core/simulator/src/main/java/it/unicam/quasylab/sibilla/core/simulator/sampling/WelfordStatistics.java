@@ -0,0 +1,175 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Mean, variance, minimum and maximum of a sequence of vectors of values, computed component-wise with the
+ * algorithm of Welford. Instances are not thread safe; values collected by different threads can be
+ * combined via {@link #merge(WelfordStatistics)} (Chan et al. parallel algorithm).
+ */
+public final class WelfordStatistics implements Serializable {
+
+    private static final long serialVersionUID = -2317086406217362150L;
+
+    private long n;
+
+    private final double[] mean;
+
+    private final double[] m2;
+
+    private final double[] min;
+
+    private final double[] max;
+
+    /**
+     * Creates new statistics for vectors of the given size.
+     *
+     * @param size size of collected vectors.
+     */
+    public WelfordStatistics(int size) {
+        this.mean = new double[size];
+        this.m2 = new double[size];
+        this.min = new double[size];
+        this.max = new double[size];
+        clear();
+    }
+
+    /**
+     * Adds a vector of values.
+     *
+     * @param values values to add.
+     */
+    public void add(double[] values) {
+        if (values.length != mean.length) {
+            throw new IllegalArgumentException();
+        }
+        n++;
+        for (int i = 0; i < values.length; i++) {
+            double delta = values[i] - mean[i];
+            mean[i] += delta / n;
+            m2[i] += delta * (values[i] - mean[i]);
+            min[i] = Math.min(min[i], values[i]);
+            max[i] = Math.max(max[i], values[i]);
+        }
+    }
+
+    /**
+     * Adds to these statistics all the values collected in <code>other</code>.
+     *
+     * @param other statistics to merge.
+     */
+    public void merge(WelfordStatistics other) {
+        if (other.mean.length != mean.length) {
+            throw new IllegalArgumentException();
+        }
+        if (other.n == 0) {
+            return;
+        }
+        long total = n + other.n;
+        for (int i = 0; i < mean.length; i++) {
+            double delta = other.mean[i] - mean[i];
+            mean[i] += delta * other.n / total;
+            m2[i] += other.m2[i] + delta * delta * ((double) n) * other.n / total;
+            min[i] = Math.min(min[i], other.min[i]);
+            max[i] = Math.max(max[i], other.max[i]);
+        }
+        n = total;
+    }
+
+    /**
+     * Returns a copy of these statistics.
+     *
+     * @return a copy of these statistics.
+     */
+    public WelfordStatistics copy() {
+        WelfordStatistics copy = new WelfordStatistics(mean.length);
+        copy.n = n;
+        System.arraycopy(mean, 0, copy.mean, 0, mean.length);
+        System.arraycopy(m2, 0, copy.m2, 0, m2.length);
+        System.arraycopy(min, 0, copy.min, 0, min.length);
+        System.arraycopy(max, 0, copy.max, 0, max.length);
+        return copy;
+    }
+
+    /**
+     * Removes all the collected values.
+     */
+    public void clear() {
+        n = 0;
+        Arrays.fill(mean, 0.0);
+        Arrays.fill(m2, 0.0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Returns the number of collected vectors.
+     *
+     * @return the number of collected vectors.
+     */
+    public long getN() {
+        return n;
+    }
+
+    /**
+     * Returns the size of collected vectors.
+     *
+     * @return the size of collected vectors.
+     */
+    public int size() {
+        return mean.length;
+    }
+
+    public double getMean(int i) {
+        return (n == 0 ? Double.NaN : mean[i]);
+    }
+
+    /**
+     * Returns the (bias corrected) sample variance of the i-th component.
+     *
+     * @param i index of a component.
+     * @return the sample variance of the i-th component.
+     */
+    public double getVariance(int i) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        return (n == 1 ? 0.0 : m2[i] / (n - 1));
+    }
+
+    public double getStandardDeviation(int i) {
+        return Math.sqrt(getVariance(i));
+    }
+
+    public double getMin(int i) {
+        return (n == 0 ? Double.NaN : min[i]);
+    }
+
+    public double getMax(int i) {
+        return (n == 0 ? Double.NaN : max[i]);
+    }
+
+}
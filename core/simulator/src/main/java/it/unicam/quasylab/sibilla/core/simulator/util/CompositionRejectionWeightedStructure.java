@@ -0,0 +1,332 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A weighted structure implementing the composition-rejection method. Elements are partitioned in groups
+ * so that the weights of elements in the same group differ at most by a factor 2. Selection is performed
+ * by first selecting a group, with a linear scan over the (few) groups, and then by sampling an element of
+ * the group via rejection. Selection and update of weights have a cost that does not depend on the number
+ * of elements. This structure is suitable for sets of elements whose weights vary over several orders of
+ * magnitude.
+ *
+ * @param <S> type of elements in the structure.
+ */
+public class CompositionRejectionWeightedStructure<S> implements WeightedStructure<S> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private static final int MIN_REFRESH_INTERVAL = 1024;
+
+	private double[] weights;
+
+	private Object[] elements;
+
+	private int[] positions;
+
+	private Group[] groupOf;
+
+	private final List<Group> groups = new ArrayList<>();
+
+	private int size;
+
+	private double totalWeight;
+
+	private int updates;
+
+	public CompositionRejectionWeightedStructure() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty structure that can contain <code>capacity</code> elements before being resized.
+	 *
+	 * @param capacity initial capacity.
+	 */
+	public CompositionRejectionWeightedStructure(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.weights = new double[capacity];
+		this.elements = new Object[capacity];
+		this.positions = new int[capacity];
+		this.groupOf = new Group[capacity];
+	}
+
+	@Override
+	public double getTotalWeight() {
+		return (totalWeight > 0 ? totalWeight : 0.0);
+	}
+
+	@Override
+	public WeightedElement<S> select(double w) {
+		Group group = selectGroup(w);
+		if (group == null) {
+			return null;
+		}
+		double residual = w - group.offset;
+		for (int k = 0; k < group.count; k++) {
+			int idx = group.members[k];
+			if (residual < weights[idx]) {
+				return elementAt(idx);
+			}
+			residual -= weights[idx];
+		}
+		return elementAt(group.members[group.count - 1]);
+	}
+
+	@Override
+	public WeightedElement<S> select(RandomGenerator rg) {
+		int idx = selectIndex(rg);
+		return (idx < 0 ? null : elementAt(idx));
+	}
+
+	/**
+	 * Samples the index of an element with a probability proportional to its weight. A negative value is
+	 * returned if the structure contains no element with a positive weight.
+	 *
+	 * @param rg random generator used to sample the element.
+	 * @return the index of the selected element.
+	 */
+	public int selectIndex(RandomGenerator rg) {
+		Group group = selectGroup(rg.nextDouble() * getTotalWeight());
+		if (group == null) {
+			return -1;
+		}
+		while (true) {
+			int idx = group.members[(int) (rg.nextDouble() * group.count)];
+			if (rg.nextDouble() * group.bound < weights[idx]) {
+				return idx;
+			}
+		}
+	}
+
+	private Group selectGroup(double w) {
+		Group last = null;
+		double offset = 0.0;
+		for (Group group : groups) {
+			if (group.count > 0) {
+				group.offset = offset;
+				if (w < offset + group.total) {
+					return group;
+				}
+				offset += group.total;
+				last = group;
+			}
+		}
+		return last;
+	}
+
+	private WeightedElement<S> elementAt(int idx) {
+		return new WeightedElement<>(weights[idx], getElement(idx));
+	}
+
+	@Override
+	public WeightedStructure<S> add(double w, S s) {
+		checkWeight(w);
+		ensureCapacity(size + 1);
+		elements[size] = s;
+		weights[size] = 0.0;
+		size++;
+		setWeight(size - 1, w);
+		return this;
+	}
+
+	@Override
+	public WeightedStructure<S> add(WeightedStructure<S> s) {
+		for (WeightedElement<S> e : s.getAll()) {
+			add(e.getWeight(), e.getElement());
+		}
+		return this;
+	}
+
+	@Override
+	public List<WeightedElement<S>> getAll() {
+		List<WeightedElement<S>> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(elementAt(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of elements in this structure.
+	 *
+	 * @return the number of elements in this structure.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the element with the given index.
+	 *
+	 * @param i element index.
+	 * @return the element with the given index.
+	 */
+	@SuppressWarnings("unchecked")
+	public S getElement(int i) {
+		checkIndex(i);
+		return (S) elements[i];
+	}
+
+	/**
+	 * Returns the weight of the element with the given index.
+	 *
+	 * @param i element index.
+	 * @return the weight of the element with the given index.
+	 */
+	public double getWeight(int i) {
+		checkIndex(i);
+		return weights[i];
+	}
+
+	/**
+	 * Sets the weight of the element with the given index.
+	 *
+	 * @param i element index.
+	 * @param w new weight.
+	 */
+	public void setWeight(int i, double w) {
+		checkIndex(i);
+		checkWeight(w);
+		double old = weights[i];
+		Group oldGroup = groupOf[i];
+		Group newGroup = (w > 0 ? getGroup(Math.getExponent(w)) : null);
+		if (oldGroup != null) {
+			oldGroup.total -= old;
+			if (oldGroup != newGroup) {
+				oldGroup.remove(i, positions);
+			}
+		}
+		weights[i] = w;
+		if (newGroup != null) {
+			if (oldGroup != newGroup) {
+				newGroup.add(i, positions);
+			}
+			newGroup.total += w;
+		}
+		groupOf[i] = newGroup;
+		totalWeight += w - old;
+		if (++updates >= Math.max(size, MIN_REFRESH_INTERVAL)) {
+			refresh();
+		}
+	}
+
+	private void refresh() {
+		updates = 0;
+		totalWeight = 0.0;
+		for (Group group : groups) {
+			group.total = 0.0;
+			for (int k = 0; k < group.count; k++) {
+				group.total += weights[group.members[k]];
+			}
+			totalWeight += group.total;
+		}
+	}
+
+	private Group getGroup(int exponent) {
+		int k = 0;
+		while ((k < groups.size()) && (groups.get(k).exponent > exponent)) {
+			k++;
+		}
+		if ((k < groups.size()) && (groups.get(k).exponent == exponent)) {
+			return groups.get(k);
+		}
+		Group group = new Group(exponent);
+		groups.add(k, group);
+		return group;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > weights.length) {
+			int newCapacity = Math.max(capacity, weights.length * 2);
+			weights = Arrays.copyOf(weights, newCapacity);
+			elements = Arrays.copyOf(elements, newCapacity);
+			positions = Arrays.copyOf(positions, newCapacity);
+			groupOf = Arrays.copyOf(groupOf, newCapacity);
+		}
+	}
+
+	private void checkIndex(int i) {
+		if ((i < 0) || (i >= size)) {
+			throw new IndexOutOfBoundsException(i);
+		}
+	}
+
+	private static void checkWeight(double w) {
+		if (!(w >= 0) || Double.isInfinite(w)) {
+			throw new IllegalArgumentException(SibillaMessages.aNonNegativeValueIsExpected(w));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getAll().toString();
+	}
+
+	/**
+	 * A group contains the elements whose weights are in the interval [2^exponent, 2^(exponent+1)).
+	 */
+	private static class Group {
+
+		private final int exponent;
+
+		private final double bound;
+
+		private int[] members = new int[4];
+
+		private int count;
+
+		private double total;
+
+		private double offset;
+
+		private Group(int exponent) {
+			this.exponent = exponent;
+			this.bound = Math.scalb(1.0, exponent + 1);
+		}
+
+		private void add(int idx, int[] positions) {
+			if (count == members.length) {
+				members = Arrays.copyOf(members, 2 * count);
+			}
+			positions[idx] = count;
+			members[count++] = idx;
+		}
+
+		private void remove(int idx, int[] positions) {
+			int pos = positions[idx];
+			int last = members[--count];
+			members[pos] = last;
+			positions[last] = pos;
+		}
+
+	}
+
+}
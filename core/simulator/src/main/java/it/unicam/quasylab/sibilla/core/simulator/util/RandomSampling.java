@@ -0,0 +1,262 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Utility class providing samplers for discrete random variables used in approximated simulation
+ * algorithms. All the samplers only rely on {@link RandomGenerator#nextDouble()}.
+ */
+public final class RandomSampling {
+
+    private static final int LOG_FACTORIAL_TABLE_SIZE = 256;
+
+    private static final double[] LOG_FACTORIAL = new double[LOG_FACTORIAL_TABLE_SIZE];
+
+    static {
+        for (int i = 1; i < LOG_FACTORIAL_TABLE_SIZE; i++) {
+            LOG_FACTORIAL[i] = LOG_FACTORIAL[i - 1] + Math.log(i);
+        }
+    }
+
+    /**
+     * Mean above which Poisson values are sampled via transformed rejection.
+     */
+    private static final double POISSON_INVERSION_LIMIT = 10.0;
+
+    /**
+     * Mean above which binomial values are sampled via BTPE.
+     */
+    private static final double BINOMIAL_INVERSION_LIMIT = 30.0;
+
+    private RandomSampling() {}
+
+    /**
+     * Returns the logarithm of <code>k!</code>.
+     *
+     * @param k a non negative integer.
+     * @return the logarithm of <code>k!</code>.
+     */
+    public static double logFactorial(long k) {
+        if (k < LOG_FACTORIAL_TABLE_SIZE) {
+            return LOG_FACTORIAL[(int) k];
+        }
+        double x = k;
+        double x2 = x * x;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1.0 / (12 * x) - 1.0 / (360 * x * x2) + 1.0 / (1260 * x2 * x2 * x);
+    }
+
+    /**
+     * Samples a value from a Poisson distribution with the given mean. Inversion is used for small means
+     * while the transformed rejection method with squeeze (PTRS) of Hörmann is used otherwise.
+     *
+     * @param rg random generator.
+     * @param mean mean of the distribution.
+     * @return a value sampled from a Poisson distribution with the given mean.
+     */
+    public static long poisson(RandomGenerator rg, double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean < POISSON_INVERSION_LIMIT) {
+            return poissonByInversion(rg, mean);
+        }
+        return poissonByRejection(rg, mean);
+    }
+
+    private static long poissonByInversion(RandomGenerator rg, double mean) {
+        double p = Math.exp(-mean);
+        double cumulative = p;
+        double u = rg.nextDouble();
+        long k = 0;
+        while (u > cumulative) {
+            k++;
+            p *= mean / k;
+            double next = cumulative + p;
+            if (next == cumulative) {
+                break;
+            }
+            cumulative = next;
+        }
+        return k;
+    }
+
+    private static long poissonByRejection(RandomGenerator rg, double mean) {
+        double sqrtMean = Math.sqrt(mean);
+        double logMean = Math.log(mean);
+        double b = 0.931 + 2.53 * sqrtMean;
+        double a = -0.059 + 0.02483 * b;
+        double invAlpha = 1.1239 + 1.1328 / (b - 3.4);
+        double vr = 0.9277 - 3.6224 / (b - 2);
+        while (true) {
+            double u = rg.nextDouble() - 0.5;
+            double v = rg.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + 0.43);
+            if ((us >= 0.07) && (v <= vr)) {
+                return k;
+            }
+            if ((k < 0) || ((us < 0.013) && (v > us))) {
+                continue;
+            }
+            if (Math.log(v) + Math.log(invAlpha) - Math.log(a / (us * us) + b) <= -mean + k * logMean - logFactorial(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Samples a value from a binomial distribution with <code>n</code> trials and success probability
+     * <code>p</code>. Inversion is used when <code>n*min(p,1-p)</code> is small while the BTPE algorithm of
+     * Kachitvichyanukul and Schmeiser is used otherwise.
+     *
+     * @param rg random generator.
+     * @param n number of trials.
+     * @param p success probability.
+     * @return a value sampled from a binomial distribution with <code>n</code> trials and success probability
+     * <code>p</code>.
+     */
+    public static long binomial(RandomGenerator rg, long n, double p) {
+        if ((n <= 0) || (p <= 0.0)) {
+            return 0;
+        }
+        if (p >= 1.0) {
+            return n;
+        }
+        double r = Math.min(p, 1 - p);
+        long k = (n * r < BINOMIAL_INVERSION_LIMIT ? binomialByInversion(rg, n, r) : binomialByRejection(rg, n, r));
+        return (p > 0.5 ? n - k : k);
+    }
+
+    private static long binomialByInversion(RandomGenerator rg, long n, double p) {
+        double q = 1 - p;
+        double qn = Math.exp(n * Math.log(q));
+        double np = n * p;
+        double bound = Math.min(n, np + 10.0 * Math.sqrt(np * q + 1));
+        long k = 0;
+        double px = qn;
+        double u = rg.nextDouble();
+        while (u > px) {
+            k++;
+            if (k > bound) {
+                k = 0;
+                px = qn;
+                u = rg.nextDouble();
+            } else {
+                u -= px;
+                px = ((n - k + 1) * p * px) / (k * q);
+            }
+        }
+        return k;
+    }
+
+    private static long binomialByRejection(RandomGenerator rg, long n, double r) {
+        double q = 1 - r;
+        double fm = n * r + r;
+        long m = (long) Math.floor(fm);
+        double nrq = n * r * q;
+        double p1 = Math.floor(2.195 * Math.sqrt(nrq) - 4.6 * q) + 0.5;
+        double xm = m + 0.5;
+        double xl = xm - p1;
+        double xr = xm + p1;
+        double c = 0.134 + 20.5 / (15.3 + m);
+        double a = (fm - xl) / (fm - xl * r);
+        double laml = a * (1.0 + a / 2.0);
+        a = (xr - fm) / (xr * q);
+        double lamr = a * (1.0 + a / 2.0);
+        double p2 = p1 * (1.0 + 2.0 * c);
+        double p3 = p2 + c / laml;
+        double p4 = p3 + c / lamr;
+        while (true) {
+            double u = rg.nextDouble() * p4;
+            double v = rg.nextDouble();
+            long y;
+            if (u <= p1) {
+                return (long) Math.floor(xm - p1 * v + u);
+            }
+            if (u <= p2) {
+                double x = xl + (u - p1) / c;
+                v = v * c + 1.0 - Math.abs(m - x + 0.5) / p1;
+                if (v > 1.0) {
+                    continue;
+                }
+                y = (long) Math.floor(x);
+            } else if (u <= p3) {
+                y = (long) Math.floor(xl + Math.log(v) / laml);
+                if (y < 0) {
+                    continue;
+                }
+                v = v * (u - p2) * laml;
+            } else {
+                y = (long) Math.floor(xr - Math.log(v) / lamr);
+                if (y > n) {
+                    continue;
+                }
+                v = v * (u - p3) * lamr;
+            }
+            long k = Math.abs(y - m);
+            if ((k <= 20) || (k >= nrq / 2.0 - 1)) {
+                double s = r / q;
+                double b = s * (n + 1);
+                double f = 1.0;
+                if (m < y) {
+                    for (long i = m + 1; i <= y; i++) {
+                        f *= (b / i - s);
+                    }
+                } else if (m > y) {
+                    for (long i = y + 1; i <= m; i++) {
+                        f /= (b / i - s);
+                    }
+                }
+                if (v <= f) {
+                    return y;
+                }
+                continue;
+            }
+            double rho = (k / nrq) * ((k * (k / 3.0 + 0.625) + 0.16666666666666666) / nrq + 0.5);
+            double t = -((double) k * k) / (2 * nrq);
+            double logV = Math.log(v);
+            if (logV < t - rho) {
+                return y;
+            }
+            if (logV > t + rho) {
+                continue;
+            }
+            double x1 = y + 1;
+            double f1 = m + 1;
+            double z = n + 1 - m;
+            double w = n - y + 1;
+            if (logV <= xm * Math.log(f1 / x1) + (n - m + 0.5) * Math.log(z / w) + (y - m) * Math.log(w * r / (x1 * q))
+                    + stirlingCorrection(f1) + stirlingCorrection(z) + stirlingCorrection(x1) + stirlingCorrection(w)) {
+                return y;
+            }
+        }
+    }
+
+    private static double stirlingCorrection(double x) {
+        double x2 = x * x;
+        return (13680. - (462. - (132. - (99. - 140. / x2) / x2) / x2) / x2) / x / 166320.;
+    }
+
+}
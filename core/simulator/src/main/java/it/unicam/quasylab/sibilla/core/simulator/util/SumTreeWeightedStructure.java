@@ -0,0 +1,298 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A weighted structure backed by a Fenwick (binary indexed) tree of primitive doubles. Elements are
+ * identified by the index of their insertion. Both selection and update of the weight of an element
+ * are performed in O(log n).
+ *
+ * @param <S> type of elements in the structure.
+ */
+public class SumTreeWeightedStructure<S> implements WeightedStructure<S> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Minimal number of updates after which the tree is rebuilt to remove accumulated rounding errors.
+	 */
+	private static final int MIN_REBUILD_INTERVAL = 1024;
+
+	private double[] tree;
+
+	private double[] weights;
+
+	private Object[] elements;
+
+	private int size;
+
+	private int positives;
+
+	private int updates;
+
+	public SumTreeWeightedStructure() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty structure that can contain <code>capacity</code> elements before being resized.
+	 *
+	 * @param capacity initial capacity.
+	 */
+	public SumTreeWeightedStructure(int capacity) {
+		capacity = Math.max(1, capacity);
+		this.tree = new double[capacity + 1];
+		this.weights = new double[capacity];
+		this.elements = new Object[capacity];
+	}
+
+	@Override
+	public double getTotalWeight() {
+		if (positives == 0) {
+			return 0.0;
+		}
+		return prefix(size);
+	}
+
+	@Override
+	public WeightedElement<S> select(double w) {
+		int idx = selectIndex(w);
+		if (idx < 0) {
+			return null;
+		}
+		return new WeightedElement<>(weights[idx], getElement(idx));
+	}
+
+	/**
+	 * Returns the index of the element selected by the given value, namely the first element <code>i</code>
+	 * such that the sum of weights of the elements from <code>0</code> to <code>i</code> is greater than
+	 * <code>w</code>. A negative value is returned if the structure contains no element with a positive weight.
+	 *
+	 * @param w selection value.
+	 * @return the index of the element selected by the given value.
+	 */
+	public int selectIndex(double w) {
+		if (positives == 0) {
+			return -1;
+		}
+		int pos = 0;
+		double residual = w;
+		for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+			int next = pos + step;
+			if ((next <= size) && (tree[next] <= residual)) {
+				pos = next;
+				residual -= tree[next];
+			}
+		}
+		if ((pos < size) && (weights[pos] > 0)) {
+			return pos;
+		}
+		return lastPositiveBefore(Math.min(pos, size - 1));
+	}
+
+	private int lastPositiveBefore(int idx) {
+		for (int i = idx; i >= 0; i--) {
+			if (weights[i] > 0) {
+				return i;
+			}
+		}
+		for (int i = idx + 1; i < size; i++) {
+			if (weights[i] > 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public WeightedStructure<S> add(double w, S s) {
+		checkWeight(w);
+		ensureCapacity(size + 1);
+		weights[size] = w;
+		elements[size] = s;
+		size++;
+		int lowBit = size & -size;
+		tree[size] = w + prefix(size - 1) - prefix(size - lowBit);
+		if (w > 0) {
+			positives++;
+		}
+		return this;
+	}
+
+	@Override
+	public WeightedStructure<S> add(WeightedStructure<S> s) {
+		for (WeightedElement<S> e : s.getAll()) {
+			add(e.getWeight(), e.getElement());
+		}
+		return this;
+	}
+
+	@Override
+	public List<WeightedElement<S>> getAll() {
+		List<WeightedElement<S>> result = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			result.add(new WeightedElement<>(weights[i], getElement(i)));
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the number of elements in this structure.
+	 *
+	 * @return the number of elements in this structure.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the element with the given index.
+	 *
+	 * @param i element index.
+	 * @return the element with the given index.
+	 */
+	@SuppressWarnings("unchecked")
+	public S getElement(int i) {
+		checkIndex(i);
+		return (S) elements[i];
+	}
+
+	/**
+	 * Returns the weight of the element with the given index.
+	 *
+	 * @param i element index.
+	 * @return the weight of the element with the given index.
+	 */
+	public double getWeight(int i) {
+		checkIndex(i);
+		return weights[i];
+	}
+
+	/**
+	 * Sets the weight of the element with the given index.
+	 *
+	 * @param i element index.
+	 * @param w new weight.
+	 */
+	public void setWeight(int i, double w) {
+		checkIndex(i);
+		checkWeight(w);
+		double old = weights[i];
+		if (old == w) {
+			return;
+		}
+		if (old > 0) {
+			positives--;
+		}
+		if (w > 0) {
+			positives++;
+		}
+		weights[i] = w;
+		if (++updates >= Math.max(size, MIN_REBUILD_INTERVAL)) {
+			rebuild();
+		} else {
+			double delta = w - old;
+			for (int j = i + 1; j <= size; j += j & -j) {
+				tree[j] += delta;
+			}
+		}
+	}
+
+	/**
+	 * Sets both the element and the weight at the given index.
+	 *
+	 * @param i element index.
+	 * @param w new weight.
+	 * @param s new element.
+	 */
+	public void set(int i, double w, S s) {
+		setWeight(i, w);
+		elements[i] = s;
+	}
+
+	/**
+	 * Removes all the elements from this structure.
+	 */
+	public void clear() {
+		Arrays.fill(tree, 0, size + 1, 0.0);
+		Arrays.fill(weights, 0, size, 0.0);
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+		positives = 0;
+		updates = 0;
+	}
+
+	private double prefix(int k) {
+		double sum = 0.0;
+		for (int j = k; j > 0; j -= j & -j) {
+			sum += tree[j];
+		}
+		return sum;
+	}
+
+	private void rebuild() {
+		updates = 0;
+		for (int j = 1; j <= size; j++) {
+			tree[j] = weights[j - 1];
+		}
+		for (int j = 1; j <= size; j++) {
+			int parent = j + (j & -j);
+			if (parent <= size) {
+				tree[parent] += tree[j];
+			}
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > weights.length) {
+			int newCapacity = Math.max(capacity, weights.length * 2);
+			tree = Arrays.copyOf(tree, newCapacity + 1);
+			weights = Arrays.copyOf(weights, newCapacity);
+			elements = Arrays.copyOf(elements, newCapacity);
+		}
+	}
+
+	private void checkIndex(int i) {
+		if ((i < 0) || (i >= size)) {
+			throw new IndexOutOfBoundsException(i);
+		}
+	}
+
+	private static void checkWeight(double w) {
+		if (!(w >= 0) || Double.isInfinite(w)) {
+			throw new IllegalArgumentException(SibillaMessages.aNonNegativeValueIsExpected(w));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getAll().toString();
+	}
+
+}
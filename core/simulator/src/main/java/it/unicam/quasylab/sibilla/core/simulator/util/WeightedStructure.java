@@ -25,6 +25,8 @@
  */
 package it.unicam.quasylab.sibilla.core.simulator.util;
 
+import org.apache.commons.math3.random.RandomGenerator;
+
 import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.stream.Collector;
@@ -39,6 +41,16 @@ public interface WeightedStructure<S> {
 
 	WeightedElement<S> select(double w);
 
+	/**
+	 * Randomly selects an element of this structure with a probability proportional to its weight.
+	 *
+	 * @param rg random generator used to select the element.
+	 * @return the selected element, or null if the structure does not contain elements with a positive weight.
+	 */
+	default WeightedElement<S> select(RandomGenerator rg) {
+		return select(rg.nextDouble() * getTotalWeight());
+	}
+
 	WeightedStructure<S> add(double w, S s);
 
 	WeightedStructure<S> add(WeightedStructure<S> s);
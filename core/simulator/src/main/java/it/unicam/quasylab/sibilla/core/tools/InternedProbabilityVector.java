@@ -0,0 +1,299 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A (sub) probability vector over elements identified by non-negative <code>long</code> values, typically the
+ * identifiers assigned by a {@link StateInterningTable}. Identifiers are stored in an open-addressing hash table
+ * that maps each of them to a position in two dense arrays containing identifiers and masses. Hence, no object is
+ * allocated when a mass is added, and entries can be iterated by position. Instances of this class are not thread
+ * safe.
+ */
+public class InternedProbabilityVector {
+
+    /**
+     * Consumer of the entries of a vector.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        /**
+         * Performs this operation on the given entry.
+         *
+         * @param id element identifier.
+         * @param p element probability.
+         */
+        void accept(long id, double p);
+
+    }
+
+    private static final double TOLERANCE = 1E-9;
+
+    private static final long EMPTY = -1;
+
+    private long[] keys;
+
+    private int[] positions;
+
+    private long[] ids;
+
+    private double[] masses;
+
+    private int size = 0;
+
+    private double sum = 0.0;
+
+    /**
+     * Creates an empty vector.
+     */
+    public InternedProbabilityVector() {
+        this(8);
+    }
+
+    /**
+     * Creates an empty vector that can store the given number of elements without being resized.
+     *
+     * @param expectedSize expected number of elements.
+     */
+    public InternedProbabilityVector(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, 2 * expectedSize - 1)) << 1;
+        this.keys = new long[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.positions = new int[capacity];
+        this.ids = new long[capacity / 2];
+        this.masses = new double[capacity / 2];
+    }
+
+    /**
+     * Returns the vector associating probability <code>1.0</code> with the given identifier.
+     *
+     * @param id an element identifier.
+     * @return the vector associating probability <code>1.0</code> with the given identifier.
+     */
+    public static InternedProbabilityVector dirac(long id) {
+        InternedProbabilityVector vector = new InternedProbabilityVector(1);
+        vector.add(id, 1.0);
+        return vector;
+    }
+
+    /**
+     * Returns the vector associating the identifier of each element of the given vector with its probability.
+     *
+     * @param vector a probability vector.
+     * @param ids function associating elements with their identifiers.
+     * @return the vector associating the identifier of each element of the given vector with its probability.
+     * @param <S> type of elements.
+     */
+    public static <S> InternedProbabilityVector of(ProbabilityVector<S> vector, ToLongFunction<S> ids) {
+        InternedProbabilityVector result = new InternedProbabilityVector(vector.size());
+        vector.iterate((s, p) -> result.add(ids.applyAsLong(s), p));
+        return result;
+    }
+
+    /**
+     * Returns the probability vector associating the element with each identifier in this vector with its
+     * probability.
+     *
+     * @param states function associating identifiers with their elements.
+     * @return the probability vector associating the element with each identifier in this vector with its
+     * probability.
+     * @param <S> type of elements.
+     */
+    public <S> ProbabilityVector<S> toProbabilityVector(LongFunction<S> states) {
+        Map<S, Double> elements = new HashMap<>(2 * size);
+        for (int i = 0; i < size; i++) {
+            elements.merge(states.apply(ids[i]), masses[i], Double::sum);
+        }
+        return ProbabilityVector.of(elements);
+    }
+
+    /**
+     * Increments the probability associated with the given identifier.
+     *
+     * @param id an element identifier.
+     * @param p a probability value.
+     * @throws IllegalArgumentException when <code>id</code> is negative, when <code>(p&lt;0)||(p&gt;1.0)</code>, or
+     * when the total mass becomes significantly greater than 1.0.
+     */
+    public void add(long id, double p) {
+        if ((p > 1.0) || (p < 0.0)) {
+            throw new IllegalArgumentException("Probability must be a value between 0.0 and 1.0");
+        }
+        if (sum + p > 1.0 + TOLERANCE) {
+            throw new IllegalArgumentException("The total probability mass in a vector cannot be greater than 1.0");
+        }
+        int position = positionOf(id);
+        masses[position] += p;
+        sum += p;
+    }
+
+    /**
+     * Adds to this vector the masses of the given one multiplied by <code>p</code>.
+     *
+     * @param other another vector.
+     * @param p a probability value.
+     */
+    public void add(InternedProbabilityVector other, double p) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.ids[i], other.masses[i] * p);
+        }
+    }
+
+    /**
+     * Associates the mass missing to reach 1.0 with the given identifier.
+     *
+     * @param id an element identifier.
+     * @return this vector.
+     */
+    public InternedProbabilityVector complete(long id) {
+        if (sum < 1.0) {
+            add(id, 1.0 - sum);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the probability associated with the given identifier.
+     *
+     * @param id an element identifier.
+     * @return the probability associated with the given identifier.
+     */
+    public double getProbability(long id) {
+        int slot = slotOf(id);
+        return (keys[slot] == EMPTY ? 0.0 : masses[positions[slot]]);
+    }
+
+    /**
+     * Returns the total probability mass of this vector.
+     *
+     * @return the total probability mass of this vector.
+     */
+    public double getTotalProbability() {
+        return Math.min(sum, 1.0);
+    }
+
+    /**
+     * Returns the number of elements in this vector.
+     *
+     * @return the number of elements in this vector.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the identifier at the given position. Positions range from <code>0</code> to
+     * <code>size()-1</code> and follow the order in which elements have been added.
+     *
+     * @param i a position.
+     * @return the identifier at the given position.
+     */
+    public long idAt(int i) {
+        return ids[i];
+    }
+
+    /**
+     * Returns the probability at the given position.
+     *
+     * @param i a position.
+     * @return the probability at the given position.
+     */
+    public double massAt(int i) {
+        return masses[i];
+    }
+
+    /**
+     * Performs the given action on each entry of this vector, in the order in which elements have been added.
+     *
+     * @param consumer the action to perform.
+     */
+    public void iterate(EntryConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i], masses[i]);
+        }
+    }
+
+    private int positionOf(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Identifiers must be non negative");
+        }
+        int slot = slotOf(id);
+        if (keys[slot] != EMPTY) {
+            return positions[slot];
+        }
+        if (2 * (size + 1) > keys.length) {
+            resize();
+            slot = slotOf(id);
+        }
+        keys[slot] = id;
+        positions[slot] = size;
+        ids[size] = id;
+        return size++;
+    }
+
+    private int slotOf(long id) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(id) & mask;
+        while ((keys[slot] != EMPTY) && (keys[slot] != id)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        int capacity = keys.length * 2;
+        this.keys = new long[capacity];
+        Arrays.fill(this.keys, EMPTY);
+        this.positions = new int[capacity];
+        this.ids = Arrays.copyOf(ids, capacity / 2);
+        this.masses = Arrays.copyOf(masses, capacity / 2);
+        for (int i = 0; i < size; i++) {
+            int slot = slotOf(ids[i]);
+            keys[slot] = ids[i];
+            positions[slot] = i;
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            builder.append(i > 0 ? ", " : "").append(ids[i]).append('=').append(masses[i]);
+        }
+        return builder.append("} <").append(sum).append('>').toString();
+    }
+
+}
@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
 /**
  * This class represents a probability matrix.
@@ -95,6 +96,19 @@ public class ProbabilityMatrix<S> {
         return getRowOf(s).sample(randomGenerator, s);
     }
 
+    /**
+     * Samples the states reached in one step by <code>n</code> independent elements in state <code>s</code>. The
+     * given consumer is invoked on each reached state together with the number of elements reaching it.
+     *
+     * @param randomGenerator random generator used to sample the values.
+     * @param s starting state.
+     * @param n number of elements in state <code>s</code>.
+     * @param consumer consumer receiving each reached state and the number of elements reaching it.
+     */
+    public void sample(RandomGenerator randomGenerator, S s, int n, ObjIntConsumer<S> consumer) {
+        getRowOf(s).sample(randomGenerator, n, s, consumer);
+    }
+
     /**
      * Iterates the given consumer on all the rows of this matrix.
      *
@@ -24,6 +24,7 @@
 package it.unicam.quasylab.sibilla.core.tools;
 
 import it.unicam.quasylab.sibilla.core.models.IndexedState;
+import it.unicam.quasylab.sibilla.core.simulator.util.RandomSampling;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import java.util.*;
@@ -62,10 +63,35 @@ public class ProbabilityVector<S> implements Iterable<ProbabilityEntries<S>> {
         return vector;
     }
 
+    /**
+     * Returns the sub-probability distribution associating each key of the given map with the corresponding value.
+     * Rounding errors that make the total mass slightly greater than 1.0 are absorbed.
+     *
+     * @param masses a map associating elements with probability values.
+     * @return the sub-probability distribution associating each key of the given map with the corresponding value.
+     * @param <S> type of measured set
+     * @throws IllegalArgumentException if a value is less than 0 or the total mass is significantly greater than 1
+     */
+    public static <S> ProbabilityVector<S> of(Map<S, Double> masses) {
+        double sum = 0.0;
+        for (double p: masses.values()) {
+            if (p < 0.0) {
+                throw new IllegalArgumentException("Probability must be a value between 0.0 and 1.0");
+            }
+            sum += p;
+        }
+        if (sum > 1.0 + TOLERANCE) {
+            throw new IllegalArgumentException("The total probability mass in a vector cannot be greater than 1.0");
+        }
+        return new ProbabilityVector<>(new HashMap<>(masses), Math.min(sum, 1.0));
+    }
+
     private void add(ProbabilityEntries<S> e) {
         this.add(e.getElement(), e.getProbability());
     }
 
+    private static final double TOLERANCE = 1E-9;
+
     private final Map<S, Double> elements;
 
     private double sum = 0.0;
@@ -88,7 +114,7 @@ public class ProbabilityVector<S> implements Iterable<ProbabilityEntries<S>> {
      * probability <code>0.0</code>.
      */
     public <T> ProbabilityVector() {
-        this(new HashMap<>(4096*2), 0.0);
+        this(new HashMap<>(), 0.0);
     }
 
     public static <S> ProbabilityVector<S> dirac(S s) {
@@ -189,7 +215,7 @@ public class ProbabilityVector<S> implements Iterable<ProbabilityEntries<S>> {
         if (sum >= 1.0) { return this; }
         Map<S, Double> newProbabilityMap = new HashMap<>(this.elements);
         double old = elements.getOrDefault(s, 0.0);
-        newProbabilityMap.put(s, 1.0 - sum - old);
+        newProbabilityMap.put(s, 1.0 - sum + old);
         return new ProbabilityVector<>(newProbabilityMap, 1.0);
     }
 
@@ -237,6 +263,42 @@ public class ProbabilityVector<S> implements Iterable<ProbabilityEntries<S>> {
         return s;
     }
 
+    /**
+     * Samples how <code>n</code> independent selections are distributed among the elements of this vector, where
+     * each selection returns the given value <code>s</code> with probability <code>1-this.getTotalProbability()</code>.
+     * The multinomial sample is obtained as a sequence of conditional binomial samples, one for each element, hence
+     * the cost does not depend on <code>n</code>. The given consumer is invoked on each element selected
+     * at least once, together with the number of times it is selected.
+     *
+     * @param randomGenerator random generator used to sample the values
+     * @param n number of selections
+     * @param s a default value
+     * @param consumer consumer receiving each selected element and the number of times it is selected
+     */
+    public synchronized void sample(RandomGenerator randomGenerator, int n, S s, ObjIntConsumer<S> consumer) {
+        int remaining = n;
+        double remainingProbability = 1.0;
+        for (Map.Entry<S, Double> e: this.elements.entrySet()) {
+            if (remaining == 0) {
+                return;
+            }
+            double p = e.getValue();
+            if (p <= 0.0) {
+                continue;
+            }
+            double conditional = (p < remainingProbability ? p / remainingProbability : 1.0);
+            int k = (int) RandomSampling.binomial(randomGenerator, remaining, conditional);
+            if (k > 0) {
+                consumer.accept(e.getKey(), k);
+                remaining -= k;
+            }
+            remainingProbability -= p;
+        }
+        if (remaining > 0) {
+            consumer.accept(s, remaining);
+        }
+    }
+
     /**
      * Returns the summation of <code>function.applyAsDouble(s)*this.get(s)</code> for each element <code>s</code>
      * in this vector.
@@ -0,0 +1,86 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A table that interns the states of a model: each distinct state is associated with a non-negative identifier,
+ * assigned in order of insertion, that can be used as key in an {@link InternedProbabilityVector}. States are never
+ * removed from a table: a table should be scoped to the computation, or to the step of a computation, that uses its
+ * identifiers, so that states that are no longer needed can be garbage collected. Instances of this class are
+ * thread safe: states are stored in concurrent maps, hence states can be interned by different threads without
+ * locking the whole table.
+ *
+ * @param <S> type of interned states.
+ */
+public class StateInterningTable<S> {
+
+    private final ConcurrentHashMap<S, Long> ids = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<Long, S> states = new ConcurrentHashMap<>();
+
+    private final AtomicLong counter = new AtomicLong();
+
+    /**
+     * Returns the identifier of the given state. A new identifier is assigned if the state has not been interned
+     * yet.
+     *
+     * @param state a state.
+     * @return the identifier of the given state.
+     */
+    public long intern(S state) {
+        return ids.computeIfAbsent(state, s -> {
+            long id = counter.getAndIncrement();
+            states.put(id, s);
+            return id;
+        });
+    }
+
+    /**
+     * Returns the state with the given identifier.
+     *
+     * @param id a state identifier.
+     * @return the state with the given identifier.
+     * @throws IndexOutOfBoundsException if no state has the given identifier.
+     */
+    public S get(long id) {
+        S state = states.get(id);
+        if (state == null) {
+            throw new IndexOutOfBoundsException("No state has identifier "+id+"!");
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of states in this table.
+     *
+     * @return the number of states in this table.
+     */
+    public int size() {
+        return states.size();
+    }
+
+}
@@ -23,26 +23,49 @@
 
 package it.unicam.quasylab.sibilla.core.tools.glotl;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.function.Function;
 
+/**
+ * A function whose results are stored in a {@link GLoTLCache}. Instances of this class can be safely used by
+ * different threads.
+ *
+ * @param <T> type of function arguments.
+ * @param <R> type of function results.
+ */
 public class ChachedFunction<T,R> implements Function<T, R> {
 
     private final Function<T,R> function;
-    private final Map<T, R> cache;
+    private final GLoTLCache<T, R> cache;
 
 
     public ChachedFunction(Function<T, R> function) {
+        this(function, new GLoTLCache<>());
+    }
+
+    /**
+     * Creates a function whose results are stored in the given cache.
+     *
+     * @param function the function to cache.
+     * @param cache the cache used to store function results.
+     */
+    public ChachedFunction(Function<T, R> function, GLoTLCache<T, R> cache) {
         this.function = function;
-        this.cache = new HashMap<>();
+        this.cache = cache;
     }
 
 
     @Override
     public R apply(T t) {
-        //System.out.println(cache.size());
-        return cache.computeIfAbsent(t, function);
+        return cache.get(t, function);
+    }
+
+    /**
+     * Returns the cache used to store function results.
+     *
+     * @return the cache used to store function results.
+     */
+    public GLoTLCache<T, R> getCache() {
+        return cache;
     }
 
     public int size() {
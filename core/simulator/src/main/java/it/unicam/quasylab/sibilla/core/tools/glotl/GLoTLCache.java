@@ -0,0 +1,366 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools.glotl;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A bounded cache used by GLoTL model checkers to store the results of expensive computations. Entries are
+ * evicted according to a segmented LRU policy: new entries are inserted in a probationary segment and are
+ * promoted to a protected segment when they are accessed again. When the total weight of the entries exceeds the
+ * maximum weight, the least recently used entries of the probationary segment are evicted first. Hence, entries
+ * used only once (like the states visited only once in a long-horizon analysis) do not displace the entries that
+ * are used repeatedly.
+ * <p>
+ * The cache can be accessed concurrently. Entries are stored in a {@link ConcurrentHashMap}, so that a hit never
+ * waits for a lock: the access is recorded in a buffer that is replayed on the eviction policy by the thread that
+ * holds the policy lock. If the lock is busy, the access is applied later by its holder or by the next thread that
+ * acquires it; when too many accesses are pending, new ones are dropped, so that under contention recency is only
+ * approximated. Insertions and evictions acquire the lock. Values are computed outside the lock: when the same
+ * missing key is requested by different threads at the same time, the value may be computed more than once, but
+ * only the first one is stored. Null values are never stored.
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ */
+public class GLoTLCache<K, V> {
+
+    /**
+     * Maximum weight of a cache that is never evicted.
+     */
+    public static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private static final double PROTECTED_FRACTION = 0.8;
+
+    /**
+     * Maximum number of accesses waiting to be applied to the eviction policy.
+     */
+    private static final int READ_BUFFER_SIZE = 1024;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+    private final ReentrantLock policyLock = new ReentrantLock();
+
+    private final Queue<Node<K, V>> readBuffer = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger pendingReads = new AtomicInteger();
+
+    private final Node<K, V> probation = new Node<>(null, null, 0);
+
+    private final Node<K, V> protectedSegment = new Node<>(null, null, 0);
+
+    private final ToLongBiFunction<? super K, ? super V> weigher;
+
+    private final long maximumWeight;
+
+    private final long maximumProtectedWeight;
+
+    private long probationWeight = 0;
+
+    private long protectedWeight = 0;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a cache without bounds.
+     */
+    public GLoTLCache() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * Creates a cache containing at most the given number of entries.
+     *
+     * @param maximumSize maximum number of entries in the cache.
+     */
+    public GLoTLCache(long maximumSize) {
+        this(maximumSize, (k, v) -> 1);
+    }
+
+    /**
+     * Creates a cache whose entries have at most the given total weight. The weight of each entry is computed
+     * by the given weigher when the entry is stored.
+     *
+     * @param maximumWeight maximum total weight of the entries in the cache.
+     * @param weigher function used to compute the weight of each entry.
+     */
+    public GLoTLCache(long maximumWeight, ToLongBiFunction<? super K, ? super V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("The maximum weight of a cache must be positive!");
+        }
+        this.maximumWeight = maximumWeight;
+        this.maximumProtectedWeight = (long) (maximumWeight * PROTECTED_FRACTION);
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the value associated with the given key. If the key is not in the cache, the value is computed with
+     * the given function and stored in the cache.
+     *
+     * @param key a key.
+     * @param function function used to compute the value associated with the key.
+     * @return the value associated with the given key.
+     */
+    public V get(K key, Function<? super K, ? extends V> function) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = function.apply(key);
+        if (value == null) {
+            return null;
+        }
+        return putIfAbsent(key, value);
+    }
+
+    /**
+     * Returns the value associated with the given key, or null if the key is not in the cache.
+     *
+     * @param key a key.
+     * @return the value associated with the given key, or null if the key is not in the cache.
+     */
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (pendingReads.incrementAndGet() <= READ_BUFFER_SIZE) {
+            readBuffer.add(node);
+        } else {
+            pendingReads.decrementAndGet();
+        }
+        if (policyLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                policyLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    private V putIfAbsent(K key, V value) {
+        policyLock.lock();
+        try {
+            drainReadBuffer();
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                return existing.value;
+            }
+            Node<K, V> node = new Node<>(key, value, weigher.applyAsLong(key, value));
+            data.put(key, node);
+            node.linkBefore(probation);
+            probationWeight += node.weight;
+            evict();
+            return value;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Applies the pending accesses to the eviction policy. This method must be invoked while holding the
+     * policy lock.
+     */
+    private void drainReadBuffer() {
+        Node<K, V> node;
+        while ((node = readBuffer.poll()) != null) {
+            pendingReads.decrementAndGet();
+            onAccess(node);
+        }
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (node.segment == protectedSegment) {
+            node.unlink();
+            node.linkBefore(protectedSegment);
+        } else if (node.segment == probation) {
+            node.unlink();
+            probationWeight -= node.weight;
+            node.linkBefore(protectedSegment);
+            protectedWeight += node.weight;
+            demote();
+        }
+    }
+
+    private void demote() {
+        while ((protectedWeight > maximumProtectedWeight) && (protectedSegment.next.next != protectedSegment)) {
+            Node<K, V> eldest = protectedSegment.next;
+            eldest.unlink();
+            protectedWeight -= eldest.weight;
+            eldest.linkBefore(probation);
+            probationWeight += eldest.weight;
+        }
+        evict();
+    }
+
+    private void evict() {
+        while (probationWeight + protectedWeight > maximumWeight) {
+            Node<K, V> segment = (probation.next != probation ? probation : protectedSegment);
+            if (segment.next == segment) {
+                return;
+            }
+            Node<K, V> eldest = segment.next;
+            eldest.unlink();
+            data.remove(eldest.key, eldest);
+            if (segment == probation) {
+                probationWeight -= eldest.weight;
+            } else {
+                protectedWeight -= eldest.weight;
+            }
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes all the entries from the cache. Statistics are not reset.
+     */
+    public void clear() {
+        policyLock.lock();
+        try {
+            drainReadBuffer();
+            for (Node<K, V> segment : List.of(probation, protectedSegment)) {
+                while (segment.next != segment) {
+                    segment.next.unlink();
+                }
+            }
+            data.clear();
+            probationWeight = 0;
+            protectedWeight = 0;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries in the cache.
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Returns the total weight of the entries in the cache.
+     *
+     * @return the total weight of the entries in the cache.
+     */
+    public long weight() {
+        policyLock.lock();
+        try {
+            return probationWeight + protectedWeight;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests that have found their key in the cache.
+     *
+     * @return the number of requests that have found their key in the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of requests that have not found their key in the cache.
+     *
+     * @return the number of requests that have not found their key in the cache.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted from the cache.
+     *
+     * @return the number of entries evicted from the cache.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size: %d hits: %d misses: %d evictions: %d", size(), getHits(), getMisses(), getEvictions());
+    }
+
+    /**
+     * An entry of the cache. Nodes are linked in the circular list of their segment, whose head is a sentinel
+     * node. Links and segment are only accessed while holding the policy lock.
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private final V value;
+
+        private final long weight;
+
+        private Node<K, V> segment;
+
+        private Node<K, V> previous = this;
+
+        private Node<K, V> next = this;
+
+        private Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        private void linkBefore(Node<K, V> sentinel) {
+            this.segment = sentinel;
+            this.next = sentinel;
+            this.previous = sentinel.previous;
+            sentinel.previous.next = this;
+            sentinel.previous = this;
+        }
+
+        private void unlink() {
+            this.previous.next = this.next;
+            this.next.previous = this.previous;
+            this.previous = this;
+            this.next = this;
+            this.segment = null;
+        }
+
+    }
+}
@@ -23,35 +23,86 @@
 
 package it.unicam.quasylab.sibilla.core.tools.glotl;
 
+import it.unicam.quasylab.sibilla.core.tools.InternedProbabilityVector;
 import it.unicam.quasylab.sibilla.core.tools.ProbabilityVector;
+import it.unicam.quasylab.sibilla.core.tools.StateInterningTable;
 import it.unicam.quasylab.sibilla.core.models.IndexedState;
 import it.unicam.quasylab.sibilla.core.tools.glotl.global.GlobalFormula;
 
+import java.util.List;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class GLoTLDiscreteTimeModelChecker {
 
     public <T,S extends IndexedState<T>> double computeProbability(Function<S, ProbabilityVector<S>> stepFunction, S state,
                                                                    GlobalFormula<T, S> formula, double eps) {
+        return computeProbability(new ChachedFunction<>(stepFunction), state, formula, eps, false);
+    }
+
+    /**
+     * Computes the probability that the given formula is satisfied by the given state up to a residual probability
+     * <code>eps</code>. The step function is invoked through the given cached function, which may be bounded and
+     * shared among different checks. When <code>parallel</code> is true, the successors of the states in the
+     * frontier are computed in parallel: in this case the step function must be thread safe.
+     * <br>
+     * The frontier of pending model checking states is an {@link InternedProbabilityVector}. Its identifiers are
+     * assigned by a {@link StateInterningTable} that is scoped to a single step: the table of the next frontier is
+     * created when the step starts and the table of the current one is dropped when the step ends, so that only the
+     * states of two consecutive frontiers are retained. Accepting and rejecting states are never stored in the
+     * frontier: their probability is accumulated as soon as they are reached.
+     *
+     * @param cachedFunction the cached step function.
+     * @param state the initial state.
+     * @param formula the formula to check.
+     * @param eps the residual probability.
+     * @param parallel true if the frontier is expanded in parallel.
+     * @return the probability that the given formula is satisfied by the given state.
+     * @param <T> type of agents.
+     * @param <S> type of states.
+     */
+    public <T,S extends IndexedState<T>> double computeProbability(ChachedFunction<S, ProbabilityVector<S>> cachedFunction, S state,
+                                                                   GlobalFormula<T, S> formula, double eps, boolean parallel) {
         if (formula.isAccepting()) {
             return 1.0;
         }
         if (formula.isRejecting()) {
             return 0.0;
         }
-        double residual = 1.0;
-        double satProb = 0.0;
-        double unsatProb = 0.0;
-        ChachedFunction<S, ProbabilityVector<S>> cachedFunction = new ChachedFunction<>(stepFunction);
-        ProbabilityVector<ModelCheckingState<T,S>> current = ProbabilityVector.dirac(new ComposedElement<>(state, formula));
+        double[] outcome = new double[2];
+        StateInterningTable<ModelCheckingState<T,S>> table = new StateInterningTable<>();
+        InternedProbabilityVector current = InternedProbabilityVector.dirac(table.intern(new ComposedElement<>(state, formula)));
         do {
-            current = current.apply(ms -> ms.next(cachedFunction));
-            satProb += current.get(ModelCheckingState::isAccepting);
-            unsatProb += current.get(ModelCheckingState::isRejecting);
-            current = current.filter(ModelCheckingState::isPending);
-            residual = 1 - (satProb+unsatProb);
-        } while (residual > eps);
-        return satProb;
+            List<ProbabilityVector<ModelCheckingState<T,S>>> successors = successors(current, table, cachedFunction, parallel);
+            StateInterningTable<ModelCheckingState<T,S>> nextTable = new StateInterningTable<>();
+            InternedProbabilityVector next = new InternedProbabilityVector(current.size());
+            for (int i = 0; i < current.size(); i++) {
+                double p = current.massAt(i);
+                successors.get(i).iterate((ms, q) -> {
+                    if (ms.isAccepting()) {
+                        outcome[0] += p * q;
+                    } else if (ms.isRejecting()) {
+                        outcome[1] += p * q;
+                    } else {
+                        next.add(nextTable.intern(ms), p * q);
+                    }
+                });
+            }
+            table = nextTable;
+            current = next;
+        } while (1 - (outcome[0] + outcome[1]) > eps && current.size() > 0);
+        return outcome[0];
+    }
+
+    private <T,S extends IndexedState<T>> List<ProbabilityVector<ModelCheckingState<T,S>>> successors(InternedProbabilityVector current,
+                                                                                                   StateInterningTable<ModelCheckingState<T,S>> table,
+                                                                                                   Function<S, ProbabilityVector<S>> stepFunction,
+                                                                                                   boolean parallel) {
+        IntStream positions = IntStream.range(0, current.size());
+        return (parallel ? positions.parallel() : positions)
+                .mapToObj(i -> table.get(current.idAt(i)).next(stepFunction))
+                .collect(Collectors.toList());
     }
 
 
@@ -24,18 +24,29 @@
 package it.unicam.quasylab.sibilla.core.tools.glotl.mc;
 
 import it.unicam.quasylab.sibilla.core.models.lio.LIOCountingState;
-
-import java.util.HashMap;
+import it.unicam.quasylab.sibilla.core.tools.glotl.GLoTLCache;
 
 public abstract class GLoTLbModelCheckerAbstract implements GLoTLbModelChecker {
-    protected final HashMap<LIOCountingState, Boolean> cache;
+    protected final GLoTLCache<LIOCountingState, Boolean> cache;
 
     public GLoTLbModelCheckerAbstract() {
-        cache = new HashMap<>();
+        this(new GLoTLCache<>());
+    }
+
+    /**
+     * Creates a model checker that stores the results of the checks in the given cache.
+     *
+     * @param cache the cache used to store the results of the checks.
+     */
+    public GLoTLbModelCheckerAbstract(GLoTLCache<LIOCountingState, Boolean> cache) {
+        this.cache = cache;
     }
 
     public boolean sat(Object state) {
-        return false;//cache.computeIfAbsent(state, this::compute);
+        if (state instanceof LIOCountingState countingState) {
+            return cache.get(countingState, this::compute);
+        }
+        return false;
     }
 
     protected abstract boolean compute(LIOCountingState state);
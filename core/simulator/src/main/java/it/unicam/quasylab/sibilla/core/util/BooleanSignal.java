@@ -28,11 +28,12 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
- * Represents a sequence of (disjoint) unitary intervals.
+ * Represents a sequence of (disjoint) unitary intervals. Intervals are kept sorted in an array list, so that
+ * the value at a given time is found via binary search.
  */
 public final class BooleanSignal {
 
-    private final LinkedList<Interval> intervals = new LinkedList<>();
+    private final ArrayList<Interval> intervals = new ArrayList<>();
 
 
     /**
@@ -56,7 +57,7 @@ public final class BooleanSignal {
         if (intervals.isEmpty()) {
             return Double.NaN;
         }
-        return intervals.getFirst().start();
+        return intervals.get(0).start();
     }
 
     /**
@@ -68,7 +69,7 @@ public final class BooleanSignal {
         if (intervals.isEmpty()) {
             return Double.NaN;
         }
-        return intervals.getLast().end();
+        return intervals.get(intervals.size() - 1).end();
     }
 
     /**
@@ -90,14 +91,13 @@ public final class BooleanSignal {
         if (intervals.isEmpty()) {
             intervals.add(interval);
         } else {
-            Interval currentLast = intervals.getLast();
+            Interval currentLast = intervals.get(intervals.size() - 1);
             if (interval.start()>=currentLast.start()) {
                 Optional<Interval> optionalInterval = currentLast.join(interval);
                 if (optionalInterval.isPresent()) {
-                    intervals.removeLast();
-                    intervals.add(optionalInterval.get());
+                    intervals.set(intervals.size() - 1, optionalInterval.get());
                 } else {
-                    intervals.addLast(interval);
+                    intervals.add(interval);
                 }
             } else {
                 throw new IllegalArgumentException("Added interval must either meet of be after the last one in the sequence!");
@@ -136,13 +136,12 @@ public final class BooleanSignal {
 
     public boolean[] getValuesAt(double[] steps) {
         boolean[] result = new boolean[steps.length];
-        Iterator<Interval> iterator = iterator();
-        Interval current = (iterator.hasNext()?iterator.next():null);
+        int current = 0;
         for(int i=0; i<steps.length; i++) {
-            while ((current != null)&&current.isBefore(steps[i])&& iterator().hasNext()) {
-                current = (iterator.hasNext()?iterator.next():null);
+            while ((current < intervals.size())&&intervals.get(current).isBefore(steps[i])) {
+                current++;
             }
-            result[i] = (current != null) && current.contains(steps[i]);
+            result[i] = (current < intervals.size()) && intervals.get(current).contains(steps[i]);
         }
         return result;
     }
@@ -155,12 +154,17 @@ public final class BooleanSignal {
      * @return true if the time step falls within a positive interval, false otherwise.
      */
     public boolean getValueAt(double timeStep) {
-        for (Interval interval : intervals) {
-            if (interval.contains(timeStep)) {
-                return true;
+        int low = 0;
+        int high = intervals.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (intervals.get(mid).start() <= timeStep) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
             }
         }
-        return false;
+        return (high >= 0) && intervals.get(high).contains(timeStep);
     }
 
 
@@ -242,7 +246,7 @@ public final class BooleanSignal {
      * @return the sequence of intervals
      */
 
-    public LinkedList<Interval> getIntervals(){
+    public List<Interval> getIntervals(){
         return intervals;
     }
 
@@ -30,7 +30,9 @@ public class SibillaMessages {
 
     public static final String ILLEGAL_TIME_IN_TIMESTEP = "A time step must be a value greater than 0 (%g is used).";
     public static final String A_POSITIVE_VALUE_IS_EXPECTED = "A value greater than 0 is expected (%g is used).";
+    public static final String A_NON_NEGATIVE_VALUE_IS_EXPECTED = "A value greater than or equal to 0 is expected (%g is used).";
     private static final String ILLEGAL_NUMBER_OF_PARAMETERS = "Illegal number of parameters: expected %d are %d!";
+    private static final String ILLEGAL_NUMBER_OF_SAMPLED_VALUES = "Illegal number of sampled values: expected %d are %d!";
 
 
     /**
@@ -53,7 +55,28 @@ public class SibillaMessages {
         return String.format(A_POSITIVE_VALUE_IS_EXPECTED,value);
     }
 
+    /**
+     * A value greater than or equal to 0 is expected.
+     *
+     * @param value used value.
+     * @return error message.
+     */
+    public static String aNonNegativeValueIsExpected(double value) {
+        return String.format(A_NON_NEGATIVE_VALUE_IS_EXPECTED,value);
+    }
+
     public static String wrongNumberOfParameters(int expected, int actual) {
         return String.format(ILLEGAL_NUMBER_OF_PARAMETERS,expected,actual);
     }
+
+    /**
+     * The number of values sampled in a replica is different from the number of sampled measures.
+     *
+     * @param expected number of sampled measures.
+     * @param actual number of sampled values.
+     * @return error message.
+     */
+    public static String wrongNumberOfSampledValues(int expected, int actual) {
+        return String.format(ILLEGAL_NUMBER_OF_SAMPLED_VALUES,expected,actual);
+    }
 }
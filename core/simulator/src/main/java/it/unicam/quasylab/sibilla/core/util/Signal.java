@@ -25,40 +25,56 @@ package it.unicam.quasylab.sibilla.core.util;
 
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.NoSuchElementException;
 import java.util.function.DoubleBinaryOperator;
 import java.util.function.DoubleUnaryOperator;
 import java.util.stream.Collectors;
-import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
 /**
  * A signal represents a (piecewise constant) function associating double values to time.
  * Each signal is identified by a starting time and an ending time.
+ * Segments are stored column-wise in arrays of primitive values: the i-th segment starts at
+ * <code>from[i]</code>, ends at <code>to[i]</code> (included if <code>rightClosed[i]</code> is true) and has
+ * value <code>values[i]</code>.
  */
 public final class Signal implements Iterable<SignalSegment> {
 
+    private static final int INITIAL_CAPACITY = 8;
 
-    private final LinkedList<SignalSegment> values;
+    private double[] from;
+
+    private double[] to;
+
+    private boolean[] rightClosed;
+
+    private double[] values;
+
+    private int size;
 
     /**
      * Creates and empty signal.
      */
     public Signal() {
-        this(new LinkedList<>());
+        this(INITIAL_CAPACITY);
     }
 
     /**
-     * Creates a new signal starting from <code>start</code>, ending at <code>end</code> containing the given values.
+     * Creates an empty signal with room for the given number of segments.
      *
-     * @param values the values in the signal.
+     * @param capacity the initial number of segments that the signal can contain.
      */
-    private Signal(LinkedList<SignalSegment> values) {
-        this.values = values;
+    private Signal(int capacity) {
+        capacity = Math.max(1, capacity);
+        this.from = new double[capacity];
+        this.to = new double[capacity];
+        this.rightClosed = new boolean[capacity];
+        this.values = new double[capacity];
+        this.size = 0;
     }
 
     public Signal(double[] times, double[] data) {
-        this();
+        this(times.length);
         if (times.length != data.length) {
             throw new IllegalArgumentException();
         }
@@ -68,7 +84,29 @@ public final class Signal implements Iterable<SignalSegment> {
     public static double[] getTimeSteps(Signal s1, Signal s2) {
         double start = Math.max(s1.getStart(), s2.getStart());
         double end = Math.min(s1.getEnd(), s2.getEnd());
-        return DoubleStream.concat(Arrays.stream(s1.getTimeSteps(start, end)), Arrays.stream(s2.getTimeSteps(start, end))).distinct().sorted().toArray();
+        return merge(s1.getTimeSteps(start, end), s2.getTimeSteps(start, end));
+    }
+
+    /**
+     * Returns the sorted array containing, without duplicates, the elements of the two given sorted arrays.
+     */
+    private static double[] merge(double[] steps1, double[] steps2) {
+        double[] result = new double[steps1.length + steps2.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while ((i < steps1.length) || (j < steps2.length)) {
+            double next;
+            if ((j >= steps2.length) || ((i < steps1.length) && (steps1[i] <= steps2[j]))) {
+                next = steps1[i++];
+            } else {
+                next = steps2[j++];
+            }
+            if ((k == 0) || (result[k - 1] != next)) {
+                result[k++] = next;
+            }
+        }
+        return (k == result.length ? result : Arrays.copyOf(result, k));
     }
 
     /**
@@ -80,32 +118,62 @@ public final class Signal implements Iterable<SignalSegment> {
      */
     public void add(double time, double value) {
         if (Double.isFinite(time)&& isAfter(time)) {
-            if (!this.values.isEmpty()) {
-                SignalSegment last = this.values.getLast();
-                last.extendsInterval(time);
-                if (last.getValue() == value) {
-                    last.closeOnRight();
+            if (size > 0) {
+                int last = size - 1;
+                extendsInterval(last, time);
+                if (values[last] == value) {
+                    rightClosed[last] = true;
                     return ;
                 }
             }
-            this.values.add(new SignalSegment(time, value));
+            append(time, time, true, value);
         } else {
             throw new IllegalArgumentException();
         }
     }
 
-    private void add(SignalSegment segment) {
-        if (!this.values.isEmpty()) {
-            SignalSegment last = this.values.getLast();
-            if (last.isClosedOnRight()&&(last.getTo() != segment.getFrom())) throw new IllegalArgumentException();
-            if (last.getValue() == segment.getValue()) {
-                last.extendsInterval(segment.getTo());
-                if (segment.isClosedOnRight()) {
-                    last.closeOnRight();
+    private void add(double from, double to, boolean closed, double value) {
+        if (size > 0) {
+            int last = size - 1;
+            if (rightClosed[last]&&(this.to[last] != from)) throw new IllegalArgumentException();
+            if (values[last] == value) {
+                extendsInterval(last, to);
+                if (closed) {
+                    rightClosed[last] = true;
                 }
+                return ;
             }
         }
-        this.values.add(segment);
+        append(from, to, closed, value);
+    }
+
+    private void append(double from, double to, boolean closed, double value) {
+        if (size == this.from.length) {
+            int capacity = 2 * size;
+            this.from = Arrays.copyOf(this.from, capacity);
+            this.to = Arrays.copyOf(this.to, capacity);
+            this.rightClosed = Arrays.copyOf(this.rightClosed, capacity);
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+        this.from[size] = from;
+        this.to[size] = to;
+        this.rightClosed[size] = closed;
+        this.values[size] = value;
+        size++;
+    }
+
+    private void extendsInterval(int i, double time) {
+        if (to[i] > time) {
+            throw new IllegalArgumentException();
+        }
+        if (to[i] != time) {
+            to[i] = time;
+            rightClosed[i] = false;
+        }
+    }
+
+    private boolean contains(int i, double time) {
+        return (from[i] <= time)&&(rightClosed[i]?time<=to[i]:time<to[i]);
     }
 
     /**
@@ -116,8 +184,9 @@ public final class Signal implements Iterable<SignalSegment> {
      */
     private boolean isAfter(double time) {
         if (time < 0) return false;
-        if (!this.values.isEmpty()) {
-            return this.values.getLast().isAfter(time);
+        if (size > 0) {
+            int last = size - 1;
+            return (rightClosed[last]&&(to[last]==time))||(to[last]<time);
         }
         return true;
     }
@@ -129,15 +198,59 @@ public final class Signal implements Iterable<SignalSegment> {
      * @return the array of time points occurring in the signal;
      */
     public double[] getTimeSteps() {
-        return this.values.stream().map(SignalSegment::getTimeSteps).flatMapToDouble(DoubleStream::of).distinct().sorted().toArray();
+        double[] result = new double[2 * size];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            k = addTimeStep(result, k, from[i]);
+            if (rightClosed[i]) {
+                k = addTimeStep(result, k, to[i]);
+            }
+        }
+        return Arrays.copyOf(result, k);
     }
 
 
-    private double[] getTimeSteps(double from, double to) {
-        return this.values.stream().filter(s -> s.overlaps(from, to)).map(s -> s.getTimeSteps(from, to)).flatMapToDouble(DoubleStream::of).distinct().sorted().toArray();
+    private double[] getTimeSteps(double start, double end) {
+        double[] result = new double[2 * size];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (((start <= from[i]) && (from[i] <= end)) || ((start <= to[i]) && (to[i] <= end))) {
+                k = addTimeStep(result, k, Math.max(from[i], start));
+                if (rightClosed[i]) {
+                    k = addTimeStep(result, k, Math.min(to[i], end));
+                } else if (to[i] > end) {
+                    k = addTimeStep(result, k, end);
+                }
+            }
+        }
+        return Arrays.copyOf(result, k);
     }
 
+    private static int addTimeStep(double[] steps, int k, double time) {
+        if ((k > 0) && (steps[k - 1] == time)) {
+            return k;
+        }
+        steps[k] = time;
+        return k + 1;
+    }
 
+    /**
+     * Returns the index of the last segment starting before or at the given time, or -1 if no such
+     * segment exists. Since segments are sorted, this is computed via binary search.
+     */
+    private int lastStartingAt(double time) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (from[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
 
     /**
      * Returns the value of the signal at the given time.
@@ -146,7 +259,13 @@ public final class Signal implements Iterable<SignalSegment> {
      * @return the value of the signal at the given time.
      */
     public double valueAt(double time) {
-        return this.values.stream().filter(s -> s.contains(time)).findFirst().map(SignalSegment::getValue).orElse(Double.NaN);
+        double result = Double.NaN;
+        for (int i = lastStartingAt(time); (i >= 0)&&(to[i] >= time); i--) {
+            if (contains(i, time)) {
+                result = values[i];
+            }
+        }
+        return result;
     }
 
     /**
@@ -158,9 +277,9 @@ public final class Signal implements Iterable<SignalSegment> {
         double[] data = new double[times.length];
         Arrays.fill(data, Double.NaN);
         int idx = 0;
-        for (SignalSegment segment : values) {
-            while ((idx<times.length)&&(segment.contains(times[idx]))) {
-                data[idx++] = segment.getValue();
+        for (int i = 0; i < size; i++) {
+            while ((idx<times.length)&&(contains(i, times[idx]))) {
+                data[idx++] = values[i];
             }
         }
         return data;
@@ -173,18 +292,21 @@ public final class Signal implements Iterable<SignalSegment> {
      * @return true if the given time is inside the domain of this signal.
      */
     public boolean contains(double time) {
-        return !this.values.isEmpty()&&((this.values.getFirst().getFrom()>=time)||(this.values.getLast().getTo()>=time));
+        return (size > 0)&&((from[0]>=time)||(to[size - 1]>=time));
     }
 
     public static Signal apply(Signal s1, DoubleBinaryOperator op, Signal s2) {
         double start = Math.max(s1.getStart(), s2.getStart());
         double end = Math.min(s1.getEnd(), s2.getEnd());
-        double[] timeSteps = DoubleStream.concat(Arrays.stream(s1.getTimeSteps(start, end)), Arrays.stream(s2.getTimeSteps(start, end))).distinct().sorted().toArray();
+        double[] timeSteps = merge(s1.getTimeSteps(start, end), s2.getTimeSteps(start, end));
         double[] valuesOfSignal1 = s1.valuesAt(timeSteps);
         double[] valuesOfSignal2 = s2.valuesAt(timeSteps);
-        Signal result = new Signal();
         for (int i = 0; i < timeSteps.length; i++) {
-            result.add(timeSteps[i], op.applyAsDouble(valuesOfSignal1[i], valuesOfSignal2[i]));
+            valuesOfSignal1[i] = op.applyAsDouble(valuesOfSignal1[i], valuesOfSignal2[i]);
+        }
+        Signal result = new Signal(timeSteps.length);
+        for (int i = 0; i < timeSteps.length; i++) {
+            result.add(timeSteps[i], valuesOfSignal1[i]);
         }
         result.setEnd(end);
         return result;
@@ -192,59 +314,84 @@ public final class Signal implements Iterable<SignalSegment> {
 
 
     public static Signal apply(Signal s, DoubleUnaryOperator op) {
-        Signal result = new Signal();
-        for (SignalSegment signalSegment : s) {
-            result.add(signalSegment.apply(op));
+        Signal result = new Signal(s.size);
+        for (int i = 0; i < s.size; i++) {
+            result.add(s.from[i], s.to[i], s.rightClosed[i], op.applyAsDouble(s.values[i]));
         }
         return result;
     }
 
     public double[] values() {
-        return this.values.stream().mapToDouble(SignalSegment::getValue).toArray();
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the number of segments in this signal.
+     *
+     * @return the number of segments in this signal.
+     */
+    public int size() {
+        return size;
     }
 
 
     @Override
     public Iterator<SignalSegment> iterator() {
-        return values.iterator();
+        return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public SignalSegment next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                SignalSegment segment = new SignalSegment(from[next], to[next], rightClosed[next], values[next]);
+                next++;
+                return segment;
+            }
+        };
     }
 
     public double getEnd() {
-        if (this.values.isEmpty()) {
+        if (size == 0) {
             return Double.NaN;
         }
-        return this.values.getLast().getTo();
+        return to[size - 1];
     }
 
     public double getStart() {
-        if (this.values.isEmpty()) {
+        if (size == 0) {
             return Double.NaN;
         }
-        return this.values.getFirst().getFrom();
+        return from[0];
     }
 
     @Override
     public String toString() {
-        return this.values.stream().map(Object::toString).collect(Collectors.joining(" -- "));
+        return IntStream.range(0, size).mapToObj(i -> new SignalSegment(from[i], to[i], rightClosed[i], values[i]).toString()).collect(Collectors.joining(" -- "));
     }
 
 
     public void setEnd(double end) {
-        if (this.values.isEmpty()) throw new IllegalArgumentException();
-        SignalSegment last = this.values.getLast();
-        last.extendsInterval(end);
-        last.closeOnRight();
+        if (size == 0) throw new IllegalArgumentException();
+        extendsInterval(size - 1, end);
+        rightClosed[size - 1] = true;
     }
 
 
     public Signal extract(double from) {
-        Signal result = new Signal();
-        for (SignalSegment signalSegment : this) {
-            if (signalSegment.getFrom()>=from) {
-                result.add(signalSegment);
+        Signal result = new Signal(size);
+        for (int i = 0; i < size; i++) {
+            if (this.from[i]>=from) {
+                result.add(this.from[i], to[i], rightClosed[i], values[i]);
             } else {
-                if (signalSegment.contains(from)) {
-                    result.add(signalSegment.subSegment(from));
+                if (contains(i, from)) {
+                    result.add(from, to[i], rightClosed[i], values[i]);
                 }
             }
         }
@@ -252,14 +399,13 @@ public final class Signal implements Iterable<SignalSegment> {
     }
 
     public Signal truncate(double cutoffTime){
-        Signal result = new Signal();
-        for(SignalSegment ss : this){
-            if(ss.getTo() > cutoffTime){
-                if(ss.getFrom() < cutoffTime)
-                    result.add(new SignalSegment(ss.getFrom(),cutoffTime,true,ss.getValue()));
+        Signal result = new Signal(size);
+        for (int i = 0; i < size; i++) {
+            if (to[i] > cutoffTime) {
+                if (from[i] < cutoffTime)
+                    result.add(from[i], cutoffTime, true, values[i]);
             } else
-                result.add(new SignalSegment(ss.getFrom(), ss.getTo(),ss.isClosedOnRight(),ss.getValue()));
-
+                result.add(from[i], to[i], rightClosed[i], values[i]);
         }
         return result;
     }
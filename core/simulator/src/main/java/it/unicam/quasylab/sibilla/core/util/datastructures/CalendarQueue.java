@@ -0,0 +1,426 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util.datastructures;
+
+import it.unicam.quasylab.sibilla.core.util.SibillaMessages;
+
+/**
+ * A mutable priority queue of elements scheduled at given times, implemented as a calendar queue
+ * (R. Brown, "Calendar queues: a fast O(1) priority queue implementation for the simulation event set problem",
+ * CACM 1988). Elements are stored in buckets covering time intervals of the same width, and both the number of
+ * buckets and their width are adapted to the number of stored elements. When scheduled times are evenly
+ * distributed, insertion, extraction of the next element and cancellation take constant amortized time.
+ * Elements scheduled at the same time are returned in insertion order. Elements scheduled at
+ * {@link Double#POSITIVE_INFINITY} (or at {@link Double#NaN}) are kept aside and returned after all the others.
+ *
+ * @param <T> type of scheduled elements.
+ */
+public final class CalendarQueue<T> {
+
+    private static final int MINIMUM_NUMBER_OF_BUCKETS = 16;
+
+    private static final int SAMPLE_SIZE = 25;
+
+    private static final double DEFAULT_WIDTH = 1.0;
+
+    /**
+     * Identifies an element scheduled in a queue. A handle can be used to cancel the scheduled element.
+     *
+     * @param <T> type of scheduled elements.
+     */
+    public static final class Handle<T> {
+
+        private final double time;
+
+        private final long order;
+
+        private final T element;
+
+        private Handle<T> next;
+
+        private boolean scheduled;
+
+        private Handle(double time, long order, T element) {
+            this.time = time;
+            this.order = order;
+            this.element = element;
+        }
+
+        /**
+         * Returns the time at which the element is scheduled.
+         *
+         * @return the time at which the element is scheduled.
+         */
+        public double getTime() {
+            return time;
+        }
+
+        /**
+         * Returns the scheduled element.
+         *
+         * @return the scheduled element.
+         */
+        public T getElement() {
+            return element;
+        }
+
+        /**
+         * Returns true if the element is still in the queue.
+         *
+         * @return true if the element is still in the queue.
+         */
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+        private boolean precedes(Handle<T> other) {
+            int c = Double.compare(this.time, other.time);
+            return (c < 0) || ((c == 0) && (this.order < other.order));
+        }
+    }
+
+    private Handle<T>[] buckets;
+
+    private double width;
+
+    private int calendarSize;
+
+    private Handle<T> overflow;
+
+    private int overflowSize;
+
+    private long counter;
+
+    private long currentSlot;
+
+    private int currentBucket;
+
+    /**
+     * Creates an empty queue.
+     */
+    public CalendarQueue() {
+        this(DEFAULT_WIDTH);
+    }
+
+    /**
+     * Creates an empty queue whose buckets initially cover intervals of the given width.
+     *
+     * @param width initial width of buckets.
+     */
+    public CalendarQueue(double width) {
+        if (!(width > 0) || !Double.isFinite(width)) {
+            throw new IllegalArgumentException(SibillaMessages.aPositiveValueIsExpected(width));
+        }
+        this.width = width;
+        this.buckets = newBuckets(MINIMUM_NUMBER_OF_BUCKETS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Handle<T>[] newBuckets(int size) {
+        return (Handle<T>[]) new Handle[size];
+    }
+
+    /**
+     * Schedules the given element at the given time.
+     *
+     * @param time the time at which the element is scheduled.
+     * @param element the element to schedule.
+     * @return the handle of the scheduled element.
+     * @throws IllegalArgumentException if time is {@link Double#NEGATIVE_INFINITY}.
+     */
+    public Handle<T> add(double time, T element) {
+        if (time == Double.NEGATIVE_INFINITY) {
+            throw new IllegalArgumentException("Elements cannot be scheduled at time "+time+"!");
+        }
+        Handle<T> handle = new Handle<>(time, counter++, element);
+        handle.scheduled = true;
+        if (Double.isFinite(time)) {
+            insert(handle);
+            if (calendarSize > 2 * buckets.length) {
+                resize(2 * buckets.length);
+            }
+        } else {
+            overflow = insert(overflow, handle);
+            overflowSize++;
+        }
+        return handle;
+    }
+
+    private void insert(Handle<T> handle) {
+        long slot = slotOf(handle.time);
+        if ((calendarSize == 0) || (slot < currentSlot)) {
+            moveTo(slot);
+        }
+        int idx = bucketOf(slot);
+        buckets[idx] = insert(buckets[idx], handle);
+        calendarSize++;
+    }
+
+    private static <T> Handle<T> insert(Handle<T> list, Handle<T> handle) {
+        if ((list == null) || handle.precedes(list)) {
+            handle.next = list;
+            return handle;
+        }
+        Handle<T> cursor = list;
+        while ((cursor.next != null) && cursor.next.precedes(handle)) {
+            cursor = cursor.next;
+        }
+        handle.next = cursor.next;
+        cursor.next = handle;
+        return list;
+    }
+
+    private long slotOf(double time) {
+        return (long) Math.floor(time / width);
+    }
+
+    private int bucketOf(long slot) {
+        return (int) Math.floorMod(slot, (long) buckets.length);
+    }
+
+    private void moveTo(long slot) {
+        this.currentSlot = slot;
+        this.currentBucket = bucketOf(slot);
+    }
+
+    /**
+     * Returns the handle of the next scheduled element, without removing it from the queue, or null if the queue
+     * is empty.
+     *
+     * @return the handle of the next scheduled element or null if the queue is empty.
+     */
+    public Handle<T> peek() {
+        if (calendarSize > 0) {
+            return buckets[nextBucket()];
+        }
+        return overflow;
+    }
+
+    /**
+     * Removes the next scheduled element from the queue and returns its handle, or null if the queue is empty.
+     *
+     * @return the handle of the next scheduled element or null if the queue is empty.
+     */
+    public Handle<T> poll() {
+        Handle<T> handle = doPoll();
+        if ((handle != null) && (buckets.length > MINIMUM_NUMBER_OF_BUCKETS) && (2 * calendarSize < buckets.length)) {
+            resize(buckets.length / 2);
+        }
+        return handle;
+    }
+
+    private Handle<T> doPoll() {
+        if (calendarSize > 0) {
+            int idx = nextBucket();
+            Handle<T> handle = buckets[idx];
+            buckets[idx] = handle.next;
+            calendarSize--;
+            return detach(handle);
+        }
+        if (overflow != null) {
+            Handle<T> handle = overflow;
+            overflow = handle.next;
+            overflowSize--;
+            return detach(handle);
+        }
+        return null;
+    }
+
+    private Handle<T> detach(Handle<T> handle) {
+        handle.next = null;
+        handle.scheduled = false;
+        return handle;
+    }
+
+    /**
+     * Returns the index of the bucket containing the next element. This method must be invoked only when the
+     * calendar is not empty.
+     */
+    private int nextBucket() {
+        for (int i = 0; i < buckets.length; i++) {
+            Handle<T> head = buckets[currentBucket];
+            if ((head != null) && (slotOf(head.time) <= currentSlot)) {
+                return currentBucket;
+            }
+            currentSlot++;
+            currentBucket = (currentBucket + 1 == buckets.length ? 0 : currentBucket + 1);
+        }
+        int best = -1;
+        for (int i = 0; i < buckets.length; i++) {
+            if ((buckets[i] != null) && ((best < 0) || buckets[i].precedes(buckets[best]))) {
+                best = i;
+            }
+        }
+        moveTo(slotOf(buckets[best].time));
+        return best;
+    }
+
+    /**
+     * Removes the element identified by the given handle from the queue.
+     *
+     * @param handle the handle of a scheduled element.
+     * @return true if the element was in the queue.
+     */
+    public boolean cancel(Handle<T> handle) {
+        if (!handle.scheduled) {
+            return false;
+        }
+        if (Double.isFinite(handle.time)) {
+            int idx = bucketOf(slotOf(handle.time));
+            buckets[idx] = remove(buckets[idx], handle);
+            calendarSize--;
+            if ((buckets.length > MINIMUM_NUMBER_OF_BUCKETS) && (2 * calendarSize < buckets.length)) {
+                resize(buckets.length / 2);
+            }
+        } else {
+            overflow = remove(overflow, handle);
+            overflowSize--;
+        }
+        detach(handle);
+        return true;
+    }
+
+    private static <T> Handle<T> remove(Handle<T> list, Handle<T> handle) {
+        if (list == handle) {
+            return handle.next;
+        }
+        Handle<T> cursor = list;
+        while (cursor.next != handle) {
+            cursor = cursor.next;
+        }
+        cursor.next = handle.next;
+        return list;
+    }
+
+    /**
+     * Removes from the queue the first element scheduled at the given time that is equal to the given one.
+     *
+     * @param time the time at which the element is scheduled.
+     * @param element the element to remove.
+     * @return true if the element was in the queue.
+     */
+    public boolean remove(double time, T element) {
+        Handle<T> cursor = (Double.isFinite(time) ? buckets[bucketOf(slotOf(time))] : overflow);
+        while (cursor != null) {
+            if ((Double.compare(cursor.time, time) == 0) && cursor.element.equals(element)) {
+                return cancel(cursor);
+            }
+            cursor = cursor.next;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the largest time at which an element is scheduled, or {@link Double#NaN} if the queue is empty.
+     * This method takes time linear in the number of scheduled elements, since all of them may have to be
+     * inspected.
+     *
+     * @return the largest time at which an element is scheduled.
+     */
+    public double getLastTime() {
+        if (overflow != null) {
+            Handle<T> last = overflow;
+            while (last.next != null) {
+                last = last.next;
+            }
+            return last.time;
+        }
+        double result = Double.NaN;
+        for (Handle<T> bucket : buckets) {
+            for (Handle<T> cursor = bucket; cursor != null; cursor = cursor.next) {
+                if (Double.isNaN(result) || (cursor.time > result)) {
+                    result = cursor.time;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of scheduled elements.
+     *
+     * @return the number of scheduled elements.
+     */
+    public int size() {
+        return calendarSize + overflowSize;
+    }
+
+    /**
+     * Returns true if no element is scheduled.
+     *
+     * @return true if no element is scheduled.
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Changes the number of buckets. The new width is estimated from the separation of the first scheduled
+     * elements, as suggested by Brown.
+     */
+    private void resize(int numberOfBuckets) {
+        int samples = Math.min(SAMPLE_SIZE, calendarSize);
+        Handle<T>[] sampled = newBuckets(samples);
+        for (int i = 0; i < samples; i++) {
+            sampled[i] = doPoll();
+        }
+        double newWidth = estimateWidth(sampled);
+        Handle<T>[] oldBuckets = this.buckets;
+        this.buckets = newBuckets(numberOfBuckets);
+        this.width = newWidth;
+        this.calendarSize = 0;
+        for (Handle<T> handle : sampled) {
+            handle.scheduled = true;
+            insert(handle);
+        }
+        for (Handle<T> bucket : oldBuckets) {
+            Handle<T> cursor = bucket;
+            while (cursor != null) {
+                Handle<T> next = cursor.next;
+                cursor.next = null;
+                insert(cursor);
+                cursor = next;
+            }
+        }
+    }
+
+    private double estimateWidth(Handle<T>[] sampled) {
+        if (sampled.length < 2) {
+            return width;
+        }
+        double average = (sampled[sampled.length - 1].time - sampled[0].time) / (sampled.length - 1);
+        double sum = 0.0;
+        int count = 0;
+        for (int i = 1; i < sampled.length; i++) {
+            double separation = sampled[i].time - sampled[i - 1].time;
+            if (separation <= 2 * average) {
+                sum += separation;
+                count++;
+            }
+        }
+        double result = 3 * sum / count;
+        return ((result > 0) && Double.isFinite(result) ? result : width);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util.datastructures;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A scheduler that is updated in place and that is based on a {@link CalendarQueue}. Methods that return a
+ * scheduler return this instance after the update, hence this scheduler can be used only when previous
+ * versions of the scheduler are not needed anymore (for instance, when a single simulation run is performed).
+ * <br>
+ * The handle of each scheduled element is recorded, so that {@link #unscheduled(double, Object)} cancels the
+ * element through its handle instead of searching it in the queue. Handles are also returned by
+ * {@link #add(Comparable, double)} and can be passed to {@link #cancel(CalendarQueue.Handle)}.
+ *
+ * @param <T> type of scheduled elements.
+ */
+public class CalendarScheduler<T extends Comparable<T>> implements Scheduler<T> {
+
+    private final CalendarQueue<T> queue;
+
+    private final Map<T, CalendarQueue.Handle<T>> handles = new HashMap<>();
+
+    /**
+     * Creates an empty scheduler.
+     */
+    public CalendarScheduler() {
+        this.queue = new CalendarQueue<>();
+    }
+
+    @Override
+    public CalendarScheduler<T> schedule(T element, double time) {
+        add(element, time);
+        return this;
+    }
+
+    /**
+     * Schedules the given element at the given time and returns its handle.
+     *
+     * @param element the element to schedule.
+     * @param time the time at which the element is scheduled.
+     * @return the handle of the scheduled element.
+     */
+    public CalendarQueue.Handle<T> add(T element, double time) {
+        CalendarQueue.Handle<T> handle = queue.add(time, element);
+        handles.putIfAbsent(element, handle);
+        return handle;
+    }
+
+    /**
+     * Removes the element identified by the given handle from this scheduler.
+     *
+     * @param handle the handle of a scheduled element.
+     * @return true if the element was scheduled.
+     */
+    public boolean cancel(CalendarQueue.Handle<T> handle) {
+        handles.remove(handle.getElement(), handle);
+        return queue.cancel(handle);
+    }
+
+    @Override
+    public double getNextTime() {
+        CalendarQueue.Handle<T> next = queue.peek();
+        return (next == null ? Double.NaN : next.getTime());
+    }
+
+    @Override
+    public double getLastTime() {
+        return queue.getLastTime();
+    }
+
+    @Override
+    public Optional<Pair<ScheduledElements<T>, Scheduler<T>>> scheduleNext() {
+        CalendarQueue.Handle<T> first = queue.poll();
+        if (first == null) {
+            return Optional.empty();
+        }
+        double time = first.getTime();
+        handles.remove(first.getElement(), first);
+        SibillaSet<T> elements = SibillaSet.of(first.getElement());
+        CalendarQueue.Handle<T> next = queue.peek();
+        while ((next != null) && (Double.compare(next.getTime(), time) == 0)) {
+            queue.poll();
+            handles.remove(next.getElement(), next);
+            elements = elements.add(next.getElement());
+            next = queue.peek();
+        }
+        return Optional.of(Pair.of(new ScheduledElements<>(time, elements), this));
+    }
+
+    @Override
+    public CalendarScheduler<T> unscheduled(double time, T activity) {
+        CalendarQueue.Handle<T> handle = handles.get(activity);
+        if ((handle != null) && (Double.compare(handle.getTime(), time) == 0)) {
+            cancel(handle);
+        } else {
+            // Only the handle of the first scheduled occurrence of an element is recorded.
+            queue.remove(time, activity);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
@@ -597,7 +597,7 @@ public final class SibillaMap<K extends Comparable<K>, V> implements Iterable<Ma
             if (this.leftNode == null) {
                 return Optional.of(Pair.of(this.entry, this.rightNode));
             }
-            return this.leftNode.removeFirst().map(Pair.combine(e -> e, n -> new Node<>(this.entry, n.rebalance(), rightNode)));
+            return this.leftNode.removeFirst().map(Pair.combine(e -> e, n -> new Node<>(this.entry, n, rightNode).rebalance()));
         }
 
         public Node<K,V> apply(K key, UnaryOperator<V> function) {
@@ -619,7 +619,7 @@ public final class SibillaMap<K extends Comparable<K>, V> implements Iterable<Ma
             if (compare < 0) {
                 return doApply(key, function, this.rightNode).map(p -> p.applyToSecond(this::setRightNode));
             }
-            return doApply(key, function, this.rightNode).map(p -> p.applyToSecond(this::setLeftNode));
+            return doApply(key, function, this.leftNode).map(p -> p.applyToSecond(this::setLeftNode));
         }
 
         private Node<K,V> set(V value) {
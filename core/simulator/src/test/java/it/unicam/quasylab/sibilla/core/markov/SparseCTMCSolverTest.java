@@ -0,0 +1,175 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import it.unicam.quasylab.sibilla.core.models.markov.CTMCModel;
+import it.unicam.quasylab.sibilla.core.models.markov.MappingStateUpdate;
+import it.unicam.quasylab.sibilla.core.models.util.MappingState;
+import it.unicam.quasylab.sibilla.core.models.util.VariableTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseCTMCSolverTest {
+
+    private static final double LAMBDA = 2.0;
+    private static final double MU = 3.0;
+
+    @Test
+    void testSparseMatrixMultiply() {
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(3);
+        builder.add(0, 1, 1.0);
+        builder.add(2, 0, 2.0);
+        builder.add(0, 1, 1.0);
+        builder.add(1, 1, 4.0);
+        SparseMatrix matrix = builder.build();
+        assertEquals(3, matrix.nonZeros());
+        assertEquals(2.0, matrix.get(0, 1));
+        assertEquals(0.0, matrix.get(1, 0));
+        double[] y = new double[3];
+        matrix.multiply(new double[] {1.0, 2.0, 3.0}, y);
+        assertArrayEquals(new double[] {4.0, 8.0, 2.0}, y, 1E-12);
+        assertEquals(2.0, matrix.transpose().get(1, 0));
+    }
+
+    @Test
+    void testTransientOfTwoStateChain() {
+        SparseTransientProbabilitySolver<Integer> solver = new SparseTransientProbabilitySolver<>(twoStateChain(), 1.0E-8, 0);
+        for (double t = 0.0; t < 3.0; t += 0.25) {
+            Map<Integer, Double> prob = solver.compute(t);
+            double expected = MU / (LAMBDA + MU) + LAMBDA / (LAMBDA + MU) * Math.exp(-(LAMBDA + MU) * t);
+            assertEquals(expected, prob.getOrDefault(0, 0.0), 1E-6);
+            assertEquals(1.0 - expected, prob.getOrDefault(1, 0.0), 1E-6);
+        }
+    }
+
+    @Test
+    void testTransientIsAProbabilityDistribution() {
+        ContinuousTimeMarkovChain<Integer> chain = birthDeathChain(50, 1.0, 2.0);
+        SparseTransientProbabilitySolver<Integer> sparse = new SparseTransientProbabilitySolver<>(chain, 1.0E-8, 0);
+        double[] vector = sparse.computeVector(5.0);
+        double total = 0.0;
+        for (double v : vector) {
+            assertTrue(v >= -1E-12);
+            total += v;
+        }
+        assertEquals(1.0, total, 1E-6);
+    }
+
+    @Test
+    void testSteadyStateOfTwoStateChain() {
+        for (SteadyStateSolver.Method method : SteadyStateSolver.Method.values()) {
+            SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(twoStateChain(), 0, 1E-12, method);
+            Map<Integer, Double> prob = solver.compute();
+            assertEquals(MU / (LAMBDA + MU), prob.get(0), 1E-8);
+            assertEquals(LAMBDA / (LAMBDA + MU), prob.get(1), 1E-8);
+        }
+    }
+
+    @Test
+    void testSteadyStateWithAbsorbingStates() {
+        ContinuousTimeMarkovChain<Integer> chain = new ContinuousTimeMarkovChain<>();
+        chain.add(0, Map.of(1, 1.0, 2, 3.0));
+        chain.add(1, new HashMap<>());
+        chain.add(2, new HashMap<>());
+        SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(chain, 0);
+        List<Set<Integer>> bscc = solver.computeBSCC();
+        assertEquals(2, bscc.size());
+        assertTrue(bscc.contains(Set.of(1)));
+        assertTrue(bscc.contains(Set.of(2)));
+        Map<Integer, Double> prob = solver.compute();
+        assertEquals(0.0, prob.getOrDefault(0, 0.0), 1E-10);
+        assertEquals(0.25, prob.get(1), 1E-10);
+        assertEquals(0.75, prob.get(2), 1E-10);
+    }
+
+    @Test
+    void testSteadyStateOfLargeBirthDeathChain() {
+        int size = 5000;
+        double birth = 1.0;
+        double death = 2.0;
+        ContinuousTimeMarkovChain<Integer> chain = birthDeathChain(size, birth, death);
+        SteadyStateSolver<Integer> solver = new SteadyStateSolver<>(chain, 0, 1E-12, SteadyStateSolver.Method.GAUSS_SEIDEL);
+        Map<Integer, Double> prob = solver.compute();
+        double rho = birth / death;
+        for (int i = 0; i < 10; i++) {
+            assertEquals((1 - rho) * Math.pow(rho, i), prob.get(i), 1E-6);
+        }
+    }
+
+    @Test
+    void testTransientOfLargeBirthDeathChainConvergesToSteadyState() {
+        int size = 5000;
+        ContinuousTimeMarkovChain<Integer> chain = birthDeathChain(size, 1.0, 2.0);
+        SparseTransientProbabilitySolver<Integer> solver = new SparseTransientProbabilitySolver<>(chain, 1.0E-8, 0);
+        Map<Integer, Double> prob = solver.compute(100.0);
+        assertEquals(0.5, prob.get(0), 1E-4);
+        assertEquals(0.25, prob.get(1), 1E-4);
+    }
+
+    @Test
+    void testSteadyStateOfGeneratedStateSpace() {
+        VariableTable variables = new VariableTable(1).record(0, "x", 0, 10);
+        CTMCModel model = new CTMCModel(variables, List.of(
+                new MappingStateUpdate(s -> s.getIntValue(0) < 10, s -> LAMBDA, Map.of(0, s -> s.getIntValue(0) + 1)),
+                new MappingStateUpdate(s -> s.getIntValue(0) > 0, s -> MU, Map.of(0, s -> s.getIntValue(0) - 1))
+        ), Map.of());
+        MappingState init = variables.getMappingStateOf(Map.of("x", 0));
+        IndexedContinuousTimeMarkovChain<MappingState> chain = model.generateStateSpace(init);
+        assertEquals(11, chain.size());
+        Map<MappingState, Double> prob = new SteadyStateSolver<>(chain, init, 1E-12, SteadyStateSolver.Method.GAUSS_SEIDEL).compute();
+        double rho = LAMBDA / MU;
+        double normalisation = (1 - Math.pow(rho, 11)) / (1 - rho);
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(Math.pow(rho, i) / normalisation, prob.get(variables.getMappingStateOf(Map.of("x", i))), 1E-8);
+        }
+    }
+
+    private ContinuousTimeMarkovChain<Integer> twoStateChain() {
+        ContinuousTimeMarkovChain<Integer> chain = new ContinuousTimeMarkovChain<>();
+        chain.add(0, Map.of(1, LAMBDA));
+        chain.add(1, Map.of(0, MU));
+        return chain;
+    }
+
+    private ContinuousTimeMarkovChain<Integer> birthDeathChain(int size, double birth, double death) {
+        ContinuousTimeMarkovChain<Integer> chain = new ContinuousTimeMarkovChain<>();
+        for (int i = 0; i < size; i++) {
+            Map<Integer, Double> row = new HashMap<>();
+            if (i < size - 1) {
+                row.put(i + 1, birth);
+            }
+            if (i > 0) {
+                row.put(i - 1, death);
+            }
+            chain.add(i, row);
+        }
+        return chain;
+    }
+
+}
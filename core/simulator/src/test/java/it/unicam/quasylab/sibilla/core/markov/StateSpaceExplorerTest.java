@@ -0,0 +1,120 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.markov;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSpaceExplorerTest {
+
+    private static final int SIDE = 150;
+
+    private Map<Integer, Double> gridStep(int state) {
+        int x = state / SIDE;
+        int y = state % SIDE;
+        Map<Integer, Double> next = new HashMap<>();
+        if (x + 1 < SIDE) next.put(state + SIDE, 1.0 + x);
+        if (x > 0) next.put(state - SIDE, 2.0);
+        if (y + 1 < SIDE) next.put(state + 1, 0.5);
+        if (y > 0) next.put(state - 1, 1.5 + y);
+        return next;
+    }
+
+    @Test
+    void testExploredChainAgreesWithSequentialGeneration() {
+        ContinuousTimeMarkovChain<Integer> expected = MarkovChain.generateMarkovChain(ContinuousTimeMarkovChain::new, 0, this::gridStep);
+        IndexedContinuousTimeMarkovChain<Integer> chain = new StateSpaceExplorer<>(this::gridStep).explore(0);
+        assertChainEquals(expected, chain);
+        assertEquals(0, chain.indexOf(0));
+    }
+
+    @Test
+    void testSpilledTransitionsAreRestored() throws IOException {
+        Path directory = Files.createTempDirectory("explorer");
+        ContinuousTimeMarkovChain<Integer> expected = MarkovChain.generateMarkovChain(ContinuousTimeMarkovChain::new, 0, this::gridStep);
+        IndexedContinuousTimeMarkovChain<Integer> chain = new StateSpaceExplorer<>(this::gridStep)
+                .setSpillDirectory(directory)
+                .explore(0);
+        assertChainEquals(expected, chain);
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testProgressIsReportedForEachLevel() {
+        List<StateSpaceExplorer.Progress> progress = new ArrayList<>();
+        IndexedContinuousTimeMarkovChain<Integer> chain = new StateSpaceExplorer<>(this::gridStep)
+                .setParallel(false)
+                .setProgressListener(progress::add)
+                .explore(0);
+        assertEquals(2 * SIDE - 1, progress.size());
+        StateSpaceExplorer.Progress last = progress.get(progress.size() - 1);
+        assertEquals(SIDE * SIDE, last.getStates());
+        assertEquals(0, last.getFrontier());
+        assertEquals(chain.getRates().nonZeros(), last.getTransitions());
+    }
+
+    @Test
+    void testStateIndexAssignsDenseIdentifiers() {
+        StateIndex<String> index = new StateIndex<>();
+        index.ensureCapacity(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.add("s" + i));
+        }
+        index.ensureCapacity(5000);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, index.add("s" + i));
+            assertEquals("s" + i, index.stateOf(i));
+        }
+        assertEquals(-1, index.indexOf("unknown"));
+        assertEquals(1000, index.size());
+    }
+
+    private void assertChainEquals(ContinuousTimeMarkovChain<Integer> expected, IndexedContinuousTimeMarkovChain<Integer> chain) {
+        assertEquals(expected.numberOfStates(), chain.size());
+        long transitions = 0;
+        for (Integer s : expected.getStates()) {
+            int i = chain.indexOf(s);
+            assertEquals(s, chain.stateOf(i));
+            Map<Integer, Double> row = gridStep(s);
+            for (Map.Entry<Integer, Double> e : row.entrySet()) {
+                assertEquals(e.getValue().doubleValue(), chain.getRates().get(i, chain.indexOf(e.getKey())));
+                transitions++;
+            }
+            assertEquals(expected.sumOfRow(s), chain.getExitRate(i), 1E-12);
+        }
+        assertEquals(transitions, chain.getRates().nonZeros());
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.lio;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.tools.ProbabilityMatrix;
+import it.unicam.quasylab.sibilla.core.tools.ProbabilityVector;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LIOCountingStateTest {
+
+    private static final int RUNS = 2000;
+
+    private LIOAgentDefinitions getAgentDefinition() {
+        return getAgentDefinition(0.3, 0.2, 0.5);
+    }
+
+    private LIOAgentDefinitions getAgentDefinition(double toBProbability, double toCProbability, double backProbability) {
+        LIOAgentDefinitions def = new LIOAgentDefinitions();
+        LIOAgent agentA = def.addAgent("A");
+        LIOAgent agentB = def.addAgent("B");
+        LIOAgent agentC = def.addAgent("C");
+        LIOAgentAction toB = def.addAction("toB", s -> toBProbability);
+        LIOAgentAction toC = def.addAction("toC", s -> toCProbability);
+        LIOAgentAction back = def.addAction("back", s -> backProbability);
+        agentA.addAction(toB, agentB);
+        agentA.addAction(toC, agentC);
+        agentB.addAction(back, agentA);
+        return def;
+    }
+
+    @Test
+    void stepShouldPreserveTheNumberOfAgents() {
+        LIOAgentDefinitions def = getAgentDefinition();
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        LIOCountingState state = new LIOCountingState(def, new int[]{1000000, 500000, 0});
+        for (int i = 0; i < 10; i++) {
+            state = state.step(rg, def.getAgentProbabilityMatrix(state));
+            assertEquals(1500000, state.size());
+            LIOCountingState current = state;
+            assertEquals(1500000, IntStream.range(0, 3).mapToDouble(j -> current.numberOf(def.getAgent(j))).sum());
+        }
+    }
+
+    @Test
+    void stepShouldBeStatisticallyEquivalentToIndividualSampling() {
+        LIOAgentDefinitions def = getAgentDefinition();
+        LIOAgent agentA = def.getAgent("A");
+        LIOAgent agentB = def.getAgent("B");
+        LIOAgent agentC = def.getAgent("C");
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        LIOCountingState counting = new LIOCountingState(def, new int[]{1000, 500, 0});
+        LIOIndividualState individual = new LIOIndividualState(def, IntStream.range(0, 1500).map(i -> (i < 1000 ? agentA.getIndex() : agentB.getIndex())).toArray());
+        double[] countingSum = new double[3];
+        double[] countingSquares = new double[3];
+        double[] individualSum = new double[3];
+        for (int i = 0; i < RUNS; i++) {
+            LIOCountingState nextCounting = counting.step(rg, def.getAgentProbabilityMatrix(counting));
+            LIOIndividualState nextIndividual = individual.step(rg, def.getAgentProbabilityMatrix(individual));
+            for (LIOAgent a : new LIOAgent[]{agentA, agentB, agentC}) {
+                double value = nextCounting.numberOf(a);
+                countingSum[a.getIndex()] += value;
+                countingSquares[a.getIndex()] += value * value;
+                individualSum[a.getIndex()] += nextIndividual.numberOf(a);
+            }
+        }
+        double[] expectedMean = new double[]{1000 * 0.5 + 500 * 0.5, 1000 * 0.3 + 500 * 0.5, 1000 * 0.2};
+        double[] expectedVariance = new double[]{
+                1000 * 0.25 + 500 * 0.25,
+                1000 * 0.3 * 0.7 + 500 * 0.25,
+                1000 * 0.2 * 0.8
+        };
+        for (int j = 0; j < 3; j++) {
+            double mean = countingSum[j] / RUNS;
+            double variance = countingSquares[j] / RUNS - mean * mean;
+            double tolerance = 5 * Math.sqrt(expectedVariance[j] / RUNS);
+            assertEquals(expectedMean[j], mean, tolerance);
+            assertEquals(expectedMean[j], individualSum[j] / RUNS, tolerance);
+            assertEquals(expectedVariance[j], variance, 0.15 * expectedVariance[j]);
+        }
+    }
+
+    @Test
+    void nextShouldBeEqualToTheAgentByAgentConvolution() {
+        LIOAgentDefinitions def = getAgentDefinition(0.25, 0.25, 0.5);
+        LIOCountingState state = new LIOCountingState(def, new int[]{6, 4, 2});
+        ProbabilityMatrix<LIOAgent> matrix = def.getAgentProbabilityMatrix(state);
+        ProbabilityVector<LIOCountingState> expected = new ProbabilityVector<>();
+        expected.add(new LIOCountingState(def), 1.0);
+        for (int i = 0; i < 3; i++) {
+            LIOAgent a = def.getAgent(i);
+            for (int k = 0; k < state.numberOf(a); k++) {
+                expected = expected.apply(LIOCountingState::add, matrix.getRowOf(a));
+            }
+        }
+        ProbabilityVector<LIOCountingState> actual = state.next(matrix);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(1.0, actual.getTotalProbability(), 1e-9);
+        ProbabilityVector<LIOCountingState> reference = expected;
+        actual.iterate((s, p) -> assertEquals(reference.getProbability(s), p, 1e-12));
+    }
+
+    @Test
+    void meanFieldStepShouldBeEqualToTheMatrixProduct() {
+        LIOAgentDefinitions def = getAgentDefinition();
+        LIOCountingState state = new LIOCountingState(def, new int[]{600, 300, 100});
+        LIOMeanFieldTrajectory trajectory = new LIOMeanFieldTrajectory(state);
+        LIOPopulationFraction expected = state.getPopulationFractionVector().multuply(def.getAgentProbabilityMatrix(state));
+        for (int j = 0; j < 3; j++) {
+            LIOAgent a = def.getAgent(j);
+            assertEquals(expected.fractionOf(a), trajectory.fractionOf(1, a), 1e-12);
+        }
+        assertEquals(0.6 * 0.5 + 0.3 * 0.5, trajectory.fractionOf(1, def.getAgent("A")), 1e-12);
+        assertEquals(0.6 * 0.3 + 0.3 * 0.5, trajectory.fractionOf(1, def.getAgent("B")), 1e-12);
+        assertEquals(0.6 * 0.2 + 0.1, trajectory.fractionOf(1, def.getAgent("C")), 1e-12);
+        assertEquals(1.0, trajectory.get(5).fractionOf(a -> true), 1e-9);
+    }
+
+}
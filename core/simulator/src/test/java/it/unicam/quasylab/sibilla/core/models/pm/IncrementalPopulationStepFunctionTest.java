@@ -0,0 +1,131 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncrementalPopulationStepFunctionTest {
+
+    private final static int S = 0;
+    private final static int I = 1;
+    private final static int R = 2;
+
+    private final static int REPLICAS = 2000;
+    private final static double DEADLINE = 5.0;
+
+    private final static PopulationRegistry REGISTRY = PopulationRegistry.createRegistry("S", "I", "R");
+
+    private static List<PopulationRule> getSIRRules() {
+        return List.of(
+                new ReactionRule("infection",
+                        new Population[]{new Population(S), new Population(I)},
+                        new Population[]{new Population(I), new Population(I)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(S, I), (now, s) -> SibillaValue.of(0.01 * s.getOccupancy(S) * s.getOccupancy(I)))),
+                new ReactionRule("recovery",
+                        new Population[]{new Population(I)},
+                        new Population[]{new Population(R)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(I), (now, s) -> SibillaValue.of(0.5 * s.getOccupancy(I)))),
+                new ReactionRule("loss",
+                        new Population[]{new Population(R)},
+                        new Population[]{new Population(S)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(R), (now, s) -> SibillaValue.of(0.1 * s.getOccupancy(R))))
+        );
+    }
+
+    private static PopulationModel getModel(PopulationSimulationEngine engine) {
+        return new PopulationModel(REGISTRY, getSIRRules(), Map.of(), Map.of(), engine);
+    }
+
+    @Test
+    void dependencyGraphShouldOnlyContainAffectedRules() {
+        RuleDependencyGraph graph = getModel(PopulationSimulationEngine.INCREMENTAL).getDependencyGraph();
+        assertArrayEquals(new int[]{0, 1}, graph.getDependentRules(0));
+        assertArrayEquals(new int[]{0, 1, 2}, graph.getDependentRules(1));
+        assertArrayEquals(new int[]{0, 2}, graph.getDependentRules(2));
+        assertEquals(0, graph.getVolatileRules().length);
+    }
+
+    @Test
+    void rulesWithoutDependenciesShouldBeVolatile() {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("r1", new Population[]{new Population(S)}, new Population[]{new Population(I)}, (now, s) -> SibillaValue.of(1.0)),
+                new ReactionRule("r2", new Population[]{new Population(I)}, new Population[]{new Population(R)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(I), (now, s) -> SibillaValue.of(1.0)))
+        );
+        RuleDependencyGraph graph = new RuleDependencyGraph(rules);
+        assertArrayEquals(new int[]{0}, graph.getVolatileRules());
+        assertArrayEquals(new int[]{1}, graph.getDependentRules(0));
+        assertArrayEquals(new int[]{1}, graph.getDependentRules(1));
+    }
+
+    @Test
+    void fractionsShouldDependOnPopulationSize() {
+        SpeciesDependencies fraction = SpeciesDependencies.fractionOf(S);
+        Update birth = new Update("birth");
+        birth.produce(I, 1);
+        Update move = new Update("move");
+        move.consume(I, 1);
+        move.produce(R, 1);
+        assertTrue(fraction.isAffectedBy(SpeciesDependencies.of(birth)));
+        assertFalse(fraction.isAffectedBy(SpeciesDependencies.of(move)));
+    }
+
+    @Test
+    void incrementalEngineShouldBeStatisticallyEquivalentToDirectMethod() {
+        double[] direct = sampleSusceptibles(getModel(PopulationSimulationEngine.DIRECT), new DefaultRandomGenerator(1));
+        double[] incremental = sampleSusceptibles(getModel(PopulationSimulationEngine.INCREMENTAL), new DefaultRandomGenerator(2));
+        double error = 4*Math.sqrt((direct[1] + incremental[1]) / REPLICAS);
+        assertEquals(direct[0], incremental[0], error);
+    }
+
+    private static double[] sampleSusceptibles(PopulationModel model, RandomGenerator rg) {
+        double sum = 0.0;
+        double squares = 0.0;
+        for (int i = 0; i < REPLICAS; i++) {
+            SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[]{90, 10, 0}));
+            cursor.start();
+            PopulationState state = cursor.currentState();
+            while ((cursor.time() < DEADLINE) && cursor.step()) {
+                if (cursor.time() < DEADLINE) {
+                    state = cursor.currentState();
+                }
+            }
+            sum += state.getOccupancy(S);
+            squares += state.getOccupancy(S) * state.getOccupancy(S);
+        }
+        double mean = sum / REPLICAS;
+        return new double[]{mean, squares / REPLICAS - mean * mean};
+    }
+
+}
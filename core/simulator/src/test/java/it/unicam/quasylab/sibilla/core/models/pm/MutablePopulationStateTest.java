@@ -0,0 +1,137 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutablePopulationStateTest {
+
+    private final static int SPECIES = 200;
+    private final static int STEPS = 200000;
+
+    /**
+     * A ring of species where each agent moves to the next species.
+     */
+    private static PopulationModel getRingModel(PopulationSimulationEngine engine) {
+        String[] names = new String[SPECIES];
+        List<PopulationRule> rules = new LinkedList<>();
+        for (int i = 0; i < SPECIES; i++) {
+            int from = i;
+            names[i] = "S" + i;
+            rules.add(new ReactionRule("move" + i,
+                    new Population[]{new Population(from)},
+                    new Population[]{new Population((from + 1) % SPECIES)},
+                    RatePopulationFunction.of(SpeciesDependencies.of(from), (now, s) -> SibillaValue.of(s.getOccupancy(from)))));
+        }
+        return new PopulationModel(PopulationRegistry.createRegistry(names), rules, Map.of(), Map.of(), engine);
+    }
+
+    private static PopulationState getInitialState() {
+        return new PopulationState(SPECIES, i -> 10);
+    }
+
+    @Test
+    void updateShouldBeAppliedInPlace() {
+        Update update = new Update("move");
+        update.consume(0, 1);
+        update.produce(1, 2);
+        MutablePopulationState state = new MutablePopulationState(new PopulationState(new int[]{3, 0}));
+        PopulationState snapshot = state.copy();
+        int[] vector = state.getPopulationVector();
+        state.update(update);
+        assertSame(vector, state.getPopulationVector());
+        assertArrayEquals(new int[]{2, 2}, state.getPopulationVector());
+        assertEquals(4.0, state.population());
+        assertArrayEquals(new int[]{3, 0}, snapshot.getPopulationVector());
+        assertEquals(3.0, snapshot.population());
+    }
+
+    @Test
+    void illegalUpdateShouldLeaveStateUnchanged() {
+        Update update = new Update("move");
+        update.produce(0, 1);
+        update.consume(1, 1);
+        MutablePopulationState state = new MutablePopulationState(new PopulationState(new int[]{3, 0}));
+        assertThrows(IllegalArgumentException.class, () -> state.update(update));
+        assertArrayEquals(new int[]{3, 0}, state.getPopulationVector());
+    }
+
+    @Test
+    void inPlaceEngineShouldFollowIncrementalEngine() {
+        SimulatorCursor<PopulationState> incremental = getRingModel(PopulationSimulationEngine.INCREMENTAL)
+                .createSimulationCursor(new DefaultRandomGenerator(1), r -> getInitialState());
+        SimulatorCursor<PopulationState> inPlace = getRingModel(PopulationSimulationEngine.IN_PLACE)
+                .createSimulationCursor(new DefaultRandomGenerator(1), r -> getInitialState());
+        incremental.start();
+        inPlace.start();
+        PopulationState first = inPlace.snapshot();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(incremental.step());
+            assertTrue(inPlace.step());
+            assertEquals(incremental.time(), inPlace.time());
+            assertArrayEquals(incremental.currentState().getPopulationVector(), inPlace.currentState().getPopulationVector());
+        }
+        assertArrayEquals(getInitialState().getPopulationVector(), first.getPopulationVector());
+    }
+
+    @Test
+    void inPlaceEngineShouldReduceAllocationRate() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        allocatedBytes(bean, PopulationSimulationEngine.INCREMENTAL);
+        allocatedBytes(bean, PopulationSimulationEngine.IN_PLACE);
+        long incremental = allocatedBytes(bean, PopulationSimulationEngine.INCREMENTAL);
+        long inPlace = allocatedBytes(bean, PopulationSimulationEngine.IN_PLACE);
+        assertTrue(2 * inPlace < incremental,
+                String.format("Allocated bytes per step: %d (incremental) %d (in place)", incremental / STEPS, inPlace / STEPS));
+    }
+
+    private static long allocatedBytes(com.sun.management.ThreadMXBean bean, PopulationSimulationEngine engine) {
+        SimulatorCursor<PopulationState> cursor = getRingModel(engine).createSimulationCursor(new DefaultRandomGenerator(1), r -> getInitialState());
+        cursor.start();
+        long threadId = Thread.currentThread().threadId();
+        long start = bean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < STEPS; i++) {
+            cursor.step();
+        }
+        return bean.getThreadAllocatedBytes(threadId) - start;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.models.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulatorCursor;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TauLeapingStepFunctionTest {
+
+    private final static int S = 0;
+    private final static int I = 1;
+    private final static int R = 2;
+
+    private final static int REPLICAS = 200;
+    private final static double DEADLINE = 5.0;
+
+    private final static PopulationRegistry REGISTRY = PopulationRegistry.createRegistry("S", "I", "R");
+
+    private static List<PopulationRule> getSIRRules() {
+        return List.of(
+                new ReactionRule("infection",
+                        new Population[]{new Population(S), new Population(I)},
+                        new Population[]{new Population(I), new Population(I)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(S, I), (now, s) -> SibillaValue.of(0.0001 * s.getOccupancy(S) * s.getOccupancy(I)))),
+                new ReactionRule("recovery",
+                        new Population[]{new Population(I)},
+                        new Population[]{new Population(R)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(I), (now, s) -> SibillaValue.of(0.5 * s.getOccupancy(I))))
+        );
+    }
+
+    private static PopulationModel getModel(PopulationSimulationEngine engine) {
+        return new PopulationModel(REGISTRY, getSIRRules(), Map.of(), Map.of(), engine);
+    }
+
+    @Test
+    void tauLeapingShouldBeStatisticallyEquivalentToDirectMethod() {
+        double[] direct = sampleSusceptibles(getModel(PopulationSimulationEngine.DIRECT), new DefaultRandomGenerator(1));
+        double[] tau = sampleSusceptibles(getModel(PopulationSimulationEngine.TAU_LEAPING), new DefaultRandomGenerator(2));
+        assertEquals(direct[0], tau[0], 4*Math.sqrt((direct[1] + tau[1]) / REPLICAS) + 0.01 * direct[0]);
+        assertTrue(tau[2] < direct[2] / 4);
+    }
+
+    @Test
+    void hybridShouldBeStatisticallyEquivalentToDirectMethod() {
+        double[] direct = sampleSusceptibles(getModel(PopulationSimulationEngine.DIRECT), new DefaultRandomGenerator(3));
+        double[] hybrid = sampleSusceptibles(getModel(PopulationSimulationEngine.HYBRID), new DefaultRandomGenerator(4));
+        assertEquals(direct[0], hybrid[0], 4*Math.sqrt((direct[1] + hybrid[1]) / REPLICAS) + 0.01 * direct[0]);
+        assertTrue(hybrid[2] < direct[2]);
+    }
+
+    @Test
+    void populationShouldNeverBecomeNegative() {
+        RandomGenerator rg = new DefaultRandomGenerator(5);
+        TauLeapingStepFunction function = new TauLeapingStepFunction(getSIRRules(), TauLeapingParameters.DEFAULT.withCriticalThreshold(0), false);
+        PopulationState state = new PopulationState(new int[]{9900, 100, 0});
+        double time = 0.0;
+        while (time < 50.0) {
+            var step = function.next(rg, time, state);
+            if (step.isEmpty()) {
+                break;
+            }
+            time += step.get().getTime();
+            state = step.get().getValue();
+            for (int i = 0; i < state.size(); i++) {
+                assertTrue(state.getOccupancy(i) >= 0);
+            }
+            assertEquals(10000, state.population());
+        }
+    }
+
+    @Test
+    void zeroOrderRulesShouldBeSimulatedWithExactSteps() {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("production",
+                        new Population[0],
+                        new Population[]{new Population(0)},
+                        RatePopulationFunction.of(SpeciesDependencies.NONE, (now, s) -> SibillaValue.of(20.0)))
+        );
+        double[] sample = sampleSingleSpecies(rules, new DefaultRandomGenerator(6), false);
+        assertEquals(200.0, sample[0], 4 * Math.sqrt(sample[1] / REPLICAS) + 1.0);
+    }
+
+    @Test
+    void immigrationWithCriticalDeathShouldNotFail() {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("immigration",
+                        new Population[0],
+                        new Population[]{new Population(0)},
+                        RatePopulationFunction.of(SpeciesDependencies.NONE, (now, s) -> SibillaValue.of(5.0))),
+                new ReactionRule("death",
+                        new Population[]{new Population(0)},
+                        new Population[0],
+                        RatePopulationFunction.of(SpeciesDependencies.of(0), (now, s) -> SibillaValue.of(s.getOccupancy(0))))
+        );
+        for (boolean hybrid : new boolean[]{false, true}) {
+            double[] sample = sampleSingleSpecies(rules, new DefaultRandomGenerator(7), hybrid);
+            assertEquals(5.0, sample[0], 4 * Math.sqrt(sample[1] / REPLICAS) + 0.1);
+        }
+    }
+
+    @Test
+    void parametersShouldBeValidated() {
+        assertThrows(IllegalArgumentException.class, () -> TauLeapingParameters.DEFAULT.withEpsilon(0.0));
+        assertThrows(IllegalArgumentException.class, () -> TauLeapingParameters.DEFAULT.withCriticalThreshold(-1));
+    }
+
+    /**
+     * Returns mean and variance at time 10 of the only species of a model starting from the empty population.
+     */
+    private static double[] sampleSingleSpecies(List<PopulationRule> rules, RandomGenerator rg, boolean hybrid) {
+        double sum = 0.0;
+        double squares = 0.0;
+        for (int i = 0; i < REPLICAS; i++) {
+            TauLeapingStepFunction function = new TauLeapingStepFunction(rules, TauLeapingParameters.DEFAULT, hybrid);
+            PopulationState state = new PopulationState(new int[]{0});
+            double time = 0.0;
+            while (true) {
+                var step = function.next(rg, time, state);
+                assertTrue(step.isPresent());
+                time += step.get().getTime();
+                if (time >= 10.0) {
+                    break;
+                }
+                state = step.get().getValue();
+                assertTrue(state.getOccupancy(0) >= 0);
+            }
+            sum += state.getOccupancy(0);
+            squares += state.getOccupancy(0) * state.getOccupancy(0);
+        }
+        double mean = sum / REPLICAS;
+        return new double[]{mean, squares / REPLICAS - mean * mean};
+    }
+
+    /**
+     * Returns mean and variance of susceptibles at the deadline together with the average number of steps.
+     */
+    private static double[] sampleSusceptibles(PopulationModel model, RandomGenerator rg) {
+        double sum = 0.0;
+        double squares = 0.0;
+        long steps = 0;
+        for (int i = 0; i < REPLICAS; i++) {
+            SimulatorCursor<PopulationState> cursor = model.createSimulationCursor(rg, r -> new PopulationState(new int[]{9900, 100, 0}));
+            cursor.start();
+            PopulationState state = cursor.currentState();
+            while ((cursor.time() < DEADLINE) && cursor.step()) {
+                steps++;
+                if (cursor.time() < DEADLINE) {
+                    state = cursor.currentState();
+                }
+            }
+            sum += state.getOccupancy(S);
+            squares += state.getOccupancy(S) * state.getOccupancy(S);
+        }
+        double mean = sum / REPLICAS;
+        return new double[]{mean, squares / REPLICAS - mean * mean, ((double) steps) / REPLICAS};
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.slam;
+
+import it.unicam.quasylab.sibilla.core.models.slam.agents.*;
+import it.unicam.quasylab.sibilla.core.models.slam.data.AgentStore;
+import it.unicam.quasylab.sibilla.core.models.slam.data.SlamType;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.util.datastructures.*;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlamStateTest {
+
+    private final static int SEED = 7;
+
+    private final static int[] RECEIVERS = { 1, 3, 5, 7, 9, 10 };
+
+    private MessageTag ping;
+
+    private SlamState state;
+
+    @BeforeEach
+    void setUp() {
+        MessageRepository messages = new MessageRepository();
+        ping = messages.addTag("ping", new SlamType[0]);
+        MessageTag pong = messages.addTag("pong", new SlamType[0]);
+        SlamAgentDefinitions definitions = new SlamAgentDefinitions();
+
+        SlamAgentBehaviour senderBehaviour = new SlamAgentBehaviour();
+        senderBehaviour.addState("send");
+        SlamAgentState send = senderBehaviour.getAgentState("send");
+        OutgoingMessage message = new OutgoingMessage(new AgentMessage(ping, new SibillaValue[0], a -> true), (rg, m) -> 1.0 + rg.nextInt(3));
+        senderBehaviour.setTimeDependentStep("send", (rg, m) -> 1.0, (rg, m) -> Optional.of(new SlamAgentStepEffect(send, List.of(message), m)));
+        SlamAgentPrototype sender = prototype(definitions, "Sender", senderBehaviour);
+
+        SlamAgentBehaviour listenerBehaviour = new SlamAgentBehaviour();
+        listenerBehaviour.addState("idle");
+        listenerBehaviour.addMessageHandler("idle", handlerOf(ping));
+        SlamAgentPrototype listener = prototype(definitions, "Listener", listenerBehaviour);
+
+        SlamAgentBehaviour deafBehaviour = new SlamAgentBehaviour();
+        deafBehaviour.addState("deaf");
+        deafBehaviour.addMessageHandler("deaf", handlerOf(pong));
+        SlamAgentPrototype deaf = prototype(definitions, "Deaf", deafBehaviour);
+
+        SlamAgentPrototype bare = prototype(definitions, "Bare", null);
+        SlamAgentState handling = new SlamAgentState(0, "handling");
+        handling.addMessageHandler(handlerOf(ping));
+        SlamAgentState ignoring = new SlamAgentState(1, "ignoring");
+
+        Map<Integer, SlamAgent> agents = new HashMap<>();
+        agents.put(0, new SlamAgent(sender, 0, send, new AgentStore(), 1.0));
+        for (int i = 1; i < 10; i++) {
+            if (i % 2 == 1) {
+                agents.put(i, new SlamAgent(listener, i, listenerBehaviour.getAgentState("idle"), new AgentStore(), Double.POSITIVE_INFINITY));
+            } else {
+                agents.put(i, new SlamAgent(deaf, i, deafBehaviour.getAgentState("deaf"), new AgentStore(), Double.POSITIVE_INFINITY));
+            }
+        }
+        agents.put(10, new SlamAgent(bare, 10, handling, new AgentStore(), Double.POSITIVE_INFINITY));
+        agents.put(11, new SlamAgent(bare, 11, ignoring, new AgentStore(), Double.POSITIVE_INFINITY));
+        state = new SlamState(new Activity.ActivityFactory(), 0.0, SibillaMap.of(agents), new MapScheduler<>(), new SibillaMap<>());
+    }
+
+    @Test
+    void receiversWithoutHandlerShouldBeSkipped() {
+        Set<Integer> receivers = new TreeSet<>();
+        deliveries(state.executeAgentStep(new DefaultRandomGenerator(SEED), 0)).values().forEach(ids -> Arrays.stream(ids).forEach(receivers::add));
+        assertEquals(Set.of(1, 3, 5, 7, 9, 10), receivers);
+    }
+
+    @Test
+    void deliveriesAtTheSameTimeShouldBeBatched() {
+        Map<Double, int[]> deliveries = deliveries(state.executeAgentStep(new DefaultRandomGenerator(SEED), 0));
+        int scheduled = deliveries.values().stream().mapToInt(ids -> ids.length).sum();
+        assertEquals(RECEIVERS.length, scheduled);
+        assertTrue(deliveries.size() < RECEIVERS.length);
+    }
+
+    @Test
+    void deliveryTimesShouldBeDrawnInReceiverOrder() {
+        RandomGenerator rg = new DefaultRandomGenerator(SEED);
+        Map<Double, List<Integer>> expected = new TreeMap<>();
+        for (int id : RECEIVERS) {
+            expected.computeIfAbsent(1.0 + rg.nextInt(3), t -> new ArrayList<>()).add(id);
+        }
+        Map<Double, int[]> deliveries = deliveries(state.executeAgentStep(new DefaultRandomGenerator(SEED), 0));
+        assertEquals(expected.keySet(), deliveries.keySet());
+        for (Map.Entry<Double, List<Integer>> entry : expected.entrySet()) {
+            assertArrayEquals(entry.getValue().stream().mapToInt(Integer::intValue).toArray(), deliveries.get(entry.getKey()));
+        }
+    }
+
+    private static SlamAgentPrototype prototype(SlamAgentDefinitions definitions, String name, SlamAgentBehaviour behaviour) {
+        SlamAgentPrototype prototype = new SlamAgentPrototype(definitions.addAgent(name), new SlamType[0]);
+        prototype.setAgentBehaviour(behaviour);
+        return prototype;
+    }
+
+    private static MessageHandler handlerOf(MessageTag tag) {
+        return new MessageHandler(tag, (store, values) -> store, (store, sender) -> true, (rg, store) -> true, (rg, store) -> Optional.empty());
+    }
+
+    private static Map<Double, int[]> deliveries(SlamState state) {
+        Map<Double, int[]> deliveries = new TreeMap<>();
+        Optional<Pair<ScheduledElements<Activity>, Scheduler<Activity>>> next = state.getScheduledActivities().scheduleNext();
+        while (next.isPresent()) {
+            ScheduledElements<Activity> elements = next.get().getKey();
+            for (Activity activity : elements.getScheduledElements()) {
+                if (activity instanceof Activity.BroadcastDeliveryActivity) {
+                    assertNull(deliveries.put(elements.getTime(), ((Activity.BroadcastDeliveryActivity) activity).getReceivers()));
+                }
+            }
+            next = next.get().getValue().scheduleNext();
+        }
+        return deliveries;
+    }
+
+}
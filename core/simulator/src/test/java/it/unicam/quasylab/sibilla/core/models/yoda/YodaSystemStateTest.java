@@ -0,0 +1,144 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.models.yoda;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.util.WeightedLinkedList;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YodaSystemStateTest {
+
+    private final static int AGENTS = 300;
+
+    private final static int STEPS = 20;
+
+    private final static YodaVariable X = new YodaVariable(0, "x");
+
+    private final static YodaVariable O = new YodaVariable(1, "o");
+
+    private final static YodaAction UP = YodaAction.getAction("up",
+            (rg, state, observations) -> state.setValue(X, SibillaValue.of(state.getValue(X).doubleOf() + rg.nextDouble())));
+
+    private final static YodaAction DOWN = YodaAction.getAction("down",
+            (rg, state, observations) -> state.setValue(X, SibillaValue.of(state.getValue(X).doubleOf() - rg.nextDouble())));
+
+    @Test
+    void trajectoriesShouldNotDependOnTheNumberOfThreads() throws ExecutionException, InterruptedException {
+        double[] expected = simulate(1);
+        for (int threads : new int[] { 2, 4, 8 }) {
+            double[] values = simulate(threads);
+            for (int i = 0; i < AGENTS; i++) {
+                assertEquals(Double.doubleToRawLongBits(expected[i]), Double.doubleToRawLongBits(values[i]));
+            }
+        }
+    }
+
+    @Test
+    void agentsShouldUseDifferentStreams() throws ExecutionException, InterruptedException {
+        double[] values = simulate(1);
+        assertNotEquals(values[0], values[1]);
+    }
+
+    @Test
+    void nextShouldNotChangeTheState() {
+        YodaSystemState state = initialState(false).next(new DefaultRandomGenerator(42), 0.0).getValue();
+        double[] first = valuesOf(state.next(new DefaultRandomGenerator(7), 1.0).getValue());
+        double[] second = valuesOf(state.next(new DefaultRandomGenerator(7), 1.0).getValue());
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    void streamsShouldDependOnAgentIdsAndNotOnPositions() {
+        YodaSystemState state = initialState(false);
+        YodaSystemState reversed = initialState(true);
+        RandomGenerator rg = new DefaultRandomGenerator(42);
+        RandomGenerator rgReversed = new DefaultRandomGenerator(42);
+        double time = 0.0;
+        for (int i = 0; i < STEPS; i++) {
+            state = state.next(rg, time).getValue();
+            reversed = reversed.next(rgReversed, time).getValue();
+            time += 1.0;
+        }
+        double[] values = valuesOf(state);
+        double[] reversedValues = valuesOf(reversed);
+        for (int i = 0; i < AGENTS; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(reversedValues[AGENTS - 1 - i]));
+        }
+    }
+
+    private double[] simulate(int threads) throws ExecutionException, InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> {
+                RandomGenerator rg = new DefaultRandomGenerator(42);
+                YodaSystemState state = initialState(false);
+                double time = 0.0;
+                for (int i = 0; i < STEPS; i++) {
+                    state = state.next(rg, time).getValue();
+                    time += 1.0;
+                }
+                return valuesOf(state);
+            }).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private double[] valuesOf(YodaSystemState state) {
+        return state.getAgents().stream().mapToDouble(a -> a.get(X).doubleOf()).toArray();
+    }
+
+    private YodaSystemState initialState(boolean reversed) {
+        YodaElementName name = new YodaElementName("walker", 0);
+        YodaBehaviour behaviour = (attributes, observations) -> new WeightedLinkedList<YodaAction>()
+                .add(1.0, UP)
+                .add(observations.getValue(O).doubleOf(), DOWN);
+        List<YodaAgent> agents = new ArrayList<>();
+        for (int i = 0; i < AGENTS; i++) {
+            agents.add(new YodaAgent(i, name,
+                    new YodaVariableMapping(Map.of(X, SibillaValue.of(0.0))),
+                    new YodaVariableMapping(),
+                    new YodaVariableMapping(Map.of(O, SibillaValue.of(0.0))),
+                    behaviour,
+                    (rg, state, agent) -> new YodaVariableMapping(Map.of(O, SibillaValue.of(rg.nextDouble()))),
+                    (rg, dt, attributes, environment) -> environment));
+        }
+        if (reversed) {
+            Collections.reverse(agents);
+        }
+        return new YodaSystemState(agents, List.of());
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedSimulationManagerTest {
+
+    private static PopulationModel getModel() {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("decay",
+                        new Population[]{new Population(0)},
+                        new Population[]{new Population(1)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(0), (now, s) -> SibillaValue.of(s.getOccupancy(0))))
+        );
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B"), rules, Map.of(), Map.of());
+    }
+
+    private static SamplingHandler<PopulationState> countingHandler(LongAdder counter) {
+        return new SamplingHandler<>() {
+            @Override
+            public void start() { }
+
+            @Override
+            public void sample(double time, PopulationState state) { }
+
+            @Override
+            public void end(double time) {
+                counter.increment();
+            }
+        };
+    }
+
+    private static SimulationUnit<PopulationState> getUnit(LongAdder counter) {
+        Function<RandomGenerator, PopulationState> initialState = rg -> new PopulationState(new int[]{5, 0});
+        return new SimulationUnit<>(getModel()::createSimulationCursor, initialState, () -> countingHandler(counter), (t, s) -> t >= 1.0);
+    }
+
+    @Test
+    void allReplicasShouldBeExecutedOnForkJoinPool() throws InterruptedException {
+        allReplicasShouldBeExecuted(ChunkedSimulationManager.getForkJoinSimulationManagerFactory(4));
+    }
+
+    @Test
+    void allReplicasShouldBeExecutedOnVirtualThreads() throws InterruptedException {
+        allReplicasShouldBeExecuted(ChunkedSimulationManager.getVirtualThreadSimulationManagerFactory());
+    }
+
+    private void allReplicasShouldBeExecuted(SimulationManagerFactory factory) throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        SimulationEnvironment environment = new SimulationEnvironment(factory);
+        environment.simulate(null, new DefaultRandomGenerator(0), getModel(), rg -> new PopulationState(new int[]{5, 0}),
+                () -> countingHandler(counter), 20000, 1.0);
+        assertEquals(20000, counter.sum());
+    }
+
+    @Test
+    void chunksShouldGrowWhenReplicasAreFast() throws InterruptedException {
+        ChunkedSimulationManager<PopulationState> manager = new ChunkedSimulationManager<>(ForkJoinPool.commonPool(), new DefaultRandomGenerator(0), null);
+        LongAdder counter = new LongAdder();
+        SimulationUnit<PopulationState> unit = getUnit(counter);
+        for (int i = 0; i < 10000; i++) {
+            manager.simulate(unit);
+        }
+        manager.join();
+        assertEquals(10000, counter.sum());
+        assertEquals(0, manager.pendingTasks());
+        assertTrue(manager.getChunkSize() > 1);
+    }
+
+    @Test
+    void manyChunksShouldBeInFlightAtTheSameTime() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = blockExecutor(executor);
+        ChunkedSimulationManager<PopulationState> manager = new ChunkedSimulationManager<>(executor, new DefaultRandomGenerator(0), null);
+        LongAdder counter = new LongAdder();
+        SimulationUnit<PopulationState> unit = getUnit(counter);
+        for (int i = 0; i < 70000; i++) {
+            manager.simulate(unit);
+        }
+        assertEquals(1, manager.getChunkSize());
+        latch.countDown();
+        manager.join();
+        assertEquals(70000, counter.sum());
+        assertEquals(0, manager.pendingTasks());
+        manager.shutdown();
+    }
+
+    @Test
+    void failuresOfReplicasShouldBeRethrownByJoin() throws InterruptedException {
+        ChunkedSimulationManager<PopulationState> manager = new ChunkedSimulationManager<>(ForkJoinPool.commonPool(), new DefaultRandomGenerator(0), null);
+        LongAdder counter = new LongAdder();
+        SimulationUnit<PopulationState> unit = getUnit(counter);
+        Supplier<SamplingHandler<PopulationState>> failingHandler = () -> {
+            throw new IllegalArgumentException("failure");
+        };
+        Function<RandomGenerator, PopulationState> initialState = rg -> new PopulationState(new int[]{5, 0});
+        SimulationUnit<PopulationState> failing = new SimulationUnit<>(getModel()::createSimulationCursor, initialState, failingHandler, (t, s) -> t >= 1.0);
+        for (int i = 0; i < 100; i++) {
+            manager.simulate(i == 50 ? failing : unit);
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, manager::join);
+        assertEquals("failure", e.getMessage());
+        assertEquals(99, counter.sum());
+        manager.simulate(unit);
+        manager.join();
+        assertEquals(100, counter.sum());
+    }
+
+    private static CountDownLatch blockExecutor(ExecutorService executor) {
+        CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return latch;
+    }
+
+    @Test
+    void pendingReplicasShouldBeSkippedAfterShutdown() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = blockExecutor(executor);
+        ChunkedSimulationManager<PopulationState> manager = new ChunkedSimulationManager<>(executor, new DefaultRandomGenerator(0), null);
+        LongAdder counter = new LongAdder();
+        SimulationUnit<PopulationState> unit = getUnit(counter);
+        for (int i = 0; i < 1000; i++) {
+            manager.simulate(unit);
+        }
+        manager.shutdown();
+        latch.countDown();
+        manager.join();
+        assertEquals(0, manager.pendingTasks());
+        assertEquals(0, counter.sum());
+        assertThrows(IllegalStateException.class, () -> manager.simulate(unit));
+    }
+
+    @Test
+    void partiallyFilledChunksShouldBeCancelledOnShutdown() throws InterruptedException {
+        ChunkedSimulationManager<PopulationState> manager = new ChunkedSimulationManager<>(Executors.newWorkStealingPool(), new DefaultRandomGenerator(0), null);
+        LongAdder counter = new LongAdder();
+        SimulationUnit<PopulationState> unit = getUnit(counter);
+        for (int round = 0; (round < 100) && (manager.getChunkSize() == 1); round++) {
+            for (int i = 0; i < 1000; i++) {
+                manager.simulate(unit);
+            }
+            manager.join();
+        }
+        long executed = counter.sum();
+        int buffered = manager.getChunkSize() - 1;
+        assertTrue(buffered > 0);
+        for (int i = 0; i < buffered; i++) {
+            manager.simulate(unit);
+        }
+        assertEquals(buffered, manager.pendingTasks());
+        manager.shutdown();
+        assertEquals(0, manager.pendingTasks());
+        manager.join();
+        assertEquals(executed, counter.sum());
+    }
+
+}
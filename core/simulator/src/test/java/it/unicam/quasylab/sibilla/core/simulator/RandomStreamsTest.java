@@ -0,0 +1,119 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomStreamsTest {
+
+    private final static int REPLICAS = 200;
+
+    @Test
+    void streamsShouldOnlyDependOnSeedAndReplica() {
+        RandomStreams streams = new RandomStreams(42);
+        RandomGenerator first = streams.getStream(3);
+        RandomGenerator second = new RandomStreams(42).getStream(3);
+        RandomGenerator other = streams.getStream(4);
+        boolean different = false;
+        for (int i = 0; i < 100; i++) {
+            double value = first.nextDouble();
+            assertEquals(value, second.nextDouble());
+            different |= (value != other.nextDouble());
+        }
+        assertTrue(different);
+    }
+
+    @Test
+    void serializedStreamsShouldRestartFromTheBeginning() throws IOException, ClassNotFoundException {
+        RandomGenerator stream = new RandomStreams(7).getStream(0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(stream);
+        }
+        RandomGenerator copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (RandomGenerator) in.readObject();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(stream.nextLong(), copy.nextLong());
+        }
+    }
+
+    @Test
+    void unknownAlgorithmsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RandomStreams("NoSuchRandom", 0));
+    }
+
+    @Test
+    void resultsShouldNotDependOnSimulationManager() throws InterruptedException {
+        List<String> sequential = simulate(SimulationEnvironment.DEFAULT_FACTORY);
+        assertEquals(sequential, simulate(ThreadSimulationManager.getFixedThreadSimulationManagerFactory(4)));
+        assertEquals(sequential, simulate(ChunkedSimulationManager.getForkJoinSimulationManagerFactory(4)));
+    }
+
+    private static List<String> simulate(SimulationManagerFactory factory) throws InterruptedException {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("infection",
+                        new Population[]{new Population(0), new Population(1)},
+                        new Population[]{new Population(1), new Population(1)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(0, 1), (now, s) -> SibillaValue.of(0.01 * s.getOccupancy(0) * s.getOccupancy(1)))),
+                new ReactionRule("recovery",
+                        new Population[]{new Population(1)},
+                        new Population[]{new Population(2)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(1), (now, s) -> SibillaValue.of(0.5 * s.getOccupancy(1))))
+        );
+        PopulationModel model = new PopulationModel(PopulationRegistry.createRegistry("S", "I", "R"), rules, Map.of(), Map.of());
+        ConcurrentLinkedQueue<String> results = new ConcurrentLinkedQueue<>();
+        new SimulationEnvironment(factory).simulate(null, new DefaultRandomGenerator(11), model,
+                rg -> new PopulationState(new int[]{90, 10, 0}), () -> new SamplingHandler<>() {
+                    private PopulationState last;
+
+                    @Override
+                    public void start() { }
+
+                    @Override
+                    public void sample(double time, PopulationState state) {
+                        last = state;
+                    }
+
+                    @Override
+                    public void end(double time) {
+                        results.add(time + ":" + last.getOccupancy(0) + ":" + last.getOccupancy(2));
+                    }
+                }, REPLICAS, 5.0);
+        return results.stream().sorted().toList();
+    }
+
+}
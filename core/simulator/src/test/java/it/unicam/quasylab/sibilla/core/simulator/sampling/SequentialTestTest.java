@@ -0,0 +1,137 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.pm.*;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.ChunkedSimulationManager;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import it.unicam.quasylab.sibilla.core.simulator.SimulationEnvironment;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequentialTestTest {
+
+    /*
+     * A single agent of species A becomes either B, with rate toB, or C, with rate toC: B is eventually reached
+     * with probability toB/(toB+toC).
+     */
+    private static PopulationModel getModel(double toB, double toC) {
+        List<PopulationRule> rules = List.of(
+                new ReactionRule("toB",
+                        new Population[]{new Population(0)},
+                        new Population[]{new Population(1)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(0), (now, s) -> SibillaValue.of(toB * s.getOccupancy(0)))),
+                new ReactionRule("toC",
+                        new Population[]{new Population(0)},
+                        new Population[]{new Population(2)},
+                        RatePopulationFunction.of(SpeciesDependencies.of(0), (now, s) -> SibillaValue.of(toC * s.getOccupancy(0))))
+        );
+        return new PopulationModel(PopulationRegistry.createRegistry("A", "B", "C"), rules, Map.of(), Map.of());
+    }
+
+    private static SequentialTestResult checkReachB(SimulationEnvironment environment, SequentialTest test, double toB, double toC) throws InterruptedException {
+        return environment.reachability(null, new DefaultRandomGenerator(1), test, 100.0, getModel(toB, toC),
+                rg -> new PopulationState(new int[]{1, 0, 0}), s -> true, s -> s.getOccupancy(1) > 0);
+    }
+
+    @Test
+    void probabilityRatioTestShouldStopAfterFewRuns() {
+        SequentialTest test = SequentialTest.probabilityRatioTest(0.5, 0.05, 0.01, 0.01);
+        assertEquals(SequentialTest.Verdict.CONTINUE, test.test(0, 0));
+        assertEquals(SequentialTest.Verdict.ACCEPT, test.test(100, 95));
+        assertEquals(SequentialTest.Verdict.REJECT, test.test(100, 5));
+        assertEquals(SequentialTest.Verdict.ACCEPT, test.decide(10, 6));
+        assertEquals(SequentialTest.Verdict.REJECT, test.decide(10, 4));
+    }
+
+    @Test
+    void probabilityRatioTestShouldDecideReachability() throws InterruptedException {
+        SimulationEnvironment environment = new SimulationEnvironment();
+        SequentialTest test = SequentialTest.probabilityRatioTest(0.5, 0.05, 0.01, 0.01);
+        SequentialTestResult above = checkReachB(environment, test, 3.0, 2.0);
+        assertTrue(above.isAccepted());
+        assertFalse(above.isTruncated());
+        assertTrue(above.getRuns() < test.getMaximumRuns());
+        SequentialTestResult below = checkReachB(environment, SequentialTest.probabilityRatioTest(0.7, 0.05, 0.01, 0.01), 3.0, 2.0);
+        assertEquals(SequentialTest.Verdict.REJECT, below.getVerdict());
+    }
+
+    @Test
+    void intervalEstimationShouldBeWithinDelta() throws InterruptedException {
+        SequentialTest test = SequentialTest.intervalEstimation(0.01, 0.05);
+        SequentialTestResult result = checkReachB(new SimulationEnvironment(), test, 3.0, 2.0);
+        assertTrue(result.isAccepted());
+        assertTrue(result.getRuns() <= test.getMaximumRuns());
+        assertEquals(0.6, result.getEstimate(), 0.05);
+    }
+
+    @Test
+    void intervalEstimationShouldStopEarlyOnExtremeProbabilities() throws InterruptedException {
+        SequentialTest test = SequentialTest.intervalEstimation(0.01, 0.01);
+        SequentialTestResult result = checkReachB(new SimulationEnvironment(), test, 1.0, 0.0);
+        assertTrue(result.isAccepted());
+        assertTrue(result.getRuns() < test.getMaximumRuns() / 10);
+        assertEquals(1.0, result.getEstimate(), 0.01);
+    }
+
+    @Test
+    void sequentialTestShouldStopSubmittingRunsOnParallelManagers() throws InterruptedException {
+        SimulationEnvironment environment = new SimulationEnvironment(ChunkedSimulationManager.getForkJoinSimulationManagerFactory(4));
+        SequentialTest test = SequentialTest.probabilityRatioTest(0.5, 0.05, 0.01, 0.01);
+        SequentialTestResult result = checkReachB(environment, test, 3.0, 2.0);
+        assertTrue(result.isAccepted());
+        assertFalse(result.isTruncated());
+        assertTrue(result.getRuns() < test.getMaximumRuns());
+    }
+
+    @Test
+    void sequentialTestShouldStopEarlyWhenRunsAreSlow() throws InterruptedException {
+        SimulationEnvironment environment = new SimulationEnvironment(ChunkedSimulationManager.getForkJoinSimulationManagerFactory(4));
+        SequentialTest test = SequentialTest.probabilityRatioTest(0.5, 0.05, 0.01, 0.01);
+        AtomicInteger started = new AtomicInteger();
+        SequentialTestResult result = environment.reachability(null, new DefaultRandomGenerator(1), test, 100.0,
+                getModel(1.0, 0.0),
+                rg -> {
+                    started.incrementAndGet();
+                    try {
+                        Thread.sleep(150);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new PopulationState(new int[]{1, 0, 0});
+                }, s -> true, s -> s.getOccupancy(1) > 0);
+        assertTrue(result.isAccepted());
+        assertFalse(result.isTruncated());
+        assertTrue(started.get() <= 2 * result.getRuns());
+        assertTrue(started.get() < test.getMaximumRuns() / 10);
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.sampling;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticSamplingTest {
+
+    private final static int SAMPLES = 10;
+    private final static int THREADS = 8;
+    private final static int REPLICAS = 500;
+
+    @Test
+    void mergedWelfordStatisticsShouldMatchSequentialOnes() {
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        WelfordStatistics all = new WelfordStatistics(3);
+        WelfordStatistics first = new WelfordStatistics(3);
+        WelfordStatistics second = new WelfordStatistics(3);
+        for (int i = 0; i < 1000; i++) {
+            double[] values = new double[]{rg.nextDouble(), 100 * rg.nextDouble(), i};
+            all.add(values);
+            (i % 3 == 0 ? first : second).add(values);
+        }
+        first.merge(second);
+        assertEquals(all.getN(), first.getN());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(all.getMean(i), first.getMean(i), 1e-9);
+            assertEquals(all.getVariance(i), first.getVariance(i), 1e-6);
+            assertEquals(all.getMin(i), first.getMin(i));
+            assertEquals(all.getMax(i), first.getMax(i));
+        }
+    }
+
+    @Test
+    void emptyStatisticsShouldReturnNaN() {
+        WelfordStatistics statistics = new WelfordStatistics(1);
+        assertTrue(Double.isNaN(statistics.getMean(0)));
+        assertTrue(Double.isNaN(statistics.getMin(0)));
+        statistics.add(new double[]{2.0});
+        assertEquals(0.0, statistics.getVariance(0));
+    }
+
+    @Test
+    void recordingTheWrongNumberOfValuesShouldBeReported() {
+        SummaryStatisticSampling<PopulationState> sampling = new SummaryStatisticSampling<>(SAMPLES, 1.0, new SimpleMeasure<>("S", s -> s.getOccupancy(0)));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sampling.recordValues(new double[SAMPLES + 1]));
+        assertEquals("Illegal number of sampled values: expected " + SAMPLES + " are " + (SAMPLES + 1) + "!", e.getMessage());
+    }
+
+    @Test
+    void valuesRecordedByDifferentThreadsShouldBeMerged() throws InterruptedException {
+        SummaryStatisticSampling<PopulationState> sampling = new SummaryStatisticSampling<>(SAMPLES, 1.0, new SimpleMeasure<>("S", s -> s.getOccupancy(0)));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                for (int r = 0; r < REPLICAS; r++) {
+                    SamplingHandler<PopulationState> handler = sampling.getSamplingHandler();
+                    handler.start();
+                    for (int i = 0; i < SAMPLES; i++) {
+                        handler.sample(i, new PopulationState(new int[]{r % 10 + i}));
+                    }
+                    handler.end(SAMPLES);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double[][] data = sampling.getSimulationTimeSeries().get("S");
+        assertEquals(SAMPLES, data.length);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(i, data[i][0], 1e-9);
+            assertEquals(4.5 + i, data[i][1], 1e-9);
+            assertEquals(Math.sqrt(8.25 * THREADS * REPLICAS / (THREADS * REPLICAS - 1)), data[i][2], 1e-9);
+        }
+        assertEquals(4.5, sampling.getData()[0][1], 1e-9);
+    }
+
+    @Test
+    void accumulatorsShouldNotGrowWithTheNumberOfThreads() throws InterruptedException {
+        SummaryStatisticSampling<PopulationState> sampling = new SummaryStatisticSampling<>(SAMPLES, 1.0, new SimpleMeasure<>("S", s -> s.getOccupancy(0)));
+        for (int r = 0; r < REPLICAS; r++) {
+            int value = r;
+            Thread.ofVirtual().start(() -> sample(sampling.getSamplingHandler(), value)).join();
+        }
+        assertEquals(1, sampling.getNumberOfAccumulators());
+        assertEquals((REPLICAS - 1) / 2.0, sampling.getData()[0][1], 1e-9);
+    }
+
+    @Test
+    void partialResultsShouldMergeIntoTheSameStatistics() throws IOException, ClassNotFoundException {
+        SamplingCollection<PopulationState> direct = new SamplingCollection<>(
+                new SummaryStatisticSampling<>(SAMPLES, 1.0, new SimpleMeasure<>("S", s -> s.getOccupancy(0))));
+        SamplingCollection<PopulationState> master = direct.newInstance();
+        for (int slave = 0; slave < 3; slave++) {
+            SamplingCollection<PopulationState> remote = master.newInstance();
+            for (int r = 0; r < 100; r++) {
+                int value = slave * 100 + r;
+                sample(direct.getSamplingHandler(), value);
+                sample(remote.getSamplingHandler(), value);
+            }
+            master.mergePartialResults(roundTrip(remote.getPartialResults()));
+        }
+        double[][] expected = direct.getSimulationTimeSeries().get("S");
+        double[][] actual = master.getSimulationTimeSeries().get("S");
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(expected[i][1], actual[i][1], 1e-9);
+            assertEquals(expected[i][2], actual[i][2], 1e-9);
+        }
+        assertTrue(master.newInstance().getPartialResults().containsKey("S"));
+    }
+
+    private void sample(SamplingHandler<PopulationState> handler, int value) {
+        handler.start();
+        for (int i = 0; i < SAMPLES; i++) {
+            handler.sample(i, new PopulationState(new int[]{value + i}));
+        }
+        handler.end(SAMPLES);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Serializable> roundTrip(Map<String, Serializable> partials) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new java.util.HashMap<>(partials));
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Map<String, Serializable>) in.readObject();
+        }
+    }
+
+}
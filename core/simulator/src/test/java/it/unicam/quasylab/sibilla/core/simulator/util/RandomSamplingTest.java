@@ -0,0 +1,101 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RandomSamplingTest {
+
+    private final static int SAMPLES = 100000;
+
+    @Test
+    void logFactorialShouldBeContinuousAtTableBoundary() {
+        double expected = 0.0;
+        for (int i = 1; i <= 300; i++) {
+            expected += Math.log(i);
+            assertEquals(expected, RandomSampling.logFactorial(i), 1e-8 * expected);
+        }
+    }
+
+    @Test
+    void poissonSamplesShouldHaveExpectedMeanAndVariance() {
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        for (double mean : new double[]{0.5, 3.0, 9.9, 10.0, 50.0, 1000.0}) {
+            double sum = 0.0;
+            double squares = 0.0;
+            for (int i = 0; i < SAMPLES; i++) {
+                long k = RandomSampling.poisson(rg, mean);
+                assertTrue(k >= 0);
+                sum += k;
+                squares += k * k;
+            }
+            double sampleMean = sum / SAMPLES;
+            double sampleVariance = squares / SAMPLES - sampleMean * sampleMean;
+            assertEquals(mean, sampleMean, 5 * Math.sqrt(mean / SAMPLES));
+            assertEquals(mean, sampleVariance, 0.05 * mean);
+        }
+    }
+
+    @Test
+    void binomialSamplesShouldHaveExpectedMeanAndVariance() {
+        RandomGenerator rg = new DefaultRandomGenerator(1);
+        long[] trials = new long[]{10, 100, 1000, 1000000};
+        double[] probabilities = new double[]{0.01, 0.2, 0.5, 0.9};
+        for (long n : trials) {
+            for (double p : probabilities) {
+                double sum = 0.0;
+                double squares = 0.0;
+                for (int i = 0; i < SAMPLES; i++) {
+                    long k = RandomSampling.binomial(rg, n, p);
+                    assertTrue((k >= 0) && (k <= n));
+                    sum += k;
+                    squares += (double) k * k;
+                }
+                double mean = n * p;
+                double variance = n * p * (1 - p);
+                double sampleMean = sum / SAMPLES;
+                double sampleVariance = squares / SAMPLES - sampleMean * sampleMean;
+                assertEquals(mean, sampleMean, 5 * Math.sqrt(variance / SAMPLES));
+                assertEquals(variance, sampleVariance, 0.05 * variance);
+            }
+        }
+    }
+
+    @Test
+    void binomialWithDegenerateProbabilitiesShouldBeConstant() {
+        RandomGenerator rg = new DefaultRandomGenerator();
+        assertEquals(0, RandomSampling.binomial(rg, 100, 0.0));
+        assertEquals(100, RandomSampling.binomial(rg, 100, 1.0));
+        assertEquals(0, RandomSampling.binomial(rg, 0, 0.5));
+    }
+
+    @Test
+    void poissonWithNonPositiveMeanShouldBeZero() {
+        assertEquals(0, RandomSampling.poisson(new DefaultRandomGenerator(), 0.0));
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.simulator.util;
+
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SumTreeWeightedStructureTest {
+
+    @Test
+    void selectShouldFollowInsertionOrder() {
+        SumTreeWeightedStructure<String> ws = new SumTreeWeightedStructure<>(2);
+        ws.add(1.0, "A").add(0.0, "B").add(2.0, "C").add(3.0, "D");
+        assertEquals(6.0, ws.getTotalWeight());
+        assertEquals("A", ws.select(0.0).getElement());
+        assertEquals("A", ws.select(0.99).getElement());
+        assertEquals("C", ws.select(1.0).getElement());
+        assertEquals("C", ws.select(2.99).getElement());
+        assertEquals("D", ws.select(3.0).getElement());
+        assertEquals("D", ws.select(6.0).getElement());
+    }
+
+    @Test
+    void updatedWeightsShouldBeUsedInSelection() {
+        SumTreeWeightedStructure<Integer> ws = new SumTreeWeightedStructure<>();
+        for (int i = 0; i < 100; i++) {
+            ws.add(1.0, i);
+        }
+        for (int i = 0; i < 100; i++) {
+            ws.setWeight(i, (i % 2 == 0 ? 0.0 : 2.0));
+        }
+        assertEquals(100.0, ws.getTotalWeight(), 1E-10);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(2 * i + 1, ws.selectIndex(2.0 * i + 1.0));
+        }
+        for (int i = 0; i < 100; i++) {
+            ws.setWeight(i, 0.0);
+        }
+        assertEquals(0.0, ws.getTotalWeight());
+        assertNull(ws.select(0.0));
+    }
+
+    @Test
+    void negativeWeightsShouldBeRejected() {
+        SumTreeWeightedStructure<String> ws = new SumTreeWeightedStructure<>();
+        assertThrows(IllegalArgumentException.class, () -> ws.add(-1.0, "A"));
+        assertThrows(IllegalArgumentException.class, () -> ws.add(Double.NaN, "A"));
+    }
+
+    @Test
+    void compositionRejectionShouldSampleProportionallyToWeights() {
+        CompositionRejectionWeightedStructure<Integer> ws = new CompositionRejectionWeightedStructure<>();
+        double[] weights = {0.001, 1.0, 3.0, 1000.0, 0.0, 5.0};
+        for (int i = 0; i < weights.length; i++) {
+            ws.add(weights[i], i);
+        }
+        ws.setWeight(3, 1.0);
+        weights[3] = 1.0;
+        double total = 10.001;
+        assertEquals(total, ws.getTotalWeight(), 1E-10);
+        DefaultRandomGenerator rg = new DefaultRandomGenerator(1);
+        int samples = 100000;
+        int[] counter = new int[weights.length];
+        for (int i = 0; i < samples; i++) {
+            counter[ws.selectIndex(rg)]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double p = weights[i] / total;
+            assertEquals(p, ((double) counter[i]) / samples, 4 * Math.sqrt(p * (1 - p) / samples) + 1E-10);
+        }
+    }
+
+    @Test
+    void compositionRejectionSelectShouldCoverEachElementWithItsWeight() {
+        CompositionRejectionWeightedStructure<Integer> ws = new CompositionRejectionWeightedStructure<>();
+        double[] weights = {4.0, 0.5, 0.25, 3.0, 8.0};
+        for (int i = 0; i < weights.length; i++) {
+            ws.add(weights[i], i);
+        }
+        double step = 0.125;
+        double[] covered = new double[weights.length];
+        for (double w = 0.0; w < ws.getTotalWeight(); w += step) {
+            covered[ws.select(w).getElement()] += step;
+        }
+        assertArrayEquals(weights, covered, 1E-10);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InternedProbabilityVectorTest {
+
+    @Test
+    void addShouldMergeTheMassOfTheSameIdentifier() {
+        InternedProbabilityVector vector = new InternedProbabilityVector();
+        vector.add(3, 0.25);
+        vector.add(7, 0.25);
+        vector.add(3, 0.25);
+        assertEquals(2, vector.size());
+        assertEquals(0.5, vector.getProbability(3), 1e-12);
+        assertEquals(0.25, vector.getProbability(7), 1e-12);
+        assertEquals(0.0, vector.getProbability(5), 1e-12);
+        assertEquals(0.75, vector.getTotalProbability(), 1e-12);
+    }
+
+    @Test
+    void vectorShouldGrowBeyondItsExpectedSize() {
+        InternedProbabilityVector vector = new InternedProbabilityVector(1);
+        for (int i = 0; i < 1000; i++) {
+            vector.add(i * 31L, 0.001);
+        }
+        assertEquals(1000, vector.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i * 31L, vector.idAt(i));
+            assertEquals(0.001, vector.getProbability(i * 31L), 1e-12);
+        }
+        assertEquals(1.0, vector.getTotalProbability(), 1e-9);
+    }
+
+    @Test
+    void completeShouldAddTheMissingMassToTheGivenIdentifier() {
+        InternedProbabilityVector vector = new InternedProbabilityVector();
+        vector.add(1, 0.3);
+        vector.add(2, 0.2);
+        vector.complete(1);
+        assertEquals(0.8, vector.getProbability(1), 1e-12);
+        assertEquals(1.0, vector.getTotalProbability(), 1e-12);
+    }
+
+    @Test
+    void addShouldRejectMassesExceedingOne() {
+        InternedProbabilityVector vector = InternedProbabilityVector.dirac(0);
+        assertThrows(IllegalArgumentException.class, () -> vector.add(1, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> vector.add(-1, 0.0));
+    }
+
+    @Test
+    void conversionShouldPreserveTheDistribution() {
+        ProbabilityVector<String> vector = new ProbabilityVector<>();
+        vector.add("a", 0.5);
+        vector.add("b", 0.25);
+        vector.add("c", 0.25);
+        StateInterningTable<String> table = new StateInterningTable<>();
+        InternedProbabilityVector interned = InternedProbabilityVector.of(vector, table::intern);
+        assertEquals(3, table.size());
+        assertEquals(table.intern("a"), table.intern("a"));
+        ProbabilityVector<String> back = interned.toProbabilityVector(table::get);
+        assertEquals(3, back.size());
+        vector.iterate((s, p) -> assertEquals(p, back.getProbability(s), 1e-12));
+    }
+
+    @Test
+    void statesShouldBeInternedConcurrently() {
+        StateInterningTable<String> table = new StateInterningTable<>();
+        long[] ids = IntStream.range(0, 100000).parallel().mapToLong(i -> table.intern("s" + (i % 1000))).toArray();
+        assertEquals(1000, table.size());
+        for (int i = 0; i < ids.length; i++) {
+            assertTrue(ids[i] < 1000);
+            assertEquals("s" + (i % 1000), table.get(ids[i]));
+        }
+    }
+
+    @Test
+    void completeOfProbabilityVectorShouldKeepTheOldMass() {
+        ProbabilityVector<String> vector = new ProbabilityVector<>();
+        vector.add("a", 0.3);
+        vector.add("b", 0.2);
+        ProbabilityVector<String> completed = vector.complete("a");
+        assertEquals(0.8, completed.getProbability("a"), 1e-12);
+        assertEquals(1.0, completed.getTotalProbability(), 1e-12);
+    }
+
+}
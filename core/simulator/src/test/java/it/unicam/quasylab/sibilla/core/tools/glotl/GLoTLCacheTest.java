@@ -0,0 +1,127 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools.glotl;
+
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgent;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgentAction;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgentDefinitions;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOIndividualState;
+import it.unicam.quasylab.sibilla.core.tools.ProbabilityVector;
+import it.unicam.quasylab.sibilla.core.tools.glotl.global.GlobalEventuallyFormula;
+import it.unicam.quasylab.sibilla.core.tools.glotl.global.GlobalFormula;
+import it.unicam.quasylab.sibilla.core.tools.glotl.global.GlobalFractionOfFormula;
+import it.unicam.quasylab.sibilla.core.tools.glotl.local.LocalAtomicFormula;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GLoTLCacheTest {
+
+    @Test
+    void valuesShouldBeComputedOnlyOnce() {
+        GLoTLCache<Integer, Integer> cache = new GLoTLCache<>();
+        AtomicInteger counter = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(4), cache.get(2, x -> { counter.incrementAndGet(); return x * x; }));
+        }
+        assertEquals(1, counter.get());
+        assertEquals(9, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void sizeShouldNotExceedTheMaximum() {
+        GLoTLCache<Integer, Integer> cache = new GLoTLCache<>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.get(i, x -> x);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.getEvictions());
+    }
+
+    @Test
+    void weightShouldNotExceedTheMaximum() {
+        GLoTLCache<Integer, int[]> cache = new GLoTLCache<>(1000, (k, v) -> v.length);
+        for (int i = 0; i < 100; i++) {
+            cache.get(i, x -> new int[x]);
+            assertTrue(cache.weight() <= 1000);
+        }
+    }
+
+    @Test
+    void frequentlyUsedEntriesShouldSurviveAScan() {
+        GLoTLCache<Integer, Integer> cache = new GLoTLCache<>(100);
+        for (int i = 0; i < 10; i++) {
+            cache.get(i, x -> x);
+            cache.get(i, x -> x);
+        }
+        for (int i = 10; i < 1000; i++) {
+            cache.get(i, x -> x);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.getIfPresent(i));
+        }
+    }
+
+    @Test
+    void cacheShouldBeUsableConcurrently() {
+        GLoTLCache<Integer, Integer> cache = new GLoTLCache<>(500);
+        IntStream.range(0, 100000).parallel().forEach(i -> assertEquals(Integer.valueOf((i % 1000) * 2), cache.get(i % 1000, x -> x * 2)));
+        assertTrue(cache.size() <= 500);
+        assertEquals(100000, cache.getHits() + cache.getMisses());
+    }
+
+    @Test
+    void weightShouldBeConsistentAfterConcurrentAccesses() {
+        GLoTLCache<Integer, Integer> cache = new GLoTLCache<>(500);
+        IntStream.range(0, 100000).parallel().forEach(i -> cache.get((i * 7919) % 2000, x -> x));
+        assertEquals(cache.size(), cache.weight());
+        assertTrue(cache.getEvictions() <= cache.getMisses() - cache.size());
+    }
+
+    @Test
+    void parallelExpansionShouldComputeTheSameProbability() {
+        LIOAgentDefinitions def = new LIOAgentDefinitions();
+        LIOAgent zero = def.addAgent("0");
+        LIOAgent one = def.addAgent("1");
+        LIOAgentAction beOne = def.addAction("be1", s -> 0.5);
+        LIOAgentAction beZero = def.addAction("be0", s -> 0.25);
+        zero.addAction(beOne, one);
+        one.addAction(beZero, zero);
+        GlobalFormula<LIOAgent, LIOIndividualState> formula = new GlobalEventuallyFormula<>(0, 20,
+                new GlobalFractionOfFormula<>(new LocalAtomicFormula<>(a -> a.getIndex() == one.getIndex()), d -> d >= 1.0));
+        LIOIndividualState state = new LIOIndividualState(def, zero.getIndex(), zero.getIndex(), zero.getIndex(), zero.getIndex());
+        GLoTLDiscreteTimeModelChecker checker = new GLoTLDiscreteTimeModelChecker();
+        double sequential = checker.computeProbability(LIOIndividualState::next, state, formula, 0.0001);
+        ChachedFunction<LIOIndividualState, ProbabilityVector<LIOIndividualState>> cachedNext = new ChachedFunction<>(LIOIndividualState::next, new GLoTLCache<>(4));
+        double parallel = checker.computeProbability(cachedNext, state, formula, 0.0001, true);
+        assertEquals(sequential, parallel, 1e-12);
+        assertTrue(cachedNext.getCache().size() <= 4);
+    }
+
+}
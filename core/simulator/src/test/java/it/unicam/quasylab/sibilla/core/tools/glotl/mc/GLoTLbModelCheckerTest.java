@@ -0,0 +1,123 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.tools.glotl.mc;
+
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgent;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgentAction;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOAgentDefinitions;
+import it.unicam.quasylab.sibilla.core.models.lio.LIOCountingState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GLoTLbModelCheckerTest {
+
+    private LIOAgentDefinitions def;
+
+    private LIOAgent zero;
+
+    private LIOAgent one;
+
+    @BeforeEach
+    void setUp() {
+        def = new LIOAgentDefinitions();
+        zero = def.addAgent("0");
+        one = def.addAgent("1");
+        LIOAgentAction beOne = def.addAction("be1", s -> 0.5);
+        LIOAgentAction beZero = def.addAction("be0", s -> 0.25);
+        zero.addAction(beOne, one);
+        one.addAction(beZero, zero);
+    }
+
+    private LIOCountingState state(int zeros, int ones) {
+        int[] occupancy = new int[2];
+        occupancy[zero.getIndex()] = zeros;
+        occupancy[one.getIndex()] = ones;
+        return new LIOCountingState(def, occupancy);
+    }
+
+    @Test
+    void pathProbabilityShouldTestTheGuardOnTheEvaluatedProbability() {
+        GLoTLbModelCheckerPathProbability checker = new GLoTLbModelCheckerPathProbability(s -> s.fractionOf(one), p -> p >= 0.5);
+        assertFalse(checker.sat(state(4, 0)));
+        assertFalse(checker.sat(state(3, 1)));
+        assertTrue(checker.sat(state(2, 2)));
+        assertTrue(checker.sat(state(0, 4)));
+    }
+
+    @Test
+    void eachStateShouldBeEvaluatedOnlyOnce() {
+        AtomicInteger counter = new AtomicInteger();
+        GLoTLbModelCheckerPathProbability checker = new GLoTLbModelCheckerPathProbability(s -> {
+            counter.incrementAndGet();
+            return s.fractionOf(one);
+        }, p -> p >= 0.5);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(checker.sat(state(3, 1)));
+            assertTrue(checker.sat(state(1, 3)));
+        }
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    void statesThatAreNotCountingStatesShouldNotSatisfyTheFormula() {
+        GLoTLbModelCheckerPathProbability checker = new GLoTLbModelCheckerPathProbability(s -> 1.0, p -> true);
+        assertFalse(checker.sat("state"));
+        assertTrue(checker.sat(state(1, 1)));
+    }
+
+    @Test
+    void expectedShouldAverageTheLocalProbabilities() {
+        GLoTLbModelCheckerExpected checker = new GLoTLbModelCheckerExpected(s -> (s.getAgent() == one ? 1.0 : 0.0), p -> p > 0.3);
+        assertFalse(checker.sat(state(3, 1)));
+        assertTrue(checker.sat(state(2, 2)));
+        assertFalse(checker.sat(state(4, 0)));
+    }
+
+    @Test
+    void localProbabilityShouldBeEvaluatedOnTheGivenAgent() {
+        GLoTLbModelCheckerLocalProbability checkerOfOne = new GLoTLbModelCheckerLocalProbability(one, s -> s.fractionOf(one), p -> p > 0.5);
+        GLoTLbModelCheckerLocalProbability checkerOfZero = new GLoTLbModelCheckerLocalProbability(zero, s -> s.fractionOf(one), p -> p > 0.5);
+        assertTrue(checkerOfOne.sat(state(2, 2)));
+        assertFalse(checkerOfZero.sat(state(2, 2)));
+    }
+
+    @Test
+    void booleanOperatorsShouldCombineTheirArguments() {
+        GLoTLbModelChecker some = new GLoTLbModelCheckerPathProbability(s -> s.fractionOf(one), p -> p > 0.0);
+        GLoTLbModelChecker most = new GLoTLbModelCheckerPathProbability(s -> s.fractionOf(one), p -> p > 0.5);
+        GLoTLbModelChecker someButNotMost = new GLoTLbModelCheckerConjunction(some, new GLoTLbModelCheckerNegation(most));
+        GLoTLbModelChecker noneOrMost = new GLoTLbModelCheckerDisjunction(new GLoTLbModelCheckerNegation(some), most);
+        for (int ones = 0; ones <= 4; ones++) {
+            LIOCountingState state = state(4 - ones, ones);
+            boolean expected = (ones > 0) && (ones <= 2);
+            assertEquals(expected, someButNotMost.sat(state));
+            assertEquals(!expected, noneOrMost.sat(state));
+        }
+    }
+
+}
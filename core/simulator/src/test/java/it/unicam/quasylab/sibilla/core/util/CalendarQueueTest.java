@@ -0,0 +1,152 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.core.util;
+
+import it.unicam.quasylab.sibilla.core.util.datastructures.CalendarQueue;
+import it.unicam.quasylab.sibilla.core.util.datastructures.CalendarScheduler;
+import it.unicam.quasylab.sibilla.core.util.datastructures.Pair;
+import it.unicam.quasylab.sibilla.core.util.datastructures.ScheduledElements;
+import it.unicam.quasylab.sibilla.core.util.datastructures.Scheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarQueueTest {
+
+    @Test
+    void shouldReturnElementsInTimeOrder() {
+        Random random = new Random(42);
+        CalendarQueue<Integer> queue = new CalendarQueue<>();
+        List<Double> times = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            double time = random.nextDouble() * 1000;
+            times.add(time);
+            queue.add(time, i);
+        }
+        times.sort(Double::compare);
+        assertEquals(times.size(), queue.size());
+        for (double time : times) {
+            assertEquals(time, queue.poll().getTime());
+        }
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void shouldInterleaveInsertionsAndExtractions() {
+        Random random = new Random(7);
+        CalendarQueue<Integer> queue = new CalendarQueue<>();
+        double now = 0.0;
+        for (int i = 0; i < 1000; i++) {
+            queue.add(random.nextDouble() * 10, i);
+        }
+        for (int i = 0; i < 50000; i++) {
+            CalendarQueue.Handle<Integer> next = queue.poll();
+            assertTrue(next.getTime() >= now);
+            now = next.getTime();
+            queue.add(now + random.nextDouble() * (i % 2 == 0 ? 1 : 100), i);
+        }
+    }
+
+    @Test
+    void shouldReturnElementsAtTheSameTimeInInsertionOrder() {
+        CalendarQueue<String> queue = new CalendarQueue<>();
+        queue.add(2.0, "C");
+        queue.add(1.0, "A");
+        queue.add(2.0, "D");
+        queue.add(1.0, "B");
+        queue.add(Double.POSITIVE_INFINITY, "E");
+        assertEquals("A", queue.poll().getElement());
+        assertEquals("B", queue.poll().getElement());
+        assertEquals("C", queue.poll().getElement());
+        assertEquals("D", queue.poll().getElement());
+        assertEquals("E", queue.poll().getElement());
+    }
+
+    @Test
+    void shouldNotReturnCancelledElements() {
+        CalendarQueue<Integer> queue = new CalendarQueue<>();
+        List<CalendarQueue.Handle<Integer>> handles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            handles.add(queue.add(i, i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(queue.cancel(handles.get(i)));
+            assertFalse(queue.cancel(handles.get(i)));
+        }
+        assertEquals(500, queue.size());
+        for (int i = 1; i < 1000; i += 2) {
+            assertEquals(Integer.valueOf(i), queue.poll().getElement());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void schedulerShouldGroupElementsScheduledAtTheSameTime() {
+        Scheduler<Integer> scheduler = new CalendarScheduler<>();
+        scheduler = scheduler.schedule(3, 1.0).schedule(1, 1.0).schedule(2, 2.0).schedule(4, 1.0);
+        scheduler = scheduler.unscheduled(1.0, 4);
+        assertEquals(1.0, scheduler.getNextTime());
+        assertEquals(2.0, scheduler.getLastTime());
+        Optional<Pair<ScheduledElements<Integer>, Scheduler<Integer>>> next = scheduler.scheduleNext();
+        assertTrue(next.isPresent());
+        List<Integer> elements = new ArrayList<>();
+        next.get().getKey().getScheduledElements().forEach(elements::add);
+        elements.sort(Integer::compare);
+        assertEquals(1.0, next.get().getKey().getTime());
+        assertEquals(List.of(1, 3), elements);
+        assertEquals(2.0, next.get().getValue().getNextTime());
+    }
+
+    @Test
+    void schedulerShouldCancelElementsThroughTheirHandles() {
+        CalendarScheduler<Integer> scheduler = new CalendarScheduler<>();
+        CalendarQueue.Handle<Integer> handle = scheduler.add(1, 1.0);
+        scheduler.schedule(2, 2.0);
+        assertTrue(scheduler.cancel(handle));
+        assertFalse(handle.isScheduled());
+        assertFalse(scheduler.cancel(handle));
+        assertEquals(2.0, scheduler.getNextTime());
+        scheduler.unscheduled(2.0, 2);
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    void schedulerShouldUnscheduleElementsScheduledMoreThanOnce() {
+        Scheduler<Integer> scheduler = new CalendarScheduler<>();
+        scheduler = scheduler.schedule(1, 1.0).schedule(1, 2.0).schedule(1, 3.0);
+        scheduler = scheduler.unscheduled(2.0, 1).unscheduled(1.0, 1);
+        assertEquals(3.0, scheduler.getNextTime());
+        scheduler = scheduler.scheduleNext().get().getValue();
+        assertTrue(scheduler.isEmpty());
+        scheduler = scheduler.schedule(1, 4.0).unscheduled(4.0, 1);
+        assertTrue(scheduler.isEmpty());
+    }
+
+}
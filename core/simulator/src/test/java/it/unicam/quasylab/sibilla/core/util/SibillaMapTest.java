@@ -23,10 +23,13 @@
 
 package it.unicam.quasylab.sibilla.core.util;
 
+import it.unicam.quasylab.sibilla.core.util.datastructures.Pair;
 import it.unicam.quasylab.sibilla.core.util.datastructures.SibillaMap;
 import org.junit.jupiter.api.Test;
 
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -120,6 +123,37 @@ class SibillaMapTest {
         map.add(3,3);
     }
 
+    @Test
+    void applyShouldReachEveryKey() {
+        SibillaMap<Integer, Integer> map = new SibillaMap<>();
+        for (int i = 0; i < 10; i++) {
+            map = map.add(i, i);
+        }
+        Function<Integer, Optional<Pair<Integer, Integer>>> update = v -> Optional.of(Pair.of(v, v + 10));
+        for (int i = 0; i < 10; i++) {
+            Optional<Pair<Integer, SibillaMap<Integer, Integer>>> result = map.apply(i, update);
+            assertTrue(result.isPresent());
+            assertEquals(Integer.valueOf(i), result.get().getKey());
+            map = result.get().getValue();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i + 10), map.get(i).get());
+        }
+    }
 
+    @Test
+    void removeFirstShouldReturnKeysInAscendingOrder() {
+        SibillaMap<Integer, Integer> map = new SibillaMap<>();
+        for (int i = 9; i >= 0; i--) {
+            map = map.add(i, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            Optional<Pair<Map.Entry<Integer, Integer>, SibillaMap<Integer, Integer>>> first = map.removeFirst();
+            assertTrue(first.isPresent());
+            assertEquals(Integer.valueOf(i), first.get().getKey().getKey());
+            map = first.get().getValue();
+        }
+        assertTrue(map.isEmpty());
+    }
 
 }
\ No newline at end of file
@@ -18,4 +18,30 @@ class SignalTest {
         assertEquals(100, ts.getEnd());
         assertEquals(ts.valueAt(ts.getEnd()),4.0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testValueAt() {
+        Signal s = new Signal();
+        for (int i = 0; i < 1000; i++) {
+            s.add(i, i % 7);
+        }
+        s.setEnd(1000);
+        assertEquals(3.0, s.valueAt(500.5));
+        assertEquals(0.0, s.valueAt(0.0));
+        assertEquals(5.0, s.valueAt(1000));
+        assertTrue(Double.isNaN(s.valueAt(1000.5)));
+        assertTrue(Double.isNaN(s.valueAt(-1.0)));
+        assertArrayEquals(new double[] {0.0, 1.0, 5.0, Double.NaN}, s.valuesAt(new double[] {0.5, 1.0, 999.5, 1001}));
+    }
+
+    @Test
+    void testApply() {
+        Signal s1 = new Signal(new double[] {0, 1, 2, 3}, new double[] {1, 4, 2, 2});
+        Signal s2 = new Signal(new double[] {0, 1.5, 2.5}, new double[] {3, 0, 5});
+        Signal min = Signal.apply(s1, Math::min, s2);
+        assertArrayEquals(new double[] {0, 1, 1.5, 2.5}, min.getTimeSteps());
+        assertArrayEquals(new double[] {1, 3, 0, 2}, min.valuesAt(new double[] {0.5, 1.2, 2.0, 2.5}));
+        assertEquals(2.5, min.getEnd());
+        assertArrayEquals(new double[] {-1, -4, -2}, Signal.apply(s1, d -> -d).values());
+    }
+}
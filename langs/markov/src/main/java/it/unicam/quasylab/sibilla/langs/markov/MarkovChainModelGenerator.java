@@ -23,6 +23,7 @@
 
 package it.unicam.quasylab.sibilla.langs.markov;
 
+import it.unicam.quasylab.sibilla.core.markov.IndexedContinuousTimeMarkovChain;
 import it.unicam.quasylab.sibilla.core.models.CachedValues;
 import it.unicam.quasylab.sibilla.core.models.EvaluationEnvironment;
 import it.unicam.quasylab.sibilla.core.models.ParametricValue;
@@ -138,6 +139,26 @@ public class MarkovChainModelGenerator {
                 this::getMeasures);
     }
 
+    /**
+     * Returns the continuous time Markov chain reachable from the initial configuration with the given name. States
+     * are generated with a {@link it.unicam.quasylab.sibilla.core.markov.StateSpaceExplorer}, and the result can be
+     * passed directly to the sparse solvers, like {@link it.unicam.quasylab.sibilla.core.markov.SteadyStateSolver}.
+     *
+     * @param name name of the initial configuration.
+     * @param args arguments of the initial configuration.
+     * @return the continuous time Markov chain reachable from the given initial configuration.
+     * @throws IllegalStateException if the model contains errors or it is not a continuous time Markov chain.
+     */
+    public IndexedContinuousTimeMarkovChain<MappingState> generateStateSpace(String name, double... args) {
+        if (!validate()) {
+            throw new IllegalStateException("Model contains errors");
+        }
+        if (!isContinuous()) {
+            throw new IllegalStateException("State space can be generated only for continuous time Markov chains");
+        }
+        return getCTMCModelDefinition().generateStateSpace(name, args);
+    }
+
     public EvaluationEnvironment getEvaluationEnvironment() {
         ConstantsEvaluator evaluator = new ConstantsEvaluator();
         getParseTree().accept(new ConstantsEvaluator());
@@ -370,8 +391,8 @@ public class MarkovChainModelGenerator {
                         vu -> StateExpressionEvaluator.evalToIntFunction(resolver, variables, vu.expr())
                     )
             );
-            this.updates.add(new MappingStateUpdate(this.guard, this.weight, Map.of()));
-            return super.visitListUpdate(ctx);
+            this.updates.add(new MappingStateUpdate(this.guard, this.weight, variablesUpdate));
+            return this.updates;
         }
 
         private String getVariableNameFromTarget(String target) {
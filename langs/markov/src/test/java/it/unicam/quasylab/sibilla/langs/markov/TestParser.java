@@ -23,8 +23,14 @@
 
 package it.unicam.quasylab.sibilla.langs.markov;
 
+import it.unicam.quasylab.sibilla.core.markov.IndexedContinuousTimeMarkovChain;
+import it.unicam.quasylab.sibilla.core.markov.SteadyStateSolver;
+import it.unicam.quasylab.sibilla.core.models.util.MappingState;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestParser {
@@ -48,4 +54,15 @@ public class TestParser {
         assertTrue(generator.validate());
     }
 
+    @Test
+    public void testGenerateStateSpaceOfCode1() {
+        MarkovChainModelGenerator generator = new MarkovChainModelGenerator(CODE1);
+        IndexedContinuousTimeMarkovChain<MappingState> chain = generator.generateStateSpace("init");
+        assertEquals(11, chain.size());
+        Map<MappingState, Double> prob = new SteadyStateSolver<>(chain, chain.stateOf(0)).compute();
+        for (MappingState state : prob.keySet()) {
+            assertEquals(1.0 / 11, prob.get(state), 1E-6);
+        }
+    }
+
 }
@@ -25,5 +25,7 @@
 
 plugins {
     id("it.unicam.quasylab.sibilla.api-lang-conventions")
+    // Microbenchmarks in src/jmh are run with ./gradlew :langs:pm:jmh
+    id("me.champeau.jmh") version "0.7.2"
 }
 
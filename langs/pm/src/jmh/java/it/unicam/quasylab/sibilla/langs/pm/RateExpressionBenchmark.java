@@ -0,0 +1,88 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.EvaluationEnvironment;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationRule;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationTransition;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares interpreted and compiled rate expressions on the example models distributed with the shell
+ * (directory <code>shell/src/dist/examples</code>). The benchmark evaluates all the rules of a model in a
+ * fixed state.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RateExpressionBenchmark {
+
+    @Param({"sir/sir.pm", "seir/seir.pm", "groupies/groupies.pm", "predatorPrey/predatorPrey.pm"})
+    public String model;
+
+    @Param({"true", "false"})
+    public boolean compiled;
+
+    private List<PopulationRule> rules;
+
+    private PopulationState state;
+
+    private RandomGenerator rg;
+
+    @Setup
+    public void setup() throws Exception {
+        Path examples = Path.of(System.getProperty("sibilla.examples", "../../shell/src/dist/examples"));
+        PopulationModelGenerator generator = new PopulationModelGenerator(Files.readString(examples.resolve(model)));
+        EvaluationEnvironment environment = generator.generateEvaluationEnvironment();
+        PopulationRegistry registry = generator.generatePopulationRegistry(environment);
+        rules = generator.generateRules(environment, registry, compiled);
+        rg = new DefaultRandomGenerator(0);
+        state = new PopulationState(registry.size(), i -> 1 + rg.nextInt(10));
+    }
+
+    @Benchmark
+    public double evaluateRates() {
+        double total = 0.0;
+        for (PopulationRule rule : rules) {
+            PopulationTransition transition = rule.apply(rg, 0.0, state);
+            if (transition != null) {
+                total += transition.getRate();
+            }
+        }
+        return total;
+    }
+
+}
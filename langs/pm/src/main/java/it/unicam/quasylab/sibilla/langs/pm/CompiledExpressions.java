@@ -0,0 +1,327 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * This class collects the method handles used to compile rate and guard expressions. A compiled expression
+ * is a method handle of type <code>(int[] populationVector, double population, double now)</code> that returns
+ * either a <code>double</code> or a <code>boolean</code>. Compiled expressions work on primitive values only, and
+ * are combined via the combinators provided by {@link MethodHandles}.
+ */
+final class CompiledExpressions {
+
+    /**
+     * Type of compiled numerical expressions.
+     */
+    static final MethodType NUMERIC_TYPE = MethodType.methodType(double.class, int[].class, double.class, double.class);
+
+    /**
+     * Type of compiled boolean expressions.
+     */
+    static final MethodType BOOLEAN_TYPE = MethodType.methodType(boolean.class, int[].class, double.class, double.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final int[] ARGUMENTS_PERMUTATION = new int[] {0, 1, 2, 0, 1, 2};
+
+    private CompiledExpressions() {}
+
+    /**
+     * Returns the compiled expression that always evaluates to the given value.
+     *
+     * @param value a double value.
+     * @return the compiled expression that always evaluates to the given value.
+     */
+    static MethodHandle constant(double value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(double.class, value), 0, NUMERIC_TYPE.parameterList());
+    }
+
+    /**
+     * Returns the compiled expression that always evaluates to the given value.
+     *
+     * @param value a boolean value.
+     * @return the compiled expression that always evaluates to the given value.
+     */
+    static MethodHandle constant(boolean value) {
+        return MethodHandles.dropArguments(MethodHandles.constant(boolean.class, value), 0, BOOLEAN_TYPE.parameterList());
+    }
+
+    /**
+     * Returns the compiled expression evaluating to the number of agents in the given species.
+     *
+     * @param indexes species indexes.
+     * @return the compiled expression evaluating to the number of agents in the given species.
+     */
+    static MethodHandle occupancy(int[] indexes) {
+        MethodHandle handle;
+        if (indexes.length == 1) {
+            handle = MethodHandles.insertArguments(find("occupancyOf", double.class, int[].class, int.class), 1, indexes[0]);
+        } else {
+            handle = MethodHandles.insertArguments(find("occupancyOf", double.class, int[].class, int[].class), 1, (Object) indexes);
+        }
+        return MethodHandles.dropArguments(handle, 1, double.class, double.class);
+    }
+
+    /**
+     * Returns the compiled expression evaluating to the fraction of agents in the given species.
+     *
+     * @param indexes species indexes.
+     * @return the compiled expression evaluating to the fraction of agents in the given species.
+     */
+    static MethodHandle fraction(int[] indexes) {
+        MethodHandle handle = MethodHandles.insertArguments(find("fractionOf", double.class, int[].class, double.class, int[].class), 2, (Object) indexes);
+        return MethodHandles.dropArguments(handle, 2, double.class);
+    }
+
+    /**
+     * Returns the compiled expression obtained by applying the given arithmetic operator to two compiled expressions.
+     * Valid operators are <code>"+"</code>, <code>"-"</code>, <code>"*"</code>, <code>"/"</code>, <code>"//"</code>,
+     * <code>"%"</code>, <code>"^"</code>, <code>"min"</code> and <code>"max"</code>.
+     *
+     * @param op an arithmetic operator.
+     * @param left first argument.
+     * @param right second argument.
+     * @return the compiled expression obtained by applying the given operator to the two arguments.
+     */
+    static MethodHandle arithmetic(String op, MethodHandle left, MethodHandle right) {
+        return combine(find(getArithmeticOperatorName(op), double.class, double.class, double.class), NUMERIC_TYPE, left, right);
+    }
+
+    private static String getArithmeticOperatorName(String op) {
+        switch (op) {
+            case "+": return "sum";
+            case "-": return "sub";
+            case "*": return "mul";
+            case "/": return "div";
+            case "//": return "zeroDiv";
+            case "%": return "mod";
+            case "^": return "pow";
+            case "min": return "min";
+            case "max": return "max";
+            default: throw new IllegalArgumentException(op);
+        }
+    }
+
+    /**
+     * Returns the compiled expression obtained by comparing two compiled expressions. Valid operators are
+     * <code>"<"</code>, <code>"<="</code>, <code>"=="</code>, <code>">="</code> and <code>">"</code>.
+     *
+     * @param op a comparison operator.
+     * @param left first argument.
+     * @param right second argument.
+     * @return the compiled expression obtained by comparing the two arguments.
+     */
+    static MethodHandle relation(String op, MethodHandle left, MethodHandle right) {
+        return combine(find(getRelationOperatorName(op), boolean.class, double.class, double.class), BOOLEAN_TYPE, left, right);
+    }
+
+    private static String getRelationOperatorName(String op) {
+        switch (op) {
+            case "<": return "lessThan";
+            case "<=": return "lessOrEqualThan";
+            case "==": return "equalTo";
+            case ">=": return "greaterOrEqualThan";
+            case ">": return "greaterThan";
+            default: throw new IllegalArgumentException(op);
+        }
+    }
+
+    /**
+     * Returns the compiled expression obtained by applying the given unary operator to a compiled expression.
+     * Valid operators are <code>"-"</code>, <code>"round"</code>, <code>"floor"</code> and <code>"ceil"</code>.
+     *
+     * @param op a unary operator.
+     * @param arg operator argument.
+     * @return the compiled expression obtained by applying the given operator to the argument.
+     */
+    static MethodHandle unary(String op, MethodHandle arg) {
+        return MethodHandles.filterReturnValue(arg, find(getUnaryOperatorName(op), double.class, double.class));
+    }
+
+    private static String getUnaryOperatorName(String op) {
+        switch (op) {
+            case "-": return "minus";
+            case "round": return "round";
+            case "floor": return "floor";
+            case "ceil": return "ceil";
+            default: throw new IllegalArgumentException(op);
+        }
+    }
+
+    /**
+     * Returns the compiled expression evaluating to the conjunction of two boolean expressions.
+     *
+     * @param left first argument.
+     * @param right second argument.
+     * @return the compiled expression evaluating to the conjunction of two boolean expressions.
+     */
+    static MethodHandle and(MethodHandle left, MethodHandle right) {
+        return MethodHandles.guardWithTest(left, right, constant(false));
+    }
+
+    /**
+     * Returns the compiled expression evaluating to the disjunction of two boolean expressions.
+     *
+     * @param left first argument.
+     * @param right second argument.
+     * @return the compiled expression evaluating to the disjunction of two boolean expressions.
+     */
+    static MethodHandle or(MethodHandle left, MethodHandle right) {
+        return MethodHandles.guardWithTest(left, constant(true), right);
+    }
+
+    /**
+     * Returns the compiled expression evaluating to the negation of a boolean expression.
+     *
+     * @param arg the negated expression.
+     * @return the compiled expression evaluating to the negation of a boolean expression.
+     */
+    static MethodHandle not(MethodHandle arg) {
+        return MethodHandles.filterReturnValue(arg, find("not", boolean.class, boolean.class));
+    }
+
+    /**
+     * Returns the compiled expression evaluating to <code>thenBranch</code> when <code>guard</code> is satisfied
+     * and to <code>elseBranch</code> otherwise.
+     *
+     * @param guard a boolean expression.
+     * @param thenBranch expression evaluated when the guard is satisfied.
+     * @param elseBranch expression evaluated when the guard is not satisfied.
+     * @return the compiled conditional expression.
+     */
+    static MethodHandle conditional(MethodHandle guard, MethodHandle thenBranch, MethodHandle elseBranch) {
+        return MethodHandles.guardWithTest(guard, thenBranch, elseBranch);
+    }
+
+    private static MethodHandle combine(MethodHandle op, MethodType type, MethodHandle left, MethodHandle right) {
+        MethodHandle handle = MethodHandles.collectArguments(op, 0, left);
+        handle = MethodHandles.collectArguments(handle, left.type().parameterCount(), right);
+        return MethodHandles.permuteArguments(handle, type, ARGUMENTS_PERMUTATION);
+    }
+
+    private static MethodHandle find(String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            return LOOKUP.findStatic(CompiledExpressions.class, name, MethodType.methodType(returnType, parameters));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static double occupancyOf(int[] vector, int index) {
+        return vector[index];
+    }
+
+    private static double occupancyOf(int[] vector, int[] indexes) {
+        double result = 0.0;
+        for (int i : indexes) {
+            result += vector[i];
+        }
+        return result;
+    }
+
+    private static double fractionOf(int[] vector, double population, int[] indexes) {
+        return occupancyOf(vector, indexes) / population;
+    }
+
+    private static double sum(double x, double y) {
+        return x + y;
+    }
+
+    private static double sub(double x, double y) {
+        return x - y;
+    }
+
+    private static double mul(double x, double y) {
+        return x * y;
+    }
+
+    private static double div(double x, double y) {
+        return x / y;
+    }
+
+    private static double zeroDiv(double x, double y) {
+        return (y != 0.0 ? x / y : 0.0);
+    }
+
+    private static double mod(double x, double y) {
+        return x % y;
+    }
+
+    private static double pow(double x, double y) {
+        return Math.pow(x, y);
+    }
+
+    private static double min(double x, double y) {
+        return (x < y ? x : y);
+    }
+
+    private static double max(double x, double y) {
+        return (x < y ? y : x);
+    }
+
+    private static double minus(double x) {
+        return -x;
+    }
+
+    private static double round(double x) {
+        return Math.round(x);
+    }
+
+    private static double floor(double x) {
+        return Math.floor(x);
+    }
+
+    private static double ceil(double x) {
+        return Math.ceil(x);
+    }
+
+    private static boolean lessThan(double x, double y) {
+        return x < y;
+    }
+
+    private static boolean lessOrEqualThan(double x, double y) {
+        return x <= y;
+    }
+
+    private static boolean equalTo(double x, double y) {
+        return x == y;
+    }
+
+    private static boolean greaterOrEqualThan(double x, double y) {
+        return x >= y;
+    }
+
+    private static boolean greaterThan(double x, double y) {
+        return x > y;
+    }
+
+    private static boolean not(boolean x) {
+        return !x;
+    }
+
+}
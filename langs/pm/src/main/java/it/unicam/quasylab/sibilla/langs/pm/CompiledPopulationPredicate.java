@@ -0,0 +1,70 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.RatePopulationFunction;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.util.function.Predicate;
+
+/**
+ * A predicate on population states that is evaluated by a compiled expression (see {@link RateExpressionCompiler}).
+ * Compiled expressions are not serialized: after deserialization the interpreted expression is used.
+ */
+public class CompiledPopulationPredicate implements Predicate<PopulationState>, Serializable {
+
+    private static final long serialVersionUID = 4511809412350920377L;
+
+    private final transient MethodHandle handle;
+
+    private final RatePopulationFunction interpreted;
+
+    /**
+     * Creates a new predicate.
+     *
+     * @param handle compiled expression of type {@link CompiledExpressions#BOOLEAN_TYPE}.
+     * @param interpreted interpreted version of the same expression.
+     */
+    public CompiledPopulationPredicate(MethodHandle handle, RatePopulationFunction interpreted) {
+        this.handle = handle.asType(CompiledExpressions.BOOLEAN_TYPE);
+        this.interpreted = interpreted;
+    }
+
+    @Override
+    public boolean test(PopulationState state) {
+        if (handle == null) {
+            return interpreted.apply(0.0, state).booleanOf();
+        }
+        try {
+            return (boolean) handle.invokeExact(state.getPopulationVector(), state.population(), 0.0);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.RatePopulationFunction;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A rate function whose double value is computed by a compiled expression (see {@link RateExpressionCompiler}).
+ * Method {@link #apply(double, PopulationState)} is delegated to the interpreted version of the same expression.
+ * Compiled expressions are not serialized: after deserialization the interpreted function is used.
+ */
+public class CompiledRatePopulationFunction implements RatePopulationFunction {
+
+    private static final long serialVersionUID = -3108216441360826017L;
+
+    private final transient MethodHandle handle;
+
+    private final RatePopulationFunction interpreted;
+
+    /**
+     * Creates a new function.
+     *
+     * @param handle compiled expression of type {@link CompiledExpressions#NUMERIC_TYPE}.
+     * @param interpreted interpreted version of the same expression.
+     */
+    public CompiledRatePopulationFunction(MethodHandle handle, RatePopulationFunction interpreted) {
+        this.handle = handle.asType(CompiledExpressions.NUMERIC_TYPE);
+        this.interpreted = interpreted;
+    }
+
+    @Override
+    public SibillaValue apply(double now, PopulationState state) {
+        return interpreted.apply(now, state);
+    }
+
+    @Override
+    public double rate(double now, PopulationState state) {
+        if (handle == null) {
+            return interpreted.rate(now, state);
+        }
+        try {
+            return (double) handle.invokeExact(state.getPopulationVector(), state.population(), now);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -140,6 +140,10 @@ public class PopulationModelGenerator {
         return this.getParseTree().accept(new PopulationRuleGenerator(environment, registry));
     }
 
+    public List<PopulationRule> generateRules(EvaluationEnvironment environment, PopulationRegistry registry, boolean compileExpressions) {
+        return this.getParseTree().accept(new PopulationRuleGenerator(environment, registry, compileExpressions));
+    }
+
     public PopulationRegistry generatePopulationRegistry(EvaluationEnvironment environment) {
         return this.getParseTree().accept(new PopulationRegistryGenerator(environment));
     }
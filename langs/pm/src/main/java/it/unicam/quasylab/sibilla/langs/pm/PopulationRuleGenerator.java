@@ -28,6 +28,7 @@ import it.unicam.quasylab.sibilla.core.models.pm.PopulationRule;
 import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
 import it.unicam.quasylab.sibilla.core.models.pm.RatePopulationFunction;
 import it.unicam.quasylab.sibilla.core.models.pm.ReactionRule;
+import it.unicam.quasylab.sibilla.core.models.pm.SpeciesDependencies;
 import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
 import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
 
@@ -45,12 +46,25 @@ public class PopulationRuleGenerator extends PopulationModelBaseVisitor<List<Pop
     private final EvaluationEnvironment environment;
     private final PopulationRegistry registry;
     private final List<PopulationRule> rules;
+    private final boolean compileExpressions;
 
 
     public PopulationRuleGenerator(EvaluationEnvironment environment, PopulationRegistry registry) {
+        this(environment, registry, true);
+    }
+
+    /**
+     * Creates a new generator.
+     *
+     * @param environment evaluation environment.
+     * @param registry population registry.
+     * @param compileExpressions if true, rates and guards are compiled (see {@link RateExpressionCompiler}).
+     */
+    public PopulationRuleGenerator(EvaluationEnvironment environment, PopulationRegistry registry, boolean compileExpressions) {
         this.environment = environment;
         this.registry = registry;
         this.rules = new LinkedList<>();
+        this.compileExpressions = compileExpressions;
     }
 
     @Override
@@ -73,18 +87,28 @@ public class PopulationRuleGenerator extends PopulationModelBaseVisitor<List<Pop
     }
 
     public PopulationRule getRule(String name, Function<String,Optional<SibillaValue>> evaluator, Map<String,SibillaValue> map, PopulationModelParser.Rule_bodyContext body) {
-        RateExpressionEvaluator expressionEvaluator =  new RateExpressionEvaluator(PopulationModelGenerator.combine(evaluator,map), registry);
+        Function<String, Optional<SibillaValue>> resolver = PopulationModelGenerator.combine(evaluator, map);
+        RateExpressionEvaluator expressionEvaluator =  new RateExpressionEvaluator(resolver, registry);
+        SpeciesDependenciesEvaluator dependenciesEvaluator = new SpeciesDependenciesEvaluator(resolver, registry);
+        RateExpressionCompiler compiler = (compileExpressions ? new RateExpressionCompiler(resolver, registry) : null);
         RatePopulationFunction biPredicate = (body.guard==null?null:body.guard.accept(expressionEvaluator));
         Predicate<PopulationState> predicate = null;
+        SpeciesDependencies guardDependencies = SpeciesDependencies.NONE;
         if (biPredicate != null) {
-            predicate = s -> biPredicate.apply(0.0,s).booleanOf();
+            predicate = (compiler == null ? s -> biPredicate.apply(0.0,s).booleanOf() : compiler.compileGuard(body.guard, biPredicate));
+            guardDependencies = body.guard.accept(dependenciesEvaluator);
+        }
+        RatePopulationFunction rate = body.rate.accept(expressionEvaluator);
+        if (compiler != null) {
+            rate = compiler.compileRate(body.rate, rate);
         }
         return new ReactionRule(
                 name+(map.isEmpty()?"":map.toString()),
                 predicate,
+                guardDependencies,
                 PopulationModelGenerator.getPopulationArray(registry, evaluator, map, body.pre.species_pattern_element()),
                 PopulationModelGenerator.getPopulationArray(registry, evaluator, map, body.post.species_pattern_element()),
-                body.rate.accept(expressionEvaluator)
+                RatePopulationFunction.of(body.rate.accept(dependenciesEvaluator), rate)
         );
     }
 
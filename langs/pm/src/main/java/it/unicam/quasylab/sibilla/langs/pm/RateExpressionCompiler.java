@@ -0,0 +1,325 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.RatePopulationFunction;
+import it.unicam.quasylab.sibilla.core.models.pm.SpeciesDependencies;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaBoolean;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaDouble;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaInteger;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * This visitor compiles rate and guard expressions into method handles working on primitive values
+ * (see {@link CompiledExpressions}). Sub-expressions that do not depend on the population state are evaluated
+ * at compile time by {@link RateExpressionEvaluator}. An expression is not compiled when its value may depend on
+ * integer arithmetic on non constant values, or when it is not well typed; in these cases the interpreted
+ * function is used.
+ */
+public class RateExpressionCompiler extends PopulationModelBaseVisitor<RateExpressionCompiler.CompiledExpression> {
+
+    private final RateExpressionEvaluator evaluator;
+    private final SpeciesDependenciesEvaluator dependenciesEvaluator;
+    private final Function<String, Optional<SibillaValue>> resolver;
+    private final PopulationRegistry registry;
+
+    public RateExpressionCompiler(Function<String, Optional<SibillaValue>> resolver, PopulationRegistry registry) {
+        this.resolver = resolver;
+        this.registry = registry;
+        this.evaluator = new RateExpressionEvaluator(resolver, registry);
+        this.dependenciesEvaluator = new SpeciesDependenciesEvaluator(resolver, registry);
+    }
+
+    /**
+     * Returns the compiled version of the given rate expression. If the expression cannot be compiled, the function
+     * <code>interpreted</code> is returned.
+     *
+     * @param expr a rate expression.
+     * @param interpreted the interpreted version of the expression.
+     * @return the compiled version of the given rate expression.
+     */
+    public RatePopulationFunction compileRate(PopulationModelParser.ExprContext expr, RatePopulationFunction interpreted) {
+        CompiledExpression compiled = compile(expr);
+        if ((compiled == null)||(!compiled.isNumeric())) {
+            return interpreted;
+        }
+        return new CompiledRatePopulationFunction(compiled.handle, interpreted);
+    }
+
+    /**
+     * Returns the compiled version of the given guard. If the expression cannot be compiled, the predicate obtained
+     * from <code>interpreted</code> is returned.
+     *
+     * @param expr a boolean expression.
+     * @param interpreted the interpreted version of the expression.
+     * @return the compiled version of the given guard.
+     */
+    public Predicate<PopulationState> compileGuard(PopulationModelParser.ExprContext expr, RatePopulationFunction interpreted) {
+        CompiledExpression compiled = compile(expr);
+        if ((compiled == null)||(compiled.type != ValueType.BOOLEAN)) {
+            return s -> interpreted.apply(0.0, s).booleanOf();
+        }
+        return new CompiledPopulationPredicate(compiled.handle, interpreted);
+    }
+
+    private CompiledExpression compile(PopulationModelParser.ExprContext expr) {
+        if (SpeciesDependencies.NONE.equals(expr.accept(dependenciesEvaluator))) {
+            return constantOf(expr);
+        }
+        return expr.accept(this);
+    }
+
+    private CompiledExpression constantOf(PopulationModelParser.ExprContext expr) {
+        SibillaValue value;
+        try {
+            value = expr.accept(evaluator).apply(0.0, null);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (value instanceof SibillaBoolean) {
+            return new CompiledExpression(ValueType.BOOLEAN, CompiledExpressions.constant(value.booleanOf()));
+        }
+        if (value instanceof SibillaInteger) {
+            return new CompiledExpression(ValueType.INTEGER, CompiledExpressions.constant(value.doubleOf()));
+        }
+        if (value instanceof SibillaDouble) {
+            return new CompiledExpression(ValueType.REAL, CompiledExpressions.constant(value.doubleOf()));
+        }
+        return null;
+    }
+
+    @Override
+    protected CompiledExpression defaultResult() {
+        return null;
+    }
+
+    @Override
+    public CompiledExpression visitBracketExpression(PopulationModelParser.BracketExpressionContext ctx) {
+        return compile(ctx.expr());
+    }
+
+    @Override
+    public CompiledExpression visitPopulationSizeExpression(PopulationModelParser.PopulationSizeExpressionContext ctx) {
+        int[] indexes = PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent);
+        return new CompiledExpression(ValueType.REAL, CompiledExpressions.occupancy(indexes));
+    }
+
+    @Override
+    public CompiledExpression visitPopulationFractionExpression(PopulationModelParser.PopulationFractionExpressionContext ctx) {
+        int[] indexes = PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent);
+        return new CompiledExpression(ValueType.REAL, CompiledExpressions.fraction(indexes));
+    }
+
+    @Override
+    public CompiledExpression visitExponentExpression(PopulationModelParser.ExponentExpressionContext ctx) {
+        CompiledExpression left = compile(ctx.left);
+        CompiledExpression right = compile(ctx.right);
+        if (!areNumeric(left, right)) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.REAL, CompiledExpressions.arithmetic("^", left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitMulDivExpression(PopulationModelParser.MulDivExpressionContext ctx) {
+        return compileArithmeticExpression(ctx.left, ctx.op.getText(), ctx.right);
+    }
+
+    @Override
+    public CompiledExpression visitAddSubExpression(PopulationModelParser.AddSubExpressionContext ctx) {
+        return compileArithmeticExpression(ctx.left, ctx.op.getText(), ctx.right);
+    }
+
+    private CompiledExpression compileArithmeticExpression(PopulationModelParser.ExprContext leftExpression, String op, PopulationModelParser.ExprContext rightExpression) {
+        CompiledExpression left = compile(leftExpression);
+        CompiledExpression right = compile(rightExpression);
+        if (!areNumeric(left, right)) {
+            return null;
+        }
+        if ((left.type != ValueType.REAL)&&(right.type != ValueType.REAL)) {
+            // Integer arithmetic is only supported on constant values.
+            return null;
+        }
+        return new CompiledExpression(ValueType.REAL, CompiledExpressions.arithmetic(op, left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitUnaryExpression(PopulationModelParser.UnaryExpressionContext ctx) {
+        CompiledExpression arg = compile(ctx.arg);
+        if ((arg == null)||(!arg.isNumeric())) {
+            return null;
+        }
+        if (ctx.op.getText().equals("-")) {
+            return new CompiledExpression(arg.type, CompiledExpressions.unary("-", arg.handle));
+        } else {
+            return arg;
+        }
+    }
+
+    @Override
+    public CompiledExpression visitExpressionRound(PopulationModelParser.ExpressionRoundContext ctx) {
+        return compileRoundingExpression("round", ctx.argument);
+    }
+
+    @Override
+    public CompiledExpression visitExpressionFloor(PopulationModelParser.ExpressionFloorContext ctx) {
+        return compileRoundingExpression("floor", ctx.argument);
+    }
+
+    @Override
+    public CompiledExpression visitExpressionCeil(PopulationModelParser.ExpressionCeilContext ctx) {
+        return compileRoundingExpression("ceil", ctx.argument);
+    }
+
+    private CompiledExpression compileRoundingExpression(String op, PopulationModelParser.ExprContext argument) {
+        CompiledExpression arg = compile(argument);
+        if ((arg == null)||(!arg.isNumeric())) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.REAL, CompiledExpressions.unary(op, arg.handle));
+    }
+
+    @Override
+    public CompiledExpression visitExpressionMin(PopulationModelParser.ExpressionMinContext ctx) {
+        return compileSelectionExpression("min", ctx.firstArgument, ctx.secondArgument);
+    }
+
+    @Override
+    public CompiledExpression visitExpressionMax(PopulationModelParser.ExpressionMaxContext ctx) {
+        return compileSelectionExpression("max", ctx.firstArgument, ctx.secondArgument);
+    }
+
+    private CompiledExpression compileSelectionExpression(String op, PopulationModelParser.ExprContext firstArgument, PopulationModelParser.ExprContext secondArgument) {
+        CompiledExpression left = compile(firstArgument);
+        CompiledExpression right = compile(secondArgument);
+        if (!areNumeric(left, right)) {
+            return null;
+        }
+        return new CompiledExpression(left.type.merge(right.type), CompiledExpressions.arithmetic(op, left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitIfThenElseExpression(PopulationModelParser.IfThenElseExpressionContext ctx) {
+        CompiledExpression guard = compile(ctx.guard);
+        CompiledExpression thenBranch = compile(ctx.thenBranch);
+        CompiledExpression elseBranch = compile(ctx.elseBranch);
+        if ((guard == null)||(thenBranch == null)||(elseBranch == null)||(guard.type != ValueType.BOOLEAN)) {
+            return null;
+        }
+        if ((thenBranch.type == ValueType.BOOLEAN)!=(elseBranch.type == ValueType.BOOLEAN)) {
+            return null;
+        }
+        return new CompiledExpression(thenBranch.type.merge(elseBranch.type), CompiledExpressions.conditional(guard.handle, thenBranch.handle, elseBranch.handle));
+    }
+
+    @Override
+    public CompiledExpression visitRelationExpression(PopulationModelParser.RelationExpressionContext ctx) {
+        CompiledExpression left = compile(ctx.left);
+        CompiledExpression right = compile(ctx.right);
+        if (!areNumeric(left, right)) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.BOOLEAN, CompiledExpressions.relation(ctx.op.getText(), left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitAndExpression(PopulationModelParser.AndExpressionContext ctx) {
+        CompiledExpression left = compile(ctx.left);
+        CompiledExpression right = compile(ctx.right);
+        if (!areBoolean(left, right)) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.BOOLEAN, CompiledExpressions.and(left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitOrExpression(PopulationModelParser.OrExpressionContext ctx) {
+        CompiledExpression left = compile(ctx.left);
+        CompiledExpression right = compile(ctx.right);
+        if (!areBoolean(left, right)) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.BOOLEAN, CompiledExpressions.or(left.handle, right.handle));
+    }
+
+    @Override
+    public CompiledExpression visitNegationExpression(PopulationModelParser.NegationExpressionContext ctx) {
+        CompiledExpression arg = compile(ctx.arg);
+        if ((arg == null)||(arg.type != ValueType.BOOLEAN)) {
+            return null;
+        }
+        return new CompiledExpression(ValueType.BOOLEAN, CompiledExpressions.not(arg.handle));
+    }
+
+    private static boolean areNumeric(CompiledExpression left, CompiledExpression right) {
+        return (left != null)&&(right != null)&&left.isNumeric()&&right.isNumeric();
+    }
+
+    private static boolean areBoolean(CompiledExpression left, CompiledExpression right) {
+        return (left != null)&&(right != null)&&(left.type == ValueType.BOOLEAN)&&(right.type == ValueType.BOOLEAN);
+    }
+
+    /**
+     * Static type of compiled expressions. Type <code>NUMBER</code> is used for expressions that, according
+     * to the evaluated branch, may return either an integer or a real value.
+     */
+    private enum ValueType {
+        INTEGER,
+        REAL,
+        NUMBER,
+        BOOLEAN;
+
+        ValueType merge(ValueType other) {
+            return (this == other ? this : NUMBER);
+        }
+    }
+
+    /**
+     * A compiled expression together with its static type.
+     */
+    public static class CompiledExpression {
+
+        private final ValueType type;
+
+        private final MethodHandle handle;
+
+        private CompiledExpression(ValueType type, MethodHandle handle) {
+            this.type = type;
+            this.handle = handle;
+        }
+
+        private boolean isNumeric() {
+            return type != ValueType.BOOLEAN;
+        }
+
+    }
+
+}
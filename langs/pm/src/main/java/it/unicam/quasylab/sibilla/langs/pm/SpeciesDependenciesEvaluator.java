@@ -0,0 +1,67 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.pm.SpeciesDependencies;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.util.values.SibillaValue;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * This visitor is used to compute the species an expression depends on. This information is used to
+ * avoid the reevaluation of rates that are not affected by a rule firing.
+ */
+public class SpeciesDependenciesEvaluator extends PopulationModelBaseVisitor<SpeciesDependencies> {
+
+    private final Function<String, Optional<SibillaValue>> resolver;
+    private final PopulationRegistry registry;
+
+    public SpeciesDependenciesEvaluator(Function<String, Optional<SibillaValue>> resolver, PopulationRegistry registry) {
+        this.resolver = resolver;
+        this.registry = registry;
+    }
+
+    @Override
+    protected SpeciesDependencies defaultResult() {
+        return SpeciesDependencies.NONE;
+    }
+
+    @Override
+    protected SpeciesDependencies aggregateResult(SpeciesDependencies aggregate, SpeciesDependencies nextResult) {
+        return aggregate.union(nextResult);
+    }
+
+    @Override
+    public SpeciesDependencies visitPopulationFractionExpression(PopulationModelParser.PopulationFractionExpressionContext ctx) {
+        return SpeciesDependencies.fractionOf(PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent));
+    }
+
+    @Override
+    public SpeciesDependencies visitPopulationSizeExpression(PopulationModelParser.PopulationSizeExpressionContext ctx) {
+        return SpeciesDependencies.of(PopulationModelGenerator.getIndexes(resolver, registry, ctx.agent));
+    }
+
+}
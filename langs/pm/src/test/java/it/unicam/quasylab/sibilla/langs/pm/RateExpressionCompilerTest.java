@@ -0,0 +1,126 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.langs.pm;
+
+import it.unicam.quasylab.sibilla.core.models.EvaluationEnvironment;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationRule;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationTransition;
+import it.unicam.quasylab.sibilla.core.models.pm.util.PopulationRegistry;
+import it.unicam.quasylab.sibilla.core.simulator.DefaultRandomGenerator;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateExpressionCompilerTest {
+
+    private static final String SIR = "param meetRate = 1.0;\n" +
+            "param infectionRate = 0.005;\n" +
+            "param recoverRate = 0.005;\n" +
+            "species S;\n" +
+            "species I;\n" +
+            "species R;\n" +
+            "rule infection {\n" +
+            "    S|I -[ #S * %I * meetRate * infectionRate ]-> I|I\n" +
+            "}\n" +
+            "rule recovered {\n" +
+            "    I -[ #I * recoverRate ]-> R\n" +
+            "}\n" +
+            "system init = S<95>|I<5>|R<0>;";
+
+    private static final String GRID = "const N = 4;\n" +
+            "const M = 4;\n" +
+            "param lambdaMovementS = 5;\n" +
+            "param lambdaMeet = 10.0;\n" +
+            "species W of [0,N]*[0,M];\n" +
+            "species S of [0,N]*[0,M];\n" +
+            "rule go_up_S for i in [0,N] and j in [0,M] when j<M-1{\n" +
+            "    S[i,j] -[ lambdaMovementS * (1 - (%W[i,j+1])) ]-> S[i,j+1]\n" +
+            "}\n" +
+            "rule eating for i in [0,N] and j in [0,M]{\n" +
+            "    W[i,j]|S[i,j] -[ (lambdaMeet*(%W[i,j])) ]-> W[i,j]\n" +
+            "}\n" +
+            "system start = W[1,1]<5>|S[1,1]<20>;";
+
+    private static final String EXPRESSIONS = "const k = 3;\n" +
+            "species A;\n" +
+            "species B;\n" +
+            "rule r1 {\n" +
+            "    [ (#A > 2) && !(#B == 0) ] A -[ max(#A, 2.0) ^ 0.5 + round(%A * 10) // #B ]-> B\n" +
+            "}\n" +
+            "rule r2 {\n" +
+            "    B -[ (#A > #B ? 1 : 2) / 2 ]-> A\n" +
+            "}\n" +
+            "rule r3 {\n" +
+            "    [ #A > 0 || #B > 0 ] A -[ k / 2 * -#B + floor(%B * 7) % 3 + ceil(min(#A, #B) / 3) ]-> A|A\n" +
+            "}\n" +
+            "system init = A<10>|B<10>;";
+
+    @Test
+    void compiledRatesShouldBeEqualToInterpretedOnes() throws ModelGenerationException {
+        checkRates(SIR);
+        checkRates(GRID);
+        checkRates(EXPRESSIONS);
+    }
+
+    @Test
+    void integerDivisionOnNonConstantValuesShouldNotBeCompiled() throws ModelGenerationException {
+        PopulationModelGenerator pmg = new PopulationModelGenerator(EXPRESSIONS);
+        EvaluationEnvironment env = pmg.generateEvaluationEnvironment();
+        PopulationRegistry reg = pmg.generatePopulationRegistry(env);
+        PopulationRule rule = pmg.generateRules(env, reg, true).get(1);
+        PopulationTransition transition = rule.apply(new DefaultRandomGenerator(), 0.0, new PopulationState(new int[]{1, 5}));
+        assertNotNull(transition);
+        assertEquals(1.0, transition.getRate());
+        assertNull(rule.apply(new DefaultRandomGenerator(), 0.0, new PopulationState(new int[]{5, 1})));
+    }
+
+    private static void checkRates(String code) throws ModelGenerationException {
+        PopulationModelGenerator pmg = new PopulationModelGenerator(code);
+        assertTrue(pmg.validate());
+        EvaluationEnvironment env = pmg.generateEvaluationEnvironment();
+        PopulationRegistry reg = pmg.generatePopulationRegistry(env);
+        List<PopulationRule> interpreted = pmg.generateRules(env, reg, false);
+        List<PopulationRule> compiled = pmg.generateRules(env, reg, true);
+        assertEquals(interpreted.size(), compiled.size());
+        RandomGenerator rg = new DefaultRandomGenerator(0);
+        for (int i = 0; i < 100; i++) {
+            PopulationState state = new PopulationState(reg.size(), j -> rg.nextInt(5));
+            for (int j = 0; j < interpreted.size(); j++) {
+                PopulationTransition expected = interpreted.get(j).apply(rg, 0.0, state);
+                PopulationTransition actual = compiled.get(j).apply(rg, 0.0, state);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertNotNull(actual);
+                    assertEquals(expected.getRate(), actual.getRate());
+                }
+            }
+        }
+    }
+
+}
@@ -22,6 +22,10 @@ command : module_command
         | replica_command
         | deadline_command
         | dt_command
+        | modes_command
+        | simulation_mode_command
+        | mode_parameter_command
+        | mode_command
         | measures_command
         | add_measure_command
         | remove_measure_command
@@ -59,7 +63,7 @@ command : module_command
 
 trace_command: 'trace' (input=STRING) 'in' (output=STRING) ('h' '=' header=expr)?;
 
-reachability_command: 'probreach' goal=STRING ('while' condition=STRING)? 'with' 'alpha' '='  alpha=REAL 'and' 'delta' '=' delta=REAL;
+reachability_command: 'probreach' goal=STRING ('while' condition=STRING)? ('>=' threshold=REAL)? 'with' 'alpha' '='  alpha=REAL 'and' 'delta' '=' delta=REAL (sequential='sequential')?;
 
 first_passage_time: 'fpt' name=STRING;
 
@@ -110,6 +114,18 @@ replica_command : 'replica' (value=INTEGER)?
 deadline_command : 'deadline' (value=(REAL|INTEGER))?
         ;
 
+modes_command : 'modes'
+        ;
+
+simulation_mode_command : 'simulation' 'mode' (name=STRING)?
+        ;
+
+mode_parameter_command : 'mode' 'parameter' name=STRING (value=(REAL|INTEGER))?
+        ;
+
+mode_command : 'mode' (name=STRING)?
+        ;
+
 dt_command : 'dt' (value=(REAL|INTEGER))?
         ;
 
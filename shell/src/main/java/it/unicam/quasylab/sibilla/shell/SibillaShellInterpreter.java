@@ -28,6 +28,8 @@ import it.unicam.quasylab.sibilla.core.runtime.CommandExecutionException;
 import it.unicam.quasylab.sibilla.core.runtime.SibillaRuntime;
 import it.unicam.quasylab.sibilla.core.runtime.command.CommandLoadModule;
 import it.unicam.quasylab.sibilla.core.simulator.sampling.FirstPassageTime;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTest;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SequentialTestResult;
 import it.unicam.quasylab.sibilla.langs.util.ParseError;
 import it.unicam.quasylab.sibilla.langs.util.SibillaParseErrorListener;
 
@@ -304,6 +306,68 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
         return false;
     }
 
+    @Override
+    public Boolean visitModes_command(SibillaScriptParser.Modes_commandContext ctx) {
+        try {
+            printInfo("List of available modes:", runtime.getModes());
+            printInfo("List of mode parameters:", runtime.getModeParameters());
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitSimulation_mode_command(SibillaScriptParser.Simulation_mode_commandContext ctx) {
+        try {
+            if (ctx.name == null) {
+                showMessage(String.format("Current simulation mode=%s", runtime.getSimulationManagerMode()));
+                printInfo("List of available simulation modes:", runtime.getSimulationManagerModes());
+                return true;
+            }
+            runtime.setSimulationManagerMode(getStringContent(ctx.name.getText()));
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitMode_command(SibillaScriptParser.Mode_commandContext ctx) {
+        try {
+            if (ctx.name == null) {
+                showMessage(String.format("Current mode=%s", runtime.getMode()));
+                return true;
+            }
+            runtime.setMode(getStringContent(ctx.name.getText()));
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean visitMode_parameter_command(SibillaScriptParser.Mode_parameter_commandContext ctx) {
+        try {
+            String name = getStringContent(ctx.name.getText());
+            if (ctx.value == null) {
+                showMessage(String.format("Current %s=%s", name, runtime.getModeParameter(name)));
+                return true;
+            }
+            runtime.setModeParameter(name, Double.parseDouble(ctx.value.getText()));
+            showMessage(OK_MESSAGE);
+            return true;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+        }
+        return false;
+    }
+
     @Override
     public Boolean visitMeasures_command(SibillaScriptParser.Measures_commandContext ctx) {
         String[] measures = Arrays.stream(runtime.getMeasures()).map(s -> (runtime.isEnabledMeasure(s) ? s + " *" : s)).toArray(String[]::new);
@@ -560,6 +624,9 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
         String targetPredicate = getStringContent(ctx.goal.getText());
         double alpha = Double.parseDouble(ctx.alpha.getText());
         double delta = Double.parseDouble(ctx.delta.getText());
+        if ((ctx.threshold != null)||(ctx.sequential != null)) {
+            return sequentialReachability(ctx, monitor, targetPredicate, alpha, delta);
+        }
         try {
             double prob = 0.0;
             if (ctx.condition != null) {
@@ -575,6 +642,31 @@ public class SibillaShellInterpreter extends SibillaScriptBaseVisitor<Boolean> {
         }
     }
 
+    private Boolean sequentialReachability(SibillaScriptParser.Reachability_commandContext ctx, ShellSimulationMonitor monitor, String targetPredicate, double alpha, double delta) {
+        String condition = (ctx.condition == null ? null : getStringContent(ctx.condition.getText()));
+        try {
+            SequentialTest test;
+            if (ctx.threshold != null) {
+                test = SequentialTest.probabilityRatioTest(Double.parseDouble(ctx.threshold.getText()), delta, alpha, alpha);
+            } else {
+                test = SequentialTest.intervalEstimation(alpha, delta);
+            }
+            SequentialTestResult result = runtime.checkProbReach(monitor, condition, targetPredicate, test);
+            if (ctx.threshold != null) {
+                showMessage("\nVerdict: "+result.isAccepted());
+            }
+            showMessage("\nProbability: "+result.getEstimate());
+            showMessage("Runs: "+result.getRuns()+(result.isTruncated()?" (maximum number of runs reached)":""));
+            return true;
+        } catch (IllegalArgumentException e) {
+            showErrorMessage(e.getMessage());
+            return false;
+        } catch (CommandExecutionException e) {
+            printErrorMessages(e.getErrorMessages());
+            return false;
+        }
+    }
+
     @Override
     public Boolean visitRun_synthesis_command(SibillaScriptParser.Run_synthesis_commandContext ctx) {
         try{
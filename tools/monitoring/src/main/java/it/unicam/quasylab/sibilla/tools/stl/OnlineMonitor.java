@@ -0,0 +1,207 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.util.Interval;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * This interface implements a monitor that evaluates the robustness of a formula while a trajectory is
+ * generated. Differently from {@link QuantitativeMonitor}, that needs the whole trajectory, each monitor of this
+ * kind creates an {@link OnlineSignal} that is fed with the sampled states and that publishes the robustness
+ * values as soon as they are determined.
+ *
+ * @param <S> type of states in the trajectory
+ */
+public interface OnlineMonitor<S> {
+
+    /**
+     * Returns a new online signal used to monitor a single trajectory.
+     *
+     * @return a new online signal used to monitor a single trajectory.
+     */
+    OnlineSignal<S> start();
+
+    /**
+     * Return the time horizon of interest, which indicates the maximum time duration over which
+     * the monitor is concerned.
+     *
+     * @return The time horizon of interest.
+     */
+    double getTimeHorizon();
+
+    private static <S> OnlineMonitor<S> of(Supplier<OnlineSignal<S>> supplier, double timeHorizon) {
+        return new OnlineMonitor<>() {
+            @Override
+            public OnlineSignal<S> start() {
+                return supplier.get();
+            }
+
+            @Override
+            public double getTimeHorizon() {
+                return timeHorizon;
+            }
+        };
+    }
+
+    /**
+     * A monitor used to evaluate an atomic formula.
+     *
+     * @param function the function used to evaluate the robustness of a state
+     * @return the atomic monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> atomicFormula(ToDoubleFunction<S> function) {
+        return of(() -> OnlineSignal.of(function), 0);
+    }
+
+    /**
+     * Create an online monitor for the true formula.
+     *
+     * @param <S> type of states in the trajectory
+     * @return An online monitor for the true formula.
+     */
+    static <S> OnlineMonitor<S> trueFormula() {
+        return atomicFormula(s -> Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Create an online monitor for the false formula.
+     *
+     * @param <S> type of states in the trajectory
+     * @return An online monitor for the false formula.
+     */
+    static <S> OnlineMonitor<S> falseFormula() {
+        return atomicFormula(s -> Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * A monitor used to evaluate the negation of a formula.
+     *
+     * @param m monitor to negate
+     * @return the negation monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> negation(OnlineMonitor<S> m) {
+        return of(() -> OnlineSignal.apply(m.start(), d -> -d), m.getTimeHorizon());
+    }
+
+    /**
+     * A monitor used to evaluate the conjunction of two formulae.
+     *
+     * @param m1 left argument of the conjunction
+     * @param m2 right argument of the conjunction
+     * @return the conjunction monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> conjunction(OnlineMonitor<S> m1, OnlineMonitor<S> m2) {
+        return of(() -> OnlineSignal.apply(m1.start(), Math::min, m2.start()), Math.max(m1.getTimeHorizon(), m2.getTimeHorizon()));
+    }
+
+    /**
+     * A monitor used to evaluate the disjunction of two formulae.
+     *
+     * @param m1 left argument of the disjunction
+     * @param m2 right argument of the disjunction
+     * @return the disjunction monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> disjunction(OnlineMonitor<S> m1, OnlineMonitor<S> m2) {
+        return of(() -> OnlineSignal.apply(m1.start(), Math::max, m2.start()), Math.max(m1.getTimeHorizon(), m2.getTimeHorizon()));
+    }
+
+    /**
+     * A monitor used to evaluate the implication of two formulae.
+     *
+     * @param m1 left argument of the implication
+     * @param m2 right argument of the implication
+     * @return the implication monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> implication(OnlineMonitor<S> m1, OnlineMonitor<S> m2) {
+        return disjunction(negation(m1), m2);
+    }
+
+    /**
+     * A monitor used to evaluate the "if and only if" of two formulae.
+     *
+     * @param m1 left argument of the "if and only if"
+     * @param m2 right argument of the "if and only if"
+     * @return the "if and only if" monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> ifAndOnlyIf(OnlineMonitor<S> m1, OnlineMonitor<S> m2) {
+        return conjunction(implication(m1, m2), implication(m2, m1));
+    }
+
+    /**
+     * A monitor used to evaluate the "until" of two formulae within the given interval. As for
+     * {@link QuantitativeMonitor#until(QuantitativeMonitor, Interval, QuantitativeMonitor)}, this is the
+     * conjunction of the unbounded until with the eventually of the right argument: its values are
+     * determined only when the monitored trajectory ends.
+     *
+     * @param m1 left argument of the "until"
+     * @param interval interval where the right argument is expected to hold
+     * @param m2 right argument of the "until"
+     * @return the "until" monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> until(OnlineMonitor<S> m1, Interval interval, OnlineMonitor<S> m2) {
+        OnlineMonitor<S> eventually = eventually(interval, m2);
+        return of(
+                () -> OnlineSignal.apply(OnlineSignal.until(m1.start(), m2.start()), Math::min, eventually.start()),
+                interval.end() + Math.max(m1.getTimeHorizon(), m2.getTimeHorizon())
+        );
+    }
+
+    /**
+     * A monitor used to evaluate the "eventually" of a formula within the given interval. The maximum over the
+     * sliding window is computed with a monotone deque, so that each value of the monitored signal is inserted
+     * and removed at most once.
+     *
+     * @param interval the time interval over which the "eventually" monitor is applicable
+     * @param m the monitor to apply
+     * @return the "eventually" monitor
+     * @param <S> type of states in the trajectory
+     * @throws IllegalArgumentException if the start of the interval is greater than or equal to its end
+     */
+    static <S> OnlineMonitor<S> eventually(Interval interval, OnlineMonitor<S> m) {
+        if (interval.start() >= interval.end()) throw new IllegalArgumentException();
+        return of(() -> OnlineSignal.slidingMax(m.start(), interval.start(), interval.end()), interval.end() + m.getTimeHorizon());
+    }
+
+    /**
+     * A monitor used to evaluate the "globally" of a formula within the given interval.
+     *
+     * @param interval the time interval over which the "globally" monitor is applicable
+     * @param m the monitor to apply
+     * @return the "globally" monitor
+     * @param <S> type of states in the trajectory
+     */
+    static <S> OnlineMonitor<S> globally(Interval interval, OnlineMonitor<S> m) {
+        return negation(eventually(interval, negation(m)));
+    }
+
+}
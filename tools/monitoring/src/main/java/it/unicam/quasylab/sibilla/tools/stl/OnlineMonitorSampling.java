@@ -0,0 +1,243 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.WelfordStatistics;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class is used to evaluate an {@link OnlineMonitor} while trajectories are simulated. Each simulation run
+ * is handled by a {@link SamplingHandler} that feeds the monitor with the sampled states and records the
+ * robustness at the given time steps. A run is terminated as soon as the robustness at all the time steps is
+ * determined, that is when the simulation time exceeds the last time step plus the time horizon of the monitor.
+ * Robustness values of the different runs are aggregated to compute mean, standard deviation and
+ * satisfaction probability at each time step.
+ *
+ * @param <S> type of states in the trajectory
+ */
+public class OnlineMonitorSampling<S> implements Supplier<SamplingHandler<S>> {
+
+    private final OnlineMonitor<S> monitor;
+
+    private final double[] timeSteps;
+
+    private final WelfordStatistics statistics;
+
+    private final int[] satisfied;
+
+    /**
+     * Creates a new object used to evaluate the given monitor at the given time steps.
+     *
+     * @param monitor the monitor to evaluate
+     * @param timeSteps the (sorted) time steps where the monitor is evaluated
+     */
+    public OnlineMonitorSampling(OnlineMonitor<S> monitor, double[] timeSteps) {
+        this.monitor = monitor;
+        this.timeSteps = timeSteps;
+        this.statistics = new WelfordStatistics(timeSteps.length);
+        this.satisfied = new int[timeSteps.length];
+    }
+
+    /**
+     * Creates a new object used to evaluate the given monitor at time steps generated from 0 to the deadline
+     * with increments of dt.
+     *
+     * @param monitor the monitor to evaluate
+     * @param dt the time step increment
+     * @param deadline the last time step
+     */
+    public OnlineMonitorSampling(OnlineMonitor<S> monitor, double dt, double deadline) {
+        this(monitor, generateTimeSteps(deadline, dt));
+    }
+
+    private static double[] generateTimeSteps(double deadline, double dt) {
+        int stepsCount = (int) Math.ceil(deadline / dt)+1;
+        double[] timeSteps = new double[stepsCount];
+        for (int i = 0; i < stepsCount; i++) {
+            timeSteps[i] = i * dt;
+        }
+        return timeSteps;
+    }
+
+    /**
+     * Returns the simulation time after which the robustness at all the time steps is determined.
+     *
+     * @return the simulation time after which the robustness at all the time steps is determined.
+     */
+    public double getDeadline() {
+        return (timeSteps.length == 0 ? 0.0 : timeSteps[timeSteps.length - 1]) + monitor.getTimeHorizon();
+    }
+
+    @Override
+    public SamplingHandler<S> get() {
+        return new MonitorHandler<>(monitor, timeSteps, this::record);
+    }
+
+    /**
+     * Returns a handler that evaluates the given monitor on a single run and passes to the given consumer
+     * whether the robustness at time 0 is positive. The handled run is terminated as soon as this value
+     * is determined.
+     *
+     * @param monitor the monitor to evaluate
+     * @param outcome the consumer receiving the satisfaction of the monitored formula
+     * @return a handler that evaluates the satisfaction of the given monitor at time 0
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> SamplingHandler<S> satisfactionHandler(OnlineMonitor<S> monitor, Consumer<Boolean> outcome) {
+        return new MonitorHandler<>(monitor, new double[]{0.0}, robustness -> outcome.accept(robustness[0] > 0));
+    }
+
+    private synchronized void record(double[] robustness) {
+        statistics.add(robustness);
+        for (int i = 0; i < robustness.length; i++) {
+            if (robustness[i] > 0) {
+                satisfied[i]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of monitored runs.
+     *
+     * @return the number of monitored runs.
+     */
+    public synchronized long getRuns() {
+        return statistics.getN();
+    }
+
+    /**
+     * Returns the mean robustness at the given time steps.
+     *
+     * @return the mean robustness at the given time steps.
+     */
+    public synchronized double[] getMeanRobustness() {
+        double[] result = new double[timeSteps.length];
+        Arrays.setAll(result, statistics::getMean);
+        return result;
+    }
+
+    /**
+     * Returns the mean and the (sample) standard deviation of robustness at the given time steps.
+     *
+     * @return a double[][] array where:
+     *         - results[i][0] is the time step
+     *         - results[i][1] is the mean robustness at the time step
+     *         - results[i][2] is the standard deviation of robustness at the time step
+     */
+    public synchronized double[][] getMeanAndStandardDeviationRobustness() {
+        double[][] results = new double[timeSteps.length][3];
+        for (int i = 0; i < timeSteps.length; i++) {
+            results[i][0] = timeSteps[i];
+            results[i][1] = statistics.getMean(i);
+            results[i][2] = statistics.getStandardDeviation(i);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the fraction of runs where the robustness at the given time steps is positive.
+     *
+     * @return the fraction of runs where the robustness at the given time steps is positive.
+     */
+    public synchronized double[] getProbability() {
+        long runs = statistics.getN();
+        return Arrays.stream(satisfied).mapToDouble(j -> j / ((double) runs)).toArray();
+    }
+
+    private static class MonitorHandler<S> implements SamplingHandler<S> {
+
+        private final OnlineMonitor<S> monitor;
+
+        private final double[] timeSteps;
+
+        private final Consumer<double[]> recorder;
+
+        private OnlineSignal<S> signal;
+
+        private double[] robustness;
+
+        private int next;
+
+        private double value;
+
+        private MonitorHandler(OnlineMonitor<S> monitor, double[] timeSteps, Consumer<double[]> recorder) {
+            this.monitor = monitor;
+            this.timeSteps = timeSteps;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void start() {
+            this.signal = monitor.start();
+            this.robustness = new double[timeSteps.length];
+            Arrays.fill(this.robustness, Double.NaN);
+            this.next = 0;
+            this.value = Double.NaN;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            if (!isTerminated()) {
+                signal.sample(time, state);
+                collect();
+            }
+        }
+
+        @Override
+        public void end(double time) {
+            if (!isTerminated()) {
+                signal.end(time);
+                collect();
+            }
+            recorder.accept(robustness);
+        }
+
+        private void collect() {
+            Sample<Double> breakpoint;
+            while ((breakpoint = signal.poll()) != null) {
+                while ((next < timeSteps.length) && (timeSteps[next] < breakpoint.getTime())) {
+                    robustness[next++] = value;
+                }
+                value = breakpoint.getValue();
+            }
+            while ((next < timeSteps.length) && signal.isDetermined(timeSteps[next])) {
+                robustness[next++] = value;
+            }
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return next >= timeSteps.length;
+        }
+
+        @Override
+        public boolean retainsStates() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * An online signal is a (piecewise constant) signal that is computed incrementally while the states
+ * of a trajectory are produced. The values of the signal are published as a sequence of breakpoints:
+ * each breakpoint <code>(t, v)</code> indicates that the signal has value <code>v</code> from time
+ * <code>t</code> up to the next breakpoint. The values of the signal are determined for all the time
+ * points before the <i>frontier</i> of the signal. When the trajectory ends, the signal is determined up
+ * to (and including) its end.
+ *
+ * @param <S> type of states in the trajectory
+ */
+public abstract class OnlineSignal<S> {
+
+    private final Deque<Sample<Double>> breakpoints = new ArrayDeque<>();
+
+    private double frontier = 0.0;
+
+    private double end = Double.NaN;
+
+    /**
+     * Records a new state of the monitored trajectory.
+     *
+     * @param time time of the sample
+     * @param state sampled state
+     */
+    public abstract void sample(double time, S state);
+
+    /**
+     * Records that the monitored trajectory ended at the given time.
+     *
+     * @param time the end time of the trajectory
+     */
+    public abstract void end(double time);
+
+    /**
+     * Returns the first breakpoint that has not been consumed yet, or null if no breakpoint is available.
+     *
+     * @return the first breakpoint that has not been consumed yet.
+     */
+    public Sample<Double> peek() {
+        return breakpoints.peekFirst();
+    }
+
+    /**
+     * Removes and returns the first breakpoint that has not been consumed yet, or null if no breakpoint
+     * is available.
+     *
+     * @return the first breakpoint that has not been consumed yet.
+     */
+    public Sample<Double> poll() {
+        return breakpoints.pollFirst();
+    }
+
+    /**
+     * Returns the time before which the values of this signal are determined.
+     *
+     * @return the time before which the values of this signal are determined.
+     */
+    public double getFrontier() {
+        return frontier;
+    }
+
+    /**
+     * Returns true if the monitored trajectory is ended.
+     *
+     * @return true if the monitored trajectory is ended.
+     */
+    public boolean isEnded() {
+        return !Double.isNaN(end);
+    }
+
+    /**
+     * Returns the end time of this signal or {@link Double#NaN} if the monitored trajectory is not ended.
+     *
+     * @return the end time of this signal.
+     */
+    public double getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns true if the value of this signal at the given time is determined.
+     *
+     * @param time a time value
+     * @return true if the value of this signal at the given time is determined.
+     */
+    public boolean isDetermined(double time) {
+        return (isEnded()?time<=end:time<frontier);
+    }
+
+    protected void emit(double time, double value) {
+        breakpoints.add(new Sample<>(time, value));
+    }
+
+    protected void advance(double frontier) {
+        this.frontier = Math.max(this.frontier, frontier);
+    }
+
+    protected void close(double end) {
+        this.end = end;
+        this.frontier = Math.max(this.frontier, end);
+    }
+
+    /**
+     * Returns the online signal obtained by evaluating the given function on each sampled state.
+     *
+     * @param function function used to evaluate states
+     * @return the online signal obtained by evaluating the given function on each sampled state.
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> OnlineSignal<S> of(ToDoubleFunction<S> function) {
+        return new AtomicSignal<>(function);
+    }
+
+    /**
+     * Returns the online signal obtained by applying the given operator to the values of the given signal.
+     *
+     * @param signal an online signal
+     * @param op operator to apply
+     * @return the online signal obtained by applying the given operator to the values of the given signal.
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> OnlineSignal<S> apply(OnlineSignal<S> signal, DoubleUnaryOperator op) {
+        return new UnarySignal<>(signal, op);
+    }
+
+    /**
+     * Returns the online signal obtained by combining the values of the two given signals with the given operator.
+     *
+     * @param s1 first signal
+     * @param op operator used to combine the values of the two signals
+     * @param s2 second signal
+     * @return the online signal obtained by combining the values of the two given signals.
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> OnlineSignal<S> apply(OnlineSignal<S> s1, DoubleBinaryOperator op, OnlineSignal<S> s2) {
+        return new BinarySignal<>(s1, op, s2);
+    }
+
+    /**
+     * Returns the online signal associating each time <code>t</code> with the maximum value that the given signal
+     * has in the interval <code>[t+from, t+to]</code>.
+     *
+     * @param signal an online signal
+     * @param from start of the window
+     * @param to end of the window
+     * @return the online signal associating each time with the maximum value of the given signal in the window.
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> OnlineSignal<S> slidingMax(OnlineSignal<S> signal, double from, double to) {
+        if (from >= to) {
+            throw new IllegalArgumentException("'from' must be less than 'to'");
+        }
+        return new SlidingMaxSignal<>(signal, from, to);
+    }
+
+    /**
+     * Returns the online signal associated with the unbounded until of the two given signals. Since the value of
+     * this signal at a given time depends on the whole future of the trajectory, the values are determined only
+     * when the trajectory ends.
+     *
+     * @param s1 left argument of the until
+     * @param s2 right argument of the until
+     * @return the online signal associated with the unbounded until of the two given signals.
+     * @param <S> type of states in the trajectory
+     */
+    public static <S> OnlineSignal<S> until(OnlineSignal<S> s1, OnlineSignal<S> s2) {
+        return new UntilSignal<>(s1, s2);
+    }
+
+    private static final class AtomicSignal<S> extends OnlineSignal<S> {
+
+        private final ToDoubleFunction<S> function;
+
+        /**
+         * Last sample, that is published only when a sample with a larger time is received (or when the
+         * trajectory ends) since another sample can occur at the same time.
+         */
+        private Sample<Double> current;
+
+        private double last = Double.NaN;
+
+        private AtomicSignal(ToDoubleFunction<S> function) {
+            this.function = function;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            if ((current != null) && (current.getTime() < time)) {
+                publish();
+            }
+            current = new Sample<>(time, function.applyAsDouble(state));
+            advance(time);
+        }
+
+        @Override
+        public void end(double time) {
+            if (current != null) {
+                publish();
+            }
+            close(time);
+        }
+
+        private void publish() {
+            if (Double.compare(current.getValue(), last) != 0) {
+                emit(current.getTime(), current.getValue());
+                last = current.getValue();
+            }
+            current = null;
+        }
+    }
+
+    private static final class UnarySignal<S> extends OnlineSignal<S> {
+
+        private final OnlineSignal<S> signal;
+
+        private final DoubleUnaryOperator op;
+
+        private UnarySignal(OnlineSignal<S> signal, DoubleUnaryOperator op) {
+            this.signal = signal;
+            this.op = op;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            signal.sample(time, state);
+            forward();
+            advance(signal.getFrontier());
+        }
+
+        @Override
+        public void end(double time) {
+            signal.end(time);
+            forward();
+            close(signal.getEnd());
+        }
+
+        private void forward() {
+            Sample<Double> next;
+            while ((next = signal.poll()) != null) {
+                emit(next.getTime(), op.applyAsDouble(next.getValue()));
+            }
+        }
+    }
+
+    private static final class BinarySignal<S> extends OnlineSignal<S> {
+
+        private final OnlineSignal<S> s1;
+
+        private final DoubleBinaryOperator op;
+
+        private final OnlineSignal<S> s2;
+
+        private double v1 = Double.NaN;
+
+        private double v2 = Double.NaN;
+
+        private double last = Double.NaN;
+
+        private BinarySignal(OnlineSignal<S> s1, DoubleBinaryOperator op, OnlineSignal<S> s2) {
+            this.s1 = s1;
+            this.op = op;
+            this.s2 = s2;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            s1.sample(time, state);
+            s2.sample(time, state);
+            double limit = Math.min(s1.getFrontier(), s2.getFrontier());
+            combine(limit, false);
+            advance(limit);
+        }
+
+        @Override
+        public void end(double time) {
+            s1.end(time);
+            s2.end(time);
+            double limit = Math.min(s1.getEnd(), s2.getEnd());
+            combine(limit, true);
+            close(limit);
+        }
+
+        private void combine(double limit, boolean inclusive) {
+            while (true) {
+                double time = Math.min(timeOf(s1.peek()), timeOf(s2.peek()));
+                if ((time == Double.POSITIVE_INFINITY) || (inclusive ? time > limit : time >= limit)) {
+                    return;
+                }
+                while (timeOf(s1.peek()) == time) {
+                    v1 = s1.poll().getValue();
+                }
+                while (timeOf(s2.peek()) == time) {
+                    v2 = s2.poll().getValue();
+                }
+                double value = op.applyAsDouble(v1, v2);
+                if (Double.compare(value, last) != 0) {
+                    emit(time, value);
+                    last = value;
+                }
+            }
+        }
+    }
+
+    private static final class SlidingMaxSignal<S> extends OnlineSignal<S> {
+
+        private final OnlineSignal<S> signal;
+
+        private final double from;
+
+        private final double to;
+
+        /**
+         * Breakpoints of the monitored signal that are not entered yet in the window.
+         */
+        private final Deque<Sample<Double>> pending = new ArrayDeque<>();
+
+        /**
+         * Segments of the monitored signal that are in the window: each element contains the time at which
+         * the segment leaves the window and its value.
+         */
+        private final Deque<double[]> window = new ArrayDeque<>();
+
+        /**
+         * Monotone (non increasing) deque of the segments in the window. Its first element is the maximum
+         * value in the window.
+         */
+        private final Deque<double[]> maxima = new ArrayDeque<>();
+
+        private double last = Double.NaN;
+
+        private SlidingMaxSignal(OnlineSignal<S> signal, double from, double to) {
+            this.signal = signal;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            signal.sample(time, state);
+            double limit = signal.getFrontier() - to;
+            slide(limit, false);
+            advance(Math.max(0.0, limit));
+        }
+
+        @Override
+        public void end(double time) {
+            signal.end(time);
+            double limit = signal.getEnd() - from;
+            slide(limit, true);
+            close(limit);
+        }
+
+        private void slide(double limit, boolean inclusive) {
+            Sample<Double> next;
+            while ((next = signal.poll()) != null) {
+                pending.add(next);
+            }
+            while (true) {
+                double time = Math.max(0.0, Math.min(nextEntry(), nextExit()));
+                if ((time == Double.POSITIVE_INFINITY) || (inclusive ? time > limit : time >= limit)) {
+                    return;
+                }
+                while (!pending.isEmpty() && (Math.max(0.0, nextEntry()) == time)) {
+                    enter(pending.poll());
+                }
+                while (!window.isEmpty() && (Math.max(0.0, nextExit()) == time)) {
+                    exit();
+                }
+                double value = maxima.getFirst()[1];
+                if (Double.compare(value, last) != 0) {
+                    emit(time, value);
+                    last = value;
+                }
+            }
+        }
+
+        private double nextEntry() {
+            return (pending.isEmpty() ? Double.POSITIVE_INFINITY : pending.getFirst().getTime() - to);
+        }
+
+        private double nextExit() {
+            return (window.isEmpty() ? Double.POSITIVE_INFINITY : window.getFirst()[0]);
+        }
+
+        private void enter(Sample<Double> breakpoint) {
+            if (!window.isEmpty()) {
+                window.getLast()[0] = breakpoint.getTime() - from;
+            }
+            double[] segment = new double[]{Double.POSITIVE_INFINITY, breakpoint.getValue()};
+            window.add(segment);
+            while (!maxima.isEmpty() && (maxima.getLast()[1] <= segment[1])) {
+                maxima.removeLast();
+            }
+            maxima.add(segment);
+        }
+
+        private void exit() {
+            double[] segment = window.removeFirst();
+            if (maxima.getFirst() == segment) {
+                maxima.removeFirst();
+            }
+        }
+    }
+
+    private static final class UntilSignal<S> extends OnlineSignal<S> {
+
+        private final OnlineSignal<S> s1;
+
+        private final OnlineSignal<S> s2;
+
+        private final List<double[]> steps = new ArrayList<>();
+
+        private double v1 = Double.NaN;
+
+        private double v2 = Double.NaN;
+
+        private UntilSignal(OnlineSignal<S> s1, OnlineSignal<S> s2) {
+            this.s1 = s1;
+            this.s2 = s2;
+        }
+
+        @Override
+        public void sample(double time, S state) {
+            s1.sample(time, state);
+            s2.sample(time, state);
+            collect(Math.min(s1.getFrontier(), s2.getFrontier()), false);
+        }
+
+        @Override
+        public void end(double time) {
+            s1.end(time);
+            s2.end(time);
+            double limit = Math.min(s1.getEnd(), s2.getEnd());
+            collect(limit, true);
+            double[] values = new double[steps.size()];
+            double next = Double.NEGATIVE_INFINITY;
+            for (int i = steps.size() - 1; i >= 0; i--) {
+                values[i] = Math.max(steps.get(i)[2], Math.min(steps.get(i)[1], next));
+                next = values[i];
+            }
+            for (int i = 0; i < values.length; i++) {
+                emit(steps.get(i)[0], values[i]);
+            }
+            close(limit);
+        }
+
+        private void collect(double limit, boolean inclusive) {
+            while (true) {
+                double time = Math.min(timeOf(s1.peek()), timeOf(s2.peek()));
+                if ((time == Double.POSITIVE_INFINITY) || (inclusive ? time > limit : time >= limit)) {
+                    return;
+                }
+                while (timeOf(s1.peek()) == time) {
+                    v1 = s1.poll().getValue();
+                }
+                while (timeOf(s2.peek()) == time) {
+                    v2 = s2.poll().getValue();
+                }
+                steps.add(new double[]{time, v1, v2});
+            }
+        }
+    }
+
+    private static double timeOf(Sample<Double> breakpoint) {
+        return (breakpoint == null ? Double.POSITIVE_INFINITY : breakpoint.getTime());
+    }
+}
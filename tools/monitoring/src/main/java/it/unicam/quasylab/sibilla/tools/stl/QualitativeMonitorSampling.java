@@ -0,0 +1,166 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * This class is used to evaluate a {@link QualitativeMonitor} on trajectories generated by a
+ * {@link it.unicam.quasylab.sibilla.core.simulator.SimulationManager}. Each simulation run is handled by a
+ * {@link SamplingHandler} that collects the trajectory and, when the run ends, evaluates the monitor at the given
+ * time steps. Evaluations of the different runs are aggregated to compute the satisfaction probability at each
+ * time step. Runs can be handled concurrently.
+ *
+ * @param <S> type of states in the trajectory
+ */
+public class QualitativeMonitorSampling<S> implements Supplier<SamplingHandler<S>> {
+
+    private final QualitativeMonitor<S> monitor;
+
+    private final double[] timeSteps;
+
+    private final double deadline;
+
+    private final int[] satisfied;
+
+    private int runs;
+
+    /**
+     * Creates a new object used to evaluate the given monitor at the given time steps on trajectories
+     * ending at the given deadline.
+     *
+     * @param monitor the monitor to evaluate
+     * @param timeSteps the time steps where the monitor is evaluated
+     * @param deadline the end of the monitored trajectories
+     */
+    public QualitativeMonitorSampling(QualitativeMonitor<S> monitor, double[] timeSteps, double deadline) {
+        this.monitor = monitor;
+        this.timeSteps = timeSteps;
+        this.deadline = deadline;
+        this.satisfied = new int[timeSteps.length];
+    }
+
+    /**
+     * Creates a new object used to evaluate the given monitor on trajectories ending at the given deadline.
+     * The monitor is evaluated at the time steps generated with increments of dt from 0 to the deadline minus
+     * the time horizon of the monitor.
+     *
+     * @param monitor the monitor to evaluate
+     * @param dt the time step increment
+     * @param deadline the end of the monitored trajectories
+     */
+    public QualitativeMonitorSampling(QualitativeMonitor<S> monitor, double dt, double deadline) {
+        this(monitor, generateTimeSteps(dt, deadline - monitor.getTimeHorizon()), deadline);
+    }
+
+    private static double[] generateTimeSteps(double dt, double deadline) {
+        int stepsCount = (int) Math.ceil(deadline / dt)+1;
+        double[] timeSteps = new double[stepsCount];
+        for (int i = 0; i < stepsCount; i++) {
+            timeSteps[i] = i * dt;
+        }
+        return timeSteps;
+    }
+
+    /**
+     * Returns the end of the monitored trajectories.
+     *
+     * @return the end of the monitored trajectories.
+     */
+    public double getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public SamplingHandler<S> get() {
+        return new SamplingHandler<>() {
+
+            private Trajectory<S> trajectory;
+
+            @Override
+            public void start() {
+                this.trajectory = new Trajectory<>();
+            }
+
+            @Override
+            public void sample(double time, S state) {
+                this.trajectory.add(time, state);
+            }
+
+            @Override
+            public void end(double time) {
+                trajectory.setEnd(deadline);
+                record(monitor.monitor(trajectory).getValuesAt(timeSteps));
+            }
+        };
+    }
+
+    private synchronized void record(boolean[] evaluations) {
+        runs++;
+        for (int i = 0; i < evaluations.length; i++) {
+            if (evaluations[i]) {
+                satisfied[i]++;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of monitored runs.
+     *
+     * @return the number of monitored runs.
+     */
+    public synchronized int getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the fraction of runs where the monitor is satisfied at the given time steps.
+     *
+     * @return the fraction of runs where the monitor is satisfied at the given time steps.
+     */
+    public synchronized double[] getProbability() {
+        return Arrays.stream(satisfied).mapToDouble(j -> j / ((double) runs)).toArray();
+    }
+
+    /**
+     * Returns the fraction of runs where the monitor is satisfied at the given time steps.
+     *
+     * @return a double[][] array where:
+     *         - results[i][0] is the time step
+     *         - results[i][1] is the probability of the monitor satisfaction at the time step
+     */
+    public synchronized double[][] getTimeSeriesProbabilities() {
+        double[] probabilities = getProbability();
+        double[][] results = new double[timeSteps.length][2];
+        for (int i = 0; i < timeSteps.length; i++) {
+            results[i][0] = timeSteps[i];
+            results[i][1] = probabilities[i];
+        }
+        return results;
+    }
+}
@@ -24,22 +24,23 @@
 
 package it.unicam.quasylab.sibilla.tools.stl;
 
-import it.unicam.quasylab.sibilla.core.simulator.sampling.Sample;
 import it.unicam.quasylab.sibilla.core.util.Signal;
 import it.unicam.quasylab.sibilla.core.util.SignalSegment;
-import java.util.Deque;
-import java.util.LinkedList;
 
 /**
- * The SlidingWindow class implements a sliding window algorithm for signal processing.
- * It maintains a window of samples and updates the signal based on the samples within the window.
+ * The SlidingWindow class computes, for each time <code>t</code>, the supremum of a signal in the window
+ * <code>[t+from, t+to]</code>. The result is defined from the start of the signal up to <code>end-to</code>, where
+ * <code>end</code> is the end of the signal, so that each window is fully contained in the signal. When the signal is
+ * shorter than the window, the result only contains the supremum at the start of the signal of the part of the
+ * window that is in the signal.
+ * <br>
+ * A segment <code>[a, b)</code> of the signal enters the window at time <code>a-to</code> and leaves it at time
+ * <code>b-from</code>. The segments in the window are kept in a monotone (non increasing) deque of indices, so that
+ * each segment is inserted and removed at most once.
  */
 public class SlidingWindow {
     private final double from;
     private final double to;
-    private final Deque<Sample<Double>> content = new LinkedList<>();
-    private double windowEnd = Double.NaN;
-    private Sample<Double> lastRemoved;
 
     /**
      * Constructs a SlidingWindow with the specified start and end times.
@@ -64,130 +65,55 @@ public class SlidingWindow {
      */
     public Signal apply(Signal s) {
         Signal result = new Signal();
-        Signal extractedSignal = s.extract(from);
-        for (SignalSegment sample : extractedSignal) {
-            add(result, sample);
+        double start = s.getStart();
+        if (!(start + from <= s.getEnd())) {
+            return result;
         }
-        end(result, s.getEnd());
-        return result;
-    }
-
-    /**
-     * Calculates the size of the sliding window.
-     *
-     * @return The size of the sliding window.
-     */
-    private double getSize() {
-        return to - from;
-    }
-
-    /**
-     * Adds a new sample from a SignalSegment to the sliding window.
-     *
-     * @param result The result signal being built.
-     * @param sample The SignalSegment containing the new sample.
-     */
-    private void add(Signal result, SignalSegment sample) {
-        add(result, sample.getFrom(), sample.getValue());
-    }
-
-    /**
-     * Adds a new sample to the sliding window.
-     *
-     * @param result The result signal being built.
-     * @param nextTime The time of the new sample.
-     * @param nextValue The value of the new sample.
-     */
-    private void add(Signal result, double nextTime, double nextValue) {
-        removeOutdatedSamples(result, nextTime);
-        addNewSample(nextTime, nextValue);
-    }
-
-    /**
-     * Removes samples that are no longer within the sliding window.
-     *
-     * @param result The result signal being built.
-     * @param nextTime The time of the next sample to be added.
-     */
-    private void removeOutdatedSamples(Signal result, double nextTime) {
-        //while (!content.isEmpty() && (Math.log(getFirstTimeInWindow() + getSize()) < Math.log(nextTime))) {
-        while (!content.isEmpty() && (getFirstTimeInWindow() + getSize() < nextTime)) {
-            Sample<Double> firstSample = content.removeFirst();
-            result.add(firstSample.getTime() - from, firstSample.getValue());
-            lastRemoved = firstSample;
-            reinsertIfNeeded(nextTime);
+        double end = Math.max(start, s.getEnd() - to);
+        int size = s.size();
+        double[] entries = new double[size];
+        double[] exits = new double[size];
+        boolean[] rightClosed = new boolean[size];
+        double[] values = new double[size];
+        int k = 0;
+        for (SignalSegment segment : s) {
+            entries[k] = segment.getFrom() - to;
+            exits[k] = segment.getTo() - from;
+            rightClosed[k] = segment.isClosedOnRight();
+            values[k] = segment.getValue();
+            k++;
         }
-    }
-
-
-
-    /**
-     * Reinserts the last removed sample if necessary to maintain window consistency.
-     *
-     * @param nextTime The time of the next sample to be added.
-     */
-    private void reinsertIfNeeded(double nextTime) {
-        if (content.isEmpty()) {
-            content.add(new Sample<>(nextTime - getSize(), lastRemoved.getValue()));
-        } else {
-            double delta1 = getFirstTimeInWindow() - lastRemoved.getTime();
-            double delta2 = nextTime - windowEnd;
-            if (delta1 > delta2) {
-                content.addFirst(new Sample<>(lastRemoved.getTime() + delta2, lastRemoved.getValue()));
+        int[] maxima = new int[size];
+        int head = 0;
+        int tail = 0;
+        int nextEntry = 0;
+        int nextExit = 0;
+        double time = start;
+        while (time <= end) {
+            while ((nextEntry < size) && (entries[nextEntry] <= time)) {
+                while ((tail > head) && (values[maxima[tail - 1]] <= values[nextEntry])) {
+                    tail--;
+                }
+                maxima[tail++] = nextEntry++;
             }
-        }
-    }
-
-    /**
-     * Adds a new sample to the sliding window, removing any samples with lower or equal values.
-     *
-     * @param nextTime The time of the new sample.
-     * @param nextValue The value of the new sample.
-     */
-    private void addNewSample(double nextTime, double nextValue) {
-        double timeOfInsertedElement = nextTime;
-        while (!content.isEmpty() && (getLastValue() <= nextValue)) {
-            Sample<Double> lastSampling = content.removeLast();
-            timeOfInsertedElement = lastSampling.getTime();
-        }
-        content.add(new Sample<>(timeOfInsertedElement, nextValue));
-        windowEnd = nextTime;
-    }
-
-    /**
-     * Finalizes the sliding window processing and adds any remaining samples to the result signal.
-     *
-     * @param result The result signal being built.
-     * @param end The end time of the signal.
-     */
-    private void end(Signal result, double end) {
-        if (end > windowEnd) {
-            add(result, end, getLastValue());
-            if (getFirstTimeInWindow() + getSize() >= windowEnd) {
-                Sample<Double> firstSample = content.getFirst();
-                result.add(firstSample.getTime() - from, firstSample.getValue());
+            while ((nextExit < nextEntry) && ((exits[nextExit] < time) || (!rightClosed[nextExit] && (exits[nextExit] == time)))) {
+                nextExit++;
+            }
+            while ((head < tail) && (maxima[head] < nextExit)) {
+                head++;
             }
+            result.add(time, values[maxima[head]]);
+            // A segment closed on the right is still in the window when it reaches its exit time.
+            int exit = nextExit;
+            while ((exit < size) && (exits[exit] <= time)) {
+                exit++;
+            }
+            time = Math.min(
+                    (nextEntry < size ? entries[nextEntry] : Double.POSITIVE_INFINITY),
+                    (exit < size ? exits[exit] : Double.POSITIVE_INFINITY));
         }
+        result.setEnd(end);
+        return result;
     }
 
-    /**
-     * Gets the time of the first sample in the window.
-     *
-     * @return The time of the first sample, or Double.NaN if the window is empty.
-     */
-    private double getFirstTimeInWindow() {
-        return content.isEmpty() ? Double.NaN : content.getFirst().getTime();
-    }
-
-    /**
-     * Gets the value of the last sample in the window.
-     *
-     * @return The value of the last sample, the value of the last removed sample if the window is empty,
-     *         or Double.NaN if there are no samples.
-     */
-    private double getLastValue() {
-        if (!content.isEmpty()) return content.getLast().getValue();
-        if (lastRemoved != null) return lastRemoved.getValue();
-        return Double.NaN;
-    }
-}
\ No newline at end of file
+}
@@ -37,14 +37,17 @@ public class StlMonitorFactory<S> {
 
     private final Map<String, Function<Map<String, Double>, QuantitativeMonitor<S>>> quantitativeMonitors = new HashMap<>();
 
+    private final Map<String, Function<Map<String, Double>, OnlineMonitor<S>>> onlineMonitors = new HashMap<>();
+
     private final Map<String, Map<String, ToDoubleFunction<Map<String, Double>>>> monitors = new HashMap<>();
 
 
 
-    public void addMonitor(String name, Map<String, ToDoubleFunction<Map<String, Double>>> args, Function<Map<String, Double>, QualitativeMonitor<S>> qualitativeMonitorFactory, Function<Map<String, Double>, QuantitativeMonitor<S>> quantitativeMonitorFactory) {
+    public void addMonitor(String name, Map<String, ToDoubleFunction<Map<String, Double>>> args, Function<Map<String, Double>, QualitativeMonitor<S>> qualitativeMonitorFactory, Function<Map<String, Double>, QuantitativeMonitor<S>> quantitativeMonitorFactory, Function<Map<String, Double>, OnlineMonitor<S>> onlineMonitorFactory) {
         this.monitors.put(name, args);
         this.qualitativeMonitors.put(name, qualitativeMonitorFactory);
         this.quantitativeMonitors.put(name, quantitativeMonitorFactory);
+        this.onlineMonitors.put(name, onlineMonitorFactory);
     }
 
     public QualitativeMonitor<S> getQualitativeMonitor(String name) {
@@ -65,6 +68,15 @@ public class StlMonitorFactory<S> {
         return quantitativeMonitors.get(name).apply(argumentMapping);
     }
 
+    public OnlineMonitor<S> getOnlineMonitor(String name) {
+        return getOnlineMonitor(name, new HashMap<>());
+    }
+
+    public OnlineMonitor<S> getOnlineMonitor(String name, Map<String, Double> args) {
+        Map<String, Double> argumentMapping = getArgumentMapping(name, args);
+        return onlineMonitors.get(name).apply(argumentMapping);
+    }
+
     private Map<String, Double> getArgumentMapping(String name, Map<String, Double> args) {
         if (!monitors.containsKey(name)) {
             throw new IllegalArgumentException("Monitor " + name + " does not exist.");
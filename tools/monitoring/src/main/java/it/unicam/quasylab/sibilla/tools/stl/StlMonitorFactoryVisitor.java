@@ -88,7 +88,7 @@ public class StlMonitorFactoryVisitor<S> extends StlModelBaseVisitor<Boolean> {
             parameters.put(paramName, paramFunction);
         });
         monitorFactory.addMonitor(name, parameters,
-                getQualitativeMonitor(ctx.formula), getQuantitativeMonitor(ctx.formula));
+                getQualitativeMonitor(ctx.formula), getQuantitativeMonitor(ctx.formula), getOnlineMonitor(ctx.formula));
         return true;
     }
 
@@ -96,6 +96,10 @@ public class StlMonitorFactoryVisitor<S> extends StlModelBaseVisitor<Boolean> {
         return formula.accept(new StlQuantitativeMonitorEvaluator<>(measures));
     }
 
+    private Function<Map<String, Double>, OnlineMonitor<S>> getOnlineMonitor(StlModelParser.StlFormulaContext formula) {
+        return formula.accept(new StlOnlineMonitorEvaluator<>(measures));
+    }
+
     private Function<Map<String, Double>, QualitativeMonitor<S>> getQualitativeMonitor(StlModelParser.StlFormulaContext formula) {
         return formula.accept(new StlQualitativeMonitorEvaluator<>(measures));
     }
@@ -0,0 +1,221 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.models.pm.PopulationState;
+import it.unicam.quasylab.sibilla.core.simulator.Trajectory;
+import it.unicam.quasylab.sibilla.core.simulator.sampling.SamplingHandler;
+import it.unicam.quasylab.sibilla.core.util.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static it.unicam.quasylab.sibilla.tools.stl.CommonForMonitorTesting.getPopulationTrajectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OnlineMonitorTest {
+
+    private static final double[] TIME_STEPS = IntStream.range(0, 20).mapToDouble(i -> 0.25 + i * 0.5).toArray();
+
+    private Trajectory<PopulationState> randomTrajectory(Random random) {
+        return getPopulationTrajectory(
+                random.doubles(30, 0.25, 1.25).toArray(),
+                random.ints(30, 0, 10).toArray(),
+                random.ints(30, 0, 10).toArray()
+        );
+    }
+
+    private void assertSameRobustness(QuantitativeMonitor<PopulationState> expected, OnlineMonitor<PopulationState> actual) {
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            Trajectory<PopulationState> trajectory = randomTrajectory(random);
+            assertArrayEquals(expected.monitor(trajectory).valuesAt(TIME_STEPS), evaluate(actual, trajectory), 1e-9);
+        }
+    }
+
+    private void assertRobustness(Function<int[], DoubleUnaryOperator> expected, OnlineMonitor<PopulationState> actual) {
+        Random random = new Random(42);
+        for (int i = 0; i < 10; i++) {
+            int[] values = random.ints(30, 0, 10).toArray();
+            DoubleUnaryOperator robustness = expected.apply(values);
+            assertArrayEquals(Arrays.stream(TIME_STEPS).map(robustness).toArray(), evaluate(actual, getPopulationTrajectory(values)), 1e-9);
+        }
+    }
+
+    private double[] evaluate(OnlineMonitor<PopulationState> monitor, Trajectory<PopulationState> trajectory) {
+        OnlineMonitorSampling<PopulationState> sampling = new OnlineMonitorSampling<>(monitor, TIME_STEPS);
+        trajectory.sample(sampling.get());
+        return sampling.getMeanRobustness();
+    }
+
+    /**
+     * Maximum of the given step function (with steps at multiples of 0.5) in the interval [from, to].
+     */
+    private static double sup(DoubleUnaryOperator f, double from, double to) {
+        return DoubleStream.iterate(from, u -> u <= to, u -> u + 0.125).map(f).max().orElse(Double.NaN);
+    }
+
+    private static DoubleUnaryOperator atomic(int[] values, double threshold) {
+        return t -> values[(int) Math.floor(t)] - threshold;
+    }
+
+    private static DoubleUnaryOperator eventually(DoubleUnaryOperator f, double a, double b) {
+        return t -> sup(f, t + a, t + b);
+    }
+
+    private static DoubleUnaryOperator globally(DoubleUnaryOperator f, double a, double b) {
+        return t -> -sup(u -> -f.applyAsDouble(u), t + a, t + b);
+    }
+
+    @Test
+    public void testAtomicFormula() {
+        assertSameRobustness(
+                QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0)
+        );
+    }
+
+    @Test
+    public void testConjunctionAndDisjunction() {
+        assertSameRobustness(
+                QuantitativeMonitor.conjunction(
+                        QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        QuantitativeMonitor.negation(QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0))),
+                OnlineMonitor.conjunction(
+                        OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        OnlineMonitor.negation(OnlineMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0)))
+        );
+        assertSameRobustness(
+                QuantitativeMonitor.implication(
+                        QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0)),
+                OnlineMonitor.implication(
+                        OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        OnlineMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0))
+        );
+    }
+
+    @Test
+    public void testEventually() {
+        assertRobustness(
+                values -> eventually(atomic(values, 3.0), 1.0, 3.0),
+                OnlineMonitor.eventually(new Interval(1.0, 3.0), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0))
+        );
+    }
+
+    @Test
+    public void testGlobally() {
+        assertRobustness(
+                values -> globally(atomic(values, 3.0), 0.5, 2.0),
+                OnlineMonitor.globally(new Interval(0.5, 2.0), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0))
+        );
+    }
+
+    @Test
+    public void testNestedTemporalOperators() {
+        assertRobustness(
+                values -> eventually(globally(atomic(values, 4.0), 0.0, 1.5), 0.0, 4.0),
+                OnlineMonitor.eventually(new Interval(0.0, 4.0),
+                        OnlineMonitor.globally(new Interval(0.0, 1.5), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 4.0)))
+        );
+    }
+
+    @Test
+    public void testEventuallyIsTheSameOfTheOfflineMonitor() {
+        assertSameRobustness(
+                QuantitativeMonitor.eventually(new Interval(1.0, 3.0), QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0)),
+                OnlineMonitor.eventually(new Interval(1.0, 3.0), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0))
+        );
+        assertSameRobustness(
+                QuantitativeMonitor.eventually(new Interval(0.0, 2.5), QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0)),
+                OnlineMonitor.eventually(new Interval(0.0, 2.5), OnlineMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0))
+        );
+    }
+
+    @Test
+    public void testGloballyIsTheSameOfTheOfflineMonitor() {
+        assertSameRobustness(
+                QuantitativeMonitor.globally(new Interval(0.5, 2.0), QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0)),
+                OnlineMonitor.globally(new Interval(0.5, 2.0), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0))
+        );
+    }
+
+    @Test
+    public void testNestedTemporalOperatorsAreTheSameOfTheOfflineMonitor() {
+        assertSameRobustness(
+                QuantitativeMonitor.eventually(new Interval(0.0, 4.0),
+                        QuantitativeMonitor.conjunction(
+                                QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(1) - 2.0),
+                                QuantitativeMonitor.globally(new Interval(0.0, 1.5), QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 4.0)))),
+                OnlineMonitor.eventually(new Interval(0.0, 4.0),
+                        OnlineMonitor.conjunction(
+                                OnlineMonitor.atomicFormula(s -> s.getOccupancy(1) - 2.0),
+                                OnlineMonitor.globally(new Interval(0.0, 1.5), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 4.0))))
+        );
+    }
+
+    @Test
+    public void testUntil() {
+        assertSameRobustness(
+                QuantitativeMonitor.until(
+                        QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        new Interval(0.0, 2.0),
+                        QuantitativeMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0)),
+                OnlineMonitor.until(
+                        OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0),
+                        new Interval(0.0, 2.0),
+                        OnlineMonitor.atomicFormula(s -> s.getOccupancy(1) - 5.0))
+        );
+    }
+
+    @Test
+    public void testRunIsTerminatedWhenRobustnessIsDetermined() {
+        int[] values = new Random(42).ints(30, 0, 10).toArray();
+        Trajectory<PopulationState> trajectory = getPopulationTrajectory(values);
+        OnlineMonitorSampling<PopulationState> sampling = new OnlineMonitorSampling<>(
+                OnlineMonitor.eventually(new Interval(0.0, 3.0), OnlineMonitor.atomicFormula(s -> s.getOccupancy(0) - 3.0)),
+                new double[]{0.0, 2.0});
+        SamplingHandler<PopulationState> handler = sampling.get();
+        handler.start();
+        int steps = 0;
+        for (var sample : trajectory) {
+            if (handler.isTerminated()) {
+                break;
+            }
+            handler.sample(sample.getTime(), sample.getValue());
+            steps++;
+        }
+        handler.end(trajectory.getEnd());
+        assertEquals(7, steps);
+        assertEquals(5.0, sampling.getDeadline());
+        assertEquals(1, sampling.getRuns());
+        DoubleUnaryOperator expected = eventually(atomic(values, 3.0), 0.0, 3.0);
+        assertArrayEquals(new double[]{expected.applyAsDouble(0.0), expected.applyAsDouble(2.0)}, sampling.getMeanRobustness(), 1e-9);
+    }
+
+}
@@ -32,6 +32,7 @@ import it.unicam.quasylab.sibilla.tools.stl.QualitativeMonitor;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.function.Supplier;
@@ -256,6 +257,25 @@ class QualitativeMonitorTest {
         assertEquals(0.66, probabilities[0], 0.2);
     }
 
+    @Test
+    public void testProbabilityWithSampling() {
+        List<Trajectory<PopulationState>> trajectoryList = new ArrayList<>();
+        trajectoryList.add(getPopulationTrajectory(new int[]{3,3,3,1,1}));
+        trajectoryList.add(getPopulationTrajectory(new int[]{3,3,3,3,3}));
+        trajectoryList.add(getPopulationTrajectory(new int[]{1,1,1,1,1}));
+        QualitativeMonitor<PopulationState> atomicMonitor =
+                QualitativeMonitor.atomicFormula( (PopulationState s) -> s.getOccupancy(0) == 3 );
+        double[] timeSteps = {0.0, 1.0, 2.0, 3.0, 4.0};
+        QualitativeMonitorSampling<PopulationState> sampling = new QualitativeMonitorSampling<>(atomicMonitor, timeSteps, 5.0);
+        trajectoryList.parallelStream().forEach(trj -> trj.sample(sampling.get()));
+        Iterator<Trajectory<PopulationState>> iterator = trajectoryList.iterator();
+        double[] expected = QualitativeMonitor.computeProbability(atomicMonitor, iterator::next, trajectoryList.size(), timeSteps);
+        assertEquals(3, sampling.getRuns());
+        assertArrayEquals(expected, sampling.getProbability(), 1e-9);
+        assertEquals(2.0/3, sampling.getProbability()[0], 1e-9);
+        assertEquals(1.0/3, sampling.getProbability()[4], 1e-9);
+    }
+
     @Test
     public void testProbabilityWithDoubleArray() {
         Supplier<Trajectory<PopulationState>> trajectorySupplier = () -> {
@@ -0,0 +1,125 @@
+/*
+ * Sibilla:  a Java framework designed to support analysis of Collective
+ * Adaptive Systems.
+ *
+ *             Copyright (C) 2020.
+ *
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *            http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ *  or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package it.unicam.quasylab.sibilla.tools.stl;
+
+import it.unicam.quasylab.sibilla.core.util.Signal;
+import it.unicam.quasylab.sibilla.core.util.SignalSegment;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowTest {
+
+    private static Signal randomSignal(Random random) {
+        Signal signal = new Signal();
+        double time = 0.0;
+        int size = 1 + random.nextInt(20);
+        for (int i = 0; i < size; i++) {
+            signal.add(time, random.nextInt(10));
+            time += (random.nextBoolean() ? 1.0 + random.nextInt(3) : 0.25 + 2.5 * random.nextDouble());
+        }
+        signal.setEnd(time);
+        return signal;
+    }
+
+    /**
+     * Supremum of the given signal in the interval [from, to], computed directly from its definition.
+     */
+    private static double sup(Signal signal, double from, double to) {
+        double result = Double.NEGATIVE_INFINITY;
+        for (SignalSegment segment : signal) {
+            boolean beforeEnd = (segment.getFrom() <= to);
+            boolean afterStart = (segment.isClosedOnRight() ? segment.getTo() >= from : segment.getTo() > from);
+            if (beforeEnd && afterStart) {
+                result = Math.max(result, segment.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static void assertSlidingSup(Signal signal, double a, double b, double t) {
+        double expected = sup(signal, t + a, t + b);
+        assertEquals(expected, new SlidingWindow(a, b).apply(signal).valueAt(t), 1e-12,
+                "t=" + t + ", window [" + a + "," + b + "], signal " + signal);
+    }
+
+    @Test
+    void slidingSupShouldMatchItsDefinition() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            Signal signal = randomSignal(random);
+            double a = random.nextInt(4) * 0.5;
+            double b = a + 0.5 + random.nextInt(6) * 0.5;
+            Signal result = new SlidingWindow(a, b).apply(signal);
+            double end = signal.getEnd() - b;
+            if (signal.getEnd() < a) {
+                assertEquals(0, result.size());
+                continue;
+            }
+            if (end < 0) {
+                assertEquals(0.0, result.getEnd());
+                assertSlidingSup(signal, a, b, 0.0);
+                continue;
+            }
+            assertEquals(end, result.getEnd(), 1e-12);
+            for (SignalSegment segment : signal) {
+                for (double t : new double[]{segment.getFrom() - b, segment.getTo() - a, segment.getFrom() - a, segment.getTo() - b}) {
+                    for (double u : new double[]{t - 0.01, t + 0.01}) {
+                        if ((0 <= u) && (u <= end)) {
+                            assertSlidingSup(signal, a, b, u);
+                        }
+                    }
+                }
+            }
+            for (int j = 0; j < 20; j++) {
+                assertSlidingSup(signal, a, b, end * random.nextDouble());
+            }
+        }
+    }
+
+    @Test
+    void slidingSupShouldBeDefinedUpToTheLastFullWindow() {
+        Signal signal = new Signal(new double[]{0, 1, 2, 3, 4, 5, 6, 7}, new double[]{-1, -1, -1, -1, 1, 2, 1, 1});
+        signal.setEnd(8);
+        Signal result = new SlidingWindow(1, 3).apply(signal);
+        assertEquals(5.0, result.getEnd());
+        assertEquals(-1.0, result.valueAt(0.0));
+        assertEquals(1.0, result.valueAt(1.0));
+        assertEquals(2.0, result.valueAt(2.0));
+        assertEquals(2.0, result.valueAt(4.5));
+        assertEquals(1.0, result.valueAt(5.0));
+    }
+
+    @Test
+    void slidingSupOfShortSignalsShouldConsiderTheAvailablePart() {
+        Signal signal = new Signal(new double[]{0, 1, 2}, new double[]{1, 3, 2});
+        signal.setEnd(3);
+        Signal result = new SlidingWindow(1, 5).apply(signal);
+        assertEquals(0.0, result.getEnd());
+        assertEquals(3.0, result.valueAt(0.0));
+        assertEquals(0, new SlidingWindow(4, 5).apply(signal).size());
+    }
+
+}